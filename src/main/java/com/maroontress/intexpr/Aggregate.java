@@ -0,0 +1,153 @@
+package com.maroontress.intexpr;
+
+/**
+    The aggregation of the values of an expression over the rows, which are
+    the number of the rows, the number of the rows where the value is
+    non-zero, and the sum, minimum, and maximum of the values.
+
+    <p>Like {@link java.util.IntSummaryStatistics}, the minimum and maximum
+    of no rows are {@link Integer#MAX_VALUE} and {@link Integer#MIN_VALUE},
+    respectively. The sum is a {@code long} value, so it does not overflow
+    unless the number of the rows exceeds {@code 2}<sup>{@code 32}</sup>.</p>
+
+    <p>The partial aggregations of the disjoint sets of the rows can be
+    merged with {@link #merge(Aggregate)} into that of their union.</p>
+
+    <p>The {@link Aggregate} object is immutable.</p>
+
+    @see CompiledAggregator
+*/
+public final class Aggregate {
+
+    /** The aggregation of no rows. */
+    public static final Aggregate EMPTY = new Aggregate(
+            0, 0, 0, Integer.MAX_VALUE, Integer.MIN_VALUE);
+
+    private final long count;
+    private final long nonZeroCount;
+    private final long sum;
+    private final int min;
+    private final int max;
+
+    /**
+        Creates a new instance.
+
+        @param count The number of the rows.
+        @param nonZeroCount The number of the rows where the value is
+            non-zero.
+        @param sum The sum of the values.
+        @param min The minimum of the values.
+        @param max The maximum of the values.
+    */
+    Aggregate(long count, long nonZeroCount, long sum, int min, int max) {
+        this.count = count;
+        this.nonZeroCount = nonZeroCount;
+        this.sum = sum;
+        this.min = min;
+        this.max = max;
+    }
+
+    /**
+        Returns the number of the rows.
+
+        @return The number of the rows.
+    */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+        Returns the number of the rows where the value is non-zero.
+
+        @return The number of the rows where the value is non-zero.
+    */
+    public long getNonZeroCount() {
+        return nonZeroCount;
+    }
+
+    /**
+        Returns the sum of the values.
+
+        @return The sum, or 0 if there are no rows.
+    */
+    public long getSum() {
+        return sum;
+    }
+
+    /**
+        Returns the minimum of the values.
+
+        @return The minimum, or {@link Integer#MAX_VALUE} if there are no
+            rows.
+    */
+    public int getMin() {
+        return min;
+    }
+
+    /**
+        Returns the maximum of the values.
+
+        @return The maximum, or {@link Integer#MIN_VALUE} if there are no
+            rows.
+    */
+    public int getMax() {
+        return max;
+    }
+
+    /**
+        Returns the aggregation of the rows of both this and the specified
+        aggregation.
+
+        @param other The aggregation of the other rows.
+        @return The merged aggregation.
+    */
+    public Aggregate merge(Aggregate other) {
+        return new Aggregate(count + other.count,
+                nonZeroCount + other.nonZeroCount,
+                sum + other.sum,
+                Math.min(min, other.min),
+                Math.max(max, other.max));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return "Aggregate{count=" + count + ", nonZeroCount=" + nonZeroCount
+                + ", sum=" + sum + ", min=" + min + ", max=" + max + "}";
+    }
+
+    /**
+        The mutable accumulator of the values, which the evaluation loop
+        updates for each row instead of storing the value.
+    */
+    static final class Accumulator {
+
+        private long count;
+        private long nonZeroCount;
+        private long sum;
+        private int min = Integer.MAX_VALUE;
+        private int max = Integer.MIN_VALUE;
+
+        /**
+            Adds the value of the row.
+
+            @param value The value.
+        */
+        void add(int value) {
+            ++count;
+            nonZeroCount += (value != 0) ? 1 : 0;
+            sum += value;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+
+        /**
+            Returns the aggregation of the values that have been added.
+
+            @return The aggregation.
+        */
+        Aggregate toAggregate() {
+            return new Aggregate(count, nonZeroCount, sum, min, max);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.maroontress.intexpr;
+
+/**
+    The utility methods for the columnar input, each column of which is the
+    array of the values of the variable.
+*/
+final class Columns {
+
+    private Columns() {
+        throw new AssertionError();
+    }
+
+    /**
+        Checks that the number of the columns is equal to the number of the
+        variables of the expression, and that each column has at least the
+        specified number of the values.
+
+        @param expr The expression.
+        @param columns The columns.
+        @param rows The number of the rows.
+        @throws IllegalArgumentException If the columns are not valid.
+    */
+    static void check(CompiledExpr expr, int[][] columns, int rows) {
+        var n = expr.getVariables().size();
+        if (columns.length != n) {
+            throw new IllegalArgumentException(
+                    "the number of columns must be " + n + " for "
+                    + expr.getVariables() + ": " + columns.length);
+        }
+        for (var c : columns) {
+            checkLength(c.length, rows);
+        }
+    }
+
+    /**
+        Checks that the length is not less than the number of the rows.
+
+        @param length The length.
+        @param rows The number of the rows.
+        @throws IllegalArgumentException If {@code length} is less than
+            {@code rows}.
+    */
+    static void checkLength(long length, int rows) {
+        if (length < rows) {
+            throw new IllegalArgumentException(
+                    "the length must be at least " + rows + ": " + length);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.maroontress.intexpr;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import com.maroontress.intexpr.impl.Program;
+
+/**
+    The result of compiling multiple sources of expressions at once.
+
+    <p>The result contains the {@link CompiledExpr} objects of the sources
+    that have been compiled successfully, and the {@link CompileError} objects
+    of the other sources. The identical sources are compiled only once, and
+    the sources compiled into the identical programs share the same
+    {@link CompiledExpr} object. The programs are identical only if their
+    tokens are at the same positions as well, since the messages of the
+    exceptions contain the positions, so {@code "x + 1"} and {@code "x+1"}
+    do not share the object.</p>
+
+    @see IntExpr#compileAll(java.util.Collection)
+    @see IntExpr#compileAll(Stream)
+    @see IntExpr#compileAll(java.util.Collection, CompileOptions)
+    @see IntExpr#compileAll(Stream, CompileOptions)
+*/
+public final class CompilationResult {
+
+    private final Map<String, CompiledExpr> exprs;
+    private final List<CompileError> errors;
+
+    private CompilationResult(Map<String, CompiledExpr> exprs,
+                              List<CompileError> errors) {
+        this.exprs = Collections.unmodifiableMap(exprs);
+        this.errors = List.copyOf(errors);
+    }
+
+    /**
+        Compiles the specified sources with the specified options in
+        parallel and returns the new result.
+
+        @param sources The sources of the expressions.
+        @param options The options.
+        @return The new result.
+    */
+    static CompilationResult of(Stream<String> sources,
+                                CompileOptions options) {
+        var table = new ConcurrentHashMap<Program, CompiledExpr>();
+        var all = sources.parallel()
+                .distinct()
+                .map(s -> Outcome.of(s, options, table))
+                .collect(Collectors.toList());
+        var exprs = new LinkedHashMap<String, CompiledExpr>();
+        var errors = new ArrayList<CompileError>();
+        for (var o : all) {
+            if (o.expr != null) {
+                exprs.put(o.source, o.expr);
+            } else {
+                errors.add(new CompileError(o.source, o.diagnostics));
+            }
+        }
+        return new CompilationResult(exprs, errors);
+    }
+
+    /**
+        Returns the map of the sources compiled successfully to their
+        {@link CompiledExpr} objects.
+
+        <p>The iteration order of the map is the encounter order of the
+        sources.</p>
+
+        @return The unmodifiable map.
+    */
+    public Map<String, CompiledExpr> getCompiledExprs() {
+        return exprs;
+    }
+
+    /**
+        Returns the {@link CompiledExpr} object of the specified source.
+
+        @param source The source of the expression.
+        @return The {@link CompiledExpr} object if the source has been
+            compiled successfully, otherwise {@link Optional#empty()}.
+    */
+    public Optional<CompiledExpr> get(String source) {
+        return Optional.ofNullable(exprs.get(source));
+    }
+
+    /**
+        Returns the errors of the sources that have failed to compile.
+
+        <p>The order of the list is the encounter order of the sources.</p>
+
+        @return The unmodifiable list of the errors.
+    */
+    public List<CompileError> getErrors() {
+        return errors;
+    }
+
+    /**
+        Returns whether all the sources have been compiled successfully.
+
+        @return {@code true} if there are no errors, otherwise {@code false}.
+    */
+    public boolean isSuccessful() {
+        return errors.isEmpty();
+    }
+
+    private static final class Outcome {
+        private final String source;
+        private final CompiledExpr expr;
+        private final List<Diagnostic> diagnostics;
+
+        private Outcome(String source, CompiledExpr expr,
+                        List<Diagnostic> diagnostics) {
+            this.source = source;
+            this.expr = expr;
+            this.diagnostics = diagnostics;
+        }
+
+        public static Outcome of(String source, CompileOptions options,
+                                 Map<Program, CompiledExpr> table) {
+            var diagnostics = new ArrayList<Diagnostic>();
+            var maybeProgram = IntExpr.toProgram(source, options,
+                    p -> diagnostics.add(new Diagnostic(p)));
+            if (maybeProgram.isEmpty()) {
+                return new Outcome(source, null, diagnostics);
+            }
+            var program = maybeProgram.get();
+            var expr = table.get(program);
+            if (expr == null) {
+                // Creates the evaluator, and possibly the lookup table,
+                // without holding the lock of the map.
+                var newExpr = new CompiledExpr(program, options.getEngine(),
+                        options.getTableLimit());
+                var oldExpr = table.putIfAbsent(program, newExpr);
+                expr = (oldExpr != null) ? oldExpr : newExpr;
+            }
+            return new Outcome(source, expr, null);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.maroontress.intexpr;
+
+import java.util.List;
+
+/**
+    The errors that occurred while compiling a source of an expression.
+
+    @see CompilationResult#getErrors()
+*/
+public final class CompileError {
+
+    private final String source;
+    private final List<Diagnostic> diagnostics;
+
+    /**
+        Creates a new instance.
+
+        @param source The source of the expression.
+        @param diagnostics The diagnostics of the errors, which must not be
+            empty.
+    */
+    CompileError(String source, List<Diagnostic> diagnostics) {
+        this.source = source;
+        this.diagnostics = List.copyOf(diagnostics);
+    }
+
+    /**
+        Returns the source of the expression that failed to compile.
+
+        @return The source.
+    */
+    public String getSource() {
+        return source;
+    }
+
+    /**
+        Returns the diagnostics of all the errors of the source.
+
+        @return The unmodifiable list of the diagnostics, which is the same
+            as the one that {@link IntExpr#diagnose(CharSequence)} returns
+            with the source.
+    */
+    public List<Diagnostic> getDiagnostics() {
+        return diagnostics;
+    }
+
+    /**
+        Returns the message of the first error, which is the same as the
+        message of the {@link IllegalArgumentException} that
+        {@link IntExpr#compile(String)} throws with the same source.
+
+        @return The message.
+    */
+    public String getMessage() {
+        return diagnostics.get(0).getMessage();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return "CompileError[source=" + source + ", "
+                + "message=" + getMessage() + "]";
+    }
+}
@@ -0,0 +1,248 @@
+package com.maroontress.intexpr;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import com.maroontress.intexpr.impl.Interval;
+import com.maroontress.intexpr.impl.OperatorTable;
+
+/**
+    The options of compiling an expression.
+
+    <p>The options can declare the range of the values of each variable.
+    The compiler uses the ranges to prove that some operations never overflow
+    nor divide by zero, and removes the checks from them. For example, with
+    the following options, {@code x * y + 1} is compiled into the
+    multiplication and the addition that check nothing:</p>
+
+    <pre>
+    var options = CompileOptions.builder()
+        .range("x", 0, 255)
+        .range("y", -128, 127)
+        .build();
+    var expr = IntExpr.compile("x * y + 1", options);</pre>
+
+    <p>Instead, {@link CompiledExpr#eval(int...)} throws
+    {@link IllegalArgumentException} if the value of a variable is out of its
+    range. The ranges of the variables that the expression does not contain
+    are ignored.</p>
+
+    <p>If every variable of the expression has the declared range and the
+    number of the combinations of their values does not exceed the table
+    limit, the compiler evaluates the expression for all the combinations
+    in advance, so that the evaluation is a single lookup of the table. For
+    example, {@code range("code", 0, 4095)} makes any expression of
+    {@code code} a table of 4096 entries. The exceptions are not stored in
+    the table, but thrown again when the evaluation looks up the
+    combination that causes them. See {@link Builder#tableLimit(int)}.</p>
+
+    <p>The options can also specify the {@link OperatorRegistry} object
+    that provides the operators and functions that the expression can
+    contain, and the {@link OverflowPolicy} of the built-in ones.</p>
+
+    <p>The {@link CompileOptions} object is immutable.</p>
+
+    @see IntExpr#compile(String, CompileOptions)
+*/
+public final class CompileOptions {
+
+    /** The default maximum number of the entries of the lookup table. */
+    public static final int DEFAULT_TABLE_LIMIT = 1 << 12;
+
+    /** The options with the default engine and no declared ranges. */
+    public static final CompileOptions DEFAULT = builder().build();
+
+    private final Engine engine;
+    private final Map<String, Interval> ranges;
+    private final OperatorRegistry operators;
+    private final OverflowPolicy overflow;
+    private final OperatorTable table;
+    private final int tableLimit;
+
+    private CompileOptions(Builder b) {
+        engine = b.engine;
+        ranges = Map.copyOf(b.ranges);
+        operators = b.operators;
+        overflow = b.overflow;
+        table = overflow.apply(operators.getTable());
+        tableLimit = b.tableLimit;
+    }
+
+    /**
+        Returns a new builder of {@link CompileOptions} objects.
+
+        @return The new builder.
+    */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+        Returns the engine that evaluates the expression.
+
+        @return The engine.
+    */
+    public Engine getEngine() {
+        return engine;
+    }
+
+    /**
+        Returns the registry of the operators and functions.
+
+        @return The registry.
+    */
+    public OperatorRegistry getOperators() {
+        return operators;
+    }
+
+    /**
+        Returns the overflow policy of the built-in operators and functions.
+
+        @return The overflow policy.
+    */
+    public OverflowPolicy getOverflowPolicy() {
+        return overflow;
+    }
+
+    /**
+        Returns the maximum number of the entries of the lookup table.
+
+        @return The maximum number of the entries, or 0 if no table is
+            materialized.
+    */
+    public int getTableLimit() {
+        return tableLimit;
+    }
+
+    /**
+        Returns the table of the operators and functions that the registry
+        provides, with the overflow policy applied.
+
+        @return The table.
+    */
+    OperatorTable getTable() {
+        return table;
+    }
+
+    /**
+        Returns the declared ranges of the specified variables.
+
+        @param variables The names of the variables.
+        @return The list of the ranges, which contains
+            {@link Interval#FULL} for each variable whose range is not
+            declared.
+    */
+    List<Interval> getRanges(List<String> variables) {
+        var list = new ArrayList<Interval>(variables.size());
+        for (var name : variables) {
+            list.add(ranges.getOrDefault(name, Interval.FULL));
+        }
+        return list;
+    }
+
+    /**
+        The builder of {@link CompileOptions} objects.
+    */
+    public static final class Builder {
+
+        private final Map<String, Interval> ranges = new HashMap<>();
+        private Engine engine = IntExpr.DEFAULT_ENGINE;
+        private OperatorRegistry operators = OperatorRegistry.DEFAULT;
+        private OverflowPolicy overflow = OverflowPolicy.CHECKED;
+        private int tableLimit = DEFAULT_TABLE_LIMIT;
+
+        private Builder() {
+        }
+
+        /**
+            Sets the engine that evaluates the expression.
+
+            @param newEngine The engine.
+            @return This builder.
+        */
+        public Builder engine(Engine newEngine) {
+            engine = newEngine;
+            return this;
+        }
+
+        /**
+            Sets the registry of the operators and functions that the
+            expression can contain.
+
+            @param registry The registry.
+            @return This builder.
+        */
+        public Builder operators(OperatorRegistry registry) {
+            operators = registry;
+            return this;
+        }
+
+        /**
+            Sets the overflow policy of the built-in operators and
+            functions.
+
+            <p>The default policy is {@link OverflowPolicy#CHECKED}.</p>
+
+            @param policy The overflow policy.
+            @return This builder.
+        */
+        public Builder overflow(OverflowPolicy policy) {
+            overflow = policy;
+            return this;
+        }
+
+        /**
+            Declares the range of the values of the specified variable.
+
+            @param name The name of the variable.
+            @param min The minimum value (inclusive).
+            @param max The maximum value (inclusive).
+            @return This builder.
+            @throws IllegalArgumentException If {@code min} is greater than
+                {@code max}.
+        */
+        public Builder range(String name, int min, int max) {
+            if (min > max) {
+                throw new IllegalArgumentException(
+                        "the range of " + name + " is empty: [" + min + ", "
+                        + max + "]");
+            }
+            ranges.put(name, new Interval(min, max));
+            return this;
+        }
+
+        /**
+            Sets the maximum number of the entries of the lookup table that
+            the compiler materializes for the expression whose variables
+            all have the declared ranges.
+
+            <p>The default limit is {@link #DEFAULT_TABLE_LIMIT}. The table
+            takes 4 bytes per entry, and compiling it evaluates the
+            expression once per entry.</p>
+
+            @param limit The maximum number of the entries, or 0 not to
+                materialize any table.
+            @return This builder.
+            @throws IllegalArgumentException If {@code limit} is negative.
+        */
+        public Builder tableLimit(int limit) {
+            if (limit < 0) {
+                throw new IllegalArgumentException(
+                        "the table limit must not be negative: " + limit);
+            }
+            tableLimit = limit;
+            return this;
+        }
+
+        /**
+            Returns a new {@link CompileOptions} object with the current
+            settings of this builder.
+
+            @return The new {@link CompileOptions} object.
+        */
+        public CompileOptions build() {
+            return new CompileOptions(this);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.maroontress.intexpr;
+
+import java.util.List;
+
+/**
+    The aggregation of the values of a {@link CompiledExpr} object over the
+    rows of the columnar input.
+
+    <p>The input is the array of the columns, each of which is the array of
+    the values of the variable in the order of
+    {@link CompiledExpr#getVariables()}. The value of each row is added to
+    the {@link Aggregate} as soon as it is evaluated, so the values are
+    never stored into an array. For example, the following code computes
+    the sum of {@code price * qty} over the rows that a
+    {@link CompiledFilter} object has selected:</p>
+
+    <pre>
+    var filter = IntExpr.compile("qty &gt; 0").toFilter();
+    var count = filter.select(new int[][] {qty}, rows, selection);
+    var total = IntExpr.compile("price * qty").toAggregator()
+        .aggregate(new int[][] {price, qty}, selection, count)
+        .getSum();</pre>
+
+    <p>The {@link CompiledAggregator} object is immutable, so multiple
+    threads can use it concurrently.</p>
+
+    @see CompiledExpr#toAggregator()
+*/
+public final class CompiledAggregator {
+
+    private final CompiledExpr expr;
+
+    /**
+        Creates a new instance.
+
+        @param expr The expression.
+    */
+    CompiledAggregator(CompiledExpr expr) {
+        this.expr = expr;
+    }
+
+    /**
+        Returns the names of the variables, which are also the order of the
+        columns.
+
+        @return The unmodifiable list of the names.
+        @see CompiledExpr#getVariables()
+    */
+    public List<String> getVariables() {
+        return expr.getVariables();
+    }
+
+    /**
+        Returns the aggregation of the values of the expression over the
+        specified number of the rows.
+
+        @param columns The columns in the order of {@link #getVariables()},
+            each of which must have at least {@code rows} values.
+        @param rows The number of the rows.
+        @return The aggregation.
+        @throws IllegalArgumentException If the number of the columns is not
+            equal to the number of the variables, if some column is shorter
+            than {@code rows}, or if some value is out of the range declared
+            with {@link CompileOptions}.
+        @throws ArithmeticException If there is an attempt to divide an integer
+            value by zero or to overflow.
+    */
+    public Aggregate aggregate(int[][] columns, int rows) {
+        Columns.check(expr, columns, rows);
+        return aggregate(columns, 0, rows);
+    }
+
+    /**
+        Returns the aggregation of the values of the expression over the
+        rows in the selection vector, which a {@link CompiledFilter} object
+        may have produced.
+
+        @param columns The columns in the order of {@link #getVariables()}.
+        @param selection The selection vector, which contains the indices of
+            the rows.
+        @param count The number of the indices in the selection vector.
+        @return The aggregation.
+        @throws IllegalArgumentException If the number of the columns is not
+            equal to the number of the variables, if {@code count} is greater
+            than the length of {@code selection}, or if some value is out of
+            the range declared with {@link CompileOptions}.
+        @throws IndexOutOfBoundsException If some column is too short for
+            the indices in the selection vector.
+        @throws ArithmeticException If there is an attempt to divide an integer
+            value by zero or to overflow.
+    */
+    public Aggregate aggregate(int[][] columns, int[] selection, int count) {
+        Columns.check(expr, columns, 0);
+        Columns.checkLength(selection.length, count);
+        var context = new EvalContext();
+        var values = context.getValues(columns.length);
+        var a = new Aggregate.Accumulator();
+        for (var k = 0; k < count; ++k) {
+            a.add(eval(context, columns, selection[k], values));
+        }
+        return a.toAggregate();
+    }
+
+    /**
+        Returns the aggregation of the values of the expression over the
+        specified number of the rows, splitting the rows into the ranges
+        that the workers of the common
+        {@link java.util.concurrent.ForkJoinPool} aggregate in parallel.
+
+        <p>The result is the same as that of
+        {@link #aggregate(int[][], int)}. If the expression throws the
+        exception with some rows, this method throws one of them.</p>
+
+        @param columns The columns in the order of {@link #getVariables()},
+            each of which must have at least {@code rows} values.
+        @param rows The number of the rows.
+        @return The aggregation.
+        @throws IllegalArgumentException If the number of the columns is not
+            equal to the number of the variables, if some column is shorter
+            than {@code rows}, or if some value is out of the range declared
+            with {@link CompileOptions}.
+        @throws ArithmeticException If there is an attempt to divide an integer
+            value by zero or to overflow.
+    */
+    public Aggregate parallelAggregate(int[][] columns, int rows) {
+        Columns.check(expr, columns, rows);
+        return ParallelAggregation.invoke(rows,
+                (from, to) -> aggregate(columns, from, to));
+    }
+
+    private Aggregate aggregate(int[][] columns, int from, int to) {
+        var context = new EvalContext();
+        var values = context.getValues(columns.length);
+        var a = new Aggregate.Accumulator();
+        for (var row = from; row < to; ++row) {
+            a.add(eval(context, columns, row, values));
+        }
+        return a.toAggregate();
+    }
+
+    private int eval(EvalContext context, int[][] columns, int row,
+                     int[] values) {
+        var n = values.length;
+        for (var k = 0; k < n; ++k) {
+            values[k] = columns[k][row];
+        }
+        return expr.eval(context, values);
+    }
+}
@@ -0,0 +1,293 @@
+package com.maroontress.intexpr;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import com.maroontress.intexpr.impl.Evaluator;
+import com.maroontress.intexpr.impl.PartialEvaluation;
+import com.maroontress.intexpr.impl.Program;
+import com.maroontress.intexpr.impl.TableEvaluator;
+import com.maroontress.intexpr.impl.SyntaxTree;
+
+/**
+    The {@code int} expression that has already been compiled, so that it can
+    be evaluated repeatedly without parsing the source again.
+
+    <p>The {@link CompiledExpr} object is immutable except for the cache of
+    its specializations, so multiple threads can evaluate it concurrently.
+    The evaluation neither synchronizes nor keeps any state in
+    {@link ThreadLocal} variables, so it scales with the number of the
+    threads, including virtual threads. To evaluate it without allocation,
+    pass the {@link EvalContext} object confined to the current thread to
+    {@link #eval(EvalContext, int...)}. Only {@link #specialize(Map)}
+    synchronizes, with the lock private to the cache.</p>
+
+    @see IntExpr#compile(String)
+*/
+public final class CompiledExpr {
+
+    private static final AtomicReferenceFieldUpdater<CompiledExpr,
+            SpecializationCache> SPECIALIZATIONS
+            = AtomicReferenceFieldUpdater.newUpdater(CompiledExpr.class,
+                    SpecializationCache.class, "specializations");
+
+    private final Program program;
+    private final Engine engine;
+    private final int tableLimit;
+    private final Evaluator evaluator;
+    private volatile SpecializationCache specializations;
+
+    /**
+        Creates a new instance with the default engine.
+
+        @param program The program.
+    */
+    CompiledExpr(Program program) {
+        this(program, IntExpr.DEFAULT_ENGINE,
+                CompileOptions.DEFAULT_TABLE_LIMIT);
+    }
+
+    /**
+        Creates a new instance.
+
+        @param program The program.
+        @param engine The engine that evaluates the program.
+        @param tableLimit The maximum number of the entries of the lookup
+            table.
+        @see CompileOptions#getTableLimit()
+    */
+    CompiledExpr(Program program, Engine engine, int tableLimit) {
+        this.program = program;
+        this.engine = engine;
+        this.tableLimit = tableLimit;
+        this.evaluator = TableEvaluator.of(program,
+                engine.newEvaluator(program), tableLimit);
+    }
+
+    /**
+        Returns the engine that evaluates this expression.
+
+        @return The engine.
+    */
+    public Engine getEngine() {
+        return engine;
+    }
+
+    /**
+        Returns the names of the variables that this expression contains.
+
+        <p>The names are in the order of their first appearance in the
+        expression, which is also the order of the values that
+        {@link #eval(int...)} takes.</p>
+
+        @return The unmodifiable list of the names.
+    */
+    public List<String> getVariables() {
+        return program.getVariables();
+    }
+
+    /**
+        Evaluates this expression with the specified values of the variables
+        and returns the evaluated value.
+
+        <p>For example, the invocation
+        {@code IntExpr.compile("x * y + x").eval(3, 4)} returns 15.</p>
+
+        @param values The values of the variables in the order of
+            {@link #getVariables()}.
+        @return The evaluated value.
+        @throws IllegalArgumentException If the number of the values is not
+            equal to the number of the variables, or if some value is out of
+            the range declared with {@link CompileOptions}.
+        @throws ArithmeticException If there is an attempt to divide an integer
+            value by zero or to overflow.
+    */
+    public int eval(int... values) {
+        program.checkValues(values);
+        return evaluator.evaluate(values);
+    }
+
+    /**
+        Evaluates this expression with the specified context and values of
+        the variables and returns the evaluated value.
+
+        <p>This method is equivalent to {@link #eval(int...)}, except that the
+        engine uses the memory of the context instead of allocating it, so
+        the caller can evaluate expressions repeatedly in the same thread
+        without allocation.</p>
+
+        @param context The context, which must not be used by any other
+            thread concurrently.
+        @param values The values of the variables in the order of
+            {@link #getVariables()}.
+        @return The evaluated value.
+        @throws IllegalArgumentException If the number of the values is not
+            equal to the number of the variables, or if some value is out of
+            the range declared with {@link CompileOptions}.
+        @throws ArithmeticException If there is an attempt to divide an integer
+            value by zero or to overflow.
+        @see EvalContext
+    */
+    public int eval(EvalContext context, int... values) {
+        program.checkValues(values);
+        var stack = context.getStack(values.length + program.getStackSize());
+        return evaluator.evaluate(values, stack);
+    }
+
+    /**
+        Returns a new {@link ReactiveExpr} object that evaluates this
+        expression incrementally, starting with the specified values of the
+        variables.
+
+        @param values The initial values of the variables in the order of
+            {@link #getVariables()}.
+        @return The new {@link ReactiveExpr} object.
+        @throws IllegalArgumentException If the number of the values is not
+            equal to the number of the variables, or if some value is out of
+            the range declared with {@link CompileOptions}.
+    */
+    public ReactiveExpr toReactive(int... values) {
+        return new ReactiveExpr(this, values);
+    }
+
+    /**
+        Returns a new {@link CompiledFilter} object that selects the rows of
+        the columnar input where this expression is non-zero.
+
+        @return The new {@link CompiledFilter} object.
+    */
+    public CompiledFilter toFilter() {
+        return new CompiledFilter(this);
+    }
+
+    /**
+        Returns a new {@link CompiledAggregator} object that aggregates the
+        values of this expression over the rows of the columnar input.
+
+        @return The new {@link CompiledAggregator} object.
+    */
+    public CompiledAggregator toAggregator() {
+        return new CompiledAggregator(this);
+    }
+
+    /**
+        Returns a new {@link MemoizedExpr} object that caches the values of
+        this expression keyed by the values of the variables.
+
+        <p>The memoization pays off when the same values of the variables
+        repeat often, for example when a few thousand combinations of them
+        account for most inputs.</p>
+
+        @param capacity The maximum number of the values in the cache.
+        @return The new {@link MemoizedExpr} object.
+        @throws IllegalArgumentException If {@code capacity} is not positive
+            or too large.
+    */
+    public MemoizedExpr memoize(int capacity) {
+        return new MemoizedExpr(this, capacity);
+    }
+
+    /**
+        Returns the expression specialized on the known values of some of
+        the variables of this expression.
+
+        <p>The known variables are replaced with their values, and then the
+        operations and the conditional operators that depend only on the
+        constants are folded, so the specialized expression has fewer
+        instructions and variables. Its variables are those of this
+        expression except the known ones and those that no longer occur
+        (for example, in the branch that is never selected), in the same
+        order. For example,
+        {@code IntExpr.compile("a * x + b").specialize(Map.of("a", 1, "b",
+        0))} returns the expression equivalent to {@code x}. The
+        specialized expression throws the same exception as this expression
+        with the same values, including the position in its message.</p>
+
+        <p>The names that are not the variables of this expression are
+        ignored. This expression keeps the specializations in the bounded
+        cache, which evicts the least recently used one, so that the same
+        bindings return the same object unless it has been evicted. The
+        cache is thread-safe, and unlike the evaluation, it synchronizes
+        with its private lock.</p>
+
+        @param bindings The map of the names of the known variables to
+            their values.
+        @return The specialized expression.
+        @throws IllegalArgumentException If some value is out of the range
+            declared with {@link CompileOptions}.
+    */
+    public CompiledExpr specialize(Map<String, Integer> bindings) {
+        var known = new HashMap<String, Integer>();
+        for (var name : program.getVariables()) {
+            var value = bindings.get(name);
+            if (value != null) {
+                known.put(name, value);
+            }
+        }
+        if (known.isEmpty()) {
+            return this;
+        }
+        return getSpecializations().get(Map.copyOf(known),
+                b -> new CompiledExpr(
+                        PartialEvaluation.specialize(program, b), engine,
+                        tableLimit));
+    }
+
+    /**
+        Returns the cache of the specializations, creating it on the first
+        invocation.
+
+        <p>Most expressions are never specialized, so the cache is not
+        created until {@link #specialize(Map)} needs it. The threads that
+        create it concurrently agree on the one set first, without
+        locking.</p>
+
+        @return The cache.
+    */
+    private SpecializationCache getSpecializations() {
+        var cache = specializations;
+        if (cache == null) {
+            var created = new SpecializationCache();
+            cache = SPECIALIZATIONS.compareAndSet(this, null, created)
+                    ? created
+                    : specializations;
+        }
+        return cache;
+    }
+
+    /**
+        Returns a new {@link RecordExpr} object that evaluates this
+        expression with the fields of the binary records that the specified
+        layout describes.
+
+        @param layout The layout of the records.
+        @return The new {@link RecordExpr} object.
+        @throws IllegalArgumentException If the layout does not have the
+            field of some variable of this expression.
+    */
+    public RecordExpr bind(RecordLayout layout) {
+        return new RecordExpr(this, layout);
+    }
+
+    /**
+        Returns the string to visualize the syntax tree representing this
+        expression in Reverse Polish notation.
+
+        @return The string to visualize the syntax tree.
+        @see IntExpr#toTree(String)
+    */
+    public String toTree() {
+        var tree = new SyntaxTree(program.getInstructions());
+        return tree.toString();
+    }
+
+    /**
+        Returns the program of this expression.
+
+        @return The program.
+    */
+    Program getProgram() {
+        return program;
+    }
+}
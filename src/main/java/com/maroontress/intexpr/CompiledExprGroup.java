@@ -0,0 +1,178 @@
+package com.maroontress.intexpr;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import com.maroontress.intexpr.impl.DagProgram;
+import com.maroontress.intexpr.impl.DivideByZeroException;
+import com.maroontress.intexpr.impl.OverflowException;
+import com.maroontress.intexpr.impl.SyntaxTree;
+import com.maroontress.intexpr.syntaxtree.SyntaxNode;
+import com.maroontress.intexpr.syntaxtree.SyntaxNodeTable;
+
+/**
+    The group of {@link CompiledExpr} objects that are evaluated together
+    with the same values of the variables.
+
+    <p>The identical subexpressions of the expressions in the group share a
+    single node, so the group occupies the memory proportional to the number
+    of the distinct subexpressions, and {@link #eval(int...)} computes each
+    of them only once.</p>
+
+    <p>The variables of the group are the union of the variables of all the
+    expressions, identified by their names.</p>
+
+    <p>The {@link CompiledExprGroup} object is immutable, so multiple threads
+    can evaluate it concurrently.</p>
+*/
+public final class CompiledExprGroup {
+
+    private final List<CompiledExpr> exprs;
+    private final List<String> variables;
+    private final int[][] slotMaps;
+    private final int[] boundedExprs;
+    private final DagProgram dag;
+
+    private CompiledExprGroup(List<CompiledExpr> exprs) {
+        this.exprs = exprs;
+        var slotMap = new LinkedHashMap<String, Integer>();
+        var table = new SyntaxNodeTable();
+        var roots = new ArrayList<SyntaxNode>();
+        var n = exprs.size();
+        slotMaps = new int[n][];
+        var bounded = new ArrayList<Integer>();
+        for (var k = 0; k < n; ++k) {
+            var program = exprs.get(k).getProgram();
+            if (program.isBounded()) {
+                bounded.add(k);
+            }
+            var names = program.getVariables();
+            var map = new int[names.size()];
+            for (var j = 0; j < map.length; ++j) {
+                map[j] = slotMap.computeIfAbsent(names.get(j),
+                        name -> slotMap.size());
+            }
+            slotMaps[k] = map;
+            var tree = new SyntaxTree(program.getInstructions());
+            roots.add(table.intern(tree.getRoot()));
+        }
+        boundedExprs = bounded.stream()
+                .mapToInt(Integer::intValue)
+                .toArray();
+        variables = List.copyOf(slotMap.keySet());
+        dag = new DagProgram(roots, variables);
+    }
+
+    /**
+        Returns a new group of the specified expressions.
+
+        @param exprs The expressions.
+        @return The new group.
+    */
+    public static CompiledExprGroup of(Collection<CompiledExpr> exprs) {
+        return new CompiledExprGroup(List.copyOf(exprs));
+    }
+
+    /**
+        Returns the expressions of this group.
+
+        @return The unmodifiable list of the expressions.
+    */
+    public List<CompiledExpr> getCompiledExprs() {
+        return exprs;
+    }
+
+    /**
+        Returns the names of the variables that the expressions contain.
+
+        <p>The names are in the order of their first appearance in the
+        expressions, which is also the order of the values that
+        {@link #eval(int...)} takes.</p>
+
+        @return The unmodifiable list of the names.
+    */
+    public List<String> getVariables() {
+        return variables;
+    }
+
+    /**
+        Returns the number of the distinct subexpressions, including
+        constants and variables, of this group.
+
+        @return The number of the distinct subexpressions.
+    */
+    public int getNodeCount() {
+        return dag.size();
+    }
+
+    /**
+        Evaluates all the expressions with the specified values of the
+        variables and returns their values.
+
+        @param values The values of the variables in the order of
+            {@link #getVariables()}.
+        @return The new array containing the values of the expressions in the
+            order of {@link #getCompiledExprs()}.
+        @throws IllegalArgumentException If the number of the values is not
+            equal to the number of the variables, or if some value is out of
+            the range that some expression has declared with
+            {@link CompileOptions}.
+        @throws ArithmeticException If there is an attempt to divide an integer
+            value by zero or to overflow while evaluating some expression. The
+            exception is the same as one that {@link CompiledExpr#eval(int...)}
+            of the first such expression throws.
+    */
+    public int[] eval(int... values) {
+        if (values.length != variables.size()) {
+            throw new IllegalArgumentException(
+                    "the number of values must be " + variables.size()
+                    + " for " + variables + ": " + values.length);
+        }
+        checkRanges(values);
+        var results = new int[exprs.size()];
+        try {
+            dag.run(values, results);
+        } catch (OverflowException | DivideByZeroException
+                | ArithmeticException e) {
+            // The exception may come from the operand of the conditional
+            // operator that the condition does not select, including the
+            // ArithmeticException of a registered operator or function.
+            evalEach(values, results);
+        }
+        return results;
+    }
+
+    /**
+        Throws {@link IllegalArgumentException} if some of the specified
+        values is out of the range that the expression using it has
+        declared.
+
+        <p>The expressions of the group may declare different ranges for the
+        same variable, so each expression checks the values of its own
+        variables.</p>
+
+        @param values The values of the variables of this group.
+    */
+    private void checkRanges(int[] values) {
+        for (var k : boundedExprs) {
+            var program = exprs.get(k).getProgram();
+            var map = slotMaps[k];
+            for (var j = 0; j < map.length; ++j) {
+                program.checkValue(j, values[map[j]]);
+            }
+        }
+    }
+
+    private void evalEach(int[] values, int[] results) {
+        var n = exprs.size();
+        for (var k = 0; k < n; ++k) {
+            var map = slotMaps[k];
+            var v = new int[map.length];
+            for (var j = 0; j < map.length; ++j) {
+                v[j] = values[map[j]];
+            }
+            results[k] = exprs.get(k).eval(v);
+        }
+    }
+}
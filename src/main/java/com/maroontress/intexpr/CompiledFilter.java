@@ -0,0 +1,520 @@
+package com.maroontress.intexpr;
+
+import java.util.List;
+import com.maroontress.intexpr.impl.BitSlicedEvaluator;
+import com.maroontress.intexpr.impl.Evaluator;
+import com.maroontress.intexpr.impl.ImmediateOperator;
+import com.maroontress.intexpr.impl.Program;
+import com.maroontress.intexpr.impl.Variable;
+
+/**
+    The predicate that filters the rows of the columnar input with a
+    {@link CompiledExpr} object, which selects the rows where the expression
+    is non-zero.
+
+    <p>The input is the array of the columns, each of which is the array of
+    the values of the variable in the order of
+    {@link CompiledExpr#getVariables()}. The filter returns the indices of
+    the selected rows as a selection vector or a bitset, rather than the
+    values of the expression for all the rows. Both of them can be passed to
+    the following filters, which touch only the rows that have survived.</p>
+
+    <p>The operands of the logical AND operators at the root of the
+    expression are evaluated one by one, each only for the rows that
+    satisfy the preceding ones. So {@code x > 10 && (flags & 4) != 0}
+    evaluates {@code (flags & 4) != 0} only for the rows where {@code x}
+    is greater than 10, and the rows that fail an operand never throw
+    {@link ArithmeticException} in the following ones. The operand that
+    compares a variable with a constant, such as {@code x > 10}, is
+    evaluated with the loop over the column, rather than the engine.</p>
+
+    <p>The other operands that contain the comparison or logical operators
+    are evaluated for 64 rows at once, where the boolean values of the rows
+    are packed into the bits of a {@code long} value, so that {@code &&},
+    {@code ||}, and {@code !} are single bitwise operations. See
+    {@link BitSlicedEvaluator}. It is used for the bitset and for selecting
+    all the rows, but not for refining the selection vector, whose rows may
+    be sparse.</p>
+
+    <p>The {@link CompiledFilter} object is immutable, so multiple threads
+    can use it concurrently.</p>
+
+    @see CompiledExpr#toFilter()
+*/
+public final class CompiledFilter {
+
+    private final CompiledExpr expr;
+    private final Conjunct[] conjuncts;
+
+    /**
+        Creates a new instance.
+
+        @param expr The expression.
+    */
+    CompiledFilter(CompiledExpr expr) {
+        var program = expr.getProgram();
+        var engine = expr.getEngine();
+        var list = program.splitConjunction();
+        var n = list.size();
+        conjuncts = new Conjunct[n];
+        for (var k = 0; k < n; ++k) {
+            conjuncts[k] = newConjunct(list.get(k), engine);
+        }
+        this.expr = expr;
+    }
+
+    private static Conjunct newConjunct(Program program, Engine engine) {
+        var all = program.getInstructions();
+        if (!program.isBounded() && all.size() == 2
+                && all.get(0) instanceof Variable
+                && all.get(1) instanceof ImmediateOperator) {
+            var slot = ((Variable) all.get(0)).getSlot();
+            var i = (ImmediateOperator) all.get(1);
+            var c = Comparison.of(i, slot);
+            if (c != null) {
+                return c;
+            }
+        }
+        return new Generic(program, engine.newEvaluator(program),
+                BitSlicedEvaluator.of(program));
+    }
+
+    /**
+        Returns the names of the variables, which are also the order of the
+        columns.
+
+        @return The unmodifiable list of the names.
+        @see CompiledExpr#getVariables()
+    */
+    public List<String> getVariables() {
+        return expr.getVariables();
+    }
+
+    /**
+        Selects the rows where the expression is non-zero, and stores their
+        indices into the array in ascending order.
+
+        @param columns The columns in the order of {@link #getVariables()},
+            each of which must have at least {@code rows} values.
+        @param rows The number of the rows.
+        @param selection The array that receives the indices of the selected
+            rows. Its length must not be less than {@code rows}.
+        @return The number of the selected rows.
+        @throws IllegalArgumentException If the number of the columns is not
+            equal to the number of the variables, if some column or
+            {@code selection} is shorter than {@code rows}, or if some value
+            is out of the range declared with {@link CompileOptions}.
+        @throws ArithmeticException If there is an attempt to divide an integer
+            value by zero or to overflow.
+    */
+    public int select(int[][] columns, int rows, int[] selection) {
+        Columns.check(expr, columns, rows);
+        Columns.checkLength(selection.length, rows);
+        var scratch = new Scratch(expr);
+        var count = conjuncts[0].scan(columns, rows, selection, scratch);
+        return refine(columns, selection, count, scratch, 1);
+    }
+
+    /**
+        Keeps only the rows where the expression is non-zero in the
+        selection vector, which another filter may have produced.
+
+        <p>The expression is evaluated only for the rows in the selection
+        vector. The indices of the kept rows are moved to the beginning of
+        the array in the same order.</p>
+
+        @param columns The columns in the order of {@link #getVariables()}.
+        @param selection The selection vector, which contains the indices of
+            the rows. Its content is updated.
+        @param count The number of the indices in the selection vector.
+        @return The number of the kept rows.
+        @throws IllegalArgumentException If the number of the columns is not
+            equal to the number of the variables, if {@code count} is greater
+            than the length of {@code selection}, or if some value is out of
+            the range declared with {@link CompileOptions}.
+        @throws IndexOutOfBoundsException If some column is too short for
+            the indices in the selection vector.
+        @throws ArithmeticException If there is an attempt to divide an integer
+            value by zero or to overflow.
+    */
+    public int refine(int[][] columns, int[] selection, int count) {
+        Columns.check(expr, columns, 0);
+        Columns.checkLength(selection.length, count);
+        return refine(columns, selection, count, new Scratch(expr), 0);
+    }
+
+    /**
+        Selects the rows where the expression is non-zero, and sets the
+        corresponding bits of the bitset.
+
+        <p>The bit of the row {@code r} is the bit {@code r % 64} of the
+        element {@code r / 64}. The bits of the rows that are not selected
+        are cleared, and the bits beyond {@code rows} are not changed.</p>
+
+        @param columns The columns in the order of {@link #getVariables()},
+            each of which must have at least {@code rows} values.
+        @param rows The number of the rows.
+        @param bits The bitset, the length of which must not be less than
+            {@code (rows + 63) / 64}.
+        @return The number of the selected rows.
+        @throws IllegalArgumentException If the number of the columns is not
+            equal to the number of the variables, if some column or the
+            bitset is shorter than {@code rows}, or if some value is out of
+            the range declared with {@link CompileOptions}.
+        @throws ArithmeticException If there is an attempt to divide an integer
+            value by zero or to overflow.
+    */
+    public int selectBits(int[][] columns, int rows, long[] bits) {
+        Columns.check(expr, columns, rows);
+        Columns.checkLength(bits.length * (long) Long.SIZE, rows);
+        var words = rows / Long.SIZE;
+        for (var k = 0; k < words; ++k) {
+            bits[k] = -1L;
+        }
+        var rest = rows % Long.SIZE;
+        if (rest != 0) {
+            bits[words] |= (1L << rest) - 1;
+        }
+        return refineBits(columns, rows, bits, new Scratch(expr));
+    }
+
+    /**
+        Clears the bits of the rows where the expression is zero in the
+        bitset, which another filter may have produced.
+
+        <p>The expression is evaluated only for the rows whose bits are
+        set.</p>
+
+        @param columns The columns in the order of {@link #getVariables()},
+            each of which must have at least {@code rows} values.
+        @param rows The number of the rows. The bits beyond it are ignored.
+        @param bits The bitset. Its content is updated.
+        @return The number of the rows whose bits remain set.
+        @throws IllegalArgumentException If the number of the columns is not
+            equal to the number of the variables, if some column or the
+            bitset is shorter than {@code rows}, or if some value is out of
+            the range declared with {@link CompileOptions}.
+        @throws ArithmeticException If there is an attempt to divide an integer
+            value by zero or to overflow.
+        @see #selectBits(int[][], int, long[])
+    */
+    public int refineBits(int[][] columns, int rows, long[] bits) {
+        Columns.check(expr, columns, rows);
+        Columns.checkLength(bits.length * (long) Long.SIZE, rows);
+        return refineBits(columns, rows, bits, new Scratch(expr));
+    }
+
+    private int refine(int[][] columns, int[] selection, int count,
+                       Scratch scratch, int start) {
+        for (var k = start; k < conjuncts.length && count > 0; ++k) {
+            count = conjuncts[k].refine(columns, selection, count, scratch);
+        }
+        return count;
+    }
+
+    private int refineBits(int[][] columns, int rows, long[] bits,
+                           Scratch scratch) {
+        var total = 0;
+        var words = (rows + Long.SIZE - 1) / Long.SIZE;
+        for (var w = 0; w < words; ++w) {
+            var base = w * Long.SIZE;
+            var n = Math.min(rows - base, Long.SIZE);
+            var mask = toMask(n);
+            var kept = bits[w] & mask;
+            for (var k = 0; k < conjuncts.length && kept != 0; ++k) {
+                kept = conjuncts[k].testWord(columns, base, n, kept, scratch);
+            }
+            bits[w] = (bits[w] & ~mask) | kept;
+            total += Long.bitCount(kept);
+        }
+        return total;
+    }
+
+    private static long toMask(int n) {
+        return (n == Long.SIZE) ? -1L : (1L << n) - 1;
+    }
+
+    /**
+        The scratch memory of a single filtering.
+    */
+    private static final class Scratch {
+
+        private final int[] values;
+        private final int[] stack;
+        private final BitSlicedEvaluator.Scratch slices;
+
+        Scratch(CompiledExpr expr) {
+            var program = expr.getProgram();
+            var n = program.getVariables().size();
+            var size = program.getStackSize();
+            values = new int[n];
+            stack = new int[n + size];
+            // Each operand of the logical AND needs the stack not larger
+            // than the whole expression does.
+            slices = new BitSlicedEvaluator.Scratch(size);
+        }
+    }
+
+    /**
+        The operand of the logical AND operators at the root of the
+        expression.
+    */
+    private abstract static class Conjunct {
+
+        /**
+            Returns whether this operand is non-zero with the specified row.
+
+            @param columns The columns.
+            @param row The index of the row.
+            @param scratch The scratch memory.
+            @return {@code true} if the operand is non-zero.
+        */
+        abstract boolean test(int[][] columns, int row, Scratch scratch);
+
+        /**
+            Returns the mask of the rows where this operand is non-zero,
+            among the specified rows.
+
+            @param columns The columns.
+            @param base The index of the first row.
+            @param rows The number of the rows, which is between 1 and 64.
+            @param mask The mask of the rows to evaluate, whose bit
+                {@code i} represents the row {@code base + i}.
+            @param scratch The scratch memory.
+            @return The subset of {@code mask}.
+        */
+        long testWord(int[][] columns, int base, int rows, long mask,
+                      Scratch scratch) {
+            var word = mask;
+            var kept = mask;
+            while (word != 0) {
+                var bit = Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+                if (!test(columns, base + bit, scratch)) {
+                    kept &= ~(1L << bit);
+                }
+            }
+            return kept;
+        }
+
+        /**
+            Stores the indices of the rows where this operand is non-zero.
+
+            @param columns The columns.
+            @param rows The number of the rows.
+            @param selection The array that receives the indices.
+            @param scratch The scratch memory.
+            @return The number of the indices.
+        */
+        int scan(int[][] columns, int rows, int[] selection,
+                 Scratch scratch) {
+            var count = 0;
+            for (var r = 0; r < rows; ++r) {
+                selection[count] = r;
+                count += test(columns, r, scratch) ? 1 : 0;
+            }
+            return count;
+        }
+
+        /**
+            Keeps only the rows where this operand is non-zero in the
+            selection vector.
+
+            @param columns The columns.
+            @param selection The selection vector.
+            @param count The number of the indices in the selection vector.
+            @param scratch The scratch memory.
+            @return The number of the kept rows.
+        */
+        int refine(int[][] columns, int[] selection, int count,
+                   Scratch scratch) {
+            var kept = 0;
+            for (var k = 0; k < count; ++k) {
+                var r = selection[k];
+                selection[kept] = r;
+                kept += test(columns, r, scratch) ? 1 : 0;
+            }
+            return kept;
+        }
+    }
+
+    /**
+        The operand that the engine evaluates.
+    */
+    private static final class Generic extends Conjunct {
+
+        private final Program program;
+        private final Evaluator evaluator;
+        private final BitSlicedEvaluator slicedEvaluator;
+
+        Generic(Program program, Evaluator evaluator,
+                BitSlicedEvaluator slicedEvaluator) {
+            this.program = program;
+            this.evaluator = evaluator;
+            this.slicedEvaluator = slicedEvaluator;
+        }
+
+        @Override
+        long testWord(int[][] columns, int base, int rows, long mask,
+                      Scratch scratch) {
+            if (slicedEvaluator == null) {
+                return super.testWord(columns, base, rows, mask, scratch);
+            }
+            try {
+                return mask & slicedEvaluator.evaluate(columns, base, rows,
+                        scratch.slices);
+            } catch (ArithmeticException e) {
+                // The row that throws the exception may be out of the mask.
+                return super.testWord(columns, base, rows, mask, scratch);
+            }
+        }
+
+        @Override
+        int scan(int[][] columns, int rows, int[] selection,
+                 Scratch scratch) {
+            if (slicedEvaluator == null) {
+                return super.scan(columns, rows, selection, scratch);
+            }
+            var count = 0;
+            for (var base = 0; base < rows; base += Long.SIZE) {
+                var n = Math.min(rows - base, Long.SIZE);
+                var word = testWord(columns, base, n, toMask(n), scratch);
+                while (word != 0) {
+                    selection[count] = base + Long.numberOfTrailingZeros(word);
+                    ++count;
+                    word &= word - 1;
+                }
+            }
+            return count;
+        }
+
+        @Override
+        boolean test(int[][] columns, int row, Scratch scratch) {
+            var values = scratch.values;
+            var n = values.length;
+            for (var k = 0; k < n; ++k) {
+                values[k] = columns[k][row];
+            }
+            program.checkValues(values);
+            return evaluator.evaluate(values, scratch.stack) != 0;
+        }
+    }
+
+    /**
+        The operand that compares a variable with a constant.
+    */
+    private static final class Comparison extends Conjunct {
+
+        private static final int GT = 0;
+        private static final int LT = 1;
+        private static final int GE = 2;
+        private static final int LE = 3;
+        private static final int NE = 4;
+        private static final int EQ = 5;
+
+        private final int slot;
+        private final int kind;
+        private final int value;
+
+        private Comparison(int slot, int kind, int value) {
+            this.slot = slot;
+            this.kind = kind;
+            this.value = value;
+        }
+
+        static Comparison of(ImmediateOperator i, int slot) {
+            var value = i.getValue();
+            switch (i.getOpcode()) {
+            case CMPGTI:
+                return new Comparison(slot, GT, value);
+            case CMPLTI:
+                return new Comparison(slot, LT, value);
+            case CMPGEI:
+                return new Comparison(slot, GE, value);
+            case CMPLEI:
+                return new Comparison(slot, LE, value);
+            case CMPNEI:
+                return new Comparison(slot, NE, value);
+            case CMPEQI:
+                return new Comparison(slot, EQ, value);
+            default:
+                return null;
+            }
+        }
+
+        @Override
+        boolean test(int[][] columns, int row, Scratch scratch) {
+            return test(columns[slot][row]);
+        }
+
+        @Override
+        long testWord(int[][] columns, int base, int rows, long mask,
+                      Scratch scratch) {
+            var column = columns[slot];
+            var word = 0L;
+            for (var i = 0; i < rows; ++i) {
+                word |= (test(column[base + i]) ? 1L : 0L) << i;
+            }
+            return mask & word;
+        }
+
+        private boolean test(int v) {
+            switch (kind) {
+            case GT:
+                return v > value;
+            case LT:
+                return v < value;
+            case GE:
+                return v >= value;
+            case LE:
+                return v <= value;
+            case NE:
+                return v != value;
+            default:
+                return v == value;
+            }
+        }
+
+        @Override
+        int scan(int[][] columns, int rows, int[] selection,
+                 Scratch scratch) {
+            var column = columns[slot];
+            var count = 0;
+            // Each loop stores the index unconditionally and advances the
+            // count without a branch.
+            switch (kind) {
+            case GT:
+                for (var r = 0; r < rows; ++r) {
+                    selection[count] = r;
+                    count += (column[r] > value) ? 1 : 0;
+                }
+                return count;
+            case LT:
+                for (var r = 0; r < rows; ++r) {
+                    selection[count] = r;
+                    count += (column[r] < value) ? 1 : 0;
+                }
+                return count;
+            default:
+                for (var r = 0; r < rows; ++r) {
+                    selection[count] = r;
+                    count += test(column[r]) ? 1 : 0;
+                }
+                return count;
+            }
+        }
+
+        @Override
+        int refine(int[][] columns, int[] selection, int count,
+                   Scratch scratch) {
+            var column = columns[slot];
+            var kept = 0;
+            for (var k = 0; k < count; ++k) {
+                var r = selection[k];
+                selection[kept] = r;
+                kept += test(column[r]) ? 1 : 0;
+            }
+            return kept;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.maroontress.intexpr;
+
+import java.util.Optional;
+import com.maroontress.clione.Token;
+import com.maroontress.intexpr.impl.CompileException;
+import com.maroontress.intexpr.impl.Problem;
+
+/**
+    The error of an expression, located at the token where it occurs.
+
+    <p>The message of the first diagnostic of an expression is the same as
+    the message of the {@link IllegalArgumentException} that
+    {@link IntExpr#compile(String)} throws with the same expression. The
+    message is formatted only when {@link #getMessage()} is invoked.</p>
+
+    @see IntExpr#validate(CharSequence)
+    @see IntExpr#diagnose(CharSequence)
+*/
+public final class Diagnostic {
+
+    private final Problem problem;
+
+    /**
+        Creates a new instance.
+
+        @param problem The problem that the compiler has found.
+    */
+    Diagnostic(Problem problem) {
+        this.problem = problem;
+    }
+
+    /**
+        Returns a new instance representing the specified exception.
+
+        @param e The exception that the compiler has thrown.
+        @return The new instance.
+    */
+    static Diagnostic of(CompileException e) {
+        return new Diagnostic(e.getProblem());
+    }
+
+    /**
+        Returns the span of the token where the error occurs, such as
+        {@code "L1:5"} or {@code "L1:5-6"}.
+
+        @return The span, or {@link Optional#empty()} if the error is not
+            located at any token (for example, the expression is empty).
+    */
+    public Optional<String> getSpan() {
+        return problem.getToken()
+                .map(t -> t.getSpan().toString());
+    }
+
+    /**
+        Returns the string of the token where the error occurs.
+
+        @return The string of the token, or {@link Optional#empty()} if the
+            error is not located at any token.
+    */
+    public Optional<String> getToken() {
+        return problem.getToken()
+                .map(Token::getValue);
+    }
+
+    /**
+        Returns the description of the error, such as
+        {@code "syntax error"} or {@code "mismatched parenthesis"}.
+
+        @return The description.
+    */
+    public String getDescription() {
+        return problem.getDescription();
+    }
+
+    /**
+        Returns the message of the error, which contains the span, the
+        description, and the token.
+
+        @return The message.
+    */
+    public String getMessage() {
+        return problem.getMessage();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return "Diagnostic[message=" + getMessage() + "]";
+    }
+}
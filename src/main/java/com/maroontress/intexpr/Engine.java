@@ -0,0 +1,89 @@
+package com.maroontress.intexpr;
+
+import com.maroontress.intexpr.evaltree.EvalNodes;
+import com.maroontress.intexpr.impl.Evaluator;
+import com.maroontress.intexpr.impl.Interpreter;
+import com.maroontress.intexpr.impl.Program;
+import com.maroontress.intexpr.impl.RegisterMachine;
+
+/**
+    The engine that evaluates {@link CompiledExpr} objects.
+
+    <p>All the engines return the same value and throw the same exception
+    with the same message for the same expression and values.</p>
+
+    @see IntExpr#compile(String, Engine)
+*/
+public enum Engine {
+
+    /**
+        The stack machine that runs the instructions in Reverse Polish
+        notation.
+    */
+    STACK {
+        @Override
+        Evaluator newEvaluator(Program program) {
+            var size = program.getStackSize();
+            var all = program.getInstructions();
+            var targets = program.getJumpTargets();
+            if (targets != null) {
+                var code = program.getCode();
+                return new Evaluator() {
+                    @Override
+                    public int evaluate(int[] values) {
+                        var stack = new int[values.length + size];
+                        return Interpreter.run(code, targets, values, stack);
+                    }
+
+                    @Override
+                    public int evaluate(int[] values, int[] stack) {
+                        return Interpreter.run(code, targets, values, stack);
+                    }
+                };
+            }
+            return new Evaluator() {
+                @Override
+                public int evaluate(int[] values) {
+                    return Interpreter.run(size, all, values);
+                }
+
+                @Override
+                public int evaluate(int[] values, int[] stack) {
+                    return Interpreter.run(all, values, stack);
+                }
+            };
+        }
+    },
+
+    /**
+        The tree of the nodes, each of which is specialized to its operation,
+        that evaluates the expression by walking the tree.
+    */
+    TREE {
+        @Override
+        Evaluator newEvaluator(Program program) {
+            var root = EvalNodes.of(program);
+            return root::execute;
+        }
+    },
+
+    /**
+        The register machine that runs the three-address code translated
+        from the instructions, whose operands are the registers holding the
+        variables and the intermediate results or the immediate values.
+    */
+    REGISTER {
+        @Override
+        Evaluator newEvaluator(Program program) {
+            return RegisterMachine.of(program);
+        }
+    };
+
+    /**
+        Returns a new evaluator of the specified program.
+
+        @param program The program.
+        @return The new evaluator.
+    */
+    abstract Evaluator newEvaluator(Program program);
+}
@@ -0,0 +1,84 @@
+package com.maroontress.intexpr;
+
+/**
+    The scratch memory that a single thread uses to evaluate
+    {@link CompiledExpr} objects without allocating it on each evaluation.
+
+    <p>The {@link EvalContext} object is mutable and not thread-safe. It is
+    designed to be confined to the thread that creates it and passed to
+    {@link CompiledExpr#eval(EvalContext, int...)} by the caller, rather than
+    kept in a {@link ThreadLocal} variable, so that millions of short-lived
+    virtual threads do not leave as many buffers behind. It is cheap to
+    create, and grows only when it evaluates the expression that needs more
+    memory than ever.</p>
+
+    <p>Evaluating an expression never blocks nor synchronizes, unless the
+    operators and functions registered with {@link OperatorRegistry} do, so
+    the virtual thread that evaluates it never parks while it is pinned to
+    its carrier thread, regardless of whether the context is used.</p>
+
+    <p>For example, each task running in a virtual thread can evaluate the
+    shared expression with its own context and its own array of the values
+    as follows, since passing the variable arguments allocates an array on
+    each call:</p>
+
+    <pre>
+    var expr = IntExpr.compile("x * y + 1", Engine.STACK);
+    try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+        for (var input : inputs) {
+            executor.submit(() -&gt; {
+                var context = new EvalContext();
+                var values = new int[2];
+                for (var point : input) {
+                    values[0] = point.getX();
+                    values[1] = point.getY();
+                    consume(expr.eval(context, values));
+                }
+            });
+        }
+    }</pre>
+*/
+public final class EvalContext {
+
+    private static final int INITIAL_SIZE = 16;
+
+    private int[] stack = new int[INITIAL_SIZE];
+    private int[] values = new int[0];
+
+    /**
+        Creates a new instance.
+    */
+    public EvalContext() {
+    }
+
+    /**
+        Returns the array that has at least the specified length.
+
+        <p>The content of the array is undefined.</p>
+
+        @param size The minimum length of the array.
+        @return The array.
+    */
+    int[] getStack(int size) {
+        if (stack.length < size) {
+            stack = new int[Math.max(size, stack.length * 2)];
+        }
+        return stack;
+    }
+
+    /**
+        Returns the array that has the specified length, for the values of
+        the variables.
+
+        <p>The content of the array is undefined.</p>
+
+        @param size The length of the array.
+        @return The array.
+    */
+    int[] getValues(int size) {
+        if (values.length != size) {
+            values = new int[size];
+        }
+        return values;
+    }
+}
@@ -2,11 +2,20 @@ package com.maroontress.intexpr;
 
 import java.io.IOException;
 import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import com.maroontress.intexpr.impl.CompileException;
 import com.maroontress.intexpr.impl.Compiler;
-import com.maroontress.intexpr.impl.Instruction;
-import com.maroontress.intexpr.impl.Interpreter;
+import com.maroontress.intexpr.impl.ProblemSink;
+import com.maroontress.intexpr.impl.Program;
+import com.maroontress.intexpr.impl.RangeAnalysis;
+import com.maroontress.intexpr.impl.StrengthReduction;
 import com.maroontress.intexpr.impl.SyntaxTree;
+import com.maroontress.intexpr.impl.Validator;
 
 /**
     A utility class to evaluate {@code int} expressions.
@@ -31,6 +40,11 @@ import com.maroontress.intexpr.impl.SyntaxTree;
     integer (2147483647). So, you have to represent the minimum integer with
     {@code (-2147483647 - 1)}.</p>
 
+    <p>An identifier such as {@code x} or {@code rate_2} is a variable. The
+    expression containing variables must be compiled with
+    {@link #compile(String)}, and then the values of the variables are given
+    with {@link CompiledExpr#eval(int...)}.</p>
+
     <p>In the following descriptions of legal expressions, <em>expr</em> refers
     to a complete expression:</p>
 
@@ -104,8 +118,78 @@ import com.maroontress.intexpr.impl.SyntaxTree;
 
     <dt><em>expr</em> <code>||</code> <em>expr</em></dt>
     <dd>The result is 1 if either expression is non-zero, otherwise 0.</dd>
+
+    <dt><em>expr1</em> <code>?</code> <em>expr2</em> <code>:</code>
+    <em>expr3</em></dt>
+    <dd>The result is <em>expr2</em> if <em>expr1</em> is non-zero,
+    otherwise <em>expr3</em>. Only the selected one of <em>expr2</em> and
+    <em>expr3</em> is evaluated, so {@code x != 0 ? 100 / x : 0} never
+    divides by zero.</dd>
     </dl>
 
+    <p>The following built-in functions are also available. They are
+    implemented without branches, so they are cheaper than the equivalent
+    expressions with the comparisons and multiplications:</p>
+
+    <dl>
+    <dt><code>min(</code> <em>a</em> <code>,</code> <em>b</em>
+    <code>)</code></dt>
+    <dd>The result is the smaller of <em>a</em> and <em>b</em>.</dd>
+
+    <dt><code>max(</code> <em>a</em> <code>,</code> <em>b</em>
+    <code>)</code></dt>
+    <dd>The result is the greater of <em>a</em> and <em>b</em>.</dd>
+
+    <dt><code>abs(</code> <em>expr</em> <code>)</code></dt>
+    <dd>The result is the absolute value of the expression.
+    {@code abs(-2147483647 - 1)} overflows.</dd>
+
+    <dt><code>clamp(</code> <em>x</em> <code>,</code> <em>lo</em>
+    <code>,</code> <em>hi</em> <code>)</code></dt>
+    <dd>The result is <code>min(max(</code><em>x</em><code>,</code>
+    <em>lo</em><code>),</code> <em>hi</em><code>)</code>.</dd>
+
+    <dt><code>select(</code> <em>cond</em> <code>,</code> <em>a</em>
+    <code>,</code> <em>b</em> <code>)</code></dt>
+    <dd>The result is <em>a</em> if <em>cond</em> is non-zero, otherwise
+    <em>b</em>. All three expressions are evaluated.</dd>
+    </dl>
+
+    <p>The following built-in functions treat their operands as unsigned
+    32-bit integers. Each of them is a single call to the method of
+    {@link Integer} that the JIT compiler intrinsifies:</p>
+
+    <dl>
+    <dt><code>ushr(</code> <em>a</em> <code>,</code> <em>n</em>
+    <code>)</code></dt>
+    <dd>The result is <em>a</em> {@code >>>} <em>n</em> in Java, that is,
+    the logical right shift.</dd>
+
+    <dt><code>udiv(</code> <em>a</em> <code>,</code> <em>b</em>
+    <code>)</code></dt>
+    <dd>The result is the unsigned quotient of <em>a</em> by <em>b</em>.
+    {@code udiv(x, 0)} divides by zero.</dd>
+
+    <dt><code>urem(</code> <em>a</em> <code>,</code> <em>b</em>
+    <code>)</code></dt>
+    <dd>The result is the unsigned remainder of <em>a</em> by <em>b</em>.
+    {@code urem(x, 0)} divides by zero.</dd>
+
+    <dt><code>ult(</code> <em>a</em> <code>,</code> <em>b</em>
+    <code>)</code>, <code>ule(</code> <em>a</em> <code>,</code> <em>b</em>
+    <code>)</code>, <code>ugt(</code> <em>a</em> <code>,</code> <em>b</em>
+    <code>)</code>, <code>uge(</code> <em>a</em> <code>,</code> <em>b</em>
+    <code>)</code></dt>
+    <dd>The result is 1 if <em>a</em> is less than, less than or equal to,
+    greater than, or greater than or equal to <em>b</em> as unsigned
+    integers, otherwise 0.</dd>
+    </dl>
+
+    <p>An identifier that is not followed by {@code (} is a variable even if
+    it is the name of a function, so {@code max + 1} adds 1 to the variable
+    {@code max}. The functions registered with {@link OperatorRegistry} are
+    called with the same syntax.</p>
+
     <p>The operator precedence is as follows:</p>
 
     <table style="border-collapse: collapse;">
@@ -176,16 +260,28 @@ import com.maroontress.intexpr.impl.SyntaxTree;
     <code>&amp;&amp;</code></td>
     </tr>
     <tr>
+    <td style="padding: 1ex; text-align: center; border: 1px solid;"></td>
+    <td style="padding: 1ex; text-align: center; border: 1px solid;">
+    <code>||</code></td>
+    </tr>
+    <tr>
     <td style="padding: 1ex; text-align: center; border: 1px solid;">
     lowest</td>
     <td style="padding: 1ex; text-align: center; border: 1px solid;">
-    <code>||</code></td>
+    <code>?:</code></td>
+    <td style="padding: 1ex; text-align: center; border: 1px solid;">
+    Right-to-left</td>
     </tr>
     </tbody>
     </table>
 */
 public final class IntExpr {
 
+    /** The engine that {@link #compile(String)} uses. */
+    static final Engine DEFAULT_ENGINE = Engine.TREE;
+
+    private static final int[] NO_VALUES = {};
+
     /** Prevents the class from being instantiated. */
     private IntExpr() {
         throw new AssertionError();
@@ -205,13 +301,12 @@ public final class IntExpr {
         @return The evaluated value.
         @throws IllegalArgumentException If the specified {@code expr} has
             syntax errors such as a mismatched or missing parenthesis, a stray
-            token, an unknown token.
+            token, an unknown token, or if it contains variables.
         @throws ArithmeticException If there is an attempt to divide an integer
             value by zero or to overflow.
     */
     public static int eval(String expr) {
-        var list = toRpn(expr);
-        return Interpreter.run(list.size(), list);
+        return toProgram(expr).run(NO_VALUES);
     }
 
     /**
@@ -248,24 +343,259 @@ public final class IntExpr {
             token, an unknown token.
     */
     public static String toTree(String expr) {
-        var list = toRpn(expr);
-        var tree = new SyntaxTree(list);
+        var program = toProgram(expr);
+        var tree = new SyntaxTree(program.getInstructions());
         return tree.toString();
     }
 
     /**
-        Create a new list of an {@link Instruction} object with the specified
-        expression.
+        Checks the syntax of the specified expression without compiling it.
 
-        @param expr The expression to evaluate.
-        @return The new list of an {@link Instruction} object.
+        <p>This method reports the same error as the
+        {@link IllegalArgumentException} that {@link #compile(String)} throws
+        with the same expression, but it is much cheaper if the expression is
+        valid, because it creates neither instructions nor exceptions.</p>
+
+        <p>For example, the invocation {@code IntExpr.validate("(1 + x")}
+        returns the diagnostic whose message is
+        {@code L1:1: mismatched parenthesis: "("}.</p>
+
+        @param expr The expression to check.
+        @return {@link Optional#empty()} if the expression is valid,
+            otherwise the diagnostic of the first error.
+    */
+    public static Optional<Diagnostic> validate(CharSequence expr) {
+        var source = expr.toString();
+        try {
+            if (Validator.accepts(new StringReader(source))) {
+                return Optional.empty();
+            }
+            Compiler.compile(new StringReader(source));
+        } catch (CompileException e) {
+            return Optional.of(Diagnostic.of(e));
+        } catch (IOException e) {
+            throw new AssertionError();
+        }
+        return Optional.empty();
+    }
+
+    /**
+        Checks the specified expression and returns the diagnostics of all
+        the errors that it has.
+
+        <p>The compiler recovers from each error and continues to check the
+        rest of the expression, so that this method finds all the errors in
+        a single pass. The first diagnostic is the same error as the
+        {@link IllegalArgumentException} that {@link #compile(String)} throws
+        with the same expression.</p>
+
+        <p>For example, the invocation {@code IntExpr.diagnose("1 + (2 3")}
+        returns the list of the diagnostics whose messages are
+        {@code L1:8: syntax error: "3"} and
+        {@code L1:5: mismatched parenthesis: "("}.</p>
+
+        @param expr The expression to check.
+        @return The unmodifiable list of the diagnostics, which is empty if
+            the expression is valid.
+        @see #diagnose(CharSequence, Consumer)
+    */
+    public static List<Diagnostic> diagnose(CharSequence expr) {
+        var list = new ArrayList<Diagnostic>();
+        diagnose(expr, list::add);
+        return List.copyOf(list);
+    }
+
+    /**
+        Checks the specified expression and passes the diagnostics of all
+        the errors that it has to the specified consumer, in the order of
+        {@link #diagnose(CharSequence)}.
+
+        <p>The messages of the diagnostics are not formatted unless the
+        consumer invokes {@link Diagnostic#getMessage()}, so it is cheap to
+        count the errors or to collect only their spans.</p>
+
+        @param expr The expression to check.
+        @param consumer The consumer that receives the diagnostics.
+    */
+    public static void diagnose(CharSequence expr,
+                                Consumer<? super Diagnostic> consumer) {
+        toProgram(expr.toString(), CompileOptions.DEFAULT,
+                p -> consumer.accept(new Diagnostic(p)));
+    }
+
+    /**
+        Compiles the specified string representing an expression and returns
+        the {@link CompiledExpr} object, which can be evaluated repeatedly
+        without parsing the string again.
+
+        @param expr The expression to compile.
+        @return The new {@link CompiledExpr} object.
+        @throws IllegalArgumentException If the specified {@code expr} has
+            syntax errors such as a mismatched or missing parenthesis, a stray
+            token, an unknown token.
+    */
+    public static CompiledExpr compile(String expr) {
+        return new CompiledExpr(toProgram(expr));
+    }
+
+    /**
+        Compiles the specified string representing an expression and returns
+        the {@link CompiledExpr} object that the specified engine evaluates.
+
+        @param expr The expression to compile.
+        @param engine The engine that evaluates the expression.
+        @return The new {@link CompiledExpr} object.
+        @throws IllegalArgumentException If the specified {@code expr} has
+            syntax errors such as a mismatched or missing parenthesis, a stray
+            token, an unknown token.
+        @see #compile(String)
+    */
+    public static CompiledExpr compile(String expr, Engine engine) {
+        var options = CompileOptions.builder()
+                .engine(engine)
+                .build();
+        return compile(expr, options);
+    }
+
+    /**
+        Compiles the specified string representing an expression with the
+        specified options and returns the {@link CompiledExpr} object.
+
+        @param expr The expression to compile.
+        @param options The options.
+        @return The new {@link CompiledExpr} object.
+        @throws IllegalArgumentException If the specified {@code expr} has
+            syntax errors such as a mismatched or missing parenthesis, a stray
+            token, an unknown token.
+        @see CompileOptions
+    */
+    public static CompiledExpr compile(String expr, CompileOptions options) {
+        return new CompiledExpr(toProgram(expr, options),
+                options.getEngine(), options.getTableLimit());
+    }
+
+    /**
+        Compiles the specified strings representing expressions in parallel
+        and returns the result containing both the {@link CompiledExpr}
+        objects and the errors.
+
+        <p>This method does not throw {@link IllegalArgumentException} even
+        if some expressions have syntax errors. Instead, the result contains
+        a {@link CompileError} object for each of them. The identical
+        expressions are compiled only once.</p>
+
+        <p>The compilation runs in the common {@link
+        java.util.concurrent.ForkJoinPool}.</p>
+
+        @param exprs The expressions to compile.
+        @return The result of the compilation.
+    */
+    public static CompilationResult compileAll(Collection<String> exprs) {
+        return compileAll(exprs, CompileOptions.DEFAULT);
+    }
+
+    /**
+        Compiles the strings representing expressions that the specified
+        stream provides in parallel and returns the result containing both the
+        {@link CompiledExpr} objects and the errors.
+
+        @param exprs The stream of the expressions to compile.
+        @return The result of the compilation.
+        @see #compileAll(Collection)
+    */
+    public static CompilationResult compileAll(Stream<String> exprs) {
+        return compileAll(exprs, CompileOptions.DEFAULT);
+    }
+
+    /**
+        Compiles the specified strings representing expressions with the
+        specified options in parallel and returns the result containing both
+        the {@link CompiledExpr} objects and the errors.
+
+        <p>All the expressions are compiled with the same options, so the
+        {@link CompiledExpr} objects use the same operators, overflow policy,
+        ranges of the variables, and engine.</p>
+
+        @param exprs The expressions to compile.
+        @param options The options.
+        @return The result of the compilation.
+        @see #compileAll(Collection)
+        @see CompileOptions
+    */
+    public static CompilationResult compileAll(Collection<String> exprs,
+                                               CompileOptions options) {
+        return compileAll(exprs.stream(), options);
+    }
+
+    /**
+        Compiles the strings representing expressions that the specified
+        stream provides with the specified options in parallel and returns
+        the result containing both the {@link CompiledExpr} objects and the
+        errors.
+
+        @param exprs The stream of the expressions to compile.
+        @param options The options.
+        @return The result of the compilation.
+        @see #compileAll(Collection, CompileOptions)
+    */
+    public static CompilationResult compileAll(Stream<String> exprs,
+                                               CompileOptions options) {
+        return CompilationResult.of(exprs, options);
+    }
+
+    /**
+        Create a new {@link Program} object with the specified expression.
+
+        @param expr The expression to compile.
+        @return The new {@link Program} object.
+    */
+    static Program toProgram(String expr) {
+        return toProgram(expr, CompileOptions.DEFAULT);
+    }
+
+    /**
+        Create a new {@link Program} object with the specified expression and
+        options.
+
+        <p>The operations that never overflow nor divide by zero with the
+        declared ranges are lowered to their unchecked variants, and then the
+        multiplication, division, and remainder by constants are replaced
+        with the cheaper operations.</p>
+
+        @param expr The expression to compile.
+        @param options The options.
+        @return The new {@link Program} object.
+    */
+    static Program toProgram(String expr, CompileOptions options) {
+        return toProgram(expr, options, ProblemSink.THROWING).get();
+    }
+
+    /**
+        Create a new {@link Program} object with the specified expression and
+        options, reporting all the errors of the expression to the specified
+        sink.
+
+        @param expr The expression to compile.
+        @param options The options.
+        @param sink The sink that receives the errors.
+        @return The new {@link Program} object, or {@link Optional#empty()}
+            if the sink has received any errors.
     */
-    private static List<Instruction> toRpn(String expr) {
+    static Optional<Program> toProgram(String expr, CompileOptions options,
+                                       ProblemSink sink) {
+        Optional<Program> maybeProgram;
         try {
             var reader = new StringReader(expr);
-            return Compiler.toRpn(reader);
+            var table = options.getTable();
+            maybeProgram = Compiler.compile(reader, sink, table);
         } catch (IOException e) {
             throw new AssertionError();
         }
+        return maybeProgram.map(program -> {
+            var variables = program.getVariables();
+            var ranged = new Program(program.getInstructions(), variables,
+                    options.getRanges(variables));
+            return StrengthReduction.reduce(RangeAnalysis.lower(ranged));
+        });
     }
 }
@@ -0,0 +1,164 @@
+package com.maroontress.intexpr;
+
+import java.util.List;
+import com.maroontress.intexpr.impl.MemoTable;
+
+/**
+    The evaluation of a {@link CompiledExpr} object that caches the values
+    keyed by the values of the variables, so that evaluating the same values
+    again costs a single lookup of the hash table.
+
+    <p>The cache has the fixed capacity, which is the maximum number of the
+    values that it keeps. It takes {@code 4 * n + 9} bytes per entry plus
+    the index of 8 to 16 bytes per entry, where {@code n} is the number of
+    the variables. When the cache is full, it evicts the value that has not
+    been used recently with the CLOCK algorithm. The keys and values are
+    stored in the arrays of {@code int}, so neither the lookup nor the
+    insertion boxes them.</p>
+
+    <p>The evaluation that throws the exception is not cached, so the same
+    values throw the exception again. The statistics, such as
+    {@link #getHitRatio()}, tell whether the memoization pays off for the
+    expression: the expression whose values rarely repeat gains nothing
+    but the overhead of hashing the values.</p>
+
+    <p>The {@link MemoizedExpr} object is mutable and not thread-safe. Each
+    thread should create its own with {@link CompiledExpr#memoize(int)}.</p>
+
+    @see CompiledExpr#memoize(int)
+*/
+public final class MemoizedExpr {
+
+    private final CompiledExpr expr;
+    private final MemoTable table;
+    private final EvalContext context = new EvalContext();
+    private final int arity;
+    private long hitCount;
+    private long missCount;
+
+    /**
+        Creates a new instance.
+
+        @param expr The expression.
+        @param capacity The maximum number of the values in the cache.
+    */
+    MemoizedExpr(CompiledExpr expr, int capacity) {
+        this.expr = expr;
+        this.arity = expr.getVariables().size();
+        this.table = new MemoTable(arity, capacity);
+    }
+
+    /**
+        Returns the names of the variables that the expression contains.
+
+        @return The unmodifiable list of the names.
+        @see CompiledExpr#getVariables()
+    */
+    public List<String> getVariables() {
+        return expr.getVariables();
+    }
+
+    /**
+        Returns the value of the expression with the specified values of the
+        variables, evaluating it only if the cache does not contain the
+        values.
+
+        @param values The values of the variables in the order of
+            {@link #getVariables()}.
+        @return The value.
+        @throws IllegalArgumentException If the number of the values is not
+            equal to the number of the variables, or if some value is out of
+            the range declared with {@link CompileOptions}.
+        @throws ArithmeticException If there is an attempt to divide an integer
+            value by zero or to overflow.
+        @see CompiledExpr#eval(int...)
+    */
+    public int eval(int... values) {
+        if (values.length == arity) {
+            var entry = table.find(values);
+            if (entry >= 0) {
+                ++hitCount;
+                return table.getValue(entry);
+            }
+        }
+        var value = expr.eval(context, values);
+        ++missCount;
+        table.put(values, value);
+        return value;
+    }
+
+    /**
+        Returns the number of the evaluations that have found the value in
+        the cache.
+
+        @return The number of the hits.
+    */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+        Returns the number of the evaluations that have not found the value
+        in the cache and succeeded.
+
+        @return The number of the misses.
+    */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+        Returns the number of the values that have been evicted from the
+        cache.
+
+        @return The number of the evictions.
+    */
+    public long getEvictionCount() {
+        return table.getEvictionCount();
+    }
+
+    /**
+        Returns the ratio of the hits to the hits and misses.
+
+        @return The hit ratio, or 0 if there is no evaluation.
+    */
+    public double getHitRatio() {
+        var total = hitCount + missCount;
+        return (total == 0) ? 0 : (double) hitCount / total;
+    }
+
+    /**
+        Returns the number of the values in the cache.
+
+        @return The number of the values.
+    */
+    public int size() {
+        return table.size();
+    }
+
+    /**
+        Returns the maximum number of the values in the cache.
+
+        @return The capacity.
+    */
+    public int getCapacity() {
+        return table.getCapacity();
+    }
+
+    /**
+        Removes all the values from the cache and resets the statistics.
+    */
+    public void clear() {
+        table.clear();
+        hitCount = 0;
+        missCount = 0;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return "MemoizedExpr{size=" + size() + ", capacity=" + getCapacity()
+                + ", hits=" + hitCount + ", misses=" + missCount
+                + ", evictions=" + getEvictionCount() + "}";
+    }
+}
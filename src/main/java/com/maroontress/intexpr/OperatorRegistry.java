@@ -0,0 +1,290 @@
+package com.maroontress.intexpr;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntUnaryOperator;
+import java.util.function.ToIntFunction;
+import com.maroontress.intexpr.impl.IntBinaryOperation;
+import com.maroontress.intexpr.impl.IntNaryOperation;
+import com.maroontress.intexpr.impl.IntUnaryOperation;
+import com.maroontress.intexpr.impl.OperatorSpec;
+import com.maroontress.intexpr.impl.OperatorTable;
+import com.maroontress.intexpr.impl.OperatorType;
+
+/**
+    The set of the operators and functions that the expressions can contain.
+
+    <p>The registry contains the built-in operators and the unary operators,
+    binary operators, and functions with call syntax registered with the
+    {@link Builder}. For example, the following registry provides the
+    binary operator {@code ->}, which returns the greater operand, and the
+    functions {@code sadd} and {@code mid}:</p>
+
+    <pre>
+    var registry = OperatorRegistry.builder()
+        .binary("-&gt;", 3, Math::max)
+        .function("sadd", (a, b) -&gt; (int) Math.max(Integer.MIN_VALUE,
+            Math.min(Integer.MAX_VALUE, (long) a + b)))
+        .function("mid", 3, a -&gt; a[0] + a[1] + a[2]
+            - Math.min(a[0], Math.min(a[1], a[2]))
+            - Math.max(a[0], Math.max(a[1], a[2])))
+        .build();
+    var options = CompileOptions.builder()
+        .operators(registry)
+        .build();
+    var expr = IntExpr.compile("mid(sadd(x, y), 0, z -&gt; 255)", options);
+    </pre>
+
+    <p>The registered operators and functions take part in every engine,
+    {@link CompiledExprGroup}, and {@link ReactiveExpr}, as well as the
+    built-in ones. The compiler also applies them to the constant operands
+    at compile time, so they must be pure functions. A function replaces
+    the built-in function of the same name, such as {@code max}. The name
+    of a function that is not followed by the left parenthesis is a
+    variable. They may throw
+    {@link ArithmeticException}, which the evaluation throws as is.</p>
+
+    <p>The {@link OperatorRegistry} object is immutable. It freezes the
+    operators into the lookup table when it is built, so compiling with it
+    costs no more than compiling with the built-in operators.</p>
+
+    @see CompileOptions.Builder#operators(OperatorRegistry)
+*/
+public final class OperatorRegistry {
+
+    /** The registry that contains only the built-in operators. */
+    public static final OperatorRegistry DEFAULT
+            = new OperatorRegistry(OperatorTable.DEFAULT);
+
+    private static final int MIN_BINARY_PRECEDENCE = 2;
+
+    private final OperatorTable table;
+
+    private OperatorRegistry(OperatorTable table) {
+        this.table = table;
+    }
+
+    /**
+        Returns a new builder of {@link OperatorRegistry} objects, which
+        starts with the built-in operators.
+
+        @return The new builder.
+    */
+    public static Builder builder() {
+        return DEFAULT.toBuilder();
+    }
+
+    /**
+        Returns a new builder that starts with the operators and functions of
+        this registry.
+
+        @return The new builder.
+    */
+    public Builder toBuilder() {
+        return new Builder(table.getOperators());
+    }
+
+    /**
+        Returns the precedence of the specified binary operator.
+
+        <p>The smaller value means the higher precedence. The built-in
+        binary operators have the precedences as follows:</p>
+
+        <ul>
+        <li>2: {@code * / %}</li>
+        <li>3: {@code + -}</li>
+        <li>4: {@code << >>}</li>
+        <li>5: {@code < <= > >=}</li>
+        <li>6: {@code == !=}</li>
+        <li>7: {@code &}</li>
+        <li>8: {@code ^}</li>
+        <li>9: {@code |}</li>
+        <li>10: {@code &&}</li>
+        <li>11: {@code ||}</li>
+        </ul>
+
+        @param symbol The symbol of the binary operator.
+        @return The precedence, or {@link OptionalInt#empty()} if this
+            registry does not contain the binary operator.
+    */
+    public OptionalInt getPrecedence(String symbol) {
+        var spec = table.lookup(symbol, OperatorType.BINARY);
+        return (spec == null)
+                ? OptionalInt.empty()
+                : OptionalInt.of(spec.getPrecedence());
+    }
+
+    /**
+        Returns the frozen table of the operators and functions.
+
+        @return The table.
+    */
+    OperatorTable getTable() {
+        return table;
+    }
+
+    /**
+        The builder of {@link OperatorRegistry} objects.
+
+        <p>Registering the operator with the same symbol and type as an
+        existing one, or the function with the same name as an existing one,
+        replaces it.</p>
+    */
+    public static final class Builder {
+
+        private final List<OperatorSpec> list;
+
+        private Builder(List<OperatorSpec> operators) {
+            list = new ArrayList<>(operators);
+        }
+
+        /**
+            Registers the unary operator, which has the same precedence as
+            the built-in unary operators.
+
+            <p>The symbol must be the one that the lexical parser of the C
+            programming language recognizes as a single operator, such as
+            {@code "++"} or {@code "--"}.</p>
+
+            @param symbol The symbol of the operator.
+            @param operator The function of the operator.
+            @return This builder.
+            @throws IllegalArgumentException If the symbol is not a single
+                operator token of the lexical parser, or if it is {@code "?"}
+                or {@code ":"}.
+        */
+        public Builder unary(String symbol, IntUnaryOperator operator) {
+            checkSymbol(symbol);
+            IntUnaryOperation o = operator::applyAsInt;
+            list.add(OperatorSpec.newUnary(symbol, o));
+            return this;
+        }
+
+        /**
+            Registers the binary operator, which is left-associative.
+
+            <p>The symbol must be the one that the lexical parser of the C
+            programming language recognizes as a single operator, such as
+            {@code "->"} or {@code "+="}.</p>
+
+            @param symbol The symbol of the operator.
+            @param precedence The precedence of the operator, which must be
+                2 or more. The smaller value means the higher precedence.
+            @param operator The function of the operator.
+            @return This builder.
+            @throws IllegalArgumentException If the symbol is not a single
+                operator token of the lexical parser, or if it is {@code "?"}
+                or {@code ":"}, or if the precedence is less than 2.
+            @see OperatorRegistry#getPrecedence(String)
+        */
+        public Builder binary(String symbol, int precedence,
+                              IntBinaryOperator operator) {
+            checkSymbol(symbol);
+            if (precedence < MIN_BINARY_PRECEDENCE) {
+                throw new IllegalArgumentException(
+                        "invalid precedence: " + precedence);
+            }
+            IntBinaryOperation o = operator::applyAsInt;
+            list.add(OperatorSpec.newBinary(symbol, precedence, o));
+            return this;
+        }
+
+        /**
+            Registers the function that takes a single argument.
+
+            @param name The name of the function, which must be an
+                identifier.
+            @param function The function.
+            @return This builder.
+            @throws IllegalArgumentException If the name is not an
+                identifier.
+        */
+        public Builder function(String name, IntUnaryOperator function) {
+            checkName(name);
+            IntUnaryOperation o = function::applyAsInt;
+            list.add(OperatorSpec.newFunction(name, 1, o));
+            return this;
+        }
+
+        /**
+            Registers the function that takes two arguments.
+
+            @param name The name of the function, which must be an
+                identifier.
+            @param function The function.
+            @return This builder.
+            @throws IllegalArgumentException If the name is not an
+                identifier.
+        */
+        public Builder function(String name, IntBinaryOperator function) {
+            checkName(name);
+            IntBinaryOperation o = function::applyAsInt;
+            list.add(OperatorSpec.newFunction(name, 2, o));
+            return this;
+        }
+
+        /**
+            Registers the function that takes the specified number of
+            arguments.
+
+            <p>The function receives the arguments in a new array on each
+            call. The functions that take one or two arguments are
+            registered without the array.</p>
+
+            @param name The name of the function, which must be an
+                identifier.
+            @param arity The number of the arguments, which must be
+                positive.
+            @param function The function.
+            @return This builder.
+            @throws IllegalArgumentException If the name is not an
+                identifier, or if the arity is not positive.
+        */
+        public Builder function(String name, int arity,
+                                ToIntFunction<int[]> function) {
+            checkName(name);
+            if (arity == 1) {
+                return function(name, a -> function.applyAsInt(
+                        new int[] {a}));
+            }
+            if (arity == 2) {
+                return function(name, (a, b) -> function.applyAsInt(
+                        new int[] {a, b}));
+            }
+            if (arity < 1) {
+                throw new IllegalArgumentException("invalid arity: " + arity);
+            }
+            var o = new IntNaryOperation(arity, function);
+            list.add(OperatorSpec.newFunction(name, arity, o));
+            return this;
+        }
+
+        /**
+            Returns a new {@link OperatorRegistry} object with the operators
+            and functions registered with this builder.
+
+            @return The new {@link OperatorRegistry} object.
+        */
+        public OperatorRegistry build() {
+            return new OperatorRegistry(new OperatorTable(list));
+        }
+
+        private static void checkSymbol(String symbol) {
+            if (!OperatorTable.isValidSymbol(symbol)) {
+                throw new IllegalArgumentException(
+                        "invalid symbol: " + symbol);
+            }
+        }
+
+        private static void checkName(String name) {
+            if (name.isEmpty()
+                    || !Character.isJavaIdentifierStart(name.charAt(0))
+                    || !name.chars()
+                        .allMatch(Character::isJavaIdentifierPart)) {
+                throw new IllegalArgumentException("invalid name: " + name);
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.maroontress.intexpr;
+
+import com.maroontress.intexpr.impl.OperatorSpec;
+import com.maroontress.intexpr.impl.OperatorTable;
+
+/**
+    The policy of the built-in operators and functions when the result
+    overflows.
+
+    <p>The policy applies to unary {@code -}, binary {@code +}, {@code -},
+    {@code *}, {@code /}, and {@code abs}, which are the only ones that can
+    overflow. The division and remainder by zero throw
+    {@link ArithmeticException} with any policy. The operators and functions
+    registered with {@link OperatorRegistry} are not affected.</p>
+
+    @see CompileOptions.Builder#overflow(OverflowPolicy)
+*/
+public enum OverflowPolicy {
+
+    /**
+        The policy that throws {@link ArithmeticException} when the result
+        overflows.
+    */
+    CHECKED {
+        @Override
+        OperatorTable apply(OperatorTable table) {
+            return table;
+        }
+    },
+
+    /**
+        The policy that wraps the result around as Java does, so that
+        {@code 2147483647 + 1} results in {@code -2147483648}.
+
+        <p>The operators never check the overflow, so they compile into the
+        bare arithmetic instructions of the JVM.</p>
+    */
+    WRAPPING {
+        @Override
+        OperatorTable apply(OperatorTable table) {
+            return table.replace(OperatorSpec.getWrappingVariants());
+        }
+    },
+
+    /**
+        The policy that saturates the result at {@link Integer#MIN_VALUE}
+        and {@link Integer#MAX_VALUE}, so that {@code 2147483647 + 1}
+        results in {@code 2147483647}.
+    */
+    SATURATING {
+        @Override
+        OperatorTable apply(OperatorTable table) {
+            return table.replace(OperatorSpec.getSaturatingVariants());
+        }
+    };
+
+    /**
+        Returns the table in which the built-in operators and functions of
+        the specified table are replaced with those of this policy.
+
+        @param table The table.
+        @return The new table, or {@code table} if nothing is replaced.
+    */
+    abstract OperatorTable apply(OperatorTable table);
+}
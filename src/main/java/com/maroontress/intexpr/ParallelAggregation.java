@@ -0,0 +1,99 @@
+package com.maroontress.intexpr;
+
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+    The aggregation that splits the rows into the ranges, aggregates them in
+    the common {@link java.util.concurrent.ForkJoinPool}, and merges the
+    partial aggregations.
+
+    <p>If the aggregation of some range throws the exception, the other
+    ranges that have not started yet are skipped, and the exception is
+    rethrown as it is in the calling thread.</p>
+*/
+final class ParallelAggregation {
+
+    /** The number of the rows that a single task aggregates at most. */
+    static final int THRESHOLD = 1 << 12;
+
+    private ParallelAggregation() {
+        throw new AssertionError();
+    }
+
+    /**
+        Returns the aggregation of the specified number of the rows.
+
+        @param rows The number of the rows.
+        @param partial The function that aggregates the range of the rows.
+        @return The aggregation.
+    */
+    static Aggregate invoke(int rows, Partial partial) {
+        if (rows <= THRESHOLD) {
+            return partial.apply(0, rows);
+        }
+        var failure = new AtomicReference<RuntimeException>();
+        var result = new Task(partial, failure, 0, rows).invoke();
+        var e = failure.get();
+        if (e != null) {
+            throw e;
+        }
+        return result;
+    }
+
+    /**
+        The function that aggregates the range of the rows.
+    */
+    @FunctionalInterface
+    interface Partial {
+
+        /**
+            Returns the aggregation of the rows in the specified range.
+
+            @param from The index of the first row (inclusive).
+            @param to The index of the last row (exclusive).
+            @return The aggregation.
+        */
+        Aggregate apply(int from, int to);
+    }
+
+    private static final class Task extends RecursiveTask<Aggregate> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient Partial partial;
+        private final transient AtomicReference<RuntimeException> failure;
+        private final int from;
+        private final int to;
+
+        Task(Partial partial, AtomicReference<RuntimeException> failure,
+             int from, int to) {
+            this.partial = partial;
+            this.failure = failure;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Aggregate compute() {
+            if (failure.get() != null) {
+                return Aggregate.EMPTY;
+            }
+            if (to - from <= THRESHOLD) {
+                try {
+                    return partial.apply(from, to);
+                } catch (RuntimeException e) {
+                    // ForkJoinTask would rethrow a copy of the exception
+                    // without the message.
+                    failure.compareAndSet(null, e);
+                    return Aggregate.EMPTY;
+                }
+            }
+            var middle = (from + to) >>> 1;
+            var left = new Task(partial, failure, from, middle);
+            left.fork();
+            var right = new Task(partial, failure, middle, to).compute();
+            return left.join().merge(right);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.maroontress.intexpr;
+
+import java.util.List;
+import com.maroontress.intexpr.impl.DagProgram;
+import com.maroontress.intexpr.impl.IncrementalEvaluator;
+import com.maroontress.intexpr.impl.SyntaxTree;
+import com.maroontress.intexpr.syntaxtree.SyntaxNodeTable;
+
+/**
+    The evaluation of a {@link CompiledExpr} object that keeps the last value
+    of every subexpression and, when some variables change, recomputes only
+    the subexpressions that depend on them.
+
+    <p>Changing one variable of a large expression costs as many operations
+    as the subexpressions on the paths from the variable to the root, rather
+    than the size of the expression. The recomputation also stops where the
+    value of a subexpression does not change.</p>
+
+    <p>The {@link ReactiveExpr} object is mutable and not thread-safe.</p>
+
+    @see CompiledExpr#toReactive(int...)
+*/
+public final class ReactiveExpr {
+
+    private final CompiledExpr expr;
+    private final IncrementalEvaluator evaluator;
+    private final int root;
+
+    /**
+        Creates a new instance.
+
+        @param expr The expression.
+        @param values The initial values of the variables.
+    */
+    ReactiveExpr(CompiledExpr expr, int[] values) {
+        var program = expr.getProgram();
+        program.checkValues(values);
+        var tree = new SyntaxTree(program.getInstructions());
+        var table = new SyntaxNodeTable();
+        var dag = new DagProgram(List.of(table.intern(tree.getRoot())),
+                program.getVariables());
+        this.expr = expr;
+        this.evaluator = new IncrementalEvaluator(dag, values);
+        this.root = dag.getRoot(0);
+    }
+
+    /**
+        Returns the names of the variables that the expression contains.
+
+        @return The unmodifiable list of the names.
+        @see CompiledExpr#getVariables()
+    */
+    public List<String> getVariables() {
+        return expr.getVariables();
+    }
+
+    /**
+        Changes the value of the specified variable.
+
+        @param index The index of the variable in {@link #getVariables()}.
+        @param value The new value.
+        @return This object.
+        @throws IndexOutOfBoundsException If {@code index} is out of range.
+        @throws IllegalArgumentException If {@code value} is out of the
+            declared range of the variable.
+    */
+    public ReactiveExpr set(int index, int value) {
+        expr.getProgram().checkValue(index, value);
+        evaluator.setValue(index, value);
+        return this;
+    }
+
+    /**
+        Changes the value of the specified variable.
+
+        @param name The name of the variable.
+        @param value The new value.
+        @return This object.
+        @throws IllegalArgumentException If the expression does not contain
+            the variable, or if {@code value} is out of the declared range of
+            the variable.
+    */
+    public ReactiveExpr set(String name, int value) {
+        var index = getVariables().indexOf(name);
+        if (index < 0) {
+            throw new IllegalArgumentException("unknown variable: " + name);
+        }
+        return set(index, value);
+    }
+
+    /**
+        Returns the value of the specified variable.
+
+        @param index The index of the variable in {@link #getVariables()}.
+        @return The value.
+    */
+    public int getValue(int index) {
+        return evaluator.getValue(index);
+    }
+
+    /**
+        Returns the value of the expression with the current values of the
+        variables.
+
+        @return The value of the expression.
+        @throws ArithmeticException If there is an attempt to divide an integer
+            value by zero or to overflow. The exception is the same as one
+            that {@link CompiledExpr#eval(int...)} throws with the current
+            values.
+    */
+    public int get() {
+        evaluator.update();
+        if (evaluator.isFailed(root)) {
+            expr.eval(evaluator.getValues());
+            throw new AssertionError();
+        }
+        return evaluator.getNode(root);
+    }
+}
@@ -0,0 +1,251 @@
+package com.maroontress.intexpr;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+    The {@link CompiledExpr} object bound to the {@link RecordLayout}
+    object, which takes the values of the variables from the fields of the
+    binary records in {@link ByteBuffer} objects.
+
+    <p>The variables are read from the buffer with the absolute
+    {@code get} methods, straight into the scratch memory of the
+    evaluation, so neither the records nor the fields are copied into other
+    objects, and the position of the buffer never changes. The buffer can
+    be either direct or non-direct, and its byte order does not
+    matter.</p>
+
+    <p>This library targets Java 11, so it does not take the
+    {@code MemorySegment} of Java 21 directly. The view that
+    {@code MemorySegment.asByteBuffer()} returns shares the memory of the
+    segment, so the records in a segment are evaluated through the view
+    without copying them.</p>
+
+    <p>The {@link RecordExpr} object is immutable, so multiple threads can
+    evaluate it concurrently.</p>
+
+    @see CompiledExpr#bind(RecordLayout)
+*/
+public final class RecordExpr {
+
+    private final CompiledExpr expr;
+    private final RecordLayout layout;
+    private final RecordLayout.Field[] fields;
+
+    /**
+        Creates a new instance.
+
+        @param expr The expression.
+        @param layout The layout of the records.
+        @throws IllegalArgumentException If the layout does not have the
+            field of some variable of the expression.
+    */
+    RecordExpr(CompiledExpr expr, RecordLayout layout) {
+        var variables = expr.getVariables();
+        var n = variables.size();
+        fields = new RecordLayout.Field[n];
+        for (var k = 0; k < n; ++k) {
+            var name = variables.get(k);
+            var f = layout.getField(name);
+            if (f == null) {
+                throw new IllegalArgumentException(
+                        "the layout has no field of the variable: " + name);
+            }
+            fields[k] = f;
+        }
+        this.expr = expr;
+        this.layout = layout;
+    }
+
+    /**
+        Returns the names of the variables that the expression contains.
+
+        @return The unmodifiable list of the names.
+        @see CompiledExpr#getVariables()
+    */
+    public List<String> getVariables() {
+        return expr.getVariables();
+    }
+
+    /**
+        Returns the layout of the records.
+
+        @return The layout.
+    */
+    public RecordLayout getLayout() {
+        return layout;
+    }
+
+    /**
+        Evaluates the expression with the record at the specified index of
+        the buffer and returns the evaluated value.
+
+        @param buffer The buffer.
+        @param index The index of the first byte of the record.
+        @return The evaluated value.
+        @throws IndexOutOfBoundsException If the record is out of the limit
+            of the buffer.
+        @throws IllegalArgumentException If the value of some field is out
+            of the range declared with {@link CompileOptions}.
+        @throws ArithmeticException If there is an attempt to divide an integer
+            value by zero or to overflow.
+    */
+    public int eval(ByteBuffer buffer, int index) {
+        return eval(new EvalContext(), buffer, index);
+    }
+
+    /**
+        Evaluates the expression with the specified context and the record
+        at the specified index of the buffer, and returns the evaluated
+        value.
+
+        <p>This method is equivalent to {@link #eval(ByteBuffer, int)},
+        except that it uses the memory of the context instead of allocating
+        it.</p>
+
+        @param context The context, which must not be used by any other
+            thread concurrently.
+        @param buffer The buffer.
+        @param index The index of the first byte of the record.
+        @return The evaluated value.
+        @throws IndexOutOfBoundsException If the record is out of the limit
+            of the buffer.
+        @throws IllegalArgumentException If the value of some field is out
+            of the range declared with {@link CompileOptions}.
+        @throws ArithmeticException If there is an attempt to divide an integer
+            value by zero or to overflow.
+        @see EvalContext
+    */
+    public int eval(EvalContext context, ByteBuffer buffer, int index) {
+        checkIndex(buffer, index);
+        var values = context.getValues(fields.length);
+        read(buffer, index, isSwapped(buffer), values);
+        return expr.eval(context, values);
+    }
+
+    /**
+        Evaluates the expression with each of the consecutive records
+        between the position and the limit of the buffer, and stores the
+        evaluated values into the array.
+
+        <p>The number of the records is the number of the remaining bytes of
+        the buffer divided by the size of the record. The remaining bytes
+        that are fewer than the size of the record are ignored.</p>
+
+        @param buffer The buffer, the position of which is the index of the
+            first byte of the first record.
+        @param results The array that receives the evaluated values. Its
+            length must not be less than the number of the records.
+        @return The number of the records.
+        @throws IllegalArgumentException If the length of {@code results} is
+            less than the number of the records, or if the value of some
+            field is out of the range declared with {@link CompileOptions}.
+        @throws ArithmeticException If there is an attempt to divide an integer
+            value by zero or to overflow.
+    */
+    public int evalAll(ByteBuffer buffer, int[] results) {
+        var size = layout.getSize();
+        var count = buffer.remaining() / size;
+        if (results.length < count) {
+            throw new IllegalArgumentException(
+                    "the length of results must be at least " + count + ": "
+                    + results.length);
+        }
+        var context = new EvalContext();
+        var values = context.getValues(fields.length);
+        var swap = isSwapped(buffer);
+        var index = buffer.position();
+        for (var k = 0; k < count; ++k) {
+            read(buffer, index, swap, values);
+            results[k] = expr.eval(context, values);
+            index += size;
+        }
+        return count;
+    }
+
+    /**
+        Returns the aggregation of the values of the expression over the
+        consecutive records between the position and the limit of the
+        buffer.
+
+        <p>The records are the same as those of
+        {@link #evalAll(ByteBuffer, int[])}, but the value of each record is
+        added to the {@link Aggregate} instead of being stored into an
+        array.</p>
+
+        @param buffer The buffer, the position of which is the index of the
+            first byte of the first record.
+        @return The aggregation.
+        @throws IllegalArgumentException If the value of some field is out
+            of the range declared with {@link CompileOptions}.
+        @throws ArithmeticException If there is an attempt to divide an integer
+            value by zero or to overflow.
+    */
+    public Aggregate aggregate(ByteBuffer buffer) {
+        return aggregate(buffer, 0, buffer.remaining() / layout.getSize());
+    }
+
+    /**
+        Returns the aggregation of the values of the expression over the
+        consecutive records between the position and the limit of the
+        buffer, splitting the records into the ranges that the workers of
+        the common {@link java.util.concurrent.ForkJoinPool} aggregate in
+        parallel.
+
+        <p>The result is the same as that of {@link #aggregate(ByteBuffer)}.
+        If the expression throws the exception with some records, this
+        method throws one of them. The buffer must not be modified during
+        the aggregation.</p>
+
+        @param buffer The buffer, the position of which is the index of the
+            first byte of the first record.
+        @return The aggregation.
+        @throws IllegalArgumentException If the value of some field is out
+            of the range declared with {@link CompileOptions}.
+        @throws ArithmeticException If there is an attempt to divide an integer
+            value by zero or to overflow.
+    */
+    public Aggregate parallelAggregate(ByteBuffer buffer) {
+        var count = buffer.remaining() / layout.getSize();
+        return ParallelAggregation.invoke(count, (from, to) -> {
+            // Each worker has its own view of the shared content.
+            var view = buffer.duplicate().order(buffer.order());
+            return aggregate(view, from, to);
+        });
+    }
+
+    private Aggregate aggregate(ByteBuffer buffer, int from, int to) {
+        var size = layout.getSize();
+        var context = new EvalContext();
+        var values = context.getValues(fields.length);
+        var swap = isSwapped(buffer);
+        var index = buffer.position() + from * size;
+        var a = new Aggregate.Accumulator();
+        for (var k = from; k < to; ++k) {
+            read(buffer, index, swap, values);
+            a.add(expr.eval(context, values));
+            index += size;
+        }
+        return a.toAggregate();
+    }
+
+    private void checkIndex(ByteBuffer buffer, int index) {
+        var size = layout.getSize();
+        if (index < 0 || index > buffer.limit() - size) {
+            throw new IndexOutOfBoundsException(
+                    "the record is out of the buffer: " + index);
+        }
+    }
+
+    private boolean isSwapped(ByteBuffer buffer) {
+        return buffer.order() != layout.getOrder();
+    }
+
+    private void read(ByteBuffer buffer, int index, boolean swap,
+                      int[] values) {
+        var n = fields.length;
+        for (var k = 0; k < n; ++k) {
+            values[k] = fields[k].read(buffer, index, swap);
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.maroontress.intexpr;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+    The layout of the fixed-size binary records, which maps the names of
+    the variables to the fields of the records.
+
+    <p>Each field is a signed or unsigned integer of 1, 2, or 4 bytes at the
+    fixed offset from the beginning of the record. The unsigned fields of 4
+    bytes are not supported, because their values do not fit in
+    {@code int}. For example, the following layout describes the records of
+    12 bytes in little-endian:</p>
+
+    <pre>
+    var layout = RecordLayout.builder(12)
+        .order(ByteOrder.LITTLE_ENDIAN)
+        .int32("id", 0)
+        .uint16("port", 4)
+        .uint8("flags", 6)
+        .int32("size", 8)
+        .build();
+    var expr = IntExpr.compile("(flags &amp; 4) != 0 &amp;&amp; size &gt; 1024")
+        .bind(layout);</pre>
+
+    <p>The {@link RecordLayout} object is immutable.</p>
+
+    @see CompiledExpr#bind(RecordLayout)
+*/
+public final class RecordLayout {
+
+    private final int size;
+    private final ByteOrder order;
+    private final Map<String, Field> fields;
+
+    private RecordLayout(Builder b) {
+        size = b.size;
+        order = b.order;
+        fields = Map.copyOf(b.fields);
+    }
+
+    /**
+        Returns a new builder of {@link RecordLayout} objects.
+
+        @param size The number of the bytes of each record, which is also
+            the distance between the beginnings of two consecutive records.
+        @return The new builder.
+        @throws IllegalArgumentException If {@code size} is not positive.
+    */
+    public static Builder builder(int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException(
+                    "the size must be positive: " + size);
+        }
+        return new Builder(size);
+    }
+
+    /**
+        Returns the number of the bytes of each record.
+
+        @return The size of the record.
+    */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+        Returns the byte order of the fields.
+
+        @return The byte order.
+    */
+    public ByteOrder getOrder() {
+        return order;
+    }
+
+    /**
+        Returns the field of the specified name.
+
+        @param name The name of the field.
+        @return The field, or {@code null} if not found.
+    */
+    Field getField(String name) {
+        return fields.get(name);
+    }
+
+    /**
+        The field of the record.
+    */
+    static final class Field {
+
+        private final int offset;
+        private final int width;
+        private final boolean signed;
+
+        /**
+            Creates a new instance.
+
+            @param offset The offset of the field from the beginning of the
+                record.
+            @param width The number of the bytes, which is 1, 2, or 4.
+            @param signed {@code true} if the field is a signed integer.
+        */
+        Field(int offset, int width, boolean signed) {
+            this.offset = offset;
+            this.width = width;
+            this.signed = signed;
+        }
+
+        /**
+            Returns the value of this field of the record at the specified
+            index of the buffer, without changing the position of the buffer.
+
+            @param buffer The buffer.
+            @param base The index of the beginning of the record.
+            @param swap {@code true} if the byte order of the buffer differs
+                from that of the layout.
+            @return The value of the field.
+        */
+        int read(ByteBuffer buffer, int base, boolean swap) {
+            var index = base + offset;
+            switch (width) {
+            case 1:
+                var b = buffer.get(index);
+                return signed ? b : b & 0xff;
+            case 2:
+                var s = buffer.getShort(index);
+                if (swap) {
+                    s = Short.reverseBytes(s);
+                }
+                return signed ? s : s & 0xffff;
+            default:
+                var i = buffer.getInt(index);
+                return swap ? Integer.reverseBytes(i) : i;
+            }
+        }
+    }
+
+    /**
+        The builder of {@link RecordLayout} objects.
+    */
+    public static final class Builder {
+
+        private final Map<String, Field> fields = new HashMap<>();
+        private final int size;
+        private ByteOrder order = ByteOrder.BIG_ENDIAN;
+
+        private Builder(int size) {
+            this.size = size;
+        }
+
+        /**
+            Sets the byte order of the fields.
+
+            <p>The default byte order is {@link ByteOrder#BIG_ENDIAN}, which
+            is also the default of {@link ByteBuffer}. The byte order of the
+            buffer that contains the records does not matter.</p>
+
+            @param newOrder The byte order.
+            @return This builder.
+        */
+        public Builder order(ByteOrder newOrder) {
+            order = newOrder;
+            return this;
+        }
+
+        /**
+            Declares the field of the signed 8-bit integer.
+
+            @param name The name of the variable.
+            @param offset The offset of the field.
+            @return This builder.
+            @throws IllegalArgumentException If the field is out of the
+                record, or if the field of the same name has already been
+                declared.
+        */
+        public Builder int8(String name, int offset) {
+            return add(name, offset, 1, true);
+        }
+
+        /**
+            Declares the field of the unsigned 8-bit integer.
+
+            @param name The name of the variable.
+            @param offset The offset of the field.
+            @return This builder.
+            @throws IllegalArgumentException If the field is out of the
+                record, or if the field of the same name has already been
+                declared.
+        */
+        public Builder uint8(String name, int offset) {
+            return add(name, offset, 1, false);
+        }
+
+        /**
+            Declares the field of the signed 16-bit integer.
+
+            @param name The name of the variable.
+            @param offset The offset of the field.
+            @return This builder.
+            @throws IllegalArgumentException If the field is out of the
+                record, or if the field of the same name has already been
+                declared.
+        */
+        public Builder int16(String name, int offset) {
+            return add(name, offset, 2, true);
+        }
+
+        /**
+            Declares the field of the unsigned 16-bit integer.
+
+            @param name The name of the variable.
+            @param offset The offset of the field.
+            @return This builder.
+            @throws IllegalArgumentException If the field is out of the
+                record, or if the field of the same name has already been
+                declared.
+        */
+        public Builder uint16(String name, int offset) {
+            return add(name, offset, 2, false);
+        }
+
+        /**
+            Declares the field of the signed 32-bit integer.
+
+            @param name The name of the variable.
+            @param offset The offset of the field.
+            @return This builder.
+            @throws IllegalArgumentException If the field is out of the
+                record, or if the field of the same name has already been
+                declared.
+        */
+        public Builder int32(String name, int offset) {
+            return add(name, offset, 4, true);
+        }
+
+        private Builder add(String name, int offset, int width,
+                            boolean signed) {
+            if (offset < 0 || offset > size - width) {
+                throw new IllegalArgumentException(
+                        "the field " + name + " is out of the record: "
+                        + offset);
+            }
+            if (fields.containsKey(name)) {
+                throw new IllegalArgumentException(
+                        "the field " + name + " is already declared");
+            }
+            fields.put(name, new Field(offset, width, signed));
+            return this;
+        }
+
+        /**
+            Returns a new {@link RecordLayout} object with the current
+            settings of this builder.
+
+            @return The new {@link RecordLayout} object.
+        */
+        public RecordLayout build() {
+            return new RecordLayout(this);
+        }
+    }
+}
@@ -0,0 +1,659 @@
+package com.maroontress.intexpr;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import com.maroontress.intexpr.impl.Constant;
+import com.maroontress.intexpr.impl.Evaluator;
+import com.maroontress.intexpr.impl.ImmediateOperator;
+import com.maroontress.intexpr.impl.Instruction;
+import com.maroontress.intexpr.impl.Opcode;
+import com.maroontress.intexpr.impl.Operator;
+import com.maroontress.intexpr.impl.Program;
+import com.maroontress.intexpr.impl.Variable;
+
+/**
+    The set of {@link CompiledExpr} objects as the boolean rules, which
+    finds the rules that are non-zero with the values of the variables
+    without evaluating all of them.
+
+    <p>The leading operands of the logical AND operators at the root of
+    each rule that compare a variable with a constant, such as
+    {@code x > 10} or {@code y == 3}, are the atoms of the rule. A single
+    variable {@code x} is also the atom {@code x != 0}. The atoms of the
+    rule on the same variable are merged into a range of the values, which
+    is registered in the interval tree of the variable. The matching looks
+    up each variable in its tree and counts the atoms that each rule
+    satisfies, so it touches only the rules whose atoms hold, rather than
+    all the rules. The rest of the operands of the rule that satisfies all
+    its atoms are evaluated in order.</p>
+
+    <p>As {@link CompiledFilter} does, the operands of the logical AND
+    operators at the root of the rule are evaluated from left to right, and
+    the evaluation stops at the first operand that is zero. So the operands
+    following the atom that does not hold never throw
+    {@link ArithmeticException}. The rules whose first operand is not an
+    atom and the rules whose variables have the ranges declared with
+    {@link CompileOptions} are evaluated for every match. The atoms
+    following the operand that is not an atom are not indexed, because the
+    operand may throw the exception before them.</p>
+
+    <p>The variables of the set are the union of the variables of all the
+    rules, identified by their names.</p>
+
+    <p>The {@link RuleSet} object is immutable, so multiple threads can
+    match it concurrently.</p>
+*/
+public final class RuleSet {
+
+    private final List<CompiledExpr> rules;
+    private final List<String> variables;
+    private final Rule[] ruleArray;
+    private final IntervalTree[] trees;
+    private final int[] fallbacks;
+
+    private RuleSet(List<CompiledExpr> rules) {
+        this.rules = rules;
+        var slotMap = new LinkedHashMap<String, Integer>();
+        var n = rules.size();
+        ruleArray = new Rule[n];
+        var entries = new HashMap<Integer, List<Entry>>();
+        var fallbackList = new ArrayList<Integer>();
+        for (var k = 0; k < n; ++k) {
+            var expr = rules.get(k);
+            var names = expr.getVariables();
+            var map = new int[names.size()];
+            for (var j = 0; j < map.length; ++j) {
+                map[j] = slotMap.computeIfAbsent(names.get(j),
+                        name -> slotMap.size());
+            }
+            var rule = Rule.of(k, expr, map);
+            ruleArray[k] = rule;
+            if (rule.entries == null) {
+                fallbackList.add(k);
+                continue;
+            }
+            for (var e : rule.entries) {
+                entries.computeIfAbsent(e.slot, s -> new ArrayList<>())
+                        .add(e);
+            }
+        }
+        variables = List.copyOf(slotMap.keySet());
+        trees = new IntervalTree[variables.size()];
+        for (var e : entries.entrySet()) {
+            trees[e.getKey()] = IntervalTree.of(e.getValue());
+        }
+        fallbacks = fallbackList.stream()
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    /**
+        Returns a new set of the specified rules.
+
+        @param rules The rules.
+        @return The new set.
+    */
+    public static RuleSet of(Collection<CompiledExpr> rules) {
+        return new RuleSet(List.copyOf(rules));
+    }
+
+    /**
+        Returns the rules of this set.
+
+        @return The unmodifiable list of the rules.
+    */
+    public List<CompiledExpr> getRules() {
+        return rules;
+    }
+
+    /**
+        Returns the names of the variables that the rules contain.
+
+        <p>The names are in the order of their first appearance in the
+        rules, which is also the order of the values that
+        {@link #match(int...)} takes.</p>
+
+        @return The unmodifiable list of the names.
+    */
+    public List<String> getVariables() {
+        return variables;
+    }
+
+    /**
+        Returns the number of the rules that are found with the index,
+        rather than evaluated entirely for every match.
+
+        @return The number of the indexed rules.
+    */
+    public int getIndexedCount() {
+        return rules.size() - fallbacks.length;
+    }
+
+    /**
+        Returns the indices of the rules that are non-zero with the
+        specified values of the variables.
+
+        <p>This method is equivalent to {@code newMatcher().match(values)}.
+        To match repeatedly in the same thread, reuse the {@link Matcher}
+        object instead.</p>
+
+        @param values The values of the variables in the order of
+            {@link #getVariables()}.
+        @return The new array containing the indices of the matching rules
+            in {@link #getRules()}, in ascending order.
+        @throws IllegalArgumentException If the number of the values is not
+            equal to the number of the variables, or if some value is out of
+            the range declared with {@link CompileOptions}.
+        @throws ArithmeticException If there is an attempt to divide an integer
+            value by zero or to overflow while evaluating some rule.
+    */
+    public int[] match(int... values) {
+        return newMatcher().match(values);
+    }
+
+    /**
+        Returns a new matcher of this set.
+
+        @return The new matcher.
+    */
+    public Matcher newMatcher() {
+        return new Matcher(this);
+    }
+
+    /**
+        The matcher of the {@link RuleSet}, which has the scratch memory of
+        the matching.
+
+        <p>The {@link Matcher} object is mutable and not thread-safe.</p>
+    */
+    public static final class Matcher {
+
+        private final RuleSet set;
+        private final int[] counts;
+        private final int[] touched;
+        private final int[] found;
+        private final int[][] arguments;
+        private final int[] stack;
+        private int[] values;
+        private int touchedCount;
+        private int foundCount;
+
+        private Matcher(RuleSet set) {
+            this.set = set;
+            var n = set.ruleArray.length;
+            counts = new int[n];
+            touched = new int[n];
+            found = new int[n];
+            arguments = new int[set.variables.size() + 1][];
+            var size = 0;
+            for (var r : set.ruleArray) {
+                size = Math.max(size, r.getFrameSize());
+            }
+            stack = new int[size];
+        }
+
+        /**
+            Returns the indices of the rules that are non-zero with the
+            specified values of the variables.
+
+            @param values The values of the variables in the order of
+                {@link RuleSet#getVariables()}.
+            @return The new array containing the indices of the matching
+                rules in {@link RuleSet#getRules()}, in ascending order.
+            @throws IllegalArgumentException If the number of the values is
+                not equal to the number of the variables, or if some value
+                is out of the range declared with {@link CompileOptions}.
+            @throws ArithmeticException If there is an attempt to divide an
+                integer value by zero or to overflow while evaluating some
+                rule.
+        */
+        public int[] match(int... values) {
+            var variables = set.variables;
+            if (values.length != variables.size()) {
+                throw new IllegalArgumentException(
+                        "the number of values must be " + variables.size()
+                        + " for " + variables + ": " + values.length);
+            }
+            this.values = values;
+            touchedCount = 0;
+            foundCount = 0;
+            try {
+                var trees = set.trees;
+                for (var k = 0; k < trees.length; ++k) {
+                    if (trees[k] != null) {
+                        trees[k].stab(values[k], this);
+                    }
+                }
+                var rules = set.ruleArray;
+                for (var k : set.fallbacks) {
+                    if (test(rules[k])) {
+                        found[foundCount] = k;
+                        ++foundCount;
+                    }
+                }
+            } finally {
+                for (var k = 0; k < touchedCount; ++k) {
+                    counts[touched[k]] = 0;
+                }
+                this.values = null;
+            }
+            var result = Arrays.copyOf(found, foundCount);
+            Arrays.sort(result);
+            return result;
+        }
+
+        private void count(Entry e) {
+            var id = e.rule;
+            var c = counts[id];
+            if (c == 0) {
+                touched[touchedCount] = id;
+                ++touchedCount;
+            }
+            ++c;
+            counts[id] = c;
+            var rule = set.ruleArray[id];
+            if (c == rule.entries.length && test(rule)) {
+                found[foundCount] = id;
+                ++foundCount;
+            }
+        }
+
+        private boolean test(Rule rule) {
+            // The arrays of the values are shared by the rules that have
+            // the same number of the variables.
+            var n = rule.slotMap.length;
+            var v = arguments[n];
+            if (v == null) {
+                v = new int[n];
+                arguments[n] = v;
+            }
+            return rule.test(values, v, stack);
+        }
+    }
+
+    /**
+        The rule, which is the atoms indexed and the rest of the operands.
+    */
+    private static final class Rule {
+
+        private final Program program;
+        private final int[] slotMap;
+        private final Entry[] entries;
+        private final Evaluator[] evaluators;
+        private final int frameSize;
+
+        private Rule(Program program, int[] slotMap, Entry[] entries,
+                     List<Program> rest, Engine engine) {
+            this.program = program;
+            this.slotMap = slotMap;
+            this.entries = entries;
+            var n = rest.size();
+            evaluators = new Evaluator[n];
+            var size = 0;
+            for (var k = 0; k < n; ++k) {
+                var p = rest.get(k);
+                evaluators[k] = engine.newEvaluator(p);
+                size = Math.max(size, p.getStackSize());
+            }
+            frameSize = slotMap.length + size;
+        }
+
+        /**
+            Returns the size of the scratch array that the evaluators of
+            the rule need.
+
+            @return The sum of the number of the variables and the size of
+                the largest stack of the operands that are not indexed.
+        */
+        int getFrameSize() {
+            return frameSize;
+        }
+
+        /**
+            Returns a new rule.
+
+            @param id The index of the rule.
+            @param expr The expression of the rule.
+            @param slotMap The map of the slots of the expression to the
+                slots of the set.
+            @return The new rule, the entries of which are {@code null} if
+                the rule is evaluated for every match.
+        */
+        static Rule of(int id, CompiledExpr expr, int[] slotMap) {
+            var program = expr.getProgram();
+            var engine = expr.getEngine();
+            var all = program.splitConjunction();
+            if (program.isBounded()) {
+                return new Rule(program, slotMap, null, all, engine);
+            }
+            var n = all.size();
+            var ranges = new LinkedHashMap<Integer, Entry>();
+            var k = 0;
+            for (; k < n; ++k) {
+                if (!Atom.merge(all.get(k), slotMap, id, ranges)) {
+                    break;
+                }
+            }
+            var entries = (k == 0)
+                    ? null
+                    : ranges.values().toArray(new Entry[0]);
+            return new Rule(program, slotMap, entries, all.subList(k, n),
+                    engine);
+        }
+
+        /**
+            Returns whether the rule is non-zero with the specified values
+            of the variables of the set, given that all its atoms hold.
+
+            <p>The operands that are not indexed are evaluated from left to
+            right, and the evaluation stops at the first operand that is
+            zero.</p>
+
+            @param values The values of the variables of the set.
+            @param v The scratch array that receives the values of the
+                variables of the rule, the length of which must be the
+                number of them.
+            @param stack The scratch array, the length of which is not less
+                than {@link #getFrameSize()}.
+            @return {@code true} if the rule is non-zero.
+        */
+        boolean test(int[] values, int[] v, int[] stack) {
+            if (evaluators.length == 0) {
+                return true;
+            }
+            for (var k = 0; k < v.length; ++k) {
+                v[k] = values[slotMap[k]];
+            }
+            program.checkValues(v);
+            for (var e : evaluators) {
+                if (e.evaluate(v, stack) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+        The utility methods for the atoms.
+    */
+    private static final class Atom {
+
+        private Atom() {
+            throw new AssertionError();
+        }
+
+        /**
+            Merges the atom of the specified program into the range of its
+            variable.
+
+            @param program The program of the operand.
+            @param slotMap The map of the slots of the rule to the slots of
+                the set.
+            @param id The index of the rule.
+            @param ranges The map of the slots of the set to the ranges.
+            @return {@code true} if the program is the atom.
+        */
+        static boolean merge(Program program, int[] slotMap, int id,
+                             Map<Integer, Entry> ranges) {
+            var all = program.getInstructions();
+            var size = all.size();
+            if (!(all.get(0) instanceof Variable)) {
+                return false;
+            }
+            var slot = slotMap[((Variable) all.get(0)).getSlot()];
+            if (size == 1) {
+                entry(ranges, id, slot).exclude(0);
+                return true;
+            }
+            Opcode opcode;
+            long value;
+            if (size == 2 && all.get(1) instanceof ImmediateOperator) {
+                // x > 10 is LOAD x, CMPGTI 10.
+                var i = (ImmediateOperator) all.get(1);
+                if (!i.getSpec().isBuiltin()) {
+                    return false;
+                }
+                opcode = i.getSpec().getOpcode();
+                value = i.getValue();
+            } else if (size == 4 && all.get(1) instanceof Constant
+                    && isBuiltin(all.get(2), Opcode.NEG)
+                    && all.get(3) instanceof Operator) {
+                // x > -10 is LOAD x, CONST 10, NEG, GT.
+                var o = (Operator) all.get(3);
+                if (!o.getSpec().isBuiltin()) {
+                    return false;
+                }
+                opcode = o.getSpec().getOpcode();
+                value = -(long) ((Constant) all.get(1)).getValue();
+            } else {
+                return false;
+            }
+            if (!isComparison(opcode)) {
+                return false;
+            }
+            merge(entry(ranges, id, slot), opcode, value);
+            return true;
+        }
+
+        private static boolean isComparison(Opcode opcode) {
+            switch (opcode) {
+            case LGT:
+            case LGE:
+            case LLT:
+            case LLE:
+            case LEQ:
+            case LNE:
+                return true;
+            default:
+                return false;
+            }
+        }
+
+        private static boolean isBuiltin(Instruction i, Opcode opcode) {
+            if (!(i instanceof Operator)) {
+                return false;
+            }
+            var spec = ((Operator) i).getSpec();
+            return spec.isBuiltin() && spec.getOpcode() == opcode;
+        }
+
+        private static void merge(Entry e, Opcode opcode, long value) {
+            switch (opcode) {
+            case LGT:
+                e.restrict(value + 1, Integer.MAX_VALUE);
+                break;
+            case LGE:
+                e.restrict(value, Integer.MAX_VALUE);
+                break;
+            case LLT:
+                e.restrict(Integer.MIN_VALUE, value - 1);
+                break;
+            case LLE:
+                e.restrict(Integer.MIN_VALUE, value);
+                break;
+            case LEQ:
+                e.restrict(value, value);
+                break;
+            default:
+                e.exclude((int) value);
+                break;
+            }
+        }
+
+        private static Entry entry(Map<Integer, Entry> ranges, int id,
+                                   int slot) {
+            return ranges.computeIfAbsent(slot, s -> new Entry(id, s));
+        }
+    }
+
+    /**
+        The range of the values of the variable that satisfy all the atoms
+        of the rule on the variable.
+    */
+    private static final class Entry {
+
+        private final int rule;
+        private final int slot;
+        private long low = Integer.MIN_VALUE;
+        private long high = Integer.MAX_VALUE;
+        private int[] excluded;
+
+        Entry(int rule, int slot) {
+            this.rule = rule;
+            this.slot = slot;
+        }
+
+        void restrict(long newLow, long newHigh) {
+            low = Math.max(low, newLow);
+            high = Math.min(high, newHigh);
+        }
+
+        void exclude(int value) {
+            if (excluded == null) {
+                excluded = new int[] {value};
+                return;
+            }
+            var n = excluded.length;
+            excluded = Arrays.copyOf(excluded, n + 1);
+            excluded[n] = value;
+            Arrays.sort(excluded);
+        }
+
+        boolean isEmpty() {
+            return low > high;
+        }
+
+        boolean contains(int value) {
+            return excluded == null || Arrays.binarySearch(excluded, value) < 0;
+        }
+    }
+
+    /**
+        The centered interval tree of the ranges of a variable.
+
+        <p>Each node has the center value and the ranges that contain it,
+        sorted by their lower bounds and by their upper bounds. The ranges
+        entirely below or above the center are in the left or right
+        subtree. So the lookup of a value visits a single path from the
+        root and reports only the ranges that contain the value.</p>
+    */
+    private static final class IntervalTree {
+
+        private static final Comparator<Entry> BY_LOW
+                = Comparator.comparingLong(e -> e.low);
+        private static final Comparator<Entry> BY_HIGH
+                = Comparator.comparingLong(e -> -e.high);
+
+        private final long center;
+        private final Entry[] byLow;
+        private final Entry[] byHigh;
+        private final IntervalTree left;
+        private final IntervalTree right;
+
+        private IntervalTree(long center, List<Entry> here,
+                             IntervalTree left, IntervalTree right) {
+            this.center = center;
+            byLow = here.toArray(new Entry[0]);
+            Arrays.sort(byLow, BY_LOW);
+            byHigh = here.toArray(new Entry[0]);
+            Arrays.sort(byHigh, BY_HIGH);
+            this.left = left;
+            this.right = right;
+        }
+
+        /**
+            Returns a new tree of the specified ranges.
+
+            @param all The ranges.
+            @return The new tree, or {@code null} if all the ranges are
+                empty.
+        */
+        static IntervalTree of(List<Entry> all) {
+            var list = new ArrayList<Entry>(all.size());
+            for (var e : all) {
+                if (!e.isEmpty()) {
+                    list.add(e);
+                }
+            }
+            return list.isEmpty() ? null : build(list);
+        }
+
+        private static IntervalTree build(List<Entry> list) {
+            if (list.isEmpty()) {
+                return null;
+            }
+            // The median of the endpoints splits the ranges evenly.
+            var n = list.size();
+            var points = new long[n * 2];
+            for (var k = 0; k < n; ++k) {
+                var e = list.get(k);
+                points[2 * k] = e.low;
+                points[2 * k + 1] = e.high;
+            }
+            Arrays.sort(points);
+            var center = points[n];
+            var below = new ArrayList<Entry>();
+            var above = new ArrayList<Entry>();
+            var here = new ArrayList<Entry>();
+            for (var e : list) {
+                if (e.high < center) {
+                    below.add(e);
+                } else if (e.low > center) {
+                    above.add(e);
+                } else {
+                    here.add(e);
+                }
+            }
+            return new IntervalTree(center, here, build(below),
+                    build(above));
+        }
+
+        /**
+            Counts the atoms of the rules whose ranges contain the specified
+            value of the variable.
+
+            @param value The value.
+            @param matcher The matcher.
+        */
+        void stab(int value, Matcher matcher) {
+            var node = this;
+            while (node != null) {
+                if (value < node.center) {
+                    for (var e : node.byLow) {
+                        if (e.low > value) {
+                            break;
+                        }
+                        count(e, value, matcher);
+                    }
+                    node = node.left;
+                } else if (value > node.center) {
+                    for (var e : node.byHigh) {
+                        if (e.high < value) {
+                            break;
+                        }
+                        count(e, value, matcher);
+                    }
+                    node = node.right;
+                } else {
+                    for (var e : node.byLow) {
+                        count(e, value, matcher);
+                    }
+                    return;
+                }
+            }
+        }
+
+        private static void count(Entry e, int value, Matcher matcher) {
+            if (e.contains(value)) {
+                matcher.count(e);
+            }
+        }
+    }
+}
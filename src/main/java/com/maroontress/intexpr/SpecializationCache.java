@@ -0,0 +1,64 @@
+package com.maroontress.intexpr;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+    The bounded cache of the specializations of a {@link CompiledExpr}
+    object, which evicts the least recently used one when it is full.
+
+    <p>The cache is thread-safe. It synchronizes on its private map, never
+    on any object that the callers can reach. The specialization is
+    computed without holding the lock, so two threads may compute the
+    same specialization concurrently, in which case the one put first is
+    kept.</p>
+
+    @see CompiledExpr#specialize(Map)
+*/
+final class SpecializationCache {
+
+    /** The maximum number of the specializations in the cache. */
+    static final int CAPACITY = 128;
+
+    private final Map<Map<String, Integer>, CompiledExpr> map = new Lru();
+
+    /**
+        Returns the specialization associated with the specified bindings,
+        computing and putting it into this cache if it is absent.
+
+        @param bindings The bindings.
+        @param compute The function that computes the specialization.
+        @return The specialization.
+    */
+    CompiledExpr get(Map<String, Integer> bindings,
+                     Function<Map<String, Integer>, CompiledExpr> compute) {
+        synchronized (map) {
+            var cached = map.get(bindings);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        var expr = compute.apply(bindings);
+        synchronized (map) {
+            var cached = map.putIfAbsent(bindings, expr);
+            return (cached != null) ? cached : expr;
+        }
+    }
+
+    private static final class Lru
+            extends LinkedHashMap<Map<String, Integer>, CompiledExpr> {
+
+        private static final long serialVersionUID = 1L;
+
+        Lru() {
+            super(16, 0.75f, true);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(
+                Map.Entry<Map<String, Integer>, CompiledExpr> eldest) {
+            return size() > CAPACITY;
+        }
+    }
+}
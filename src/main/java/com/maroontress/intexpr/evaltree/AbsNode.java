@@ -0,0 +1,34 @@
+package com.maroontress.intexpr.evaltree;
+
+import com.maroontress.clione.Token;
+
+/**
+    The node representing the absolute value, which throws an exception on
+    overflow.
+*/
+public final class AbsNode extends EvalNode {
+
+    private final Token token;
+    private final EvalNode operand;
+
+    /**
+        Creates a new instance.
+
+        @param token The token corresponding to the function.
+        @param operand The operand.
+    */
+    public AbsNode(Token token, EvalNode operand) {
+        this.token = token;
+        this.operand = operand;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int execute(int[] values) {
+        var a = operand.execute(values);
+        if (a == Integer.MIN_VALUE) {
+            throw overflow(token);
+        }
+        return Math.abs(a);
+    }
+}
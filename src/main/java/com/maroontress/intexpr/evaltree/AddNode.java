@@ -0,0 +1,38 @@
+package com.maroontress.intexpr.evaltree;
+
+import com.maroontress.clione.Token;
+
+/**
+    The node representing the addition, which throws an exception on overflow.
+*/
+public final class AddNode extends EvalNode {
+
+    private final Token token;
+    private final EvalNode left;
+    private final EvalNode right;
+
+    /**
+        Creates a new instance.
+
+        @param token The token corresponding to the operator.
+        @param left The left operand.
+        @param right The right operand.
+    */
+    public AddNode(Token token, EvalNode left, EvalNode right) {
+        this.token = token;
+        this.left = left;
+        this.right = right;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int execute(int[] values) {
+        var a = left.execute(values);
+        var b = right.execute(values);
+        var sum = a + b;
+        if (((a ^ sum) & (b ^ sum)) < 0) {
+            throw overflow(token);
+        }
+        return sum;
+    }
+}
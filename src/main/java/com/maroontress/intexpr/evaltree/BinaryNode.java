@@ -0,0 +1,48 @@
+package com.maroontress.intexpr.evaltree;
+
+import com.maroontress.clione.Token;
+import com.maroontress.intexpr.impl.DivideByZeroException;
+import com.maroontress.intexpr.impl.IntBinaryOperation;
+import com.maroontress.intexpr.impl.OverflowException;
+
+/**
+    The node representing the binary operator that has no specialized node
+    class.
+*/
+public final class BinaryNode extends EvalNode {
+
+    private final Token token;
+    private final IntBinaryOperation operation;
+    private final EvalNode left;
+    private final EvalNode right;
+
+    /**
+        Creates a new instance.
+
+        @param token The token corresponding to the operator.
+        @param operation The operation of the operator.
+        @param left The left operand.
+        @param right The right operand.
+    */
+    public BinaryNode(Token token, IntBinaryOperation operation,
+                      EvalNode left, EvalNode right) {
+        this.token = token;
+        this.operation = operation;
+        this.left = left;
+        this.right = right;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int execute(int[] values) {
+        var a = left.execute(values);
+        var b = right.execute(values);
+        try {
+            return operation.apply(a, b);
+        } catch (OverflowException e) {
+            throw overflow(token);
+        } catch (DivideByZeroException e) {
+            throw divideByZero(token);
+        }
+    }
+}
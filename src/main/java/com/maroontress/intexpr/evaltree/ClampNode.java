@@ -0,0 +1,34 @@
+package com.maroontress.intexpr.evaltree;
+
+/**
+    The node representing the value clamped between the lower and upper
+    bounds, which never throws an exception.
+*/
+public final class ClampNode extends EvalNode {
+
+    private final EvalNode value;
+    private final EvalNode min;
+    private final EvalNode max;
+
+    /**
+        Creates a new instance.
+
+        @param value The value.
+        @param min The lower bound.
+        @param max The upper bound.
+    */
+    public ClampNode(EvalNode value, EvalNode min, EvalNode max) {
+        this.value = value;
+        this.min = min;
+        this.max = max;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int execute(int[] values) {
+        var v = value.execute(values);
+        var lower = min.execute(values);
+        var upper = max.execute(values);
+        return Math.min(Math.max(v, lower), upper);
+    }
+}
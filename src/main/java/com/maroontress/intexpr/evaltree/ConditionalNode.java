@@ -0,0 +1,34 @@
+package com.maroontress.intexpr.evaltree;
+
+/**
+    The node representing the conditional operator, which evaluates only
+    the operand that the condition selects.
+*/
+public final class ConditionalNode extends EvalNode {
+
+    private final EvalNode condition;
+    private final EvalNode then;
+    private final EvalNode otherwise;
+
+    /**
+        Creates a new instance.
+
+        @param condition The condition.
+        @param then The operand evaluated if the condition is non-zero.
+        @param otherwise The operand evaluated if the condition is zero.
+    */
+    public ConditionalNode(EvalNode condition, EvalNode then,
+                           EvalNode otherwise) {
+        this.condition = condition;
+        this.then = then;
+        this.otherwise = otherwise;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int execute(int[] values) {
+        return (condition.execute(values) != 0)
+                ? then.execute(values)
+                : otherwise.execute(values);
+    }
+}
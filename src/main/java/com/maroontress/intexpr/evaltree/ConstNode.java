@@ -0,0 +1,24 @@
+package com.maroontress.intexpr.evaltree;
+
+/**
+    The node representing an integer constant.
+*/
+public final class ConstNode extends EvalNode {
+
+    private final int value;
+
+    /**
+        Creates a new instance.
+
+        @param value The immediate value.
+    */
+    public ConstNode(int value) {
+        this.value = value;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int execute(int[] values) {
+        return value;
+    }
+}
@@ -0,0 +1,30 @@
+package com.maroontress.intexpr.evaltree;
+
+import com.maroontress.intexpr.impl.ConstantDivisor;
+
+/**
+    The node representing the division by a constant, which never throws an
+    exception.
+*/
+public final class DivConstNode extends EvalNode {
+
+    private final EvalNode operand;
+    private final ConstantDivisor divisor;
+
+    /**
+        Creates a new instance.
+
+        @param operand The left operand.
+        @param divisor The constant right operand.
+    */
+    public DivConstNode(EvalNode operand, ConstantDivisor divisor) {
+        this.operand = operand;
+        this.divisor = divisor;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int execute(int[] values) {
+        return divisor.divide(operand.execute(values));
+    }
+}
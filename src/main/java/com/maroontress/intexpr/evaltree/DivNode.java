@@ -0,0 +1,41 @@
+package com.maroontress.intexpr.evaltree;
+
+import com.maroontress.clione.Token;
+
+/**
+    The node representing the division, which throws an exception on overflow or
+    an attempt to divide by zero.
+*/
+public final class DivNode extends EvalNode {
+
+    private final Token token;
+    private final EvalNode left;
+    private final EvalNode right;
+
+    /**
+        Creates a new instance.
+
+        @param token The token corresponding to the operator.
+        @param left The left operand.
+        @param right The right operand.
+    */
+    public DivNode(Token token, EvalNode left, EvalNode right) {
+        this.token = token;
+        this.left = left;
+        this.right = right;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int execute(int[] values) {
+        var a = left.execute(values);
+        var b = right.execute(values);
+        if (b == 0) {
+            throw divideByZero(token);
+        }
+        if (a == Integer.MIN_VALUE && b == -1) {
+            throw overflow(token);
+        }
+        return a / b;
+    }
+}
@@ -0,0 +1,46 @@
+package com.maroontress.intexpr.evaltree;
+
+import com.maroontress.clione.Token;
+import com.maroontress.intexpr.impl.Messages;
+
+/**
+    The node of the tree that evaluates an expression.
+*/
+public abstract class EvalNode {
+
+    /**
+        Creates a new instance.
+    */
+    protected EvalNode() {
+    }
+
+    /**
+        Evaluates the subtree whose root is this node and returns the value.
+
+        @param values The values of the variables.
+        @return The value of the subtree.
+        @throws ArithmeticException If there is an attempt to divide an integer
+            value by zero or to overflow.
+    */
+    public abstract int execute(int[] values);
+
+    /**
+        Returns a new exception representing an overflow.
+
+        @param token The token corresponding to the operator.
+        @return The new exception.
+    */
+    protected static ArithmeticException overflow(Token token) {
+        return new ArithmeticException(Messages.of(token, "overflow"));
+    }
+
+    /**
+        Returns a new exception representing a division by zero.
+
+        @param token The token corresponding to the operator.
+        @return The new exception.
+    */
+    protected static ArithmeticException divideByZero(Token token) {
+        return new ArithmeticException(Messages.of(token, "divided by zero"));
+    }
+}
@@ -0,0 +1,173 @@
+package com.maroontress.intexpr.evaltree;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import com.maroontress.clione.Token;
+import com.maroontress.intexpr.impl.Opcode;
+import com.maroontress.intexpr.impl.OperatorSpec;
+import com.maroontress.intexpr.impl.Program;
+
+import static java.util.Map.entry;
+
+/**
+    This class provides the factory methods of {@link EvalNode} objects.
+*/
+public final class EvalNodes {
+
+    private static final Map<Opcode, UnaryFactory> UNARY_MAP = Map.ofEntries(
+            entry(Opcode.NEG, NegNode::new),
+            entry(Opcode.POS, (t, o) -> o),
+            entry(Opcode.ABS, AbsNode::new));
+
+    private static final Map<Opcode, BinaryFactory> BINARY_MAP = Map.ofEntries(
+            entry(Opcode.ADD, AddNode::new),
+            entry(Opcode.SUB, SubNode::new),
+            entry(Opcode.MUL, MulNode::new),
+            entry(Opcode.DIV, DivNode::new),
+            entry(Opcode.MOD, ModNode::new),
+            entry(Opcode.MIN, (t, l, r) -> new MinNode(l, r)),
+            entry(Opcode.MAX, (t, l, r) -> new MaxNode(l, r)));
+
+    private static final Map<Opcode, UnaryFactory> UNCHECKED_UNARY_MAP
+            = Map.ofEntries(
+            entry(Opcode.NEG, (t, o) -> new UncheckedNegNode(o)),
+            entry(Opcode.ABS, (t, o) -> new UncheckedAbsNode(o)));
+
+    private static final Map<Opcode, BinaryFactory> UNCHECKED_BINARY_MAP
+            = Map.ofEntries(
+            entry(Opcode.ADD, (t, l, r) -> new UncheckedAddNode(l, r)),
+            entry(Opcode.SUB, (t, l, r) -> new UncheckedSubNode(l, r)),
+            entry(Opcode.MUL, (t, l, r) -> new UncheckedMulNode(l, r)),
+            entry(Opcode.DIV, (t, l, r) -> new UncheckedDivNode(l, r)),
+            entry(Opcode.MOD, (t, l, r) -> new UncheckedModNode(l, r)),
+            entry(Opcode.MIN, (t, l, r) -> new MinNode(l, r)),
+            entry(Opcode.MAX, (t, l, r) -> new MaxNode(l, r)));
+
+    private static final Map<Opcode, TernaryFactory> TERNARY_MAP
+            = Map.ofEntries(
+            entry(Opcode.CLAMP, ClampNode::new),
+            entry(Opcode.SELECT, SelectNode::new));
+
+    /** Prevents the class from being instantiated. */
+    private EvalNodes() {
+        throw new AssertionError();
+    }
+
+    /**
+        Returns the root node of the new tree that evaluates the specified
+        program.
+
+        @param program The program.
+        @return The root node.
+    */
+    public static EvalNode of(Program program) {
+        var stack = new ArrayDeque<EvalNode>();
+        for (var i : program.getInstructions()) {
+            i.build(stack);
+        }
+        return stack.pop();
+    }
+
+    /**
+        Pops the operand(s) of the specified operator from the specified
+        stack, and pushes the new node of the operator with them.
+
+        @param spec The operator.
+        @param token The token corresponding to the operator.
+        @param stack The stack of the nodes.
+    */
+    public static void push(OperatorSpec spec, Token token,
+                            Deque<EvalNode> stack) {
+        if (!spec.isBuiltin()) {
+            // The variants of the built-in operators have the same opcodes
+            // but do not check the overflow as the specialized nodes do.
+            push(spec, token, stack, Map.of(), Map.of());
+            return;
+        }
+        push(spec, token, stack, UNARY_MAP, BINARY_MAP);
+    }
+
+    /**
+        Pops the operand(s) of the specified operator from the specified
+        stack, and pushes the new node of the unchecked variant of the
+        operator with them.
+
+        <p>The operator must never overflow nor divide by zero with the
+        operand(s).</p>
+
+        @param spec The operator.
+        @param token The token corresponding to the operator.
+        @param stack The stack of the nodes.
+        @see com.maroontress.intexpr.impl.RangeAnalysis
+    */
+    public static void pushUnchecked(OperatorSpec spec, Token token,
+                                     Deque<EvalNode> stack) {
+        push(spec, token, stack, UNCHECKED_UNARY_MAP, UNCHECKED_BINARY_MAP);
+    }
+
+    private static void push(OperatorSpec spec, Token token,
+                             Deque<EvalNode> stack,
+                             Map<Opcode, UnaryFactory> unaryMap,
+                             Map<Opcode, BinaryFactory> binaryMap) {
+        var arity = spec.getArity();
+        if (arity == 1) {
+            var operand = stack.pop();
+            stack.push(newUnaryNode(spec, token, operand, unaryMap));
+            return;
+        }
+        if (arity == 2) {
+            var right = stack.pop();
+            var left = stack.pop();
+            stack.push(newBinaryNode(spec, token, left, right, binaryMap));
+            return;
+        }
+        var operands = new EvalNode[arity];
+        for (var k = arity - 1; k >= 0; --k) {
+            operands[k] = stack.pop();
+        }
+        var factory = TERNARY_MAP.get(spec.getOpcode());
+        if (factory != null) {
+            // The ternary functions never throw, so they are unchecked.
+            stack.push(factory.apply(operands[0], operands[1], operands[2]));
+            return;
+        }
+        stack.push(new NaryNode(token, spec.getNaryOperation(), operands));
+    }
+
+    private static EvalNode newUnaryNode(OperatorSpec spec, Token token,
+                                         EvalNode operand,
+                                         Map<Opcode, UnaryFactory> map) {
+        var factory = map.get(spec.getOpcode());
+        if (factory == null) {
+            return new UnaryNode(token, spec.getUnaryOperation(), operand);
+        }
+        return factory.apply(token, operand);
+    }
+
+    private static EvalNode newBinaryNode(OperatorSpec spec, Token token,
+                                          EvalNode left, EvalNode right,
+                                          Map<Opcode, BinaryFactory> map) {
+        var factory = map.get(spec.getOpcode());
+        if (factory == null) {
+            return new BinaryNode(token, spec.getBinaryOperation(), left,
+                    right);
+        }
+        return factory.apply(token, left, right);
+    }
+
+    @FunctionalInterface
+    private interface UnaryFactory {
+        EvalNode apply(Token token, EvalNode operand);
+    }
+
+    @FunctionalInterface
+    private interface BinaryFactory {
+        EvalNode apply(Token token, EvalNode left, EvalNode right);
+    }
+
+    @FunctionalInterface
+    private interface TernaryFactory {
+        EvalNode apply(EvalNode first, EvalNode second, EvalNode third);
+    }
+}
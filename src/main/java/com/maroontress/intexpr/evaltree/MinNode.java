@@ -0,0 +1,28 @@
+package com.maroontress.intexpr.evaltree;
+
+/**
+    The node representing the minimum of two operands, which never
+    throws an exception.
+*/
+public final class MinNode extends EvalNode {
+
+    private final EvalNode left;
+    private final EvalNode right;
+
+    /**
+        Creates a new instance.
+
+        @param left The left operand.
+        @param right The right operand.
+    */
+    public MinNode(EvalNode left, EvalNode right) {
+        this.left = left;
+        this.right = right;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int execute(int[] values) {
+        return Math.min(left.execute(values), right.execute(values));
+    }
+}
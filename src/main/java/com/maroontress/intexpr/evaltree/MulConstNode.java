@@ -0,0 +1,39 @@
+package com.maroontress.intexpr.evaltree;
+
+import com.maroontress.clione.Token;
+import com.maroontress.intexpr.impl.ConstantMultiplier;
+
+/**
+    The node representing the multiplication by a constant, which throws an
+    exception on overflow.
+*/
+public final class MulConstNode extends EvalNode {
+
+    private final Token token;
+    private final EvalNode operand;
+    private final ConstantMultiplier multiplier;
+
+    /**
+        Creates a new instance.
+
+        @param token The token corresponding to the operator.
+        @param operand The left operand.
+        @param multiplier The constant right operand.
+    */
+    public MulConstNode(Token token, EvalNode operand,
+                        ConstantMultiplier multiplier) {
+        this.token = token;
+        this.operand = operand;
+        this.multiplier = multiplier;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int execute(int[] values) {
+        var a = operand.execute(values);
+        if (multiplier.overflows(a)) {
+            throw overflow(token);
+        }
+        return multiplier.apply(a);
+    }
+}
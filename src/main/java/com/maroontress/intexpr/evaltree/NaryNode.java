@@ -0,0 +1,47 @@
+package com.maroontress.intexpr.evaltree;
+
+import com.maroontress.clione.Token;
+import com.maroontress.intexpr.impl.DivideByZeroException;
+import com.maroontress.intexpr.impl.IntNaryOperation;
+import com.maroontress.intexpr.impl.OverflowException;
+
+/**
+    The node representing the function that takes three or more operands.
+*/
+public final class NaryNode extends EvalNode {
+
+    private final Token token;
+    private final IntNaryOperation operation;
+    private final EvalNode[] operands;
+
+    /**
+        Creates a new instance.
+
+        @param token The token corresponding to the function.
+        @param operation The operation of the function.
+        @param operands The operands, which must not be modified.
+    */
+    public NaryNode(Token token, IntNaryOperation operation,
+                    EvalNode[] operands) {
+        this.token = token;
+        this.operation = operation;
+        this.operands = operands;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int execute(int[] values) {
+        var n = operands.length;
+        var args = new int[n];
+        for (var k = 0; k < n; ++k) {
+            args[k] = operands[k].execute(values);
+        }
+        try {
+            return operation.apply(args);
+        } catch (OverflowException e) {
+            throw overflow(token);
+        } catch (DivideByZeroException e) {
+            throw divideByZero(token);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.maroontress.intexpr.evaltree;
+
+/**
+    The node representing the selection of either of two operands with the
+    condition, which evaluates all the operands and selects one without
+    branches.
+*/
+public final class SelectNode extends EvalNode {
+
+    private final EvalNode condition;
+    private final EvalNode a;
+    private final EvalNode b;
+
+    /**
+        Creates a new instance.
+
+        @param condition The condition.
+        @param a The operand selected if the condition is non-zero.
+        @param b The operand selected if the condition is zero.
+    */
+    public SelectNode(EvalNode condition, EvalNode a, EvalNode b) {
+        this.condition = condition;
+        this.a = a;
+        this.b = b;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int execute(int[] values) {
+        var c = condition.execute(values);
+        var x = a.execute(values);
+        var y = b.execute(values);
+        var mask = (c | -c) >> 31;
+        return y ^ ((x ^ y) & mask);
+    }
+}
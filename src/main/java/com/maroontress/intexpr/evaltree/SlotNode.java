@@ -0,0 +1,24 @@
+package com.maroontress.intexpr.evaltree;
+
+/**
+    The node representing a variable, which loads the value from its slot.
+*/
+public final class SlotNode extends EvalNode {
+
+    private final int slot;
+
+    /**
+        Creates a new instance.
+
+        @param slot The slot of the variable.
+    */
+    public SlotNode(int slot) {
+        this.slot = slot;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int execute(int[] values) {
+        return values[slot];
+    }
+}
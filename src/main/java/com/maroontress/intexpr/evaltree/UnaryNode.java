@@ -0,0 +1,44 @@
+package com.maroontress.intexpr.evaltree;
+
+import com.maroontress.clione.Token;
+import com.maroontress.intexpr.impl.DivideByZeroException;
+import com.maroontress.intexpr.impl.IntUnaryOperation;
+import com.maroontress.intexpr.impl.OverflowException;
+
+/**
+    The node representing the unary operator that has no specialized node
+    class.
+*/
+public final class UnaryNode extends EvalNode {
+
+    private final Token token;
+    private final IntUnaryOperation operation;
+    private final EvalNode operand;
+
+    /**
+        Creates a new instance.
+
+        @param token The token corresponding to the operator.
+        @param operation The operation of the operator.
+        @param operand The operand.
+    */
+    public UnaryNode(Token token, IntUnaryOperation operation,
+                     EvalNode operand) {
+        this.token = token;
+        this.operation = operation;
+        this.operand = operand;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int execute(int[] values) {
+        var a = operand.execute(values);
+        try {
+            return operation.apply(a);
+        } catch (OverflowException e) {
+            throw overflow(token);
+        } catch (DivideByZeroException e) {
+            throw divideByZero(token);
+        }
+    }
+}
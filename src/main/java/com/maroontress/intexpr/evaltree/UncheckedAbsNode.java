@@ -0,0 +1,25 @@
+package com.maroontress.intexpr.evaltree;
+
+/**
+    The node representing the absolute value, which performs no check
+    because the operand never makes it overflow.
+*/
+public final class UncheckedAbsNode extends EvalNode {
+
+    private final EvalNode operand;
+
+    /**
+        Creates a new instance.
+
+        @param operand The operand.
+    */
+    public UncheckedAbsNode(EvalNode operand) {
+        this.operand = operand;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int execute(int[] values) {
+        return Math.abs(operand.execute(values));
+    }
+}
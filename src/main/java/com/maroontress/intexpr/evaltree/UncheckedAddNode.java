@@ -0,0 +1,28 @@
+package com.maroontress.intexpr.evaltree;
+
+/**
+    The node representing the addition, which performs no check because the
+    operands never make it overflow.
+*/
+public final class UncheckedAddNode extends EvalNode {
+
+    private final EvalNode left;
+    private final EvalNode right;
+
+    /**
+        Creates a new instance.
+
+        @param left The left operand.
+        @param right The right operand.
+    */
+    public UncheckedAddNode(EvalNode left, EvalNode right) {
+        this.left = left;
+        this.right = right;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int execute(int[] values) {
+        return left.execute(values) + right.execute(values);
+    }
+}
@@ -0,0 +1,28 @@
+package com.maroontress.intexpr.evaltree;
+
+/**
+    The node representing the remainder, which performs no check because the
+    divisor is never zero.
+*/
+public final class UncheckedModNode extends EvalNode {
+
+    private final EvalNode left;
+    private final EvalNode right;
+
+    /**
+        Creates a new instance.
+
+        @param left The left operand.
+        @param right The right operand.
+    */
+    public UncheckedModNode(EvalNode left, EvalNode right) {
+        this.left = left;
+        this.right = right;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int execute(int[] values) {
+        return left.execute(values) % right.execute(values);
+    }
+}
@@ -0,0 +1,25 @@
+package com.maroontress.intexpr.evaltree;
+
+/**
+    The node representing the negation, which performs no check because the
+    operand never makes it overflow.
+*/
+public final class UncheckedNegNode extends EvalNode {
+
+    private final EvalNode operand;
+
+    /**
+        Creates a new instance.
+
+        @param operand The operand.
+    */
+    public UncheckedNegNode(EvalNode operand) {
+        this.operand = operand;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int execute(int[] values) {
+        return -operand.execute(values);
+    }
+}
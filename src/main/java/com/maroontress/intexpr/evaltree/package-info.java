@@ -0,0 +1,13 @@
+/**
+    This package provides the tree of the nodes that evaluate integer
+    expressions by walking the tree.
+
+    <p>Each node class is specialized to a single operation and holds its
+    operands directly, so that the JIT compiler can inline the call tree of
+    each expression. The
+    {@link com.maroontress.intexpr.evaltree.EvalNodes#of(
+    com.maroontress.intexpr.impl.Program)} creates the tree from the
+    instructions that the
+    {@link com.maroontress.intexpr.impl.Compiler} creates.</p>
+*/
+package com.maroontress.intexpr.evaltree;
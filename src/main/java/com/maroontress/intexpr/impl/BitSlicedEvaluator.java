@@ -0,0 +1,401 @@
+package com.maroontress.intexpr.impl;
+
+import java.util.List;
+
+/**
+    This class provides the evaluator that runs a {@link Program} for 64
+    rows of the columnar input at once, packing the boolean values into the
+    bits of {@code long} words.
+
+    <p>Each element of the stack is either the lanes, which are the
+    {@code int} values of 64 rows, or the mask, whose bit {@code i} is the
+    boolean value of the row {@code i}. The comparisons push the masks, so
+    that the logical AND, OR, and NOT of them are single bitwise operations
+    of {@code long} values. The masks are converted into the lanes of 0 and
+    1 only where the other operators take them, and the lanes are converted
+    into the masks only where the logical operators take them. The other
+    instructions run lane by lane.</p>
+
+    <p>The evaluator evaluates all the rows of the word, so the instruction
+    may throw {@link ArithmeticException} with the row that the caller does
+    not need. The caller should evaluate such a word row by row.</p>
+
+    <p>The {@link BitSlicedEvaluator} object is immutable. Each thread
+    needs its own {@link Scratch} object, which can be shared with the
+    evaluators whose programs need the stack not larger than it.</p>
+*/
+public final class BitSlicedEvaluator {
+
+    /** The number of the rows that the evaluator evaluates at once. */
+    public static final int WIDTH = Long.SIZE;
+
+    private static final int LOAD = 0;
+    private static final int LOAD2 = 1;
+    private static final int CONST = 2;
+    private static final int COMPARE = 3;
+    private static final int COMPARE_IMMEDIATE = 4;
+    private static final int AND = 5;
+    private static final int OR = 6;
+    private static final int NOT = 7;
+    private static final int AND_IMMEDIATE = 8;
+    private static final int OR_IMMEDIATE = 9;
+    private static final int LANE_BY_LANE = 10;
+
+    private static final int GT = 0;
+    private static final int LT = 1;
+    private static final int GE = 2;
+    private static final int LE = 3;
+    private static final int NE = 4;
+    private static final int EQ = 5;
+
+    private final Instruction[] code;
+    private final int[] kinds;
+    private final int[] args;
+
+    private BitSlicedEvaluator(List<Instruction> all, int[] kinds,
+                               int[] args) {
+        this.code = all.toArray(new Instruction[0]);
+        this.kinds = kinds;
+        this.args = args;
+    }
+
+    /**
+        Returns a new evaluator of the specified program, or {@code null} if
+        the program cannot be or need not be evaluated bit-sliced.
+
+        <p>The program containing the conditional operator, the program
+        whose variables have the declared ranges, and the program that
+        contains no comparison nor logical operator are not
+        evaluated bit-sliced.</p>
+
+        @param program The program.
+        @return The new evaluator, or {@code null}.
+    */
+    public static BitSlicedEvaluator of(Program program) {
+        if (program.isBounded() || program.getJumpTargets() != null) {
+            return null;
+        }
+        var all = program.getInstructions();
+        var n = all.size();
+        var kinds = new int[n];
+        var args = new int[n];
+        var bitwise = false;
+        for (var k = 0; k < n; ++k) {
+            var i = all.get(k);
+            var kind = toKind(i);
+            kinds[k] = kind;
+            args[k] = toArg(i, kind);
+            bitwise |= kind >= COMPARE && kind < LANE_BY_LANE;
+        }
+        return bitwise
+                ? new BitSlicedEvaluator(all, kinds, args)
+                : null;
+    }
+
+    private static int toKind(Instruction i) {
+        if (i instanceof Variable) {
+            return LOAD;
+        }
+        if (i instanceof VariablePair) {
+            return LOAD2;
+        }
+        if (i instanceof Constant) {
+            return CONST;
+        }
+        if (i instanceof Operator) {
+            var spec = ((Operator) i).getSpec();
+            return spec.isBuiltin()
+                    ? toKind(spec.getOpcode(), COMPARE, AND, OR, NOT)
+                    : LANE_BY_LANE;
+        }
+        if (i instanceof ImmediateOperator) {
+            var o = (ImmediateOperator) i;
+            return o.getSpec().isBuiltin()
+                    ? toKind(o.getSpec().getOpcode(), COMPARE_IMMEDIATE,
+                            AND_IMMEDIATE, OR_IMMEDIATE, LANE_BY_LANE)
+                    : LANE_BY_LANE;
+        }
+        return LANE_BY_LANE;
+    }
+
+    private static int toKind(Opcode opcode, int compare, int and, int or,
+                              int not) {
+        switch (opcode) {
+        case LGT:
+        case LLT:
+        case LGE:
+        case LLE:
+        case LNE:
+        case LEQ:
+            return compare;
+        case LAND:
+            return and;
+        case LOR:
+            return or;
+        case LNOT:
+            return not;
+        default:
+            return LANE_BY_LANE;
+        }
+    }
+
+    private static int toArg(Instruction i, int kind) {
+        switch (kind) {
+        case LOAD:
+            return ((Variable) i).getSlot();
+        case CONST:
+            return ((Constant) i).getValue();
+        case COMPARE:
+            return toComparison(((Operator) i).getSpec().getOpcode());
+        case COMPARE_IMMEDIATE:
+            return toComparison(
+                    ((ImmediateOperator) i).getSpec().getOpcode());
+        case AND_IMMEDIATE:
+        case OR_IMMEDIATE:
+            return ((ImmediateOperator) i).getValue();
+        case LANE_BY_LANE:
+            return (i instanceof Operator)
+                    ? ((Operator) i).getSpec().getArity()
+                    : 1;
+        default:
+            return 0;
+        }
+    }
+
+    private static int toComparison(Opcode opcode) {
+        switch (opcode) {
+        case LGT:
+            return GT;
+        case LLT:
+            return LT;
+        case LGE:
+            return GE;
+        case LLE:
+            return LE;
+        case LNE:
+            return NE;
+        default:
+            return EQ;
+        }
+    }
+
+    /**
+        Evaluates the program with the specified rows of the columns, and
+        returns the mask of the rows where the result is non-zero.
+
+        @param columns The columns, the index of which is the slot of each
+            variable.
+        @param base The index of the first row.
+        @param rows The number of the rows, which must be between 1 and
+            {@link #WIDTH}.
+        @param scratch The scratch memory, which has the stack not smaller
+            than {@link Program#getStackSize()} of the program.
+        @return The mask, whose bit {@code i} is set if the result is
+            non-zero with the row {@code base + i}. The bits of {@code rows}
+            and above are undefined.
+        @throws ArithmeticException If there is an attempt to divide an
+            integer value by zero or to overflow with some row.
+    */
+    public long evaluate(int[][] columns, int base, int rows,
+                         Scratch scratch) {
+        var lanes = scratch.lanes;
+        var masks = scratch.masks;
+        var isMask = scratch.isMask;
+        var sp = 0;
+        var n = code.length;
+        for (var pc = 0; pc < n; ++pc) {
+            var arg = args[pc];
+            switch (kinds[pc]) {
+            case LOAD:
+                load(columns[arg], base, rows, lanes[sp]);
+                isMask[sp] = false;
+                ++sp;
+                break;
+            case LOAD2:
+                var pair = (VariablePair) code[pc];
+                load(columns[pair.getFirst().getSlot()], base, rows,
+                        lanes[sp]);
+                load(columns[pair.getSecond().getSlot()], base, rows,
+                        lanes[sp + 1]);
+                isMask[sp] = false;
+                isMask[sp + 1] = false;
+                sp += 2;
+                break;
+            case CONST:
+                masks[sp] = (arg != 0) ? -1L : 0;
+                isMask[sp] = true;
+                if (arg != 0 && arg != 1) {
+                    fill(lanes[sp], rows, arg);
+                    isMask[sp] = false;
+                }
+                ++sp;
+                break;
+            case COMPARE:
+                --sp;
+                toLanes(scratch, sp - 1, rows);
+                toLanes(scratch, sp, rows);
+                masks[sp - 1] = compare(arg, lanes[sp - 1], lanes[sp], rows);
+                isMask[sp - 1] = true;
+                break;
+            case COMPARE_IMMEDIATE:
+                toLanes(scratch, sp - 1, rows);
+                var value = scratch.immediate;
+                fill(value, rows, ((ImmediateOperator) code[pc]).getValue());
+                masks[sp - 1] = compare(arg, lanes[sp - 1], value, rows);
+                isMask[sp - 1] = true;
+                break;
+            case AND:
+                --sp;
+                masks[sp - 1] = toMask(scratch, sp - 1, rows)
+                        & toMask(scratch, sp, rows);
+                isMask[sp - 1] = true;
+                break;
+            case OR:
+                --sp;
+                masks[sp - 1] = toMask(scratch, sp - 1, rows)
+                        | toMask(scratch, sp, rows);
+                isMask[sp - 1] = true;
+                break;
+            case NOT:
+                masks[sp - 1] = ~toMask(scratch, sp - 1, rows);
+                isMask[sp - 1] = true;
+                break;
+            case AND_IMMEDIATE:
+                masks[sp - 1] = (arg != 0) ? toMask(scratch, sp - 1, rows) : 0;
+                isMask[sp - 1] = true;
+                break;
+            case OR_IMMEDIATE:
+                masks[sp - 1] = (arg != 0) ? -1L : toMask(scratch, sp - 1,
+                        rows);
+                isMask[sp - 1] = true;
+                break;
+            default:
+                sp = runLaneByLane(code[pc], arg, scratch, sp, rows);
+                break;
+            }
+        }
+        return toMask(scratch, 0, rows);
+    }
+
+    private static void load(int[] column, int base, int rows, int[] out) {
+        System.arraycopy(column, base, out, 0, rows);
+    }
+
+    private static void fill(int[] out, int rows, int value) {
+        for (var i = 0; i < rows; ++i) {
+            out[i] = value;
+        }
+    }
+
+    private static long toMask(Scratch scratch, int k, int rows) {
+        if (scratch.isMask[k]) {
+            return scratch.masks[k];
+        }
+        var lanes = scratch.lanes[k];
+        var mask = 0L;
+        for (var i = 0; i < rows; ++i) {
+            mask |= (lanes[i] != 0 ? 1L : 0L) << i;
+        }
+        return mask;
+    }
+
+    private static void toLanes(Scratch scratch, int k, int rows) {
+        if (!scratch.isMask[k]) {
+            return;
+        }
+        var mask = scratch.masks[k];
+        var lanes = scratch.lanes[k];
+        for (var i = 0; i < rows; ++i) {
+            lanes[i] = (int) (mask >>> i) & 1;
+        }
+        scratch.isMask[k] = false;
+    }
+
+    private static long compare(int kind, int[] a, int[] b, int rows) {
+        // Each loop packs the results of the comparisons without branches.
+        var mask = 0L;
+        switch (kind) {
+        case GT:
+            for (var i = 0; i < rows; ++i) {
+                mask |= (((long) b[i] - a[i]) >>> 63) << i;
+            }
+            return mask;
+        case LT:
+            for (var i = 0; i < rows; ++i) {
+                mask |= (((long) a[i] - b[i]) >>> 63) << i;
+            }
+            return mask;
+        case GE:
+            for (var i = 0; i < rows; ++i) {
+                mask |= (((long) a[i] - b[i]) >>> 63) << i;
+            }
+            return ~mask;
+        case LE:
+            for (var i = 0; i < rows; ++i) {
+                mask |= (((long) b[i] - a[i]) >>> 63) << i;
+            }
+            return ~mask;
+        case NE:
+            for (var i = 0; i < rows; ++i) {
+                var d = a[i] ^ b[i];
+                mask |= ((long) ((d | -d) >>> 31)) << i;
+            }
+            return mask;
+        default:
+            for (var i = 0; i < rows; ++i) {
+                var d = a[i] ^ b[i];
+                mask |= ((long) ((d | -d) >>> 31)) << i;
+            }
+            return ~mask;
+        }
+    }
+
+    private static int runLaneByLane(Instruction i, int arity,
+                                     Scratch scratch, int sp, int rows) {
+        var first = sp - arity;
+        for (var k = first; k < sp; ++k) {
+            toLanes(scratch, k, rows);
+        }
+        var lanes = scratch.lanes;
+        var stack = scratch.stack;
+        for (var r = 0; r < rows; ++r) {
+            for (var k = 0; k < arity; ++k) {
+                stack[k] = lanes[first + k][r];
+            }
+            i.apply(stack, arity);
+            lanes[first][r] = stack[0];
+        }
+        scratch.isMask[first] = false;
+        return first + 1;
+    }
+
+    /**
+        The scratch memory of the {@link BitSlicedEvaluator}.
+
+        <p>The {@link Scratch} object is mutable and not thread-safe.</p>
+    */
+    public static final class Scratch {
+
+        private final int[][] lanes;
+        private final long[] masks;
+        private final boolean[] isMask;
+        private final int[] stack;
+        private final int[] immediate;
+
+        /**
+            Creates a new instance.
+
+            @param size The size of the stack, which is not smaller than
+                the arity of any function that the program calls.
+        */
+        public Scratch(int size) {
+            lanes = new int[size][WIDTH];
+            masks = new long[size];
+            isMask = new boolean[size];
+            // The stack also holds the arguments of the function that runs
+            // lane by lane.
+            stack = new int[Math.max(WIDTH, size)];
+            immediate = new int[WIDTH];
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.maroontress.intexpr.impl;
+
+import com.maroontress.clione.Token;
+
+/**
+    The exception that the {@link Compiler} and {@link Program} throw when
+    the expression has an error.
+
+    <p>The exception formats the message of its {@link Problem} only when
+    {@link #getMessage()} is invoked.</p>
+*/
+public final class CompileException extends IllegalArgumentException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient Problem problem;
+
+    /**
+        Creates a new instance.
+
+        @param problem The problem.
+    */
+    public CompileException(Problem problem) {
+        this.problem = problem;
+    }
+
+    /**
+        Returns a new instance with the specified token and description.
+
+        @param token The token where the error occurs.
+        @param description The description of the error.
+        @return The new instance.
+        @see Problem#of(Token, String)
+    */
+    public static CompileException of(Token token, String description) {
+        return new CompileException(Problem.of(token, description));
+    }
+
+    /**
+        Returns a new instance with the specified description, which is not
+        located at any token.
+
+        @param description The description of the error.
+        @return The new instance.
+        @see Problem#of(String)
+    */
+    public static CompileException of(String description) {
+        return new CompileException(Problem.of(description));
+    }
+
+    /**
+        Returns the problem.
+
+        @return The problem.
+    */
+    public Problem getProblem() {
+        return problem;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String getMessage() {
+        return problem.getMessage();
+    }
+}
@@ -2,19 +2,19 @@ package com.maroontress.intexpr.impl;
 
 import java.io.IOException;
 import java.io.Reader;
-import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.Deque;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import com.maroontress.clione.LexicalParser;
 import com.maroontress.clione.Token;
 import com.maroontress.clione.TokenType;
 
 import static com.maroontress.intexpr.impl.OperatorType.BINARY;
 import static com.maroontress.intexpr.impl.OperatorType.UNARY;
-import static java.util.Map.entry;
 
 /**
     This class provides a tiny compiler that translates code written in the
@@ -27,11 +27,44 @@ import static java.util.Map.entry;
     {@link OperatorSpec} and parentheses are available in the expressions.
     The numbers that the expression includes and represents are 32-bit signed
     integers in two's-complement notation. The constants are non-negative
-    integers.</p>
+    integers. The identifiers are variables, each of which is assigned to the
+    slot in the order of its first appearance.</p>
 
-    <p>The compiled {@link Instruction}s consist of {@link Constant}s and
-    {@link Operator}s in Reverse Polish notation to execute with the stack
-    machine.</p>
+    <p>The {@link OperatorTable} object that the compiler takes provides the
+    operators, and the functions that the expression calls with the syntax
+    {@code name(arg, ...)}. The compiled call is the {@link Operator} with
+    {@link Opcode#CALL}, or the opcode of the built-in function, which
+    follows its arguments in the same way as the other operators. The name of
+    a function that is not followed by the left parenthesis is a variable, so
+    that the expressions using the variables such as {@code max} remain
+    valid.</p>
+
+    <p>The compiled {@link Instruction}s consist of {@link Constant}s,
+    {@link Variable}s, and {@link Operator}s in Reverse Polish notation to
+    execute with the stack machine.</p>
+
+    <p>The conditional operator {@code ?:} has lower precedence than any
+    other operator, and is right-associative. It is compiled into the
+    {@link Jump}s and the {@link Join}, so that the operand that the
+    condition does not select is never evaluated. The pending {@code ?} and
+    {@code :} are kept on the stack of the pending operators as the markers,
+    like the left parentheses.</p>
+
+    <p>The compiler allocates as few objects as possible other than the
+    instructions, because it may compile an expression on each keystroke.
+    The pending operators and left parentheses are kept in the arrays used
+    as a stack, rather than wrapped with the objects, and the actions for
+    each token type and the operators for each symbol are looked up with the
+    arrays, rather than the hash maps.</p>
+
+    <p>The compiler reports each error to the {@link ProblemSink}, and
+    recovers from it to find the subsequent errors in the same pass, unless
+    the sink throws an exception. It skips the unknown tokens and operators,
+    supplies a phantom operand where the operand is missing before the right
+    parenthesis, and skips the tokens following the missing operator until
+    the binary operator or the right parenthesis at the same nesting level.
+    The first error that it reports is always the one that
+    {@link #compile(Reader)} throws.</p>
 
     @see <a href="https://en.wikipedia.org/wiki/Reverse_Polish_notation">
         Wikipedia, Reverse Polish notation</a>
@@ -40,15 +73,35 @@ import static java.util.Map.entry;
 */
 public final class Compiler {
 
-    private static final Map<TokenType, Action> UNARY_MAP = newUnaryMap();
-    private static final Map<TokenType, Action> BINARY_MAP = newBinaryMap();
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** The count of the marker representing the pending {@code ?}. */
+    private static final int QUESTION = -1;
+
+    /** The count of the marker representing the pending {@code :}. */
+    private static final int COLON = -2;
+
+    private static final Action[] UNARY_ACTIONS = newUnaryActions();
+    private static final Action[] BINARY_ACTIONS = newBinaryActions();
+    private static final Action[] PANIC_ACTIONS = newPanicActions();
+    private static final Action[] CALL_ACTIONS = newCallActions();
 
-    private final Deque<PendedOperator> stack = new ArrayDeque<>();
     private final List<Instruction> list = new ArrayList<>();
-    private Map<TokenType, Action> currentMap;
+    private final Map<String, Integer> slotMap = new LinkedHashMap<>();
+    private OperatorSpec[] specStack = new OperatorSpec[INITIAL_CAPACITY];
+    private Token[] tokenStack = new Token[INITIAL_CAPACITY];
+    private int[] countStack = new int[INITIAL_CAPACITY];
+    private int top;
+    private final ProblemSink sink;
+    private final OperatorTable table;
+    private Action[] currentActions;
+    private int skipDepth;
+    private int problems;
 
-    private Compiler() {
-        currentMap = UNARY_MAP;
+    private Compiler(ProblemSink sink, OperatorTable table) {
+        this.sink = sink;
+        this.table = table;
+        currentActions = UNARY_ACTIONS;
     }
 
     /**
@@ -67,38 +120,143 @@ public final class Compiler {
     */
     public static List<Instruction> toRpn(Reader reader) throws IOException {
         try (var parser = LexicalParser.of(reader, Collections.emptySet())) {
-            var c = new Compiler();
-            return c.getInstructions(parser);
+            var c = new Compiler(ProblemSink.THROWING, OperatorTable.DEFAULT);
+            return List.copyOf(c.getInstructions(parser));
+        }
+    }
+
+    /**
+        Creates a new {@link Program} object from the expression that the
+        specified reader provides.
+
+        <p>The instructions of the program contain the superinstructions that
+        {@link Superinstructions} creates.</p>
+
+        @param reader The reader that provides the expression to evaluate.
+        @return The new {@link Program} object.
+        @throws IOException If an I/O error occurs with the {@code reader}.
+        @throws IllegalArgumentException If the specified expression has
+            syntax errors, unknown operators, illegal tokens, mismatched
+            parentheses, missing operands.
+    */
+    public static Program compile(Reader reader) throws IOException {
+        return compile(reader, ProblemSink.THROWING).get();
+    }
+
+    /**
+        Creates a new {@link Program} object from the expression that the
+        specified reader provides, reporting all the errors of the expression
+        to the specified sink.
+
+        <p>The problems are reported in the order of the tokens where they
+        occur, followed by the operators that lack their operand(s), and the
+        missing expression.</p>
+
+        @param reader The reader that provides the expression to evaluate.
+        @param sink The sink that receives the errors.
+        @return The new {@link Program} object, or {@link Optional#empty()}
+            if the sink has received any errors.
+        @throws IOException If an I/O error occurs with the {@code reader}.
+    */
+    public static Optional<Program> compile(Reader reader, ProblemSink sink)
+            throws IOException {
+        return compile(reader, sink, OperatorTable.DEFAULT);
+    }
+
+    /**
+        Creates a new {@link Program} object from the expression that the
+        specified reader provides with the operators and functions of the
+        specified table, reporting all the errors of the expression to the
+        specified sink.
+
+        @param reader The reader that provides the expression to evaluate.
+        @param sink The sink that receives the errors.
+        @param table The table of the operators and functions.
+        @return The new {@link Program} object, or {@link Optional#empty()}
+            if the sink has received any errors.
+        @throws IOException If an I/O error occurs with the {@code reader}.
+        @see #compile(Reader, ProblemSink)
+    */
+    public static Optional<Program> compile(Reader reader, ProblemSink sink,
+                                            OperatorTable table)
+            throws IOException {
+        try (var parser = LexicalParser.of(reader, Collections.emptySet())) {
+            var c = new Compiler(sink, table);
+            var instructions = Superinstructions.fuse(
+                    c.getInstructions(parser));
+            c.verify(instructions);
+            if (c.problems > 0) {
+                return Optional.empty();
+            }
+            return Optional.of(new Program(instructions,
+                    List.copyOf(c.slotMap.keySet())));
         }
     }
 
-    private static Map<TokenType, Action> newUnaryMap() {
-        return Map.ofEntries(
-                entry(TokenType.OPERATOR, newOperatorAction(UNARY)),
-                entry(TokenType.PUNCTUATOR, Compiler::leftParen),
-                entry(TokenType.NUMBER, Compiler::number),
-                entry(TokenType.UNKNOWN, Compiler::unknown),
-                entry(TokenType.DELIMITER, Compiler::nop),
-                entry(TokenType.COMMENT, Compiler::nop));
+    private static Action[] newActions() {
+        var actions = new Action[TokenType.values().length];
+        Arrays.fill(actions, (Action) Compiler::syntaxError);
+        actions[TokenType.UNKNOWN.ordinal()] = Compiler::unknown;
+        actions[TokenType.DELIMITER.ordinal()] = Compiler::nop;
+        actions[TokenType.COMMENT.ordinal()] = Compiler::nop;
+        return actions;
     }
 
-    private static Map<TokenType, Action> newBinaryMap() {
-        return Map.ofEntries(
-                entry(TokenType.OPERATOR, newOperatorAction(BINARY)),
-                entry(TokenType.PUNCTUATOR, Compiler::rightParen),
-                entry(TokenType.UNKNOWN, Compiler::unknown),
-                entry(TokenType.DELIMITER, Compiler::nop),
-                entry(TokenType.COMMENT, Compiler::nop));
+    private static Action[] newUnaryActions() {
+        var actions = newActions();
+        actions[TokenType.OPERATOR.ordinal()] = newOperatorAction(UNARY);
+        actions[TokenType.PUNCTUATOR.ordinal()] = Compiler::leftParen;
+        actions[TokenType.NUMBER.ordinal()] = Compiler::number;
+        actions[TokenType.IDENTIFIER.ordinal()] = Compiler::variable;
+        return actions;
+    }
+
+    private static Action[] newBinaryActions() {
+        var actions = newActions();
+        actions[TokenType.OPERATOR.ordinal()] = newOperatorAction(BINARY);
+        actions[TokenType.PUNCTUATOR.ordinal()] = Compiler::rightParen;
+        return actions;
+    }
+
+    private static Action[] newPanicActions() {
+        var actions = new Action[TokenType.values().length];
+        Arrays.fill(actions, (Action) Compiler::nop);
+        actions[TokenType.OPERATOR.ordinal()] = Compiler::skipOperator;
+        actions[TokenType.PUNCTUATOR.ordinal()] = Compiler::skipPunctuator;
+        return actions;
+    }
+
+    private static Action[] newCallActions() {
+        var actions = new Action[TokenType.values().length];
+        Arrays.fill(actions, (Action) Compiler::notCall);
+        actions[TokenType.UNKNOWN.ordinal()] = Compiler::unknown;
+        actions[TokenType.DELIMITER.ordinal()] = Compiler::nop;
+        actions[TokenType.COMMENT.ordinal()] = Compiler::nop;
+        actions[TokenType.PUNCTUATOR.ordinal()] = Compiler::callParen;
+        return actions;
     }
 
     private static Action newOperatorAction(OperatorType type) {
         return (c, token) -> {
-            var maybeOperator = Operator.of(token, type);
-            if (maybeOperator.isEmpty()) {
-                var m = Messages.of(token, "unknown " + type + " operator");
-                throw new IllegalArgumentException(m);
+            if (token.getValue().equals(",")) {
+                // The comma is a punctuator in the expressions.
+                var k = TokenType.PUNCTUATOR.ordinal();
+                c.currentActions[k].accept(c, token);
+                return;
+            }
+            if (type == BINARY && token.getValue().equals("?")) {
+                c.question(token);
+                return;
             }
-            c.pushOperator(maybeOperator.get());
+            var spec = c.table.lookup(token.getValue(), type);
+            if (spec == null) {
+                c.report(token, "unknown " + type + " operator");
+                if (type == BINARY) {
+                    c.currentActions = UNARY_ACTIONS;
+                }
+                return;
+            }
+            c.pushOperator(spec, token);
         };
     }
 
@@ -106,13 +264,107 @@ public final class Compiler {
     }
 
     private static void unknown(Compiler c, Token token) {
-        throw new IllegalArgumentException(
-                Messages.of(token, "unknown token"));
+        c.report(token, "unknown token");
+    }
+
+    private static void syntaxError(Compiler c, Token token) {
+        c.report(token, "syntax error");
+        if (c.currentActions == UNARY_ACTIONS) {
+            c.list.add(new Constant(0));
+            c.currentActions = BINARY_ACTIONS;
+            return;
+        }
+        c.panic(0);
+    }
+
+    private void report(Token token, String description) {
+        report(Problem.of(token, description));
+    }
+
+    private void report(Problem problem) {
+        ++problems;
+        sink.report(problem);
+    }
+
+    /**
+        Starts skipping the tokens until the binary operator or the right
+        parenthesis at the same nesting level as the current token.
+
+        @param depth The nesting level of the parentheses that the current
+            token has opened.
+    */
+    private void panic(int depth) {
+        skipDepth = depth;
+        currentActions = PANIC_ACTIONS;
+    }
+
+    private static void notCall(Compiler c, Token token) {
+        c.notCall();
+        c.currentActions[token.getType().ordinal()].accept(c, token);
+    }
+
+    /**
+        Replaces the function on the top of the stack, which is not followed
+        by its argument list, with the variable of the same name.
+    */
+    private void notCall() {
+        --top;
+        addVariable(tokenStack[top]);
+    }
+
+    private void skipOperator(Token token) {
+        if (token.getValue().equals(",")) {
+            skipPunctuator(token);
+            return;
+        }
+        if (skipDepth > 0) {
+            return;
+        }
+        if (token.getValue().equals("?")) {
+            question(token);
+            return;
+        }
+        var spec = table.lookup(token.getValue(), BINARY);
+        if (spec != null) {
+            pushOperator(spec, token);
+        }
+    }
+
+    private void skipPunctuator(Token token) {
+        var value = token.getValue();
+        if (value.equals("(")) {
+            ++skipDepth;
+        } else if (value.equals(")")) {
+            if (skipDepth == 0) {
+                rightParen(token);
+                return;
+            }
+            --skipDepth;
+        } else if (value.equals(",") && skipDepth == 0) {
+            comma(token);
+        } else if (value.equals(":") && skipDepth == 0) {
+            colon(token);
+        }
+    }
+
+    private void verify(List<Instruction> all) {
+        var depth = 0;
+        for (var i : all) {
+            try {
+                depth = i.verify(depth);
+            } catch (CompileException e) {
+                report(e.getProblem());
+                depth = 1;
+            }
+        }
+        if (depth == 0 && problems == 0) {
+            report(Problem.of("expression is missing"));
+        }
     }
 
     private List<Instruction> getInstructions(LexicalParser parser)
             throws IOException {
-        if (currentMap.isEmpty()) {
+        if (currentActions == null) {
             throw new IllegalStateException();
         }
         for (;;) {
@@ -121,80 +373,292 @@ public final class Compiler {
                 break;
             }
             var token = maybeToken.get();
-            var type = token.getType();
-            var action = currentMap.get(type);
-            if (action == null) {
-                throw new IllegalArgumentException(
-                        Messages.of(token, "syntax error"));
-            }
-            action.accept(this, token);
+            currentActions[token.getType().ordinal()].accept(this, token);
+        }
+        if (currentActions == CALL_ACTIONS) {
+            notCall();
         }
         for (;;) {
-            var o = stack.pollFirst();
-            if (o == null) {
+            popOperators();
+            if (top == 0) {
                 break;
             }
-            var maybeOperator = o.toOperator();
-            if (maybeOperator.isEmpty()) {
-                throw new IllegalArgumentException(
-                        Messages.of(o.getToken(), "mismatched parenthesis"));
+            --top;
+            report(tokenStack[top], "mismatched parenthesis");
+            if (countStack[top] > 0) {
+                // Replaces the function call with a phantom operand.
+                --top;
+                list.add(new Constant(0));
             }
-            list.add(maybeOperator.get());
         }
-        currentMap = Map.of();
-        return List.copyOf(list);
+        currentActions = null;
+        return list;
     }
 
     private void rightParen(Token token) {
         var value = token.getValue();
+        if (value.equals(",")) {
+            comma(token);
+            return;
+        }
+        if (value.equals(":")) {
+            colon(token);
+            return;
+        }
         if (!value.equals(")")) {
-            throw new IllegalArgumentException(
-                    Messages.of(token, "syntax error"));
+            report(token, "syntax error");
+            panic(value.equals("(") ? 1 : 0);
+            return;
         }
-        for (;;) {
-            var o = stack.pollFirst();
-            if (o == null) {
-                throw new IllegalArgumentException(
-                        Messages.of(token, "mismatched parenthesis"));
+        popOperators();
+        if (top == 0) {
+            report(token, "mismatched parenthesis");
+        } else {
+            --top;
+            var count = countStack[top];
+            if (count > 0) {
+                call(count);
             }
-            var maybeOperator = o.toOperator();
-            if (maybeOperator.isEmpty()) {
+        }
+        currentActions = BINARY_ACTIONS;
+    }
+
+    /**
+        Pops the pending operators and conditional operators until the left
+        parenthesis or the bottom of the stack, and adds their instructions.
+
+        <p>The {@code ?} that lacks its {@code :} is reported, and the
+        phantom operand is supplied as the missing operand.</p>
+    */
+    private void popOperators() {
+        while (top > 0) {
+            var k = top - 1;
+            var spec = specStack[k];
+            if (spec != null) {
+                list.add(Operator.of(spec, tokenStack[k]));
+            } else if (countStack[k] == COLON) {
+                list.add(new Join(tokenStack[k]));
+            } else if (countStack[k] == QUESTION) {
+                var token = tokenStack[k];
+                report(token, "colon is missing");
+                list.add(Jump.always(token));
+                list.add(new Constant(0));
+                list.add(new Join(token));
+            } else {
                 break;
             }
-            list.add(maybeOperator.get());
+            top = k;
         }
-        currentMap = BINARY_MAP;
+    }
+
+    /**
+        Pops the pending operators, and pushes the marker of {@code ?}
+        following the jump to the third operand.
+
+        <p>The operators on the stack have higher precedence than
+        {@code ?}, but the pending conditional operators remain because
+        {@code ?:} is right-associative.</p>
+
+        @param token The token of {@code ?}.
+    */
+    private void question(Token token) {
+        while (top > 0 && specStack[top - 1] != null) {
+            --top;
+            list.add(Operator.of(specStack[top], tokenStack[top]));
+        }
+        list.add(Jump.ifZero(token));
+        push(null, token);
+        countStack[top - 1] = QUESTION;
+        currentActions = UNARY_ACTIONS;
+    }
+
+    /**
+        Pops the pending operators and conditional operators until the
+        marker of the matching {@code ?}, and replaces it with the marker of
+        {@code :} following the jump over the third operand.
+
+        @param token The token of {@code :}.
+    */
+    private void colon(Token token) {
+        while (top > 0) {
+            var k = top - 1;
+            var spec = specStack[k];
+            if (spec != null) {
+                list.add(Operator.of(spec, tokenStack[k]));
+            } else if (countStack[k] == COLON) {
+                list.add(new Join(tokenStack[k]));
+            } else {
+                break;
+            }
+            top = k;
+        }
+        if (top == 0 || countStack[top - 1] != QUESTION) {
+            report(token, "syntax error");
+            panic(0);
+            return;
+        }
+        list.add(Jump.always(token));
+        tokenStack[top - 1] = token;
+        countStack[top - 1] = COLON;
+        currentActions = UNARY_ACTIONS;
+    }
+
+    /**
+        Pops the function on the top of the stack and adds the instruction
+        that calls it with the specified number of arguments.
+
+        @param count The number of the arguments.
+    */
+    private void call(int count) {
+        --top;
+        var spec = specStack[top];
+        var token = tokenStack[top];
+        var arity = spec.getArity();
+        if (count != arity) {
+            report(token, "wrong number of arguments");
+            for (var k = count; k < arity; ++k) {
+                list.add(new Constant(0));
+            }
+        }
+        list.add(Operator.of(spec, token));
+    }
+
+    private void comma(Token token) {
+        popOperators();
+        if (top == 0 || countStack[top - 1] == 0) {
+            report(token, "syntax error");
+        } else {
+            ++countStack[top - 1];
+        }
+        currentActions = UNARY_ACTIONS;
+    }
+
+    private void callParen(Token token) {
+        if (!token.getValue().equals("(")) {
+            notCall(this, token);
+            return;
+        }
+        push(null, token);
+        countStack[top - 1] = 1;
+        currentActions = UNARY_ACTIONS;
     }
 
     private void number(Token token) {
-        list.add(new Constant(token));
-        currentMap = BINARY_MAP;
+        Constant constant;
+        try {
+            constant = new Constant(token);
+        } catch (CompileException e) {
+            report(e.getProblem());
+            constant = new Constant(0);
+        }
+        list.add(constant);
+        currentActions = BINARY_ACTIONS;
+    }
+
+    private void variable(Token token) {
+        var name = token.getValue();
+        var function = table.lookupFunction(name);
+        if (function != null) {
+            push(function, token);
+            currentActions = CALL_ACTIONS;
+            return;
+        }
+        addVariable(token);
+    }
+
+    private void addVariable(Token token) {
+        var name = token.getValue();
+        var slot = slotMap.get(name);
+        if (slot == null) {
+            slot = slotMap.size();
+            slotMap.put(name, slot);
+        }
+        list.add(new Variable(token, slot));
+        currentActions = BINARY_ACTIONS;
     }
 
     private void leftParen(Token token) {
         var value = token.getValue();
         if (!value.equals("(")) {
-            throw new IllegalArgumentException(
-                    Messages.of(token, "syntax error"));
+            report(token, "syntax error");
+            if (value.equals(")")) {
+                list.add(new Constant(0));
+                currentActions = BINARY_ACTIONS;
+                if (hasLeftParen()) {
+                    rightParen(token);
+                }
+            } else if (value.equals(",") && isInCall()) {
+                list.add(new Constant(0));
+                comma(token);
+            } else if (value.equals(":") && isInConditional()) {
+                list.add(new Constant(0));
+                colon(token);
+            }
+            return;
         }
-        stack.push(PendedOperator.newLeftParen(token));
-        currentMap = UNARY_MAP;
+        push(null, token);
+        currentActions = UNARY_ACTIONS;
     }
 
-    private void pushOperator(Operator operator) {
-        for (;;) {
-            var o = stack.peekFirst();
-            if (o == null) {
-                break;
+    private boolean isLeftParen(int k) {
+        return specStack[k] == null && countStack[k] >= 0;
+    }
+
+    private boolean hasLeftParen() {
+        for (var k = 0; k < top; ++k) {
+            if (isLeftParen(k)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isInCall() {
+        for (var k = top - 1; k >= 0; --k) {
+            if (isLeftParen(k)) {
+                return countStack[k] > 0;
+            }
+        }
+        return false;
+    }
+
+    private boolean isInConditional() {
+        for (var k = top - 1; k >= 0; --k) {
+            if (isLeftParen(k)) {
+                return false;
+            }
+            if (specStack[k] == null && countStack[k] == QUESTION) {
+                return true;
             }
-            if (o.comparePrecedence(operator) > 0) {
+        }
+        return false;
+    }
+
+    private void pushOperator(OperatorSpec spec, Token token) {
+        var precedence = spec.getPrecedence();
+        while (top > 0) {
+            var pended = specStack[top - 1];
+            if (pended == null || pended.getPrecedence() > precedence) {
                 break;
             }
-            stack.pop();
-            list.add(o.toOperator().get());
+            --top;
+            list.add(Operator.of(pended, tokenStack[top]));
+        }
+        push(spec, token);
+        currentActions = UNARY_ACTIONS;
+    }
+
+    private void push(OperatorSpec spec, Token token) {
+        if (top == specStack.length) {
+            var n = top * 2;
+            specStack = Arrays.copyOf(specStack, n);
+            tokenStack = Arrays.copyOf(tokenStack, n);
+            countStack = Arrays.copyOf(countStack, n);
         }
-        stack.push(PendedOperator.of(operator));
-        currentMap = UNARY_MAP;
+        specStack[top] = spec;
+        tokenStack[top] = token;
+        countStack[top] = 0;
+        ++top;
     }
 
     @FunctionalInterface
@@ -2,6 +2,8 @@ package com.maroontress.intexpr.impl;
 
 import java.util.Deque;
 import com.maroontress.clione.Token;
+import com.maroontress.intexpr.evaltree.ConstNode;
+import com.maroontress.intexpr.evaltree.EvalNode;
 import com.maroontress.intexpr.syntaxtree.IntConstantNode;
 import com.maroontress.intexpr.syntaxtree.SyntaxNode;
 
@@ -17,9 +19,33 @@ public final class Constant implements Instruction {
         Creates a new instance.
 
         @param token The token representing an integer constant.
+        @throws CompileException If the constant is not in the range of
+            {@code int}.
     */
     public Constant(Token token) {
-        value = Integer.parseInt(token.getValue());
+        try {
+            value = Integer.parseInt(token.getValue());
+        } catch (NumberFormatException e) {
+            throw new CompileException(Problem.of(token, e));
+        }
+    }
+
+    /**
+        Creates a new instance with the specified value.
+
+        @param value The immediate value.
+    */
+    public Constant(int value) {
+        this.value = value;
+    }
+
+    /**
+        Returns the immediate value.
+
+        @return The immediate value.
+    */
+    public int getValue() {
+        return value;
     }
 
     /** {@inheritDoc} */
@@ -28,6 +54,12 @@ public final class Constant implements Instruction {
         stack.push(new IntConstantNode(value));
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public void build(Deque<EvalNode> stack) {
+        stack.push(new ConstNode(value));
+    }
+
     /** {@inheritDoc} */
     @Override
     public int apply(int[] stack, int offset) {
@@ -35,6 +67,35 @@ public final class Constant implements Instruction {
         return offset + 1;
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public int verify(int depth) {
+        return depth + 1;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Instruction analyze(RangeAnalysis analysis) {
+        analysis.pushConstant(value);
+        return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof Constant)) {
+            return false;
+        }
+        var that = (Constant) obj;
+        return value == that.value;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int hashCode() {
+        return Integer.hashCode(value);
+    }
+
     /** {@inheritDoc} */
     @Override
     public String toString() {
@@ -0,0 +1,145 @@
+package com.maroontress.intexpr.impl;
+
+/**
+    This class provides the division and the remainder by a constant divisor
+    without the division instruction, which are the same as the C-style
+    truncated division and remainder.
+
+    <p>The division by a power of two is the arithmetic shift of the
+    dividend plus the bias, which rounds the negative quotient towards zero.
+    The division by the other divisor is the multiplication by the magic
+    number (the reciprocal of the divisor in the fixed-point representation),
+    described in Hacker's Delight, Chapter 10. The remainder is the dividend
+    minus the product of the quotient and the divisor.</p>
+
+    <p>The divisor must be neither 0, 1, nor &minus;1, so that neither the
+    division nor the remainder throws an exception.</p>
+*/
+public final class ConstantDivisor {
+
+    private static final long UNSIGNED_MASK = 0xffff_ffffL;
+    private static final long TWO_31 = 0x8000_0000L;
+
+    private final int divisor;
+    private final boolean powerOfTwo;
+    private final int shift;
+    private final int magic;
+    private final int addend;
+
+    /**
+        Creates a new instance.
+
+        @param divisor The divisor.
+        @throws IllegalArgumentException If {@code divisor} is not reducible.
+        @see #isReducible(int)
+    */
+    public ConstantDivisor(int divisor) {
+        if (!isReducible(divisor)) {
+            throw new IllegalArgumentException("not reducible: " + divisor);
+        }
+        this.divisor = divisor;
+        var abs = Math.abs((long) divisor);
+        powerOfTwo = Long.bitCount(abs) == 1;
+        if (powerOfTwo) {
+            shift = Long.numberOfTrailingZeros(abs);
+            magic = 0;
+            addend = 0;
+            return;
+        }
+        var m = newMagic(divisor);
+        magic = (int) m[0];
+        shift = (int) m[1];
+        addend = (divisor > 0 && magic < 0) ? 1
+                : (divisor < 0 && magic > 0) ? -1
+                : 0;
+    }
+
+    /**
+        Returns whether the specified divisor is reducible.
+
+        @param divisor The divisor.
+        @return {@code true} if {@code divisor} is neither 0, 1, nor
+            &minus;1.
+    */
+    public static boolean isReducible(int divisor) {
+        return divisor < -1 || divisor > 1;
+    }
+
+    private static long[] newMagic(int d) {
+        var ad = Math.abs((long) d);
+        var t = TWO_31 + ((d & UNSIGNED_MASK) >>> 31);
+        var anc = t - 1 - t % ad;
+        var p = 31;
+        var q1 = TWO_31 / anc;
+        var r1 = TWO_31 - q1 * anc;
+        var q2 = TWO_31 / ad;
+        var r2 = TWO_31 - q2 * ad;
+        long delta;
+        do {
+            ++p;
+            q1 = (2 * q1) & UNSIGNED_MASK;
+            r1 = (2 * r1) & UNSIGNED_MASK;
+            if (r1 >= anc) {
+                q1 = (q1 + 1) & UNSIGNED_MASK;
+                r1 -= anc;
+            }
+            q2 = (2 * q2) & UNSIGNED_MASK;
+            r2 = (2 * r2) & UNSIGNED_MASK;
+            if (r2 >= ad) {
+                q2 = (q2 + 1) & UNSIGNED_MASK;
+                r2 -= ad;
+            }
+            delta = ad - r2;
+        } while (q1 < delta || (q1 == delta && r1 == 0));
+        var m = (int) (q2 + 1);
+        return new long[] {(d < 0) ? -m : m, p - 32};
+    }
+
+    /**
+        Returns the divisor.
+
+        @return The divisor.
+    */
+    public int getDivisor() {
+        return divisor;
+    }
+
+    /**
+        Returns the quotient of the specified dividend divided by the divisor.
+
+        @param x The dividend.
+        @return The quotient, which is equal to {@code x / divisor}.
+    */
+    public int divide(int x) {
+        if (powerOfTwo) {
+            var q = (x + bias(x)) >> shift;
+            return (divisor < 0) ? -q : q;
+        }
+        var q = (int) ((long) magic * x >> 32);
+        if (addend > 0) {
+            q += x;
+        } else if (addend < 0) {
+            q -= x;
+        }
+        q >>= shift;
+        return q + (q >>> 31);
+    }
+
+    /**
+        Returns the remainder of the specified dividend divided by the
+        divisor.
+
+        @param x The dividend.
+        @return The remainder, which is equal to {@code x % divisor}.
+    */
+    public int remainder(int x) {
+        if (powerOfTwo) {
+            return x - ((x + bias(x)) & (-1 << shift));
+        }
+        return x - divide(x) * divisor;
+    }
+
+    private int bias(int x) {
+        return (x >> 31) >>> (32 - shift);
+    }
+}
@@ -0,0 +1,114 @@
+package com.maroontress.intexpr.impl;
+
+/**
+    This class provides the multiplication by a constant multiplier, which
+    detects the overflow by comparing the multiplicand with the bounds
+    computed in advance rather than dividing.
+
+    <p>The multiplication by the power of two, or by the sum of two powers of
+    two, is the shift, or the sum of two shifts, respectively. The
+    multiplication by the negative multiplier is the negation of the
+    multiplication by its absolute value. The other multiplication is the
+    ordinary one. All of them wrap around, but the result is exact when the
+    multiplicand is in the bounds.</p>
+*/
+public final class ConstantMultiplier {
+
+    private final int multiplier;
+    private final int min;
+    private final int max;
+    private final int first;
+    private final int second;
+    private final boolean negative;
+
+    /**
+        Creates a new instance.
+
+        @param multiplier The multiplier.
+        @param checked {@code true} if the multiplication must detect the
+            overflow, or {@code false} if the multiplication never
+            overflows.
+    */
+    public ConstantMultiplier(int multiplier, boolean checked) {
+        this.multiplier = multiplier;
+        var c = (long) multiplier;
+        if (!checked || c == 0) {
+            min = Integer.MIN_VALUE;
+            max = Integer.MAX_VALUE;
+        } else if (c > 0) {
+            min = clamp(-Math.floorDiv(-(long) Integer.MIN_VALUE, c));
+            max = clamp(Math.floorDiv(Integer.MAX_VALUE, c));
+        } else {
+            min = clamp(-Math.floorDiv(-(long) Integer.MAX_VALUE, c));
+            max = clamp(Math.floorDiv(Integer.MIN_VALUE, c));
+        }
+        var abs = Math.abs(c);
+        var bits = Long.bitCount(abs);
+        first = (bits == 1 || bits == 2)
+                ? Long.numberOfTrailingZeros(abs)
+                : -1;
+        second = (bits == 2)
+                ? Long.SIZE - 1 - Long.numberOfLeadingZeros(abs)
+                : -1;
+        negative = c < 0;
+    }
+
+    private static int clamp(long value) {
+        return (int) Math.max(Integer.MIN_VALUE,
+                Math.min(value, Integer.MAX_VALUE));
+    }
+
+    /**
+        Returns the multiplier.
+
+        @return The multiplier.
+    */
+    public int getMultiplier() {
+        return multiplier;
+    }
+
+    /**
+        Returns whether the product of the specified multiplicand and the
+        multiplier overflows.
+
+        @param x The multiplicand.
+        @return {@code true} if the product overflows.
+    */
+    public boolean overflows(int x) {
+        return x < min || x > max;
+    }
+
+    /**
+        Returns the product of the specified multiplicand and the multiplier,
+        which wraps around if it overflows.
+
+        @param x The multiplicand.
+        @return The product.
+    */
+    public int apply(int x) {
+        int p;
+        if (second >= 0) {
+            p = (x << first) + (x << second);
+        } else if (first >= 0) {
+            p = x << first;
+        } else {
+            return x * multiplier;
+        }
+        return negative ? -p : p;
+    }
+
+    /**
+        Returns the product of the specified multiplicand and the
+        multiplier.
+
+        @param x The multiplicand.
+        @return The product.
+        @throws OverflowException If the product overflows.
+    */
+    public int multiply(int x) {
+        if (overflows(x)) {
+            throw new OverflowException();
+        }
+        return apply(x);
+    }
+}
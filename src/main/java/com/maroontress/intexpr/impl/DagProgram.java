@@ -0,0 +1,322 @@
+package com.maroontress.intexpr.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import com.maroontress.intexpr.syntaxtree.BinaryOperatorNode;
+import com.maroontress.intexpr.syntaxtree.CallNode;
+import com.maroontress.intexpr.syntaxtree.ConditionalOperatorNode;
+import com.maroontress.intexpr.syntaxtree.IntConstantNode;
+import com.maroontress.intexpr.syntaxtree.SyntaxNode;
+import com.maroontress.intexpr.syntaxtree.SyntaxNodeVisitor;
+import com.maroontress.intexpr.syntaxtree.UnaryOperatorNode;
+import com.maroontress.intexpr.syntaxtree.VariableNode;
+
+/**
+    This class represents multiple expressions as a directed acyclic graph
+    (DAG) of the interned {@link SyntaxNode} objects, which computes each
+    shared subexpression only once.
+
+    <p>Each distinct node has its own step, and the steps are sorted
+    topologically, so that every step runs after the steps of its operands.
+    The steps never short-circuit, even the step of the conditional
+    operator, whose operands are all computed before it selects one. So the
+    operand that the condition does not select may throw the exception that
+    the expression does not throw. The caller must ignore the failure of
+    such an operand (see {@link #isConditional(int)}).</p>
+
+    @see com.maroontress.intexpr.syntaxtree.SyntaxNodeTable
+*/
+public final class DagProgram {
+
+    private final Step[] steps;
+    private final int[][] operands;
+    private final int[][] parents;
+    private final int[] slotNodes;
+    private final int[] roots;
+    private final boolean[] conditionals;
+
+    /**
+        Creates a new instance.
+
+        @param roots The interned root nodes of the expressions.
+        @param variables The names of the variables, the index of which is the
+            slot of each variable.
+    */
+    public DagProgram(List<SyntaxNode> roots, List<String> variables) {
+        var slotMap = new HashMap<String, Integer>();
+        for (var name : variables) {
+            slotMap.putIfAbsent(name, slotMap.size());
+        }
+        var builder = new Builder(slotMap);
+        this.roots = roots.stream()
+                .mapToInt(r -> r.accept(builder))
+                .toArray();
+        this.steps = builder.list.toArray(new Step[0]);
+        this.operands = builder.operandList.toArray(new int[0][]);
+        this.parents = newParents(operands);
+        this.slotNodes = new int[variables.size()];
+        Arrays.fill(slotNodes, -1);
+        builder.slotNodeMap.forEach((slot, k) -> slotNodes[slot] = k);
+        this.conditionals = new boolean[steps.length];
+        for (var k : builder.conditionalList) {
+            conditionals[k] = true;
+        }
+    }
+
+    private static int[][] newParents(int[][] operands) {
+        var n = operands.length;
+        var counts = new int[n];
+        for (var o : operands) {
+            for (var k : o) {
+                ++counts[k];
+            }
+        }
+        var parents = new int[n][];
+        for (var k = 0; k < n; ++k) {
+            parents[k] = new int[counts[k]];
+            counts[k] = 0;
+        }
+        for (var p = 0; p < n; ++p) {
+            for (var k : operands[p]) {
+                parents[k][counts[k]++] = p;
+            }
+        }
+        return parents;
+    }
+
+    /**
+        Returns the number of the distinct nodes.
+
+        @return The number of the nodes.
+    */
+    public int size() {
+        return steps.length;
+    }
+
+    /**
+        Returns the index of the node representing the root of the specified
+        expression.
+
+        @param index The index of the expression.
+        @return The index of the node.
+    */
+    public int getRoot(int index) {
+        return roots[index];
+    }
+
+    /**
+        Returns the indices of the nodes representing the operands of the
+        specified node.
+
+        <p>Each index of the operands is less than the index of the specified
+        node.</p>
+
+        @param node The index of the node.
+        @return The array of the indices, which must not be modified.
+    */
+    public int[] getOperands(int node) {
+        return operands[node];
+    }
+
+    /**
+        Returns the indices of the nodes that have the specified node as their
+        operand.
+
+        @param node The index of the node.
+        @return The array of the indices, which must not be modified.
+    */
+    public int[] getParents(int node) {
+        return parents[node];
+    }
+
+    /**
+        Returns whether the specified node represents the conditional
+        operator.
+
+        <p>The operands of the conditional operator are the condition, the
+        operand selected if the condition is non-zero, and the operand
+        selected otherwise. The failure of the operand that is not selected
+        does not make the conditional operator fail.</p>
+
+        @param node The index of the node.
+        @return {@code true} if the node is the conditional operator.
+    */
+    public boolean isConditional(int node) {
+        return conditionals[node];
+    }
+
+    /**
+        Returns the index of the node representing the specified variable.
+
+        @param slot The slot of the variable.
+        @return The index of the node, or -1 if no expression contains the
+            variable.
+    */
+    public int getVariableNode(int slot) {
+        return slotNodes[slot];
+    }
+
+    /**
+        Computes the value of the specified node with the values of its
+        operands.
+
+        @param node The index of the node.
+        @param nodes The values of the nodes.
+        @param values The values of the variables.
+        @return The value of the node.
+        @throws OverflowException If an arithmetic operation results in an
+            overflow.
+        @throws DivideByZeroException If there is an attempt to divide an
+            integer value by zero.
+    */
+    public int apply(int node, int[] nodes, int[] values) {
+        return steps[node].apply(nodes, values);
+    }
+
+    /**
+        Computes the values of all the expressions with the specified values
+        of the variables.
+
+        @param values The values of the variables.
+        @param results The array where the values of the expressions are
+            stored.
+        @throws OverflowException If an arithmetic operation results in an
+            overflow.
+        @throws DivideByZeroException If there is an attempt to divide an
+            integer value by zero.
+    */
+    public void run(int[] values, int[] results) {
+        var n = steps.length;
+        var nodes = new int[n];
+        for (var k = 0; k < n; ++k) {
+            nodes[k] = steps[k].apply(nodes, values);
+        }
+        for (var k = 0; k < roots.length; ++k) {
+            results[k] = nodes[roots[k]];
+        }
+    }
+
+    @FunctionalInterface
+    private interface Step {
+        int apply(int[] nodes, int[] values);
+    }
+
+    private static final class Builder implements SyntaxNodeVisitor<Integer> {
+
+        private final Map<SyntaxNode, Integer> indexMap
+                = new IdentityHashMap<>();
+        private final List<Step> list = new ArrayList<>();
+        private final List<int[]> operandList = new ArrayList<>();
+        private final Map<Integer, Integer> slotNodeMap = new HashMap<>();
+        private final List<Integer> conditionalList = new ArrayList<>();
+        private final Map<String, Integer> slotMap;
+
+        Builder(Map<String, Integer> slotMap) {
+            this.slotMap = slotMap;
+        }
+
+        private Integer add(SyntaxNode node, Step step, int... operands) {
+            var k = list.size();
+            list.add(step);
+            operandList.add(operands);
+            indexMap.put(node, k);
+            return k;
+        }
+
+        @Override
+        public Integer visit(IntConstantNode node) {
+            var k = indexMap.get(node);
+            if (k != null) {
+                return k;
+            }
+            var value = node.getValue();
+            return add(node, (n, v) -> value);
+        }
+
+        @Override
+        public Integer visit(VariableNode node) {
+            var k = indexMap.get(node);
+            if (k != null) {
+                return k;
+            }
+            var slot = (int) slotMap.get(node.getName());
+            var index = add(node, (n, v) -> v[slot]);
+            slotNodeMap.put(slot, index);
+            return index;
+        }
+
+        @Override
+        public Integer visit(UnaryOperatorNode node) {
+            var k = indexMap.get(node);
+            if (k != null) {
+                return k;
+            }
+            var o = node.getSpec().getUnaryOperation();
+            var operand = (int) node.getOperand().accept(this);
+            return add(node, (n, v) -> o.apply(n[operand]), operand);
+        }
+
+        @Override
+        public Integer visit(BinaryOperatorNode node) {
+            var k = indexMap.get(node);
+            if (k != null) {
+                return k;
+            }
+            var o = node.getSpec().getBinaryOperation();
+            var left = (int) node.getLeftOperand().accept(this);
+            var right = (int) node.getRightOperand().accept(this);
+            return add(node, (n, v) -> o.apply(n[left], n[right]),
+                    left, right);
+        }
+
+        @Override
+        public Integer visit(CallNode node) {
+            var k = indexMap.get(node);
+            if (k != null) {
+                return k;
+            }
+            var spec = node.getSpec();
+            var operands = node.getOperands()
+                    .stream()
+                    .mapToInt(s -> s.accept(this))
+                    .toArray();
+            if (spec.hasTernaryOperation()) {
+                var t = spec.getTernaryOperation();
+                var first = operands[0];
+                var second = operands[1];
+                var third = operands[2];
+                return add(node,
+                        (n, v) -> t.apply(n[first], n[second], n[third]),
+                        operands);
+            }
+            var o = spec.getNaryOperation();
+            return add(node, (n, v) -> {
+                var args = new int[operands.length];
+                for (var j = 0; j < args.length; ++j) {
+                    args[j] = n[operands[j]];
+                }
+                return o.apply(args);
+            }, operands);
+        }
+
+        @Override
+        public Integer visit(ConditionalOperatorNode node) {
+            var k = indexMap.get(node);
+            if (k != null) {
+                return k;
+            }
+            var condition = (int) node.getCondition().accept(this);
+            var then = (int) node.getThen().accept(this);
+            var otherwise = (int) node.getOtherwise().accept(this);
+            var index = add(node,
+                    (n, v) -> (n[condition] != 0) ? n[then] : n[otherwise],
+                    condition, then, otherwise);
+            conditionalList.add(index);
+            return index;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.maroontress.intexpr.impl;
+
+/**
+    The function that evaluates a {@link Program} object with the values of
+    the variables.
+*/
+@FunctionalInterface
+public interface Evaluator {
+
+    /**
+        Evaluates the program with the specified values of the variables and
+        returns the result value.
+
+        @param values The values of the variables, the number of which must
+            be equal to the number of the variables of the program.
+        @return The result value.
+        @throws ArithmeticException If there is an attempt to divide an
+            integer value by zero or to overflow.
+    */
+    int evaluate(int[] values);
+
+    /**
+        Evaluates the program with the specified values of the variables and
+        the scratch array, and returns the result value.
+
+        <p>The default implementation ignores the scratch array and invokes
+        {@link #evaluate(int[])}. The evaluator that needs the stack
+        overrides this method to use the array as the stack instead of
+        allocating a new one.</p>
+
+        @param values The values of the variables, the number of which must
+            be equal to the number of the variables of the program.
+        @param stack The scratch array, the length of which is not less than
+            the sum of the number of the variables and
+            {@link Program#getStackSize()}.
+        @return The result value.
+        @throws ArithmeticException If there is an attempt to divide an
+            integer value by zero or to overflow.
+    */
+    default int evaluate(int[] values, int[] stack) {
+        return evaluate(values);
+    }
+}
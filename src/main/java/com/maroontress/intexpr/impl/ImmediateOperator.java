@@ -0,0 +1,189 @@
+package com.maroontress.intexpr.impl;
+
+import java.util.Deque;
+import java.util.Objects;
+import com.maroontress.clione.Token;
+import com.maroontress.intexpr.evaltree.ConstNode;
+import com.maroontress.intexpr.evaltree.EvalNode;
+import com.maroontress.intexpr.evaltree.EvalNodes;
+import com.maroontress.intexpr.syntaxtree.BinaryOperatorNode;
+import com.maroontress.intexpr.syntaxtree.IntConstantNode;
+import com.maroontress.intexpr.syntaxtree.SyntaxNode;
+
+/**
+    The superinstruction that fuses a {@link Constant} and the following
+    binary {@link Operator}, which takes the constant as the immediate value
+    of its right operand.
+
+    <p>For example, {@code CONST 1} and {@code ADD} are fused into
+    {@code ADDI 1}.</p>
+*/
+public final class ImmediateOperator implements Instruction {
+
+    private final Opcode opcode;
+    private final OperatorSpec spec;
+    private final IntBinaryOperation operation;
+    private final Token token;
+    private final int value;
+    private final boolean unchecked;
+
+    /**
+        Creates a new instance.
+
+        @param opcode The opcode of the superinstruction.
+        @param operator The binary operator.
+        @param value The immediate value.
+    */
+    public ImmediateOperator(Opcode opcode, Operator operator, int value) {
+        this(opcode, operator.getSpec(), operator.getToken(), value,
+                operator.isUnchecked());
+    }
+
+    private ImmediateOperator(Opcode opcode, OperatorSpec spec, Token token,
+                              int value, boolean unchecked) {
+        this.opcode = opcode;
+        this.spec = spec;
+        this.operation = unchecked
+                ? (IntBinaryOperation) spec.getUncheckedOperation()
+                : spec.getBinaryOperation();
+        this.token = token;
+        this.value = value;
+        this.unchecked = unchecked;
+    }
+
+    /**
+        Returns the opcode of this superinstruction.
+
+        @return The opcode.
+    */
+    public Opcode getOpcode() {
+        return opcode;
+    }
+
+    /**
+        Returns the {@link OperatorSpec} object of the binary operator.
+
+        @return The {@link OperatorSpec} object.
+    */
+    public OperatorSpec getSpec() {
+        return spec;
+    }
+
+    /**
+        Returns the token of the binary operator.
+
+        @return The token.
+    */
+    public Token getToken() {
+        return token;
+    }
+
+    /**
+        Returns the immediate value.
+
+        @return The immediate value.
+    */
+    public int getValue() {
+        return value;
+    }
+
+    /**
+        Returns whether this superinstruction is the unchecked variant.
+
+        @return {@code true} if this performs no check of overflow nor
+            division by zero.
+        @see RangeAnalysis
+    */
+    public boolean isUnchecked() {
+        return unchecked;
+    }
+
+    /**
+        Returns the binary operator that this superinstruction fuses with
+        the constant.
+
+        @return The operator, which is unchecked if and only if this is.
+    */
+    public Operator toOperator() {
+        return new Operator(spec, token, unchecked);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void accept(Deque<SyntaxNode> stack) {
+        var left = stack.pop();
+        var right = new IntConstantNode(value);
+        stack.push(new BinaryOperatorNode(spec, left, right));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void build(Deque<EvalNode> stack) {
+        stack.push(new ConstNode(value));
+        if (unchecked) {
+            EvalNodes.pushUnchecked(spec, token, stack);
+            return;
+        }
+        EvalNodes.push(spec, token, stack);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int apply(int[] stack, int offset) {
+        var k = offset - 1;
+        stack[k] = unchecked
+                ? operation.apply(stack[k], value)
+                : Operations.perform(token, operation, stack[k], value);
+        return offset;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int verify(int depth) {
+        if (depth < 1) {
+            throw CompileException.of(token, "operand is missing");
+        }
+        return depth;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Instruction analyze(RangeAnalysis analysis) {
+        analysis.pushConstant(value);
+        var safe = analysis.apply(spec);
+        return (safe && !unchecked && spec.hasUncheckedOperation())
+                ? new ImmediateOperator(opcode, spec, token, value, true)
+                : this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof ImmediateOperator)) {
+            return false;
+        }
+        var that = (ImmediateOperator) obj;
+        return spec == that.spec
+                && value == that.value
+                && unchecked == that.unchecked
+                && token.getValue().equals(that.token.getValue())
+                && token.getSpan().toString().equals(
+                        that.token.getSpan().toString());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int hashCode() {
+        return Objects.hash(spec, value, unchecked, token.getValue(),
+                token.getSpan().toString());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return "ImmediateOperator[opcode=" + opcode + ", "
+                + "value=" + value + ", "
+                + "token=" + token + ", "
+                + "unchecked=" + unchecked + "]";
+    }
+}
@@ -0,0 +1,206 @@
+package com.maroontress.intexpr.impl;
+
+/**
+    This class keeps the values of all the nodes of a {@link DagProgram} and
+    recomputes only the nodes that depend on the variables whose values have
+    changed.
+
+    <p>Changing the value of a variable marks the node of the variable dirty.
+    Recomputing a dirty node marks its parents dirty only if its value (or
+    whether it fails) has changed, so the recomputation stops as soon as the
+    change vanishes. The dirty nodes are recomputed in the topological order
+    with the priority queue, so each of them is recomputed at most once per
+    {@link #update()}.</p>
+
+    <p>The {@link IncrementalEvaluator} object is mutable and not
+    thread-safe.</p>
+*/
+public final class IncrementalEvaluator {
+
+    private final DagProgram dag;
+    private final int[] values;
+    private final int[] nodes;
+    private final boolean[] failed;
+    private final boolean[] dirty;
+    private final int[] queue;
+    private int queueSize;
+
+    /**
+        Creates a new instance and computes all the nodes with the specified
+        values of the variables.
+
+        @param dag The program.
+        @param values The initial values of the variables.
+    */
+    public IncrementalEvaluator(DagProgram dag, int[] values) {
+        this.dag = dag;
+        this.values = values.clone();
+        var n = dag.size();
+        nodes = new int[n];
+        failed = new boolean[n];
+        dirty = new boolean[n];
+        queue = new int[n];
+        for (var k = 0; k < n; ++k) {
+            compute(k);
+        }
+    }
+
+    /**
+        Returns the current value of the specified variable.
+
+        @param slot The slot of the variable.
+        @return The value.
+    */
+    public int getValue(int slot) {
+        return values[slot];
+    }
+
+    /**
+        Returns a copy of the current values of all the variables.
+
+        @return The new array containing the values.
+    */
+    public int[] getValues() {
+        return values.clone();
+    }
+
+    /**
+        Changes the value of the specified variable.
+
+        <p>The nodes that depend on the variable are not recomputed until
+        {@link #update()} is invoked.</p>
+
+        @param slot The slot of the variable.
+        @param value The new value.
+    */
+    public void setValue(int slot, int value) {
+        if (values[slot] == value) {
+            return;
+        }
+        values[slot] = value;
+        var node = dag.getVariableNode(slot);
+        if (node >= 0) {
+            offer(node);
+        }
+    }
+
+    /**
+        Recomputes the dirty nodes.
+    */
+    public void update() {
+        while (queueSize > 0) {
+            var k = poll();
+            dirty[k] = false;
+            var oldValue = nodes[k];
+            var oldFailed = failed[k];
+            compute(k);
+            if (nodes[k] == oldValue && failed[k] == oldFailed) {
+                continue;
+            }
+            for (var p : dag.getParents(k)) {
+                offer(p);
+            }
+        }
+    }
+
+    /**
+        Returns whether the computation of the specified node has failed.
+
+        @param node The index of the node.
+        @return {@code true} if the operation of the node or its operands has
+            thrown an exception, otherwise {@code false}.
+    */
+    public boolean isFailed(int node) {
+        return failed[node];
+    }
+
+    /**
+        Returns the value of the specified node.
+
+        @param node The index of the node.
+        @return The value, which is meaningless if the node has failed.
+    */
+    public int getNode(int node) {
+        return nodes[node];
+    }
+
+    private void compute(int k) {
+        if (dag.isConditional(k)) {
+            select(k);
+            return;
+        }
+        for (var o : dag.getOperands(k)) {
+            if (failed[o]) {
+                failed[k] = true;
+                return;
+            }
+        }
+        try {
+            nodes[k] = dag.apply(k, nodes, values);
+            failed[k] = false;
+        } catch (OverflowException | DivideByZeroException
+                | ArithmeticException e) {
+            // The operators and functions registered with OperatorRegistry
+            // may throw ArithmeticException. Escaping here would leave the
+            // node clean with its parents never queued.
+            failed[k] = true;
+        }
+    }
+
+    /**
+        Computes the specified node representing the conditional operator,
+        which fails only if the condition or the selected operand fails.
+
+        @param k The index of the node.
+    */
+    private void select(int k) {
+        var operands = dag.getOperands(k);
+        var condition = operands[0];
+        if (failed[condition]) {
+            failed[k] = true;
+            return;
+        }
+        var selected = (nodes[condition] != 0) ? operands[1] : operands[2];
+        failed[k] = failed[selected];
+        nodes[k] = nodes[selected];
+    }
+
+    private void offer(int k) {
+        if (dirty[k]) {
+            return;
+        }
+        dirty[k] = true;
+        var i = queueSize++;
+        while (i > 0) {
+            var parent = (i - 1) / 2;
+            if (queue[parent] <= k) {
+                break;
+            }
+            queue[i] = queue[parent];
+            i = parent;
+        }
+        queue[i] = k;
+    }
+
+    private int poll() {
+        var top = queue[0];
+        var last = queue[--queueSize];
+        var i = 0;
+        for (;;) {
+            var child = 2 * i + 1;
+            if (child >= queueSize) {
+                break;
+            }
+            if (child + 1 < queueSize && queue[child + 1] < queue[child]) {
+                ++child;
+            }
+            if (last <= queue[child]) {
+                break;
+            }
+            queue[i] = queue[child];
+            i = child;
+        }
+        queue[i] = last;
+        return top;
+    }
+}
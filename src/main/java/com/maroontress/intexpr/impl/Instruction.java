@@ -1,6 +1,7 @@
 package com.maroontress.intexpr.impl;
 
 import java.util.Deque;
+import com.maroontress.intexpr.evaltree.EvalNode;
 import com.maroontress.intexpr.syntaxtree.SyntaxNode;
 
 /**
@@ -16,6 +17,14 @@ public interface Instruction {
     */
     void accept(Deque<SyntaxNode> stack);
 
+    /**
+        Interacts with the specified stack of the {@link EvalNode} object to
+        build the tree that evaluates the instructions.
+
+        @param stack The stack of an {@link EvalNode} object.
+    */
+    void build(Deque<EvalNode> stack);
+
     /**
         Interacts with the specified stack of an integer.
 
@@ -24,4 +33,27 @@ public interface Instruction {
         @return The new offset of the top of the stack.
     */
     int apply(int[] stack, int offset);
+
+    /**
+        Returns the depth of the stack after this instruction runs with the
+        stack of the specified depth, without executing it.
+
+        @param depth The depth of the stack before this instruction runs.
+        @return The depth of the stack after this instruction runs.
+        @throws IllegalArgumentException If the stack does not contain the
+            operand(s) that this instruction needs.
+    */
+    int verify(int depth);
+
+    /**
+        Interacts with the specified {@link RangeAnalysis} object, and returns
+        the instruction to replace this instruction.
+
+        @param analysis The range analysis.
+        @return The unchecked variant of this instruction if the analysis has
+            proved that this instruction never throws
+            {@link OverflowException} or {@link DivideByZeroException},
+            otherwise this instruction.
+    */
+    Instruction analyze(RangeAnalysis analysis);
 }
@@ -30,4 +30,14 @@ public interface IntBinaryOperation extends Operation {
             return k;
         };
     }
+
+    /** {@inheritDoc} */
+    @Override
+    default Executable toUncheckedExecutable() {
+        return (s, n, t) -> {
+            var k = n - 1;
+            s[k - 1] = apply(s[k - 1], s[k]);
+            return k;
+        };
+    }
 }
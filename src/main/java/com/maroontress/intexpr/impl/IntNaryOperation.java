@@ -0,0 +1,74 @@
+package com.maroontress.intexpr.impl;
+
+import java.util.function.ToIntFunction;
+import com.maroontress.clione.Token;
+
+/**
+    A function representing operation with a function that takes three or
+    more operands.
+
+    <p>The function receives the operands in a new array on each call, so it
+    may keep or modify the array.</p>
+*/
+public final class IntNaryOperation implements Operation {
+
+    private final int arity;
+    private final ToIntFunction<int[]> function;
+
+    /**
+        Creates a new instance.
+
+        @param arity The number of the operands.
+        @param function The function that takes the array of the operands and
+            returns the operation result.
+    */
+    public IntNaryOperation(int arity, ToIntFunction<int[]> function) {
+        this.arity = arity;
+        this.function = function;
+    }
+
+    /**
+        Returns the number of the operands.
+
+        @return The number of the operands.
+    */
+    public int getArity() {
+        return arity;
+    }
+
+    /**
+        Returns the value operated with the specified operands.
+
+        @param operands The operands, the length of which is the arity.
+        @return The operation result.
+    */
+    public int apply(int[] operands) {
+        return function.applyAsInt(operands);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Executable toExecutable() {
+        return (s, n, t) -> {
+            if (n < arity) {
+                var m = Messages.of(t, "operand is missing");
+                throw new IllegalArgumentException(m);
+            }
+            return execute(s, n, t);
+        };
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Executable toUncheckedExecutable() {
+        return this::execute;
+    }
+
+    private int execute(int[] stack, int offset, Token token) {
+        var k = offset - arity;
+        var operands = new int[arity];
+        System.arraycopy(stack, k, operands, 0, arity);
+        stack[k] = Operations.perform(token, this, operands);
+        return k + 1;
+    }
+}
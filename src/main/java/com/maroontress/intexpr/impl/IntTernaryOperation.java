@@ -0,0 +1,46 @@
+package com.maroontress.intexpr.impl;
+
+/**
+    A function representing operation with a function that takes three
+    operands.
+
+    <p>Unlike {@link IntNaryOperation}, the function receives the operands
+    as the arguments, so that the operation allocates no array.</p>
+*/
+@FunctionalInterface
+public interface IntTernaryOperation extends Operation {
+
+    /**
+        Returns the value operated with the specified operands.
+
+        @param first The first operand.
+        @param second The second operand.
+        @param third The third operand.
+        @return The operation result.
+    */
+    int apply(int first, int second, int third);
+
+    /** {@inheritDoc} */
+    @Override
+    default Executable toExecutable() {
+        return (s, n, t) -> {
+            if (n < 3) {
+                var m = Messages.of(t, "operand is missing");
+                throw new IllegalArgumentException(m);
+            }
+            var k = n - 3;
+            s[k] = Operations.perform(t, this, s[k], s[k + 1], s[k + 2]);
+            return k + 1;
+        };
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    default Executable toUncheckedExecutable() {
+        return (s, n, t) -> {
+            var k = n - 3;
+            s[k] = apply(s[k], s[k + 1], s[k + 2]);
+            return k + 1;
+        };
+    }
+}
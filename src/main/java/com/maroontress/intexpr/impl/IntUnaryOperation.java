@@ -28,4 +28,14 @@ public interface IntUnaryOperation extends Operation {
             return n;
         };
     }
+
+    /** {@inheritDoc} */
+    @Override
+    default Executable toUncheckedExecutable() {
+        return (s, n, t) -> {
+            var k = n - 1;
+            s[k] = apply(s[k]);
+            return n;
+        };
+    }
 }
@@ -32,4 +32,86 @@ public final class Interpreter {
         }
         return stack[0];
     }
+
+    /**
+        Executes the instructions retrieved from the specified iterator with
+        the specified values of the variables and returns the result value.
+
+        <p>The values of the variables occupy the slots at the bottom of the
+        stack, so the operands are placed above them.</p>
+
+        @param stackSize The size of stack excluding the slots of the
+            variables.
+        @param all All the instructions in Reverse Polish notation.
+        @param values The values of the variables.
+        @return The result value.
+    */
+    public static int run(int stackSize, Iterable<Instruction> all,
+                          int[] values) {
+        return run(all, values, new int[values.length + stackSize]);
+    }
+
+    /**
+        Executes the instructions retrieved from the specified iterator with
+        the specified values of the variables and the specified stack, and
+        returns the result value.
+
+        <p>The stack is overwritten, so the caller can reuse it for the next
+        execution.</p>
+
+        @param all All the instructions in Reverse Polish notation.
+        @param values The values of the variables.
+        @param stack The stack, the length of which is not less than the sum
+            of the number of the variables and the size that the instructions
+            need.
+        @return The result value.
+    */
+    public static int run(Iterable<Instruction> all, int[] values,
+                          int[] stack) {
+        var n = values.length;
+        System.arraycopy(values, 0, stack, 0, n);
+        var k = n;
+        for (var i : all) {
+            k = i.apply(stack, k);
+        }
+        return stack[n];
+    }
+
+    /**
+        Executes the instructions that contain {@link Jump}s with the
+        specified values of the variables and the specified stack, and
+        returns the result value.
+
+        <p>When an instruction returns the negative offset, the interpreter
+        takes its bitwise complement as the new offset and continues with the
+        destination of the jump.</p>
+
+        @param code All the instructions in Reverse Polish notation.
+        @param targets The destinations of the jumps, the index of which is
+            the index of each jump in {@code code}.
+        @param values The values of the variables.
+        @param stack The stack, the length of which is not less than the sum
+            of the number of the variables and the size that the instructions
+            need.
+        @return The result value.
+        @see Program#getJumpTargets()
+    */
+    public static int run(Instruction[] code, int[] targets, int[] values,
+                          int[] stack) {
+        var n = values.length;
+        System.arraycopy(values, 0, stack, 0, n);
+        var k = n;
+        var end = code.length;
+        var pc = 0;
+        while (pc < end) {
+            k = code[pc].apply(stack, k);
+            if (k < 0) {
+                k = ~k;
+                pc = targets[pc];
+            } else {
+                ++pc;
+            }
+        }
+        return stack[n];
+    }
 }
@@ -0,0 +1,132 @@
+package com.maroontress.intexpr.impl;
+
+/**
+    This class represents the closed interval of integers that contains all
+    the possible values of an operand.
+
+    <p>The bounds are of {@code long}, so that the interval can represent the
+    exact result of an operation even if it overflows the range of
+    {@code int}.</p>
+*/
+public final class Interval {
+
+    /** The interval containing all the values of {@code int}. */
+    public static final Interval FULL
+            = new Interval(Integer.MIN_VALUE, Integer.MAX_VALUE);
+
+    /** The interval containing the boolean values 0 and 1. */
+    public static final Interval BOOLEAN = new Interval(0, 1);
+
+    private final long min;
+    private final long max;
+
+    /**
+        Creates a new instance.
+
+        @param min The lower bound.
+        @param max The upper bound.
+    */
+    public Interval(long min, long max) {
+        if (min > max) {
+            throw new IllegalArgumentException(min + " > " + max);
+        }
+        this.min = min;
+        this.max = max;
+    }
+
+    /**
+        Returns the interval of the smallest and largest values of the
+        specified values.
+
+        @param values The values.
+        @return The new interval.
+    */
+    public static Interval hull(long... values) {
+        var min = values[0];
+        var max = values[0];
+        for (var v : values) {
+            min = Math.min(min, v);
+            max = Math.max(max, v);
+        }
+        return new Interval(min, max);
+    }
+
+    /**
+        Returns the lower bound.
+
+        @return The lower bound.
+    */
+    public long getMin() {
+        return min;
+    }
+
+    /**
+        Returns the upper bound.
+
+        @return The upper bound.
+    */
+    public long getMax() {
+        return max;
+    }
+
+    /**
+        Returns whether this interval contains the specified value.
+
+        @param value The value.
+        @return {@code true} if this contains {@code value}.
+    */
+    public boolean contains(long value) {
+        return min <= value && value <= max;
+    }
+
+    /**
+        Returns whether this interval contains only a single value.
+
+        @return {@code true} if the lower bound equals the upper bound.
+    */
+    public boolean isConstant() {
+        return min == max;
+    }
+
+    /**
+        Returns whether all the values in this interval are in the range of
+        {@code int}.
+
+        @return {@code true} if the values fit in {@code int}.
+    */
+    public boolean fitsInt() {
+        return Integer.MIN_VALUE <= min && max <= Integer.MAX_VALUE;
+    }
+
+    /**
+        Returns this interval if it fits in {@code int}, otherwise
+        {@link #FULL}.
+
+        @return The interval that fits in {@code int}.
+    */
+    public Interval toInt() {
+        return fitsInt() ? this : FULL;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof Interval)) {
+            return false;
+        }
+        var that = (Interval) obj;
+        return min == that.min && max == that.max;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int hashCode() {
+        return Long.hashCode(min) * 31 + Long.hashCode(max);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return "[" + min + ", " + max + "]";
+    }
+}
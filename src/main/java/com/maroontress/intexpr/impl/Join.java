@@ -0,0 +1,96 @@
+package com.maroontress.intexpr.impl;
+
+import java.util.Deque;
+import com.maroontress.clione.Token;
+import com.maroontress.intexpr.evaltree.ConditionalNode;
+import com.maroontress.intexpr.evaltree.EvalNode;
+import com.maroontress.intexpr.syntaxtree.ConditionalOperatorNode;
+import com.maroontress.intexpr.syntaxtree.SyntaxNode;
+
+/**
+    The instruction that joins the branches of the conditional operator.
+
+    <p>The {@link Interpreter} runs it as a no-operation, because either
+    branch has left its value on the top of the stack. The other passes pop
+    the condition and both branches, and push the conditional operator with
+    them.</p>
+
+    @see Jump
+*/
+public final class Join implements Instruction {
+
+    private final Token token;
+
+    /**
+        Creates a new instance.
+
+        @param token The token of {@code :}.
+    */
+    public Join(Token token) {
+        this.token = token;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void accept(Deque<SyntaxNode> stack) {
+        var otherwise = stack.pop();
+        var then = stack.pop();
+        var condition = stack.pop();
+        stack.push(new ConditionalOperatorNode(condition, then, otherwise));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void build(Deque<EvalNode> stack) {
+        var otherwise = stack.pop();
+        var then = stack.pop();
+        var condition = stack.pop();
+        stack.push(new ConditionalNode(condition, then, otherwise));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int apply(int[] stack, int offset) {
+        return offset;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int verify(int depth) {
+        if (depth < 3) {
+            throw CompileException.of(token, "operand is missing");
+        }
+        return depth - 2;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Instruction analyze(RangeAnalysis analysis) {
+        analysis.join();
+        return this;
+    }
+
+    /**
+        {@inheritDoc}
+
+        <p>All the joins are equal, because they never throw any
+        exception.</p>
+    */
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof Join;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int hashCode() {
+        return Opcode.JOIN.hashCode();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return "Join[opcode=JOIN, "
+                + "token=" + token + "]";
+    }
+}
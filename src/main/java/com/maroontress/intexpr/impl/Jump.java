@@ -0,0 +1,144 @@
+package com.maroontress.intexpr.impl;
+
+import java.util.Deque;
+import com.maroontress.clione.Token;
+import com.maroontress.intexpr.evaltree.EvalNode;
+import com.maroontress.intexpr.syntaxtree.SyntaxNode;
+
+/**
+    The instruction that jumps over the branch of the conditional operator.
+
+    <p>The conditional operator {@code c ? a : b} is compiled into the
+    following instructions:</p>
+
+    <pre>
+    c JZ a JMP b JOIN</pre>
+
+    <p>{@code JZ} pops the condition and jumps to {@code b} if it is zero,
+    and {@code JMP} jumps over {@code b} and {@code JOIN}. The jumps have no
+    operand representing their destination, so that the passes that replace
+    the instructions need not fix it up. {@link Program} resolves the
+    destinations by matching each {@code JZ}, {@code JMP}, and
+    {@link Join} like parentheses.</p>
+
+    <p>The {@link #apply(int[], int)} method of the jump returns the bitwise
+    complement of the new offset if it jumps, so that the
+    {@link Interpreter} distinguishes the jump without any additional
+    call.</p>
+
+    <p>Every other pass treats the instructions as if both branches were
+    evaluated, so the condition and both branches are on the stack when
+    {@link Join} runs.</p>
+*/
+public final class Jump implements Instruction {
+
+    private final Opcode opcode;
+    private final Token token;
+
+    private Jump(Opcode opcode, Token token) {
+        this.opcode = opcode;
+        this.token = token;
+    }
+
+    /**
+        Returns a new jump if the top of the stack is zero.
+
+        @param token The token of {@code ?}.
+        @return The new jump.
+    */
+    public static Jump ifZero(Token token) {
+        return new Jump(Opcode.JZ, token);
+    }
+
+    /**
+        Returns a new unconditional jump.
+
+        @param token The token of {@code :}.
+        @return The new jump.
+    */
+    public static Jump always(Token token) {
+        return new Jump(Opcode.JMP, token);
+    }
+
+    /**
+        Returns the opcode of this jump.
+
+        @return {@link Opcode#JZ} or {@link Opcode#JMP}.
+    */
+    public Opcode getOpcode() {
+        return opcode;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void accept(Deque<SyntaxNode> stack) {
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void build(Deque<EvalNode> stack) {
+    }
+
+    /**
+        {@inheritDoc}
+
+        @return The new offset if this does not jump, otherwise its bitwise
+            complement.
+    */
+    @Override
+    public int apply(int[] stack, int offset) {
+        if (opcode == Opcode.JMP) {
+            return ~offset;
+        }
+        var k = offset - 1;
+        return (stack[k] != 0) ? k : ~k;
+    }
+
+    /**
+        {@inheritDoc}
+
+        <p>The condition remains on the stack until {@link Join}, as if it
+        were not popped.</p>
+    */
+    @Override
+    public int verify(int depth) {
+        if (depth < 1) {
+            throw CompileException.of(token, "operand is missing");
+        }
+        return depth;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Instruction analyze(RangeAnalysis analysis) {
+        return this;
+    }
+
+    /**
+        {@inheritDoc}
+
+        <p>Two jumps are equal if they have the same opcode, because they
+        never throw any exception.</p>
+    */
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof Jump)) {
+            return false;
+        }
+        var that = (Jump) obj;
+        return opcode == that.opcode;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int hashCode() {
+        return opcode.hashCode();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return "Jump[opcode=" + opcode + ", "
+                + "token=" + token + "]";
+    }
+}
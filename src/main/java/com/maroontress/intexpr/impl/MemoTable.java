@@ -0,0 +1,209 @@
+package com.maroontress.intexpr.impl;
+
+import java.util.Arrays;
+
+/**
+    This class provides the fixed-size hash table that maps the tuples of
+    {@code int} values to {@code int} values without boxing.
+
+    <p>The entries are stored in the flat arrays: the keys of the entry
+    {@code e} are at {@code keys[e * arity]} through
+    {@code keys[e * arity + arity - 1]}. The index of the entries is the
+    open-addressing table with linear probing, whose size is the power of
+    two at least twice the capacity, so that the probe sequences are
+    short. The removed entry is deleted with the backward shift, so the
+    index never contains tombstones.</p>
+
+    <p>When the table is full, the entry to evict is chosen with the CLOCK
+    algorithm: the hand sweeps the entries, clearing their reference bits,
+    and evicts the first entry whose bit has already been cleared. Each hit
+    sets the bit of the entry, so the entries that are used often survive.</p>
+
+    <p>The {@link MemoTable} object is mutable and not thread-safe.</p>
+*/
+public final class MemoTable {
+
+    private final int arity;
+    private final int capacity;
+    private final int[] keys;
+    private final int[] values;
+    private final int[] hashes;
+    private final boolean[] referenced;
+    private final int[] index;
+    private final int mask;
+    private int size;
+    private int hand;
+    private long evictionCount;
+
+    /**
+        Creates a new instance.
+
+        @param arity The number of the values in each key.
+        @param capacity The maximum number of the entries.
+        @throws IllegalArgumentException If {@code capacity} is not positive
+            or too large.
+    */
+    public MemoTable(int arity, int capacity) {
+        if (capacity <= 0 || capacity > (1 << 29)) {
+            throw new IllegalArgumentException(
+                    "the capacity must be in [1, " + (1 << 29) + "]: "
+                    + capacity);
+        }
+        this.arity = arity;
+        this.capacity = capacity;
+        this.keys = new int[Math.multiplyExact(capacity, arity)];
+        this.values = new int[capacity];
+        this.hashes = new int[capacity];
+        this.referenced = new boolean[capacity];
+        var n = Integer.highestOneBit(capacity * 2 - 1) << 1;
+        this.index = new int[n];
+        this.mask = n - 1;
+    }
+
+    /**
+        Returns the number of the entries.
+
+        @return The number of the entries.
+    */
+    public int size() {
+        return size;
+    }
+
+    /**
+        Returns the maximum number of the entries.
+
+        @return The capacity.
+    */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+        Returns the number of the entries that have been evicted.
+
+        @return The number of the evictions.
+    */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+        Returns the entry of the specified key.
+
+        @param key The key, the length of which must be the arity.
+        @return The entry, or -1 if the table does not contain the key.
+    */
+    public int find(int[] key) {
+        var hash = hash(key);
+        for (var i = hash & mask; index[i] != 0; i = (i + 1) & mask) {
+            var e = index[i] - 1;
+            if (hashes[e] == hash && equalsKey(e, key)) {
+                referenced[e] = true;
+                return e;
+            }
+        }
+        return -1;
+    }
+
+    /**
+        Returns the value of the specified entry.
+
+        @param entry The entry that {@link #find(int[])} has returned.
+        @return The value.
+    */
+    public int getValue(int entry) {
+        return values[entry];
+    }
+
+    /**
+        Puts the specified key and value, evicting another entry if the table
+        is full.
+
+        <p>The table must not contain the key.</p>
+
+        @param key The key, the length of which must be the arity.
+        @param value The value.
+    */
+    public void put(int[] key, int value) {
+        int e;
+        if (size < capacity) {
+            e = size;
+            ++size;
+        } else {
+            e = evict();
+        }
+        var hash = hash(key);
+        System.arraycopy(key, 0, keys, e * arity, arity);
+        values[e] = value;
+        hashes[e] = hash;
+        referenced[e] = false;
+        var i = hash & mask;
+        while (index[i] != 0) {
+            i = (i + 1) & mask;
+        }
+        index[i] = e + 1;
+    }
+
+    /**
+        Removes all the entries and resets the number of the evictions.
+    */
+    public void clear() {
+        Arrays.fill(index, 0);
+        size = 0;
+        hand = 0;
+        evictionCount = 0;
+    }
+
+    private int evict() {
+        while (referenced[hand]) {
+            referenced[hand] = false;
+            hand = (hand + 1) % capacity;
+        }
+        var e = hand;
+        hand = (hand + 1) % capacity;
+        remove(e);
+        ++evictionCount;
+        return e;
+    }
+
+    private void remove(int e) {
+        var i = hashes[e] & mask;
+        while (index[i] != e + 1) {
+            i = (i + 1) & mask;
+        }
+        // Shift the following entries of the cluster backward, so that
+        // the probe sequences do not need tombstones.
+        var hole = i;
+        for (var j = (i + 1) & mask; index[j] != 0; j = (j + 1) & mask) {
+            var home = hashes[index[j] - 1] & mask;
+            if (((j - home) & mask) >= ((j - hole) & mask)) {
+                index[hole] = index[j];
+                hole = j;
+            }
+        }
+        index[hole] = 0;
+    }
+
+    private boolean equalsKey(int e, int[] key) {
+        var offset = e * arity;
+        for (var k = 0; k < arity; ++k) {
+            if (keys[offset + k] != key[k]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int hash(int[] key) {
+        var h = arity;
+        for (var k = 0; k < arity; ++k) {
+            h = h * 0x9e3779b9 + key[k];
+        }
+        // The finalizer of MurmurHash3.
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        return h ^ (h >>> 16);
+    }
+}
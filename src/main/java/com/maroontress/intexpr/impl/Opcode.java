@@ -3,6 +3,13 @@ package com.maroontress.intexpr.impl;
 /**
     Provides constants of opcodes to visualize the syntax tree.
 
+    <p>The opcodes of the superinstructions, which fuse a sequence of common
+    instructions into one, have their base opcodes. For example, {@link
+    #ADDI} fuses {@code CONST k} and {@link #ADD}, so its base opcode is
+    {@link #ADD}. The syntax tree never contains the opcodes of the
+    superinstructions, because they are rendered with their original
+    form.</p>
+
     @see <a href="https://en.wikipedia.org/wiki/Operators_in_C_and_C%2B%2B">
         Wikipedia, Operators in C and C++</a>
 */
@@ -74,6 +81,170 @@ public enum Opcode {
     /** Logical OR. */
     LOR,
 
+    /** Minimum of two operands. */
+    MIN,
+
+    /** Maximum of two operands. */
+    MAX,
+
+    /** Absolute value. */
+    ABS,
+
+    /** Clamp of the first operand between the second and the third. */
+    CLAMP,
+
+    /** Selection of the second or third operand with the first. */
+    SELECT,
+
+    /** Unsigned (logical) right shift. */
+    USHR,
+
+    /** Unsigned division. */
+    UDIV,
+
+    /** Unsigned remainder. */
+    UREM,
+
+    /** Unsigned less than. */
+    ULT,
+
+    /** Unsigned less than or equal to. */
+    ULE,
+
+    /** Unsigned greater than. */
+    UGT,
+
+    /** Unsigned greater than or equal to. */
+    UGE,
+
+    /**
+        Conditional operator, which evaluates either the second or third
+        operand depending on the first.
+    */
+    COND,
+
+    /**
+        Call of the operator or function that is registered with
+        {@link com.maroontress.intexpr.OperatorRegistry}.
+    */
+    CALL,
+
     /** Constant (immediate value). */
     CONST,
+
+    /** Load of a variable. */
+    LOAD,
+
+    /** Jump if the top of the stack is zero, popping it. */
+    JZ,
+
+    /** Unconditional jump. */
+    JMP,
+
+    /** Join of the branches of the conditional operator. */
+    JOIN,
+
+    /** Addition with the immediate value. */
+    ADDI(ADD),
+
+    /** Subtraction with the immediate value. */
+    SUBI(SUB),
+
+    /** Multiplication with the immediate value. */
+    MULI(MUL),
+
+    /** Division with the immediate value. */
+    DIVI(DIV),
+
+    /** Modulo with the immediate value. */
+    MODI(MOD),
+
+    /** Bitwise right shift with the immediate value. */
+    SHRI(SHR),
+
+    /** Bitwise left shift with the immediate value. */
+    SHLI(SHL),
+
+    /** Greater than the immediate value. */
+    CMPGTI(LGT),
+
+    /** Less than the immediate value. */
+    CMPLTI(LLT),
+
+    /** Greater than or equal to the immediate value. */
+    CMPGEI(LGE),
+
+    /** Less than or equal to the immediate value. */
+    CMPLEI(LLE),
+
+    /** Not equal to the immediate value. */
+    CMPNEI(LNE),
+
+    /** Equal to the immediate value. */
+    CMPEQI(LEQ),
+
+    /** Bitwise AND with the immediate value. */
+    ANDI(AND),
+
+    /** Bitwise XOR with the immediate value. */
+    XORI(XOR),
+
+    /** Bitwise OR with the immediate value. */
+    ORI(OR),
+
+    /** Logical AND with the immediate value. */
+    LANDI(LAND),
+
+    /** Logical OR with the immediate value. */
+    LORI(LOR),
+
+    /** Minimum with the immediate value. */
+    MINI(MIN),
+
+    /** Maximum with the immediate value. */
+    MAXI(MAX),
+
+    /** Unsigned right shift with the immediate value. */
+    USHRI(USHR),
+
+    /** Unsigned division with the immediate value. */
+    UDIVI(UDIV),
+
+    /** Unsigned remainder with the immediate value. */
+    UREMI(UREM),
+
+    /** Unsigned less than the immediate value. */
+    UCMPLTI(ULT),
+
+    /** Unsigned less than or equal to the immediate value. */
+    UCMPLEI(ULE),
+
+    /** Unsigned greater than the immediate value. */
+    UCMPGTI(UGT),
+
+    /** Unsigned greater than or equal to the immediate value. */
+    UCMPGEI(UGE),
+
+    /** Load of two variables. */
+    LOAD2(LOAD);
+
+    private final Opcode base;
+
+    Opcode() {
+        base = null;
+    }
+
+    Opcode(Opcode base) {
+        this.base = base;
+    }
+
+    /**
+        Returns the base opcode of this superinstruction, or this opcode
+        itself if this is not a superinstruction.
+
+        @return The base opcode.
+    */
+    public Opcode getBase() {
+        return (base == null) ? this : base;
+    }
 }
@@ -11,4 +11,16 @@ public interface Operation {
         @return The {@link Executable} object.
     */
     Executable toExecutable();
+
+    /**
+        Returns the {@link Executable} object that neither checks the
+        operand(s) on the stack nor translates the exceptions that the
+        operation throws.
+
+        <p>The {@link Program} must have verified that the operand(s) are on
+        the stack.</p>
+
+        @return The {@link Executable} object.
+    */
+    Executable toUncheckedExecutable();
 }
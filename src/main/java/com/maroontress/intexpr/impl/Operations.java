@@ -33,4 +33,99 @@ public final class Operations {
             throw new ArithmeticException(Messages.of(t, "divided by zero"));
         }
     }
+
+    /**
+        Performs the specified binary operation with the specified operands.
+
+        <p>This method is equivalent to {@link #perform(Token, IntSupplier)}
+        but creates no supplier.</p>
+
+        @param t The token corresponding to the operator.
+        @param o The operation.
+        @param left The left operand.
+        @param right The right operand.
+        @return The result of the operation.
+        @throws ArithmeticException If there is an attempt to divide an
+            integer value by zero, or if an arithmetic operation results in
+            an overflow.
+    */
+    public static int perform(Token t, IntBinaryOperation o, int left,
+                              int right) {
+        try {
+            return o.apply(left, right);
+        } catch (OverflowException e) {
+            throw new ArithmeticException(Messages.of(t, "overflow"));
+        } catch (DivideByZeroException e) {
+            throw new ArithmeticException(Messages.of(t, "divided by zero"));
+        }
+    }
+
+    /**
+        Performs the specified unary operation with the specified operand.
+
+        <p>This method is equivalent to {@link #perform(Token, IntSupplier)}
+        but creates no supplier.</p>
+
+        @param t The token corresponding to the operator.
+        @param o The operation.
+        @param operand The operand.
+        @return The result of the operation.
+        @throws ArithmeticException If there is an attempt to divide an
+            integer value by zero, or if an arithmetic operation results in
+            an overflow.
+    */
+    public static int perform(Token t, IntUnaryOperation o, int operand) {
+        try {
+            return o.apply(operand);
+        } catch (OverflowException e) {
+            throw new ArithmeticException(Messages.of(t, "overflow"));
+        } catch (DivideByZeroException e) {
+            throw new ArithmeticException(Messages.of(t, "divided by zero"));
+        }
+    }
+
+    /**
+        Performs the specified ternary operation with the specified operands.
+
+        @param t The token corresponding to the function.
+        @param o The operation.
+        @param first The first operand.
+        @param second The second operand.
+        @param third The third operand.
+        @return The result of the operation.
+        @throws ArithmeticException If there is an attempt to divide an
+            integer value by zero, or if an arithmetic operation results in
+            an overflow.
+    */
+    public static int perform(Token t, IntTernaryOperation o, int first,
+                              int second, int third) {
+        try {
+            return o.apply(first, second, third);
+        } catch (OverflowException e) {
+            throw new ArithmeticException(Messages.of(t, "overflow"));
+        } catch (DivideByZeroException e) {
+            throw new ArithmeticException(Messages.of(t, "divided by zero"));
+        }
+    }
+
+    /**
+        Performs the specified n-ary operation with the specified operands.
+
+        @param t The token corresponding to the function.
+        @param o The operation.
+        @param operands The operands.
+        @return The result of the operation.
+        @throws ArithmeticException If there is an attempt to divide an
+            integer value by zero, or if an arithmetic operation results in
+            an overflow.
+    */
+    public static int perform(Token t, IntNaryOperation o, int[] operands) {
+        try {
+            return o.apply(operands);
+        } catch (OverflowException e) {
+            throw new ArithmeticException(Messages.of(t, "overflow"));
+        } catch (DivideByZeroException e) {
+            throw new ArithmeticException(Messages.of(t, "divided by zero"));
+        }
+    }
 }
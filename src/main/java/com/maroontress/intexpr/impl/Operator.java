@@ -1,8 +1,10 @@
 package com.maroontress.intexpr.impl;
 
 import java.util.Deque;
-import java.util.Optional;
+import java.util.Objects;
 import com.maroontress.clione.Token;
+import com.maroontress.intexpr.evaltree.EvalNode;
+import com.maroontress.intexpr.evaltree.EvalNodes;
 import com.maroontress.intexpr.syntaxtree.SyntaxNode;
 
 /**
@@ -13,25 +15,39 @@ public final class Operator implements Instruction {
 
     private final OperatorSpec spec;
     private final Token token;
+    private final boolean unchecked;
+    private final Executable code;
 
-    private Operator(OperatorSpec spec, Token token) {
+    /**
+        Creates a new instance.
+
+        @param spec The {@link OperatorSpec} object.
+        @param token The token corresponding to the operator.
+        @param unchecked {@code true} if the operator performs no check of
+            overflow nor division by zero.
+    */
+    Operator(OperatorSpec spec, Token token, boolean unchecked) {
         this.spec = spec;
         this.token = token;
+        this.unchecked = unchecked;
+        this.code = unchecked
+                ? spec.getUncheckedOperation().toUncheckedExecutable()
+                : spec.getCode();
     }
 
     /**
         Creates a new {@link Operator} object corresponding to the specified
-        token and {@link OperatorType}.
+        {@link OperatorSpec} object and token.
+
+        <p>The operator is the unchecked variant from the beginning if the
+        operation of the {@link OperatorSpec} object never throws.</p>
 
+        @param spec The {@link OperatorSpec} object.
         @param token The token corresponding to the operator.
-        @param type The operator type ({@link OperatorType#UNARY} or
-            {@link OperatorType#BINARY}).
         @return The new operator.
     */
-    public static Optional<Operator> of(Token token, OperatorType type) {
-        var value = token.getValue();
-        return OperatorSpec.query(value, type)
-                .map(s -> new Operator(s, token));
+    public static Operator of(OperatorSpec spec, Token token) {
+        return new Operator(spec, token, spec.isTotal());
     }
 
     /**
@@ -43,30 +59,100 @@ public final class Operator implements Instruction {
         return spec;
     }
 
-    /**
-        Returns the token of this operator.
-
-        @return The token.
-    */
+    /**
+        Returns the token of this operator.
+
+        @return The token.
+    */
     public Token getToken() {
         return token;
     }
 
+    /**
+        Returns whether this operator is the unchecked variant.
+
+        @return {@code true} if this operator performs no check of overflow
+            nor division by zero.
+        @see RangeAnalysis
+    */
+    public boolean isUnchecked() {
+        return unchecked;
+    }
+
     /** {@inheritDoc} */
     @Override
     public void accept(Deque<SyntaxNode> stack) {
         spec.accept(stack);
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public void build(Deque<EvalNode> stack) {
+        if (unchecked) {
+            EvalNodes.pushUnchecked(spec, token, stack);
+            return;
+        }
+        EvalNodes.push(spec, token, stack);
+    }
+
     /** {@inheritDoc} */
     @Override
     public int apply(int[] stack, int offset) {
-        return spec.getCode().execute(stack, offset, token);
+        return code.execute(stack, offset, token);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int verify(int depth) {
+        var arity = spec.getArity();
+        if (depth < arity) {
+            throw CompileException.of(token, "operand is missing");
+        }
+        return depth - arity + 1;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Instruction analyze(RangeAnalysis analysis) {
+        var safe = analysis.apply(spec);
+        return (safe && !unchecked && spec.hasUncheckedOperation())
+                ? new Operator(spec, token, true)
+                : this;
+    }
+
+    /**
+        {@inheritDoc}
+
+        <p>Two operators are equal if they have the same {@link OperatorSpec}
+        object and their tokens have the same value and span, so that they
+        throw exceptions with the same message, and either both or neither
+        are unchecked.</p>
+    */
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof Operator)) {
+            return false;
+        }
+        var that = (Operator) obj;
+        return spec == that.spec
+                && unchecked == that.unchecked
+                && token.getValue().equals(that.token.getValue())
+                && token.getSpan().toString().equals(
+                        that.token.getSpan().toString());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int hashCode() {
+        return Objects.hash(spec, unchecked, token.getValue(),
+                token.getSpan().toString());
     }
 
     /** {@inheritDoc} */
     @Override
     public String toString() {
-        return "Operator[spec=" + spec + ", token=" + token + "]";
+        return "Operator[spec=" + spec + ", "
+                + "token=" + token + ", "
+                + "unchecked=" + unchecked + "]";
     }
 }
@@ -1,32 +1,53 @@
 package com.maroontress.intexpr.impl;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Deque;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.function.Consumer;
-import java.util.stream.Collectors;
+import com.maroontress.intexpr.syntaxtree.BinaryOperatorNode;
+import com.maroontress.intexpr.syntaxtree.CallNode;
 import com.maroontress.intexpr.syntaxtree.SyntaxNode;
+import com.maroontress.intexpr.syntaxtree.UnaryOperatorNode;
 
 import static com.maroontress.intexpr.impl.OperatorType.BINARY;
 import static com.maroontress.intexpr.impl.OperatorType.UNARY;
-import static java.util.Map.entry;
-import static java.util.function.Function.identity;
 
 /**
     This class provides the class objects of operators.
+
+    <p>The built-in operators and functions have their own opcodes. The
+    built-in functions {@code min}, {@code max}, {@code abs},
+    {@code clamp}, and {@code select} are implemented without branches, so
+    that their cost does not depend on the values of the operands. The
+    built-in functions {@code ushr}, {@code udiv}, {@code urem},
+    {@code ult}, {@code ule}, {@code ugt}, and {@code uge} treat their
+    operands as unsigned 32-bit integers, and call the methods of
+    {@link Integer} that the JIT compiler intrinsifies. The
+    operators and functions registered with
+    {@link com.maroontress.intexpr.OperatorRegistry} have
+    {@link Opcode#CALL}, and are distinguished by their identity.</p>
+
+    <p>The built-in operators and functions that can overflow have their
+    wrapping and saturating variants, which have the same opcodes but are
+    distinguished by their identity too. See
+    {@link com.maroontress.intexpr.OverflowPolicy}.</p>
 */
 public final class OperatorSpec implements Consumer<Deque<SyntaxNode>> {
 
+    private static final int UNARY_PRECEDENCE = 1;
+
     private static final List<OperatorSpec> ALL = new Builder()
             .add("-", Opcode.NEG, o -> {
                 if (o == Integer.MIN_VALUE) {
                     throw new OverflowException();
                 }
                 return -o;
-            })
-            .add("+", Opcode.POS, UNARY, (s, n, t) -> n)
+            }, o -> -o)
+            .add("+", Opcode.POS, o -> o)
             .add("~", Opcode.NOT, o -> ~o)
             .add("!", Opcode.LNOT, o -> (o != 0) ? 0 : 1)
             .nextPrecedence()
@@ -49,7 +70,7 @@ public final class OperatorSpec implements Consumer<Deque<SyntaxNode>> {
                     }
                 }
                 return left * right;
-            })
+            }, (left, right) -> left * right)
             .add("/", Opcode.DIV, (left, right) -> {
                 if (right == 0) {
                     throw new DivideByZeroException();
@@ -58,13 +79,13 @@ public final class OperatorSpec implements Consumer<Deque<SyntaxNode>> {
                     throw new OverflowException();
                 }
                 return left / right;
-            })
+            }, (left, right) -> left / right)
             .add("%", Opcode.MOD, (left, right) -> {
                 if (right == 0) {
                     throw new DivideByZeroException();
                 }
                 return left % right;
-            })
+            }, (left, right) -> left % right)
             .nextPrecedence()
             .add("+", Opcode.ADD, (left, right) -> {
                 if (left > 0 && right > 0) {
@@ -77,7 +98,7 @@ public final class OperatorSpec implements Consumer<Deque<SyntaxNode>> {
                     }
                 }
                 return left + right;
-            })
+            }, (left, right) -> left + right)
             .add("-", Opcode.SUB, (left, right) -> {
                 if (left >= 0 && right < 0) {
                     if (left > Integer.MAX_VALUE + right) {
@@ -89,7 +110,7 @@ public final class OperatorSpec implements Consumer<Deque<SyntaxNode>> {
                     }
                 }
                 return left - right;
-            })
+            }, (left, right) -> left - right)
             .nextPrecedence()
             .add(">>", Opcode.SHR, (a, b) -> a >> b)
             .add("<<", Opcode.SHL, (a, b) -> a << b)
@@ -111,43 +132,271 @@ public final class OperatorSpec implements Consumer<Deque<SyntaxNode>> {
             .add("&&", Opcode.LAND, (a, b) -> (a != 0 && b != 0) ? 1 : 0)
             .nextPrecedence()
             .add("||", Opcode.LOR, (a, b) -> (a != 0 || b != 0) ? 1 : 0)
+            .function("min", Opcode.MIN, Math::min)
+            .function("max", Opcode.MAX, Math::max)
+            .function("abs", Opcode.ABS, o -> {
+                if (o == Integer.MIN_VALUE) {
+                    throw new OverflowException();
+                }
+                return Math.abs(o);
+            }, Math::abs)
+            .function("clamp", Opcode.CLAMP, OperatorSpec::clamp)
+            .function("select", Opcode.SELECT, OperatorSpec::select)
+            .function("ushr", Opcode.USHR, (a, b) -> a >>> b)
+            .function("udiv", Opcode.UDIV, (a, b) -> {
+                if (b == 0) {
+                    throw new DivideByZeroException();
+                }
+                return Integer.divideUnsigned(a, b);
+            }, Integer::divideUnsigned)
+            .function("urem", Opcode.UREM, (a, b) -> {
+                if (b == 0) {
+                    throw new DivideByZeroException();
+                }
+                return Integer.remainderUnsigned(a, b);
+            }, Integer::remainderUnsigned)
+            .function("ult", Opcode.ULT,
+                    (a, b) -> (Integer.compareUnsigned(a, b) < 0) ? 1 : 0)
+            .function("ule", Opcode.ULE,
+                    (a, b) -> (Integer.compareUnsigned(a, b) <= 0) ? 1 : 0)
+            .function("ugt", Opcode.UGT,
+                    (a, b) -> (Integer.compareUnsigned(a, b) > 0) ? 1 : 0)
+            .function("uge", Opcode.UGE,
+                    (a, b) -> (Integer.compareUnsigned(a, b) >= 0) ? 1 : 0)
             .toList();
 
-    private static final Map<OperatorType, Map<String, OperatorSpec>>
-            TYPE_MAP = newOperatorClassMap();
+    private static final Map<Opcode, OperatorSpec> OPCODE_MAP
+            = newOpcodeMap();
+
+    private static final List<OperatorSpec> WRAPPING = List.of(
+            variant(Opcode.NEG, (IntUnaryOperation) o -> -o),
+            variant(Opcode.ABS, (IntUnaryOperation) Math::abs),
+            variant(Opcode.MUL, (IntBinaryOperation) (a, b) -> a * b),
+            variant(Opcode.DIV, (a, b) -> {
+                if (b == 0) {
+                    throw new DivideByZeroException();
+                }
+                return a / b;
+            }, (a, b) -> a / b),
+            variant(Opcode.ADD, (IntBinaryOperation) (a, b) -> a + b),
+            variant(Opcode.SUB, (IntBinaryOperation) (a, b) -> a - b));
+
+    private static final List<OperatorSpec> SATURATING = List.of(
+            variant(Opcode.NEG,
+                    o -> (o == Integer.MIN_VALUE) ? Integer.MAX_VALUE : -o,
+                    o -> -o),
+            variant(Opcode.ABS,
+                    o -> (o == Integer.MIN_VALUE)
+                            ? Integer.MAX_VALUE
+                            : Math.abs(o),
+                    Math::abs),
+            variant(Opcode.MUL, (a, b) -> saturate((long) a * b),
+                    (a, b) -> a * b),
+            variant(Opcode.DIV, (a, b) -> {
+                if (b == 0) {
+                    throw new DivideByZeroException();
+                }
+                return saturate((long) a / b);
+            }, (a, b) -> a / b),
+            variant(Opcode.ADD, (a, b) -> saturate((long) a + b),
+                    (a, b) -> a + b),
+            variant(Opcode.SUB, (a, b) -> saturate((long) a - b),
+                    (a, b) -> a - b));
 
     private final String symbol;
     private final int precedence;
     private final Opcode opcode;
     private final OperatorType type;
+    private final int arity;
+    private final Operation operation;
+    private final Operation uncheckedOperation;
+    private final IntNaryOperation naryOperation;
     private final Executable code;
-    private final Consumer<Deque<SyntaxNode>> treeAction;
 
     private OperatorSpec(String symbol, int precedence, Opcode opcode,
-                         OperatorType type, Executable code) {
+                         OperatorType type, int arity, Operation operation,
+                         Operation uncheckedOperation) {
         this.opcode = opcode;
         this.precedence = precedence;
         this.type = type;
+        this.arity = arity;
         this.symbol = symbol;
-        this.code = code;
-        treeAction = type.apply(opcode);
+        this.operation = operation;
+        this.uncheckedOperation = uncheckedOperation;
+        this.naryOperation = toNaryOperation(operation);
+        this.code = operation.toExecutable();
+    }
+
+    /**
+        Returns the new variant of the built-in operator or function with the
+        specified opcode, which never throws {@link OverflowException}.
+
+        @param opcode The opcode of the built-in operator or function.
+        @param o The operation, which is also the unchecked operation.
+        @return The new variant.
+    */
+    private static OperatorSpec variant(Opcode opcode, Operation o) {
+        return variant(opcode, o, o);
+    }
+
+    private static OperatorSpec variant(Opcode opcode, IntUnaryOperation o,
+                                        IntUnaryOperation unchecked) {
+        return variant(opcode, (Operation) o, unchecked);
+    }
+
+    private static OperatorSpec variant(Opcode opcode, IntBinaryOperation o,
+                                        IntBinaryOperation unchecked) {
+        return variant(opcode, (Operation) o, unchecked);
+    }
+
+    private static OperatorSpec variant(Opcode opcode, Operation o,
+                                        Operation unchecked) {
+        var s = OPCODE_MAP.get(opcode);
+        return new OperatorSpec(s.symbol, s.precedence, opcode, s.type,
+                s.arity, o, unchecked);
+    }
+
+    private static int saturate(long value) {
+        return (int) Math.max(Integer.MIN_VALUE,
+                Math.min(value, Integer.MAX_VALUE));
+    }
+
+    private static IntNaryOperation toNaryOperation(Operation o) {
+        if (o instanceof IntTernaryOperation) {
+            var t = (IntTernaryOperation) o;
+            return new IntNaryOperation(3, a -> t.apply(a[0], a[1], a[2]));
+        }
+        return (o instanceof IntNaryOperation) ? (IntNaryOperation) o : null;
+    }
+
+    /**
+        Returns the value of the first operand clamped between the second
+        and the third.
+
+        <p>The result is {@code max} if {@code min} is greater than
+        {@code max}.</p>
+
+        @param value The value.
+        @param min The lower bound.
+        @param max The upper bound.
+        @return {@code min(max(value, min), max)}.
+    */
+    private static int clamp(int value, int min, int max) {
+        return Math.min(Math.max(value, min), max);
+    }
+
+    /**
+        Returns the second operand if the first is non-zero, otherwise the
+        third, without branches.
+
+        @param condition The condition.
+        @param a The value if the condition is non-zero.
+        @param b The value if the condition is zero.
+        @return {@code (condition != 0) ? a : b}.
+    */
+    private static int select(int condition, int a, int b) {
+        // The sign bit of (c | -c) is set if and only if c is non-zero.
+        var mask = (condition | -condition) >> 31;
+        return b ^ ((a ^ b) & mask);
+    }
+
+    /**
+        Returns a new unary operator that is not built-in.
+
+        <p>The unary operators have the highest precedence.</p>
+
+        @param symbol The symbol of the operator.
+        @param o The operation.
+        @return The new operator.
+    */
+    public static OperatorSpec newUnary(String symbol, IntUnaryOperation o) {
+        return new OperatorSpec(symbol, UNARY_PRECEDENCE, Opcode.CALL, UNARY,
+                1, o, null);
+    }
+
+    /**
+        Returns a new binary operator that is not built-in.
+
+        @param symbol The symbol of the operator.
+        @param precedence The precedence of the operator, which must be
+            greater than the precedence of the unary operators. The smaller
+            value means the higher precedence.
+        @param o The operation.
+        @return The new operator.
+    */
+    public static OperatorSpec newBinary(String symbol, int precedence,
+                                         IntBinaryOperation o) {
+        return new OperatorSpec(symbol, precedence, Opcode.CALL, BINARY, 2, o,
+                null);
     }
 
-    private static Map.Entry<OperatorType, Map<String, OperatorSpec>>
-            toEntry(OperatorType type) {
-        return entry(type, newOperatorMap(type));
+    /**
+        Returns a new function that takes the specified number of operands.
+
+        @param name The name of the function.
+        @param arity The number of the operands, which must be positive.
+        @param o The operation, which must be {@link IntUnaryOperation} if
+            {@code arity} is 1, {@link IntBinaryOperation} if 2, or
+            {@link IntNaryOperation} otherwise.
+        @return The new function.
+    */
+    public static OperatorSpec newFunction(String name, int arity,
+                                           Operation o) {
+        return new OperatorSpec(name, UNARY_PRECEDENCE, Opcode.CALL,
+                OperatorType.FUNCTION, arity, o, null);
     }
 
-    private static Map<OperatorType, Map<String, OperatorSpec>>
-            newOperatorClassMap() {
-        return Map.ofEntries(toEntry(UNARY), toEntry(BINARY));
+    /**
+        Returns the built-in operators.
+
+        @return The unmodifiable list of the built-in operators.
+    */
+    public static List<OperatorSpec> getBuiltins() {
+        return ALL;
     }
 
-    private static Map<String, OperatorSpec>
-            newOperatorMap(OperatorType type) {
-        return ALL.stream()
-                .filter(i -> i.type == type)
-                .collect(Collectors.toMap(o -> o.symbol, identity()));
+    /**
+        Returns the variants of the built-in operators and functions that
+        wrap the result around when it overflows.
+
+        <p>Their operations are their own unchecked operations, except that
+        the division still throws {@link DivideByZeroException}.</p>
+
+        @return The unmodifiable list of the variants.
+    */
+    public static List<OperatorSpec> getWrappingVariants() {
+        return WRAPPING;
+    }
+
+    /**
+        Returns the variants of the built-in operators and functions that
+        saturate the result at {@link Integer#MIN_VALUE} and
+        {@link Integer#MAX_VALUE} when it overflows.
+
+        @return The unmodifiable list of the variants.
+    */
+    public static List<OperatorSpec> getSaturatingVariants() {
+        return SATURATING;
+    }
+
+    private static Map<Opcode, OperatorSpec> newOpcodeMap() {
+        var map = new EnumMap<Opcode, OperatorSpec>(Opcode.class);
+        for (var s : ALL) {
+            map.put(s.opcode, s);
+        }
+        return Collections.unmodifiableMap(map);
+    }
+
+    /**
+        Returns the {@link OperatorSpec} object corresponding to the specified
+        opcode.
+
+        @param opcode The opcode of the operator.
+        @return The {@link OperatorSpec} object if found, otherwise
+            {@link Optional#empty()}.
+    */
+    public static Optional<OperatorSpec> of(Opcode opcode) {
+        return Optional.ofNullable(OPCODE_MAP.get(opcode));
     }
 
     /**
@@ -161,11 +410,45 @@ public final class OperatorSpec implements Consumer<Deque<SyntaxNode>> {
     */
     public static Optional<OperatorSpec>
             query(String symbol, OperatorType type) {
-        var map = TYPE_MAP.get(type);
-        if (map == null) {
-            return Optional.empty();
-        }
-        return Optional.ofNullable(map.get(symbol));
+        return Optional.ofNullable(lookup(symbol, type));
+    }
+
+    /**
+        Returns the {@link OperatorSpec} object corresponding to the specified
+        symbol and operator type, or {@code null}.
+
+        <p>This method is equivalent to {@link #query(String, OperatorType)}
+        but creates no {@link Optional} object.</p>
+
+        @param symbol The symbol representing the {@link OperatorSpec} object.
+        @param type {@link OperatorType#UNARY} or {@link OperatorType#BINARY}.
+        @return The {@link OperatorSpec} object if found, otherwise
+            {@code null}.
+    */
+    public static OperatorSpec lookup(String symbol, OperatorType type) {
+        return OperatorTable.DEFAULT.lookup(symbol, type);
+    }
+
+    /**
+        Returns whether this is the built-in operator or function that
+        throws {@link OverflowException} when it overflows, rather than its
+        variant.
+
+        @return {@code true} if this is the built-in one.
+    */
+    public boolean isBuiltin() {
+        return OPCODE_MAP.get(opcode) == this;
+    }
+
+    /**
+        Returns whether the operation of this operator is also its unchecked
+        operation, that is, the operation never throws
+        {@link OverflowException} nor {@link DivideByZeroException}.
+
+        @return {@code true} if the operation never throws the exceptions.
+    */
+    public boolean isTotal() {
+        return operation == uncheckedOperation;
     }
 
     /**
@@ -177,6 +460,149 @@ public final class OperatorSpec implements Consumer<Deque<SyntaxNode>> {
         return code;
     }
 
+    /**
+        Returns the function of this unary operator.
+
+        <p>The function throws {@link OverflowException} or {@link
+        DivideByZeroException} rather than {@link ArithmeticException}.</p>
+
+        @return The function.
+        @throws IllegalStateException If this is not a unary operator.
+    */
+    public IntUnaryOperation getUnaryOperation() {
+        if (!(operation instanceof IntUnaryOperation)) {
+            throw new IllegalStateException();
+        }
+        return (IntUnaryOperation) operation;
+    }
+
+    /**
+        Returns the function of this n-ary function.
+
+        <p>If this function has {@link IntTernaryOperation}, the returned
+        function calls it with the elements of the array.</p>
+
+        @return The function.
+        @throws IllegalStateException If this is not an n-ary function.
+    */
+    public IntNaryOperation getNaryOperation() {
+        if (naryOperation == null) {
+            throw new IllegalStateException();
+        }
+        return naryOperation;
+    }
+
+    /**
+        Returns whether this function has {@link IntTernaryOperation}.
+
+        @return {@code true} if this has {@link IntTernaryOperation}.
+    */
+    public boolean hasTernaryOperation() {
+        return operation instanceof IntTernaryOperation;
+    }
+
+    /**
+        Returns the function of this ternary function.
+
+        @return The function.
+        @throws IllegalStateException If this function does not have
+            {@link IntTernaryOperation}.
+    */
+    public IntTernaryOperation getTernaryOperation() {
+        if (!hasTernaryOperation()) {
+            throw new IllegalStateException();
+        }
+        return (IntTernaryOperation) operation;
+    }
+
+    /**
+        Returns the function of this binary operator.
+
+        <p>The function throws {@link OverflowException} or {@link
+        DivideByZeroException} rather than {@link ArithmeticException}.</p>
+
+        @return The function.
+        @throws IllegalStateException If this is not a binary operator.
+    */
+    public IntBinaryOperation getBinaryOperation() {
+        if (!(operation instanceof IntBinaryOperation)) {
+            throw new IllegalStateException();
+        }
+        return (IntBinaryOperation) operation;
+    }
+
+    /**
+        Returns whether this operator has the unchecked operation, which is
+        equivalent to the operation if the operation never throws
+        {@link OverflowException} or {@link DivideByZeroException} with
+        the operand(s), but performs no check.
+
+        @return {@code true} if this has the unchecked operation.
+    */
+    public boolean hasUncheckedOperation() {
+        return uncheckedOperation != null;
+    }
+
+    /**
+        Returns the unchecked operation of this operator if any, or the
+        operation otherwise.
+
+        @return The unchecked operation or the operation.
+        @see #hasUncheckedOperation()
+    */
+    public Operation getUncheckedOperation() {
+        return hasUncheckedOperation() ? uncheckedOperation : operation;
+    }
+
+    /**
+        Returns the opcode of the operator.
+
+        @return The opcode.
+    */
+    public Opcode getOpcode() {
+        return opcode;
+    }
+
+    /**
+        Returns the type of the operator.
+
+        @return {@link OperatorType#UNARY}, {@link OperatorType#BINARY}, or
+            {@link OperatorType#FUNCTION}.
+    */
+    public OperatorType getType() {
+        return type;
+    }
+
+    /**
+        Returns the number of the operands that the operator takes.
+
+        @return The number of the operands.
+    */
+    public int getArity() {
+        return arity;
+    }
+
+    /**
+        Returns the symbol of the operator, or the name of the function.
+
+        @return The symbol or name.
+    */
+    public String getSymbol() {
+        return symbol;
+    }
+
+    /**
+        Returns the label of the operator in the syntax tree.
+
+        @return The name of the opcode if the operator is built-in, otherwise
+            {@code CALL} followed by the symbol or name.
+    */
+    public String getLabel() {
+        return (opcode == Opcode.CALL)
+                ? opcode + " " + symbol
+                : opcode.toString();
+    }
+
     /**
         Returns the precedence of the operator.
 
@@ -189,7 +615,22 @@ public final class OperatorSpec implements Consumer<Deque<SyntaxNode>> {
     /** {@inheritDoc} */
     @Override
     public void accept(Deque<SyntaxNode> stack) {
-        treeAction.accept(stack);
+        if (arity == 1) {
+            var operand = stack.pop();
+            stack.push(new UnaryOperatorNode(this, operand));
+            return;
+        }
+        if (arity == 2) {
+            var right = stack.pop();
+            var left = stack.pop();
+            stack.push(new BinaryOperatorNode(this, left, right));
+            return;
+        }
+        var operands = new SyntaxNode[arity];
+        for (var k = arity - 1; k >= 0; --k) {
+            operands[k] = stack.pop();
+        }
+        stack.push(new CallNode(this, List.of(operands)));
     }
 
     /** {@inheritDoc} */
@@ -203,7 +644,7 @@ public final class OperatorSpec implements Consumer<Deque<SyntaxNode>> {
 
     private static final class Builder {
         private final List<OperatorSpec> list = new ArrayList<>();
-        private int precedence = 1;
+        private int precedence = UNARY_PRECEDENCE;
 
         private Builder() {
         }
@@ -218,25 +659,64 @@ public final class OperatorSpec implements Consumer<Deque<SyntaxNode>> {
         }
 
         public Builder add(String symbol, Opcode opcode, IntUnaryOperation o) {
-            add(symbol, opcode, UNARY, o);
+            add(symbol, opcode, UNARY, o, null);
+            return this;
+        }
+
+        public Builder add(String symbol, Opcode opcode, IntUnaryOperation o,
+                           IntUnaryOperation unchecked) {
+            add(symbol, opcode, UNARY, o, unchecked);
             return this;
         }
 
         public Builder add(String symbol, Opcode opcode, IntBinaryOperation o) {
-            add(symbol, opcode, BINARY, o);
+            add(symbol, opcode, BINARY, o, null);
+            return this;
+        }
+
+        public Builder add(String symbol, Opcode opcode, IntBinaryOperation o,
+                           IntBinaryOperation unchecked) {
+            add(symbol, opcode, BINARY, o, unchecked);
             return this;
         }
 
-        public Builder add(String symbol, Opcode opcode, OperatorType type,
-                           Executable code) {
-            add(new OperatorSpec(symbol, precedence, opcode, type, code));
+        public Builder function(String name, Opcode opcode,
+                                IntUnaryOperation o,
+                                IntUnaryOperation unchecked) {
+            function(name, opcode, 1, o, unchecked);
+            return this;
+        }
+
+        public Builder function(String name, Opcode opcode,
+                                IntBinaryOperation o) {
+            // The function never throws, so it is also the unchecked one.
+            function(name, opcode, 2, o, o);
+            return this;
+        }
+
+        public Builder function(String name, Opcode opcode,
+                                IntBinaryOperation o,
+                                IntBinaryOperation unchecked) {
+            function(name, opcode, 2, o, unchecked);
+            return this;
+        }
+
+        public Builder function(String name, Opcode opcode,
+                                IntTernaryOperation o) {
+            function(name, opcode, 3, o, o);
             return this;
         }
 
         private void add(String symbol, Opcode opcode, OperatorType type,
-                         Operation o) {
+                         Operation o, Operation unchecked) {
             add(new OperatorSpec(symbol, precedence, opcode, type,
-                    o.toExecutable()));
+                    type.getArity(), o, unchecked));
+        }
+
+        private void function(String name, Opcode opcode, int arity,
+                              Operation o, Operation unchecked) {
+            add(new OperatorSpec(name, UNARY_PRECEDENCE, opcode,
+                    OperatorType.FUNCTION, arity, o, unchecked));
         }
 
         private void add(OperatorSpec s) {
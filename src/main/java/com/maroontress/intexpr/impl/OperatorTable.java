@@ -0,0 +1,175 @@
+package com.maroontress.intexpr.impl;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+    This class represents the frozen table of the operators and functions,
+    which the {@link Compiler} looks up with each token.
+
+    <p>The unary and binary operators are looked up with the arrays indexed
+    by their symbols, rather than the hash maps. The functions are looked up
+    with the map of their names. If multiple operators have the same symbol
+    and type, or multiple functions have the same name, the last one takes
+    precedence over the others.</p>
+
+    <p>The {@link OperatorTable} object is immutable.</p>
+*/
+public final class OperatorTable {
+
+    /** The table of the built-in operators. */
+    public static final OperatorTable DEFAULT
+            = new OperatorTable(OperatorSpec.getBuiltins());
+
+    private static final int ASCII_SIZE = 128;
+    private static final int SYMBOL_TABLE_SIZE = ASCII_SIZE * ASCII_SIZE;
+
+    /**
+        The operators of the C programming language that the lexical parser
+        recognizes as single tokens, except the punctuators that have the
+        syntactic meaning in the expressions, such as {@code ?}, {@code :},
+        and {@code ,}, and the member access operator {@code .}, which a
+        number may absorb.
+    */
+    private static final Set<String> SYMBOLS = Set.of(
+            "+", "-", "*", "/", "%", "~", "!", "&", "|", "^", "<", ">", "=",
+            "->", "++", "--", "<<", ">>", "<=", ">=", "==", "!=", "&&", "||",
+            "+=", "-=", "*=", "/=", "%=", "&=", "|=", "^=");
+
+    private final List<OperatorSpec> operators;
+    private final OperatorSpec[] unaryTable;
+    private final OperatorSpec[] binaryTable;
+    private final Map<String, OperatorSpec> functionMap;
+
+    /**
+        Creates a new instance.
+
+        @param operators The operators and functions.
+        @throws IllegalArgumentException If the symbol of some operator is
+            not one or two ASCII characters.
+    */
+    public OperatorTable(List<OperatorSpec> operators) {
+        this.operators = List.copyOf(operators);
+        unaryTable = new OperatorSpec[SYMBOL_TABLE_SIZE];
+        binaryTable = new OperatorSpec[SYMBOL_TABLE_SIZE];
+        var map = new HashMap<String, OperatorSpec>();
+        for (var s : this.operators) {
+            var symbol = s.getSymbol();
+            var type = s.getType();
+            if (type == OperatorType.FUNCTION) {
+                map.put(symbol, s);
+                continue;
+            }
+            var key = toKey(symbol);
+            if (key < 0) {
+                throw new IllegalArgumentException(
+                        "invalid symbol of the operator: " + symbol);
+            }
+            var table = (type == OperatorType.UNARY)
+                    ? unaryTable
+                    : binaryTable;
+            table[key] = s;
+        }
+        functionMap = Map.copyOf(map);
+    }
+
+    /**
+        Returns the new table in which the built-in operators and functions
+        are replaced with the specified variants that have the same opcodes.
+
+        <p>The operators and functions that are not built-in, including
+        those that override the built-in ones, are not replaced.</p>
+
+        @param variants The variants of the built-in operators and
+            functions.
+        @return The new table.
+        @see OperatorSpec#isBuiltin()
+    */
+    public OperatorTable replace(List<OperatorSpec> variants) {
+        var map = new EnumMap<Opcode, OperatorSpec>(Opcode.class);
+        for (var v : variants) {
+            map.put(v.getOpcode(), v);
+        }
+        var list = new ArrayList<OperatorSpec>(operators.size());
+        for (var s : operators) {
+            var v = s.isBuiltin() ? map.get(s.getOpcode()) : null;
+            list.add((v == null) ? s : v);
+        }
+        return new OperatorTable(list);
+    }
+
+    /**
+        Returns whether the specified symbol can be the symbol of an operator.
+
+        @param symbol The symbol.
+        @return {@code true} if the lexical parser recognizes the symbol as
+            a single operator token, which is neither {@code ?} nor
+            {@code :}.
+    */
+    public static boolean isValidSymbol(String symbol) {
+        return SYMBOLS.contains(symbol);
+    }
+
+    /**
+        Returns the index of the symbol table corresponding to the specified
+        symbol.
+
+        @param symbol The symbol.
+        @return The index, or -1 if the symbol cannot be an operator.
+    */
+    private static int toKey(String symbol) {
+        var n = symbol.length();
+        if (n == 0 || n > 2) {
+            return -1;
+        }
+        var first = symbol.charAt(0);
+        var second = (n == 2) ? symbol.charAt(1) : 0;
+        if (first >= ASCII_SIZE || second >= ASCII_SIZE) {
+            return -1;
+        }
+        return first * ASCII_SIZE + second;
+    }
+
+    /**
+        Returns all the operators and functions in the order of their
+        registration.
+
+        @return The unmodifiable list of the operators and functions.
+    */
+    public List<OperatorSpec> getOperators() {
+        return operators;
+    }
+
+    /**
+        Returns the operator corresponding to the specified symbol and
+        operator type, or {@code null}.
+
+        @param symbol The symbol of the operator.
+        @param type {@link OperatorType#UNARY} or {@link OperatorType#BINARY}.
+        @return The operator if found, otherwise {@code null}.
+    */
+    public OperatorSpec lookup(String symbol, OperatorType type) {
+        var key = toKey(symbol);
+        if (key < 0) {
+            return null;
+        }
+        return (type == OperatorType.UNARY)
+                ? unaryTable[key]
+                : binaryTable[key];
+    }
+
+    /**
+        Returns the function corresponding to the specified name, or
+        {@code null}.
+
+        @param name The name of the function.
+        @return The function if found, otherwise {@code null}.
+    */
+    public OperatorSpec lookupFunction(String name) {
+        return functionMap.get(name);
+    }
+}
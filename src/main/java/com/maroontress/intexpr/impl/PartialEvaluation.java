@@ -0,0 +1,345 @@
+package com.maroontress.intexpr.impl;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+/**
+    This class provides the partial evaluator that specializes a program on
+    the known values of some of its variables.
+
+    <p>The known variables are replaced with the constants, and then the
+    operators whose operands are all constants are folded into the
+    constants, and the conditional operators whose conditions are constants
+    are replaced with the selected branches. The following simplifications
+    with a constant operand are also applied:</p>
+
+    <ul>
+    <li>{@code e + 0}, {@code 0 + e}, {@code e - 0}, {@code e * 1},
+    {@code 1 * e}, {@code e / 1}, {@code e | 0}, {@code e ^ 0},
+    {@code e & -1}, {@code e << 0}, and {@code e >> 0} (and their commutative
+    counterparts) are replaced with {@code e}.</li>
+    <li>{@code e * 0}, {@code e & 0}, {@code e | -1}, {@code e && 0}, and
+    {@code e || k} ({@code k} is non-zero) are replaced with the constant
+    if {@code e} never throws any exception.</li>
+    </ul>
+
+    <p>The operator that throws the exception with the constant operands is
+    not folded, so that the specialized program throws the same exception
+    when it runs. Finally, the program is fused into the superinstructions,
+    lowered with {@link RangeAnalysis}, and reduced with
+    {@link StrengthReduction} again.</p>
+*/
+public final class PartialEvaluation {
+
+    private final Deque<Fragment> stack = new ArrayDeque<>();
+    private final Deque<Branches> branches = new ArrayDeque<>();
+    private final Integer[] knownValues;
+
+    private PartialEvaluation(Integer[] knownValues) {
+        this.knownValues = knownValues;
+    }
+
+    /**
+        Returns the new program in which the specified variables are
+        replaced with their values.
+
+        <p>The variables of the new program are those of the specified
+        program that are unknown and still occur after the evaluation, in
+        the same order. The names in
+        {@code bindings} that are not the variables of the program are
+        ignored.</p>
+
+        @param program The program.
+        @param bindings The map of the names of the known variables to
+            their values.
+        @return The new program.
+        @throws IllegalArgumentException If some value is out of the
+            declared range of the variable.
+    */
+    public static Program specialize(Program program,
+                                     Map<String, Integer> bindings) {
+        var variables = program.getVariables();
+        var n = variables.size();
+        var knownValues = new Integer[n];
+        for (var k = 0; k < n; ++k) {
+            var value = bindings.get(variables.get(k));
+            if (value != null) {
+                program.checkValue(k, value);
+                knownValues[k] = value;
+            }
+        }
+        var evaluation = new PartialEvaluation(knownValues);
+        for (var i : program.getInstructions()) {
+            evaluation.expand(i);
+        }
+        var code = evaluation.stack.pop().code;
+        var used = new boolean[n];
+        for (var i : code) {
+            if (i instanceof Variable) {
+                used[((Variable) i).getSlot()] = true;
+            }
+        }
+        var ranges = program.getRanges();
+        var slotMap = new int[n];
+        var newVariables = new ArrayList<String>();
+        var newRanges = new ArrayList<Interval>();
+        for (var k = 0; k < n; ++k) {
+            if (used[k]) {
+                slotMap[k] = newVariables.size();
+                newVariables.add(variables.get(k));
+                newRanges.add(ranges.get(k));
+            }
+        }
+        var list = new ArrayList<Instruction>(code.size());
+        for (var i : code) {
+            if (i instanceof Variable) {
+                var v = (Variable) i;
+                i = v.withSlot(slotMap[v.getSlot()]);
+            }
+            list.add(i);
+        }
+        var fused = new Program(Superinstructions.fuse(list),
+                List.copyOf(newVariables), List.copyOf(newRanges));
+        return StrengthReduction.reduce(RangeAnalysis.lower(fused));
+    }
+
+    private void expand(Instruction i) {
+        if (i instanceof VariablePair) {
+            var pair = (VariablePair) i;
+            run(pair.getFirst());
+            run(pair.getSecond());
+        } else if (i instanceof ReducedOperator) {
+            expand(((ReducedOperator) i).getOrigin());
+        } else if (i instanceof ImmediateOperator) {
+            var o = (ImmediateOperator) i;
+            run(new Constant(o.getValue()));
+            run(o.toOperator());
+        } else {
+            run(i);
+        }
+    }
+
+    private void run(Instruction i) {
+        if (i instanceof Constant) {
+            stack.push(Fragment.of(((Constant) i).getValue()));
+        } else if (i instanceof Variable) {
+            var value = knownValues[((Variable) i).getSlot()];
+            stack.push((value != null)
+                    ? Fragment.of(value)
+                    : new Fragment(List.of(i), true));
+        } else if (i instanceof Operator) {
+            stack.push(apply((Operator) i));
+        } else if (i instanceof Jump) {
+            jump((Jump) i);
+        } else if (i instanceof Join) {
+            join((Join) i);
+        } else {
+            throw new IllegalStateException("unexpected instruction: " + i);
+        }
+    }
+
+    private Fragment apply(Operator o) {
+        var arity = o.getSpec().getArity();
+        var operands = new Fragment[arity];
+        for (var k = arity - 1; k >= 0; --k) {
+            operands[k] = stack.pop();
+        }
+        var folded = fold(o, operands);
+        if (folded != null) {
+            return folded;
+        }
+        if (arity == 2 && o.getSpec().isBuiltin()) {
+            var simplified = simplify(o.getSpec().getOpcode(),
+                    operands[0], operands[1]);
+            if (simplified != null) {
+                return simplified;
+            }
+        }
+        var code = new ArrayList<Instruction>();
+        var safe = o.isUnchecked() || o.getSpec().isTotal();
+        for (var f : operands) {
+            code.addAll(f.code);
+            safe &= f.safe;
+        }
+        code.add(o);
+        return new Fragment(code, safe);
+    }
+
+    private static Fragment fold(Operator o, Fragment[] operands) {
+        var arity = operands.length;
+        var values = new int[arity];
+        for (var k = 0; k < arity; ++k) {
+            if (!operands[k].isConstant()) {
+                return null;
+            }
+            values[k] = operands[k].value;
+        }
+        try {
+            o.apply(values, arity);
+            return Fragment.of(values[0]);
+        } catch (RuntimeException e) {
+            // The operator throws the same exception at runtime.
+            return null;
+        }
+    }
+
+    private static Fragment simplify(Opcode opcode, Fragment left,
+                                     Fragment right) {
+        switch (opcode) {
+        case ADD:
+        case OR:
+        case XOR:
+            if (left.isConstant(0)) {
+                return right;
+            }
+            if (right.isConstant(0)) {
+                return left;
+            }
+            return (opcode == Opcode.OR) ? absorb(left, right, -1, -1) : null;
+        case SUB:
+        case SHL:
+        case SHR:
+            return right.isConstant(0) ? left : null;
+        case MUL:
+            if (left.isConstant(1)) {
+                return right;
+            }
+            if (right.isConstant(1)) {
+                return left;
+            }
+            return absorb(left, right, 0, 0);
+        case DIV:
+            return right.isConstant(1) ? left : null;
+        case AND:
+            if (left.isConstant(-1)) {
+                return right;
+            }
+            if (right.isConstant(-1)) {
+                return left;
+            }
+            return absorb(left, right, 0, 0);
+        case LAND:
+            return absorb(left, right, 0, 0);
+        case LOR:
+            return (isNonZero(left) && right.safe
+                        || isNonZero(right) && left.safe)
+                    ? Fragment.of(1)
+                    : null;
+        default:
+            return null;
+        }
+    }
+
+    /**
+        Returns the constant result if either operand is the absorbing
+        constant and the other never throws.
+
+        @param left The left operand.
+        @param right The right operand.
+        @param absorbing The absorbing constant.
+        @param result The result.
+        @return The fragment of the result, or {@code null}.
+    */
+    private static Fragment absorb(Fragment left, Fragment right,
+                                   int absorbing, int result) {
+        return (left.isConstant(absorbing) && right.safe
+                    || right.isConstant(absorbing) && left.safe)
+                ? Fragment.of(result)
+                : null;
+    }
+
+    private static boolean isNonZero(Fragment f) {
+        return f.isConstant() && f.value != 0;
+    }
+
+    private void jump(Jump i) {
+        if (i.getOpcode() == Opcode.JZ) {
+            branches.push(new Branches(stack.pop(), i));
+            return;
+        }
+        var b = branches.peek();
+        b.then = stack.pop();
+        b.always = i;
+    }
+
+    private void join(Join i) {
+        var b = branches.pop();
+        var otherwise = stack.pop();
+        var condition = b.condition;
+        if (condition.isConstant()) {
+            stack.push((condition.value != 0) ? b.then : otherwise);
+            return;
+        }
+        var code = new ArrayList<Instruction>(condition.code);
+        code.add(b.ifZero);
+        code.addAll(b.then.code);
+        code.add(b.always);
+        code.addAll(otherwise.code);
+        code.add(i);
+        stack.push(new Fragment(code,
+                condition.safe && b.then.safe && otherwise.safe));
+    }
+
+    /**
+        The instructions that compute a single operand.
+    */
+    private static final class Fragment {
+
+        private final List<Instruction> code;
+        private final boolean safe;
+        private final boolean constant;
+        private final int value;
+
+        /**
+            Creates a new instance.
+
+            @param code The instructions.
+            @param safe {@code true} if the instructions never throw any
+                exception.
+        */
+        Fragment(List<Instruction> code, boolean safe) {
+            this.code = code;
+            this.safe = safe;
+            this.constant = false;
+            this.value = 0;
+        }
+
+        private Fragment(int value) {
+            this.code = List.of(new Constant(value));
+            this.safe = true;
+            this.constant = true;
+            this.value = value;
+        }
+
+        static Fragment of(int value) {
+            return new Fragment(value);
+        }
+
+        boolean isConstant() {
+            return constant;
+        }
+
+        boolean isConstant(int v) {
+            return constant && value == v;
+        }
+    }
+
+    /**
+        The condition and the branches of the conditional operator.
+    */
+    private static final class Branches {
+
+        private final Fragment condition;
+        private final Jump ifZero;
+        private Fragment then;
+        private Jump always;
+
+        Branches(Fragment condition, Jump ifZero) {
+            this.condition = condition;
+            this.ifZero = ifZero;
+        }
+    }
+}
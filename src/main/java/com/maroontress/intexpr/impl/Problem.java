@@ -0,0 +1,104 @@
+package com.maroontress.intexpr.impl;
+
+import java.util.Optional;
+import com.maroontress.clione.Token;
+
+/**
+    The error of an expression that the {@link Compiler} finds, located at
+    the token where it occurs.
+
+    <p>The {@link Problem} object keeps the token and the description of the
+    error separately, and formats the message only when
+    {@link #getMessage()} is invoked.</p>
+*/
+public final class Problem {
+
+    private final Token token;
+    private final String description;
+    private final String message;
+
+    private Problem(Token token, String description, String message) {
+        this.token = token;
+        this.description = description;
+        this.message = message;
+    }
+
+    /**
+        Returns a new instance with the specified token and description.
+
+        <p>The message is formatted with {@link Messages#of(Token, String)}.
+        </p>
+
+        @param token The token where the error occurs.
+        @param description The description of the error.
+        @return The new instance.
+    */
+    public static Problem of(Token token, String description) {
+        return new Problem(token, description, null);
+    }
+
+    /**
+        Returns a new instance with the specified description, which is not
+        located at any token.
+
+        <p>The message is the description itself.</p>
+
+        @param description The description of the error.
+        @return The new instance.
+    */
+    public static Problem of(String description) {
+        return new Problem(null, description, description);
+    }
+
+    /**
+        Returns a new instance with the specified token and the number format
+        error of the token.
+
+        <p>The message is the one of {@code cause}, so that it remains the
+        same as the one that {@link Integer#parseInt(String)} throws.</p>
+
+        @param token The token representing the number.
+        @param cause The exception that {@link Integer#parseInt(String)} has
+            thrown with the token.
+        @return The new instance.
+    */
+    public static Problem of(Token token, NumberFormatException cause) {
+        return new Problem(token, "invalid number", cause.getMessage());
+    }
+
+    /**
+        Returns the token where the error occurs.
+
+        @return The token, or {@link Optional#empty()} if the error is not
+            located at any token.
+    */
+    public Optional<Token> getToken() {
+        return Optional.ofNullable(token);
+    }
+
+    /**
+        Returns the description of the error, such as {@code "syntax
+        error"}.
+
+        @return The description.
+    */
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+        Returns the message of the error.
+
+        @return The message.
+    */
+    public String getMessage() {
+        return (message != null) ? message : Messages.of(token, description);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return "Problem[token=" + token + ", "
+                + "description=" + description + "]";
+    }
+}
@@ -0,0 +1,29 @@
+package com.maroontress.intexpr.impl;
+
+/**
+    The receiver of the {@link Problem} objects that the {@link Compiler}
+    finds.
+
+    @see Compiler#compile(java.io.Reader, ProblemSink)
+*/
+@FunctionalInterface
+public interface ProblemSink {
+
+    /**
+        The sink that throws {@link CompileException} with the first problem,
+        so that the {@link Compiler} stops there.
+    */
+    ProblemSink THROWING = p -> {
+        throw new CompileException(p);
+    };
+
+    /**
+        Receives the specified problem.
+
+        <p>The {@link Compiler} recovers from the problem and continues to
+        compile if this method returns normally.</p>
+
+        @param problem The problem.
+    */
+    void report(Problem problem);
+}
@@ -0,0 +1,351 @@
+package com.maroontress.intexpr.impl;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+    This class represents the verified list of {@link Instruction} objects in
+    Reverse Polish notation, which the {@link Interpreter} can run
+    repeatedly.
+
+    <p>The {@link Program} object is immutable, so multiple threads can run it
+    concurrently. Two {@link Program} objects are equal if they contain the
+    equal instructions in the same order.</p>
+
+    <p>The instructions of the conditional operator contain {@link Jump}s,
+    whose destinations the program resolves.</p>
+
+    <p>Each variable has the declared range of its values, which is
+    {@link Interval#FULL} unless the range is declared. The
+    {@link RangeAnalysis} relies on the ranges, so the program rejects the
+    values out of them.</p>
+*/
+public final class Program {
+
+    private final List<Instruction> instructions;
+    private final List<String> variables;
+    private final List<Interval> ranges;
+    private final boolean bounded;
+    private final int stackSize;
+    private final int[] jumpTargets;
+    private final Instruction[] code;
+
+    /**
+        Creates a new instance with no declared ranges.
+
+        @param instructions The instructions in Reverse Polish notation.
+        @param variables The names of the variables, the index of which is the
+            slot of each variable.
+        @throws IllegalArgumentException If some operator lacks its
+            operand(s), or if the instructions are empty.
+    */
+    public Program(List<Instruction> instructions, List<String> variables) {
+        this(instructions, variables,
+                Collections.nCopies(variables.size(), Interval.FULL));
+    }
+
+    /**
+        Creates a new instance.
+
+        @param instructions The instructions in Reverse Polish notation.
+        @param variables The names of the variables, the index of which is the
+            slot of each variable.
+        @param ranges The declared ranges of the variables, the index of which
+            is the slot of each variable.
+        @throws IllegalArgumentException If some operator lacks its
+            operand(s), if the instructions are empty, or if the number of
+            the ranges is not equal to the number of the variables.
+    */
+    public Program(List<Instruction> instructions, List<String> variables,
+                   List<Interval> ranges) {
+        if (ranges.size() != variables.size()) {
+            throw new IllegalArgumentException(
+                    "the number of ranges must be " + variables.size());
+        }
+        this.instructions = List.copyOf(instructions);
+        this.variables = List.copyOf(variables);
+        this.ranges = List.copyOf(ranges);
+        bounded = isBounded(this.ranges);
+        stackSize = verify(this.instructions);
+        jumpTargets = newJumpTargets(this.instructions);
+        code = (jumpTargets == null)
+                ? null
+                : this.instructions.toArray(new Instruction[0]);
+    }
+
+    /**
+        Returns the destinations of the jumps in the specified instructions.
+
+        <p>Each {@link Opcode#JZ} jumps to the instruction following the
+        matching {@link Opcode#JMP}, which jumps to the instruction
+        following the matching {@link Join}.</p>
+
+        @param all The instructions.
+        @return The array of the destinations, the index of which is the
+            index of each jump, or {@code null} if there is no jump.
+    */
+    private static int[] newJumpTargets(List<Instruction> all) {
+        var n = all.size();
+        var targets = new int[n];
+        var pending = new ArrayDeque<Integer>();
+        var found = false;
+        for (var k = 0; k < n; ++k) {
+            var i = all.get(k);
+            if (i instanceof Jump) {
+                if (((Jump) i).getOpcode() == Opcode.JMP) {
+                    targets[pending.pop()] = k + 1;
+                }
+                pending.push(k);
+                found = true;
+            } else if (i instanceof Join) {
+                targets[pending.pop()] = k + 1;
+            }
+        }
+        if (!found) {
+            return null;
+        }
+        if (!pending.isEmpty()) {
+            throw new IllegalArgumentException("unmatched jump");
+        }
+        return targets;
+    }
+
+    private static boolean isBounded(List<Interval> ranges) {
+        for (var r : ranges) {
+            if (!r.equals(Interval.FULL)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int verify(List<Instruction> all) {
+        var max = 0;
+        var depth = 0;
+        for (var i : all) {
+            depth = i.verify(depth);
+            max = Math.max(max, depth);
+        }
+        if (depth == 0) {
+            throw CompileException.of("expression is missing");
+        }
+        return max;
+    }
+
+    /**
+        Returns the instructions in Reverse Polish notation.
+
+        @return The unmodifiable list of the instructions.
+    */
+    public List<Instruction> getInstructions() {
+        return instructions;
+    }
+
+    /**
+        Returns the names of the variables.
+
+        <p>The index of each name in the list is the slot of the
+        variable.</p>
+
+        @return The unmodifiable list of the names.
+    */
+    public List<String> getVariables() {
+        return variables;
+    }
+
+    /**
+        Returns the declared ranges of the variables.
+
+        <p>The index of each range in the list is the slot of the
+        variable.</p>
+
+        @return The unmodifiable list of the ranges.
+    */
+    public List<Interval> getRanges() {
+        return ranges;
+    }
+
+    /**
+        Returns the size of the stack that the instructions need.
+
+        @return The size of the stack.
+    */
+    public int getStackSize() {
+        return stackSize;
+    }
+
+    /**
+        Returns whether some variable has the declared range other than
+        {@link Interval#FULL}.
+
+        @return {@code true} if {@link #checkValues(int[])} can reject the
+            values.
+    */
+    public boolean isBounded() {
+        return bounded;
+    }
+
+    /**
+        Returns the programs of the operands of the logical AND operators at
+        the root of this program, from left to right.
+
+        <p>For example, the program of {@code x > 0 && y < 10 && z} is split
+        into the programs of {@code x > 0}, {@code y < 10}, and {@code z}.
+        Each of them has the same variables and ranges as this program.
+        The program whose root is not the logical AND operator is not
+        split.</p>
+
+        @return The unmodifiable list of the programs, which contains only
+            this program if it is not split.
+    */
+    public List<Program> splitConjunction() {
+        var list = new ArrayList<Program>();
+        splitConjunction(instructions, list);
+        return (list.size() == 1)
+                ? List.of(this)
+                : Collections.unmodifiableList(list);
+    }
+
+    private void splitConjunction(List<Instruction> all, List<Program> list) {
+        var n = all.size();
+        var last = all.get(n - 1);
+        if (!(last instanceof Operator)
+                || ((Operator) last).getSpec().getOpcode() != Opcode.LAND) {
+            list.add(new Program(all, variables, ranges));
+            return;
+        }
+        // The left operand ends at the last instruction after which the
+        // depth of the stack is 1, because the right operand runs on it.
+        var end = -1;
+        var depth = 0;
+        for (var k = 0; k < n - 1; ++k) {
+            depth = all.get(k).verify(depth);
+            if (depth == 1) {
+                end = k + 1;
+            }
+        }
+        if (end < 0 || end == n - 1) {
+            // The superinstruction such as LOAD2 spans both operands.
+            list.add(new Program(all, variables, ranges));
+            return;
+        }
+        splitConjunction(all.subList(0, end), list);
+        splitConjunction(all.subList(end, n - 1), list);
+    }
+
+    /**
+        Returns the destinations of the jumps that the instructions contain.
+
+        @return The array of the destinations, the index of which is the
+            index of each jump in {@link #getInstructions()}, or {@code null}
+            if the instructions contain no jump. The array must not be
+            modified.
+    */
+    public int[] getJumpTargets() {
+        return jumpTargets;
+    }
+
+    /**
+        Returns the array of the instructions that contain {@link Jump}s.
+
+        <p>The {@link Interpreter} runs the instructions containing jumps by
+        their indices, so the program creates the array once rather than on
+        each run.</p>
+
+        @return The array of the instructions in the same order as
+            {@link #getInstructions()}, or {@code null} if the instructions
+            contain no jump. The array must not be modified.
+    */
+    public Instruction[] getCode() {
+        return code;
+    }
+
+    /**
+        Runs the instructions with the specified values of the variables and
+        returns the result value.
+
+        @param values The values of the variables, the index of which is the
+            slot of each variable.
+        @return The result value.
+        @throws IllegalArgumentException If the number of the values is not
+            equal to the number of the variables, or if some value is out of
+            the declared range.
+        @throws ArithmeticException If there is an attempt to divide an
+            integer value by zero or to overflow.
+    */
+    public int run(int[] values) {
+        checkValues(values);
+        if (jumpTargets != null) {
+            var stack = new int[values.length + stackSize];
+            return Interpreter.run(code, jumpTargets, values, stack);
+        }
+        return Interpreter.run(stackSize, instructions, values);
+    }
+
+    /**
+        Throws {@link IllegalArgumentException} if the number of the specified
+        values is not equal to the number of the variables, or if some value
+        is out of the declared range.
+
+        @param values The values of the variables.
+    */
+    public void checkValues(int[] values) {
+        var n = variables.size();
+        if (values.length != n) {
+            throw new IllegalArgumentException(
+                    "the number of values must be " + n + " for "
+                    + variables + ": " + values.length);
+        }
+        if (!bounded) {
+            return;
+        }
+        for (var k = 0; k < n; ++k) {
+            checkValue(k, values[k]);
+        }
+    }
+
+    /**
+        Throws {@link IllegalArgumentException} if the specified value is out
+        of the declared range of the specified variable.
+
+        @param slot The slot of the variable.
+        @param value The value of the variable.
+    */
+    public void checkValue(int slot, int value) {
+        var range = ranges.get(slot);
+        if (!range.contains(value)) {
+            throw new IllegalArgumentException(
+                    "the value of " + variables.get(slot) + " must be in "
+                    + range + ": " + value);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof Program)) {
+            return false;
+        }
+        var that = (Program) obj;
+        return instructions.equals(that.instructions)
+                && variables.equals(that.variables)
+                && ranges.equals(that.ranges);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int hashCode() {
+        return instructions.hashCode();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return "Program[instructions=" + instructions + ", "
+                + "variables=" + variables + ", "
+                + "ranges=" + ranges + ", "
+                + "stackSize=" + stackSize + "]";
+    }
+}
@@ -0,0 +1,403 @@
+package com.maroontress.intexpr.impl;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Map.entry;
+
+/**
+    This class provides the static analysis that computes the interval of
+    the possible values of each operand on the stack, and lowers the
+    operators that never overflow nor divide by zero to their unchecked
+    variants.
+
+    <p>The interval of each variable is its declared range if any, otherwise
+    {@link Interval#FULL}. For example, both operands of {@code ADD} in
+    {@code (x & 255) + (y & 255)} are in {@code [0, 255]}, so the addition
+    never overflows even if the ranges of {@code x} and {@code y} are not
+    declared.</p>
+
+    <p>The {@link RangeAnalysis} object is mutable and not thread-safe.</p>
+*/
+public final class RangeAnalysis {
+
+    private static final Map<Opcode, UnaryTransfer> UNARY_MAP = Map.ofEntries(
+            entry(Opcode.NEG, o -> new Interval(-o.getMax(), -o.getMin())),
+            entry(Opcode.POS, o -> o),
+            entry(Opcode.NOT, o -> new Interval(~o.getMax(), ~o.getMin())),
+            entry(Opcode.LNOT, o -> Interval.BOOLEAN),
+            entry(Opcode.ABS, RangeAnalysis::abs));
+
+    private static final Map<Opcode, BinaryTransfer> BINARY_MAP
+            = Map.ofEntries(
+            entry(Opcode.ADD, (a, b) -> new Interval(a.getMin() + b.getMin(),
+                    a.getMax() + b.getMax())),
+            entry(Opcode.SUB, (a, b) -> new Interval(a.getMin() - b.getMax(),
+                    a.getMax() - b.getMin())),
+            entry(Opcode.MUL, (a, b) -> Interval.hull(
+                    a.getMin() * b.getMin(), a.getMin() * b.getMax(),
+                    a.getMax() * b.getMin(), a.getMax() * b.getMax())),
+            entry(Opcode.DIV, RangeAnalysis::divide),
+            entry(Opcode.MOD, RangeAnalysis::remainder),
+            entry(Opcode.SHR, RangeAnalysis::shiftRight),
+            entry(Opcode.SHL, RangeAnalysis::shiftLeft),
+            entry(Opcode.AND, RangeAnalysis::and),
+            entry(Opcode.XOR, RangeAnalysis::orXor),
+            entry(Opcode.OR, RangeAnalysis::orXor),
+            entry(Opcode.MIN, (a, b) -> new Interval(
+                    Math.min(a.getMin(), b.getMin()),
+                    Math.min(a.getMax(), b.getMax()))),
+            entry(Opcode.MAX, (a, b) -> new Interval(
+                    Math.max(a.getMin(), b.getMin()),
+                    Math.max(a.getMax(), b.getMax()))),
+            entry(Opcode.USHR, RangeAnalysis::unsignedShiftRight),
+            entry(Opcode.UDIV, RangeAnalysis::unsignedDivide),
+            entry(Opcode.UREM, RangeAnalysis::unsignedRemainder));
+
+    private static final Map<Opcode, TernaryTransfer> TERNARY_MAP
+            = Map.ofEntries(
+            entry(Opcode.CLAMP, RangeAnalysis::clamp),
+            entry(Opcode.SELECT, RangeAnalysis::select));
+
+    private final Deque<Interval> stack = new ArrayDeque<>();
+    private final List<Interval> ranges;
+
+    private RangeAnalysis(List<Interval> ranges) {
+        this.ranges = ranges;
+    }
+
+    /**
+        Returns the new program in which the operators that the analysis has
+        proved safe are replaced with their unchecked variants.
+
+        @param program The program.
+        @return The new program, or {@code program} if no operator has been
+            replaced.
+    */
+    public static Program lower(Program program) {
+        var analysis = new RangeAnalysis(program.getRanges());
+        var all = program.getInstructions();
+        var list = new ArrayList<Instruction>(all.size());
+        var changed = false;
+        for (var i : all) {
+            var lowered = i.analyze(analysis);
+            changed |= lowered != i;
+            list.add(lowered);
+        }
+        return changed
+                ? new Program(list, program.getVariables(), program.getRanges())
+                : program;
+    }
+
+    /**
+        Pushes the interval of a constant.
+
+        @param value The constant.
+    */
+    public void pushConstant(int value) {
+        stack.push(new Interval(value, value));
+    }
+
+    /**
+        Pushes the interval of the specified variable.
+
+        @param slot The slot of the variable.
+    */
+    public void pushVariable(int slot) {
+        stack.push(ranges.get(slot));
+    }
+
+    /**
+        Pops the interval(s) of the operand(s) of the specified operator,
+        pushes the interval of the result, and returns whether the operator
+        never throws {@link OverflowException} or
+        {@link DivideByZeroException} with them.
+
+        @param spec The operator.
+        @return {@code true} if the operator never throws the exceptions.
+    */
+    public boolean apply(OperatorSpec spec) {
+        var opcode = spec.getOpcode();
+        var arity = spec.getArity();
+        Interval exact;
+        var safe = true;
+        if (isConstant(arity)) {
+            return fold(spec);
+        }
+        if (arity == 1) {
+            var operand = stack.pop();
+            var transfer = UNARY_MAP.get(opcode);
+            exact = (transfer == null)
+                    ? Interval.FULL
+                    : transfer.apply(operand);
+        } else if (arity == 3 && TERNARY_MAP.containsKey(opcode)) {
+            var third = stack.pop();
+            var second = stack.pop();
+            var first = stack.pop();
+            exact = TERNARY_MAP.get(opcode).apply(first, second, third);
+        } else if (arity > 2) {
+            for (var k = 0; k < arity; ++k) {
+                stack.pop();
+            }
+            exact = Interval.FULL;
+        } else {
+            var right = stack.pop();
+            var left = stack.pop();
+            var transfer = BINARY_MAP.get(opcode);
+            if (transfer == null) {
+                exact = isBoolean(opcode) ? Interval.BOOLEAN : Interval.FULL;
+            } else {
+                exact = transfer.apply(left, right);
+            }
+            if (isDivision(opcode)) {
+                safe = !right.contains(0);
+            }
+        }
+        stack.push(exact.toInt());
+        return safe && exact.fitsInt();
+    }
+
+    /**
+        Pops the intervals of the condition and both operands of the
+        conditional operator, and pushes the interval of the result.
+    */
+    public void join() {
+        var otherwise = stack.pop();
+        var then = stack.pop();
+        var condition = stack.pop();
+        stack.push(select(condition, then, otherwise));
+    }
+
+    /**
+        Returns whether the specified number of the intervals at the top of
+        the stack are all constants.
+
+        @param n The number of the intervals.
+        @return {@code true} if they are all constants.
+    */
+    private boolean isConstant(int n) {
+        var i = stack.iterator();
+        for (var k = 0; k < n; ++k) {
+            if (!i.next().isConstant()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+        Pops the constant operand(s) of the specified operator, and pushes
+        the constant result of the operator if it succeeds, otherwise
+        {@link Interval#FULL}.
+
+        <p>This folds the operators registered with
+        {@link com.maroontress.intexpr.OperatorRegistry} as well as the
+        built-in ones, so that their results take part in the analysis of
+        the following operators.</p>
+
+        <p>The variant that saturates does not throw even if it overflows,
+        so its success does not prove that its unchecked operation returns
+        the same value.</p>
+
+        @param spec The operator.
+        @return {@code true} if the operator succeeds with the operand(s)
+            and its unchecked operation returns the same value.
+    */
+    private boolean fold(OperatorSpec spec) {
+        var arity = spec.getArity();
+        var operands = new int[arity];
+        for (var k = arity - 1; k >= 0; --k) {
+            operands[k] = (int) stack.pop().getMin();
+        }
+        try {
+            var value = compute(spec, operands);
+            stack.push(new Interval(value, value));
+            return spec.isBuiltin() || spec.isTotal();
+        } catch (RuntimeException e) {
+            // The operator throws the same exception at runtime.
+            stack.push(Interval.FULL);
+            return false;
+        }
+    }
+
+    private static int compute(OperatorSpec spec, int[] operands) {
+        switch (spec.getArity()) {
+        case 1:
+            return spec.getUnaryOperation().apply(operands[0]);
+        case 2:
+            return spec.getBinaryOperation().apply(operands[0], operands[1]);
+        default:
+            return spec.getNaryOperation().apply(operands);
+        }
+    }
+
+    private static boolean isDivision(Opcode opcode) {
+        switch (opcode) {
+        case DIV:
+        case MOD:
+        case UDIV:
+        case UREM:
+            return true;
+        default:
+            return false;
+        }
+    }
+
+    private static boolean isBoolean(Opcode opcode) {
+        switch (opcode) {
+        case LGT:
+        case LLT:
+        case LGE:
+        case LLE:
+        case LNE:
+        case LEQ:
+        case LAND:
+        case LOR:
+        case ULT:
+        case ULE:
+        case UGT:
+        case UGE:
+            return true;
+        default:
+            return false;
+        }
+    }
+
+    private static long magnitude(Interval i) {
+        return Math.max(Math.abs(i.getMin()), Math.abs(i.getMax()));
+    }
+
+    private static Interval divide(Interval a, Interval b) {
+        if (b.contains(0)) {
+            var m = magnitude(a);
+            return new Interval(-m, m);
+        }
+        return Interval.hull(
+                a.getMin() / b.getMin(), a.getMin() / b.getMax(),
+                a.getMax() / b.getMin(), a.getMax() / b.getMax());
+    }
+
+    private static Interval remainder(Interval a, Interval b) {
+        var m = Math.max(magnitude(b) - 1, 0);
+        var min = (a.getMin() >= 0) ? 0 : Math.max(a.getMin(), -m);
+        var max = (a.getMax() <= 0) ? 0 : Math.min(a.getMax(), m);
+        return new Interval(min, max);
+    }
+
+    private static Interval shiftRight(Interval a, Interval b) {
+        if (!b.isConstant()) {
+            return new Interval(Math.min(a.getMin(), 0),
+                    Math.max(a.getMax(), 0));
+        }
+        var s = (int) b.getMin() & 31;
+        return new Interval(a.getMin() >> s, a.getMax() >> s);
+    }
+
+    private static Interval shiftLeft(Interval a, Interval b) {
+        if (!b.isConstant()) {
+            return Interval.FULL;
+        }
+        var s = (int) b.getMin() & 31;
+        return new Interval(a.getMin() << s, a.getMax() << s).toInt();
+    }
+
+    private static Interval unsignedShiftRight(Interval a, Interval b) {
+        if (a.getMin() >= 0) {
+            return shiftRight(a, b);
+        }
+        if (!b.isConstant()) {
+            return Interval.FULL;
+        }
+        var s = (int) b.getMin() & 31;
+        return (s == 0) ? a : new Interval(0, -1 >>> s);
+    }
+
+    private static Interval unsignedDivide(Interval a, Interval b) {
+        // Both operands are the same as signed ones if they are not
+        // negative.
+        if (a.getMin() >= 0 && b.getMin() > 0) {
+            return divide(a, b);
+        }
+        return Interval.FULL;
+    }
+
+    private static Interval unsignedRemainder(Interval a, Interval b) {
+        if (a.getMin() >= 0 && b.getMin() > 0) {
+            return remainder(a, b);
+        }
+        // The remainder is less than the divisor as an unsigned integer.
+        return (b.getMin() > 0)
+                ? new Interval(0, b.getMax() - 1)
+                : Interval.FULL;
+    }
+
+    private static Interval and(Interval a, Interval b) {
+        if (a.getMin() >= 0 && b.getMin() >= 0) {
+            return new Interval(0, Math.min(a.getMax(), b.getMax()));
+        }
+        if (a.getMin() >= 0) {
+            return new Interval(0, a.getMax());
+        }
+        if (b.getMin() >= 0) {
+            return new Interval(0, b.getMax());
+        }
+        return Interval.FULL;
+    }
+
+    private static Interval abs(Interval o) {
+        if (o.getMin() >= 0) {
+            return o;
+        }
+        if (o.getMax() <= 0) {
+            return new Interval(-o.getMax(), -o.getMin());
+        }
+        return new Interval(0, magnitude(o));
+    }
+
+    private static Interval clamp(Interval value, Interval min,
+                                  Interval max) {
+        // The clamp is monotonically non-decreasing in each operand.
+        return new Interval(
+                Math.min(Math.max(value.getMin(), min.getMin()), max.getMin()),
+                Math.min(Math.max(value.getMax(), min.getMax()),
+                        max.getMax()));
+    }
+
+    private static Interval select(Interval condition, Interval a,
+                                   Interval b) {
+        if (!condition.contains(0)) {
+            return a;
+        }
+        if (condition.isConstant()) {
+            return b;
+        }
+        return Interval.hull(a.getMin(), a.getMax(), b.getMin(), b.getMax());
+    }
+
+    private static Interval orXor(Interval a, Interval b) {
+        if (a.getMin() < 0 || b.getMin() < 0) {
+            return Interval.FULL;
+        }
+        var max = Math.max(a.getMax(), b.getMax());
+        var bits = Long.SIZE - Long.numberOfLeadingZeros(max);
+        return new Interval(0, (1L << bits) - 1);
+    }
+
+    @FunctionalInterface
+    private interface UnaryTransfer {
+        Interval apply(Interval operand);
+    }
+
+    @FunctionalInterface
+    private interface BinaryTransfer {
+        Interval apply(Interval left, Interval right);
+    }
+
+    @FunctionalInterface
+    private interface TernaryTransfer {
+        Interval apply(Interval first, Interval second, Interval third);
+    }
+}
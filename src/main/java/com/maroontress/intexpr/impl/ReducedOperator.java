@@ -0,0 +1,134 @@
+package com.maroontress.intexpr.impl;
+
+import java.util.Deque;
+import com.maroontress.clione.Token;
+import com.maroontress.intexpr.evaltree.EvalNode;
+import com.maroontress.intexpr.syntaxtree.SyntaxNode;
+
+/**
+    The instruction that replaces the {@link ImmediateOperator} with the
+    cheaper operation computing the same value.
+
+    <p>The instruction builds the same syntax tree as the
+    {@link ImmediateOperator} that it replaces, and throws the same
+    exceptions.</p>
+
+    @see StrengthReduction
+*/
+public final class ReducedOperator implements Instruction {
+
+    private final ImmediateOperator origin;
+    private final Token token;
+    private final IntUnaryOperation operation;
+    private final NodeFactory factory;
+
+    /**
+        Creates a new instance.
+
+        @param origin The superinstruction to replace.
+        @param operation The operation that takes the left operand and
+            returns the same value as {@code origin} does.
+        @param factory The factory that creates the node evaluating the
+            operation.
+    */
+    public ReducedOperator(ImmediateOperator origin,
+                           IntUnaryOperation operation, NodeFactory factory) {
+        this.origin = origin;
+        this.token = origin.getToken();
+        this.operation = operation;
+        this.factory = factory;
+    }
+
+    /**
+        Returns the superinstruction that this instruction replaces.
+
+        @return The superinstruction.
+    */
+    public ImmediateOperator getOrigin() {
+        return origin;
+    }
+
+    /**
+        Returns the operation that takes the left operand and returns the
+        same value as the superinstruction does.
+
+        <p>The operation throws {@link OverflowException} or {@link
+        DivideByZeroException} rather than {@link ArithmeticException}.</p>
+
+        @return The operation.
+    */
+    public IntUnaryOperation getOperation() {
+        return operation;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void accept(Deque<SyntaxNode> stack) {
+        origin.accept(stack);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void build(Deque<EvalNode> stack) {
+        stack.push(factory.apply(token, stack.pop()));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int apply(int[] stack, int offset) {
+        var k = offset - 1;
+        stack[k] = Operations.perform(token, operation, stack[k]);
+        return offset;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int verify(int depth) {
+        return origin.verify(depth);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Instruction analyze(RangeAnalysis analysis) {
+        var i = origin.analyze(analysis);
+        return (i == origin) ? this : StrengthReduction.reduce(i);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof ReducedOperator)) {
+            return false;
+        }
+        var that = (ReducedOperator) obj;
+        return origin.equals(that.origin);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int hashCode() {
+        return origin.hashCode();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return "ReducedOperator[origin=" + origin + "]";
+    }
+
+    /**
+        The factory of the node evaluating the reduced operation.
+    */
+    @FunctionalInterface
+    public interface NodeFactory {
+
+        /**
+            Returns the new node.
+
+            @param token The token corresponding to the operator.
+            @param operand The left operand.
+            @return The new node.
+        */
+        EvalNode apply(Token token, EvalNode operand);
+    }
+}
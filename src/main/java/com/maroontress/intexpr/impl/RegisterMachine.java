@@ -0,0 +1,586 @@
+package com.maroontress.intexpr.impl;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import com.maroontress.clione.Token;
+
+/**
+    This class provides the evaluator that runs a {@link Program} translated
+    into the three-address code of the register machine.
+
+    <p>The registers are the elements of the frame: the registers from 0 to
+    {@code n - 1} hold the values of the {@code n} variables, and the
+    following registers hold the intermediate results. The translation
+    simulates the stack of the program with the operands, each of which is
+    either a register or an immediate value, so that the load of a variable
+    and the push of a constant are not instructions but the operands of the
+    following instruction. The result of the operator whose first operand
+    is at the depth {@code d} of the stack is stored in the register
+    {@code n + d}, so the frame is not larger than the stack of the
+    program, and the operator reads the right operand from the instruction
+    itself if it is a constant. For example, {@code x * y + 3} is
+    translated into the following two instructions, rather than the five
+    (or three fused) instructions of the program, where {@code CMUL} and
+    {@code CADD} are the multiplication and addition that check the
+    overflow:</p>
+
+    <pre>
+    CMUL r2, r0, r1
+    CADD r2, r2, #3</pre>
+
+    <p>The left operand that is a constant, the condition of the
+    conditional operator, and the operand of a function taking three or
+    more operands are moved into the register with {@code MOVI}, and the
+    values of both branches of the conditional operator are moved into the
+    same register with {@code MOV} unless they are already there. The
+    built-in functions taking three operands, such as {@code clamp}, read
+    their registers directly with {@code TERNARY}, so that they allocate
+    nothing.</p>
+
+    <p>The {@link RegisterMachine} object is immutable.</p>
+*/
+public final class RegisterMachine implements Evaluator {
+
+    private static final int MOV = 0;
+    private static final int MOVI = 1;
+    private static final int JZ = 2;
+    private static final int JMP = 3;
+    private static final int UNARY = 4;
+    private static final int CHECKED_UNARY = 5;
+    private static final int BINARY = 6;
+    private static final int CHECKED_BINARY = 7;
+    private static final int NARY = 8;
+    private static final int ADD = 9;
+    private static final int SUB = 10;
+    private static final int MUL = 11;
+    private static final int CHECKED_ADD = 12;
+    private static final int CHECKED_SUB = 13;
+    private static final int CHECKED_MUL = 14;
+    private static final int LT = 15;
+    private static final int LE = 16;
+    private static final int GT = 17;
+    private static final int GE = 18;
+    private static final int EQ = 19;
+    private static final int NE = 20;
+    private static final int AND = 21;
+    private static final int OR = 22;
+    private static final int XOR = 23;
+    private static final int LAND = 24;
+    private static final int LOR = 25;
+    private static final int TERNARY = 26;
+
+    /** The flag of the kind whose right operand is the immediate value. */
+    private static final int IMMEDIATE = 0x100;
+
+    private static final int KIND_MASK = IMMEDIATE - 1;
+
+    private static final String[] NAMES = {
+        "MOV", "MOVI", "JZ", "JMP", "UNARY", "CUNARY", "BINARY", "CBINARY",
+        "NARY", "ADD", "SUB", "MUL", "CADD", "CSUB", "CMUL", "LT", "LE",
+        "GT", "GE", "EQ", "NE", "AND", "OR", "XOR", "LAND", "LOR",
+        "TERNARY",
+    };
+
+    private final int[] kinds;
+    private final int[] dsts;
+    private final int[] lefts;
+    private final int[] rights;
+    private final Object[] operations;
+    private final Token[] tokens;
+    private final int[][] operands;
+    private final int result;
+    private final int frameSize;
+
+    private RegisterMachine(Translator t, int result, int frameSize) {
+        var n = t.kinds.size();
+        this.kinds = toArray(t.kinds);
+        this.dsts = toArray(t.dsts);
+        this.lefts = toArray(t.lefts);
+        this.rights = toArray(t.rights);
+        this.operations = t.operations.toArray();
+        this.tokens = t.tokens.toArray(new Token[n]);
+        this.operands = t.operands.toArray(new int[n][]);
+        this.result = result;
+        this.frameSize = frameSize;
+    }
+
+    /**
+        Returns a new evaluator of the specified program.
+
+        @param program The program.
+        @return The new evaluator.
+    */
+    public static RegisterMachine of(Program program) {
+        var base = program.getVariables().size();
+        var t = new Translator(base);
+        for (var i : program.getInstructions()) {
+            t.translate(i);
+        }
+        var r = t.toRegister(t.stack.pop(), 0);
+        return new RegisterMachine(t, r, base + program.getStackSize());
+    }
+
+    /**
+        Returns the number of the instructions.
+
+        @return The number of the instructions.
+    */
+    public int size() {
+        return kinds.length;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int evaluate(int[] values) {
+        return run(values, new int[frameSize]);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int evaluate(int[] values, int[] stack) {
+        return run(values, stack);
+    }
+
+    private int run(int[] values, int[] r) {
+        System.arraycopy(values, 0, r, 0, values.length);
+        var end = kinds.length;
+        var pc = 0;
+        while (pc < end) {
+            var kind = kinds[pc];
+            var a = lefts[pc];
+            var b = ((kind & IMMEDIATE) != 0) ? rights[pc] : r[rights[pc]];
+            int v;
+            switch (kind & KIND_MASK) {
+            case MOV:
+                v = r[a];
+                break;
+            case MOVI:
+                v = a;
+                break;
+            case JZ:
+                pc = (r[a] != 0) ? pc + 1 : dsts[pc];
+                continue;
+            case JMP:
+                pc = dsts[pc];
+                continue;
+            case UNARY:
+                v = ((IntUnaryOperation) operations[pc]).apply(r[a]);
+                break;
+            case CHECKED_UNARY:
+                v = Operations.perform(tokens[pc],
+                        (IntUnaryOperation) operations[pc], r[a]);
+                break;
+            case BINARY:
+                v = ((IntBinaryOperation) operations[pc]).apply(r[a], b);
+                break;
+            case CHECKED_BINARY:
+                v = Operations.perform(tokens[pc],
+                        (IntBinaryOperation) operations[pc], r[a], b);
+                break;
+            case TERNARY:
+                v = ternary(pc, r);
+                break;
+            case NARY:
+                v = nary(pc, r);
+                break;
+            case ADD:
+                v = r[a] + b;
+                break;
+            case SUB:
+                v = r[a] - b;
+                break;
+            case MUL:
+                v = r[a] * b;
+                break;
+            case CHECKED_ADD:
+                v = add(r[a], b, tokens[pc]);
+                break;
+            case CHECKED_SUB:
+                v = subtract(r[a], b, tokens[pc]);
+                break;
+            case CHECKED_MUL:
+                v = multiply(r[a], b, tokens[pc]);
+                break;
+            case LT:
+                v = (r[a] < b) ? 1 : 0;
+                break;
+            case LE:
+                v = (r[a] <= b) ? 1 : 0;
+                break;
+            case GT:
+                v = (r[a] > b) ? 1 : 0;
+                break;
+            case GE:
+                v = (r[a] >= b) ? 1 : 0;
+                break;
+            case EQ:
+                v = (r[a] == b) ? 1 : 0;
+                break;
+            case NE:
+                v = (r[a] != b) ? 1 : 0;
+                break;
+            case AND:
+                v = r[a] & b;
+                break;
+            case OR:
+                v = r[a] | b;
+                break;
+            case XOR:
+                v = r[a] ^ b;
+                break;
+            case LAND:
+                v = (r[a] != 0 && b != 0) ? 1 : 0;
+                break;
+            case LOR:
+                v = (r[a] != 0 || b != 0) ? 1 : 0;
+                break;
+            default:
+                throw new IllegalStateException("unknown kind: " + kind);
+            }
+            r[dsts[pc]] = v;
+            ++pc;
+        }
+        return r[result];
+    }
+
+    private int ternary(int pc, int[] r) {
+        var registers = operands[pc];
+        return Operations.perform(tokens[pc],
+                (IntTernaryOperation) operations[pc], r[registers[0]],
+                r[registers[1]], r[registers[2]]);
+    }
+
+    /**
+        Returns the value of the function that takes the operands in the
+        array.
+
+        <p>The function receives the operands in a new array on each call,
+        as {@link IntNaryOperation} specifies, because it may keep or modify
+        the array. The built-in functions taking three operands run with
+        {@code TERNARY} instead, which reads the registers directly.</p>
+
+        @param pc The index of the instruction.
+        @param r The registers.
+        @return The value.
+    */
+    private int nary(int pc, int[] r) {
+        var registers = operands[pc];
+        var n = registers.length;
+        var args = new int[n];
+        for (var k = 0; k < n; ++k) {
+            args[k] = r[registers[k]];
+        }
+        return Operations.perform(tokens[pc],
+                (IntNaryOperation) operations[pc], args);
+    }
+
+    private static int add(int a, int b, Token token) {
+        var sum = a + b;
+        if (((a ^ sum) & (b ^ sum)) < 0) {
+            throw overflow(token);
+        }
+        return sum;
+    }
+
+    private static int subtract(int a, int b, Token token) {
+        var diff = a - b;
+        if (((a ^ b) & (a ^ diff)) < 0) {
+            throw overflow(token);
+        }
+        return diff;
+    }
+
+    private static int multiply(int a, int b, Token token) {
+        var product = (long) a * b;
+        if ((int) product != product) {
+            throw overflow(token);
+        }
+        return (int) product;
+    }
+
+    private static ArithmeticException overflow(Token token) {
+        return new ArithmeticException(Messages.of(token, "overflow"));
+    }
+
+    private static int[] toArray(List<Integer> list) {
+        return list.stream()
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        var b = new StringBuilder();
+        var n = kinds.length;
+        for (var pc = 0; pc < n; ++pc) {
+            var kind = kinds[pc];
+            var name = NAMES[kind & KIND_MASK];
+            b.append(pc).append(": ").append(name);
+            switch (kind & KIND_MASK) {
+            case MOVI:
+                b.append(" r").append(dsts[pc]).append(", #")
+                        .append(lefts[pc]);
+                break;
+            case JZ:
+                b.append(" r").append(lefts[pc]).append(", ")
+                        .append(dsts[pc]);
+                break;
+            case JMP:
+                b.append(" ").append(dsts[pc]);
+                break;
+            case TERNARY:
+            case NARY:
+                b.append(" r").append(dsts[pc]);
+                for (var k : operands[pc]) {
+                    b.append(", r").append(k);
+                }
+                break;
+            default:
+                b.append(" r").append(dsts[pc]).append(", r")
+                        .append(lefts[pc]);
+                if (kind == MOV || kind == UNARY || kind == CHECKED_UNARY) {
+                    break;
+                }
+                b.append(((kind & IMMEDIATE) != 0) ? ", #" : ", r")
+                        .append(rights[pc]);
+                break;
+            }
+            b.append('\n');
+        }
+        return b.append("RET r").append(result).toString();
+    }
+
+    /**
+        The operand on the simulated stack, which is either the register or
+        the immediate value.
+    */
+    private static final class Operand {
+
+        private final boolean immediate;
+        private final int value;
+
+        Operand(boolean immediate, int value) {
+            this.immediate = immediate;
+            this.value = value;
+        }
+    }
+
+    /**
+        The translator of the instructions of the stack machine into those of
+        the register machine.
+    */
+    private static final class Translator {
+
+        private final Deque<Operand> stack = new ArrayDeque<>();
+        private final Deque<Integer> branches = new ArrayDeque<>();
+        private final List<Integer> kinds = new ArrayList<>();
+        private final List<Integer> dsts = new ArrayList<>();
+        private final List<Integer> lefts = new ArrayList<>();
+        private final List<Integer> rights = new ArrayList<>();
+        private final List<Object> operations = new ArrayList<>();
+        private final List<Token> tokens = new ArrayList<>();
+        private final List<int[]> operands = new ArrayList<>();
+        private final int base;
+
+        Translator(int base) {
+            this.base = base;
+        }
+
+        void translate(Instruction i) {
+            if (i instanceof Constant) {
+                stack.push(new Operand(true, ((Constant) i).getValue()));
+            } else if (i instanceof Variable) {
+                pushVariable((Variable) i);
+            } else if (i instanceof VariablePair) {
+                var pair = (VariablePair) i;
+                pushVariable(pair.getFirst());
+                pushVariable(pair.getSecond());
+            } else if (i instanceof Operator) {
+                translateOperator((Operator) i);
+            } else if (i instanceof ImmediateOperator) {
+                var o = (ImmediateOperator) i;
+                binary(o.getSpec(), o.getToken(), o.isUnchecked(),
+                        new Operand(true, o.getValue()));
+            } else if (i instanceof ReducedOperator) {
+                var o = (ReducedOperator) i;
+                var depth = stack.size() - 1;
+                var left = toRegister(stack.pop(), depth);
+                emit(CHECKED_UNARY, register(depth), left, 0,
+                        o.getOperation(), o.getOrigin().getToken(), null);
+                pushRegister(depth);
+            } else if (i instanceof Jump) {
+                translateJump((Jump) i);
+            } else if (i instanceof Join) {
+                var depth = stack.size() - 1;
+                var dst = register(depth);
+                move(stack.pop(), dst);
+                var jump = branches.pop();
+                dsts.set(jump, kinds.size());
+                pushRegister(depth);
+            } else {
+                throw new IllegalStateException(
+                        "unexpected instruction: " + i);
+            }
+        }
+
+        private void pushVariable(Variable v) {
+            stack.push(new Operand(false, v.getSlot()));
+        }
+
+        private void pushRegister(int depth) {
+            stack.push(new Operand(false, register(depth)));
+        }
+
+        private void translateOperator(Operator o) {
+            var spec = o.getSpec();
+            var token = o.getToken();
+            var unchecked = o.isUnchecked();
+            var arity = spec.getArity();
+            if (arity == 2) {
+                binary(spec, token, unchecked, stack.pop());
+                return;
+            }
+            if (arity == 1) {
+                var depth = stack.size() - 1;
+                var operand = toRegister(stack.pop(), depth);
+                var operation = unchecked
+                        ? spec.getUncheckedOperation()
+                        : spec.getUnaryOperation();
+                emit(unchecked ? UNARY : CHECKED_UNARY, register(depth),
+                        operand, 0, operation, token, null);
+                pushRegister(depth);
+                return;
+            }
+            var depth = stack.size() - arity;
+            var registers = new int[arity];
+            for (var k = arity - 1; k >= 0; --k) {
+                registers[k] = toRegister(stack.pop(), depth + k);
+            }
+            if (arity == 3 && spec.hasTernaryOperation()) {
+                emit(TERNARY, register(depth), 0, 0,
+                        spec.getTernaryOperation(), token, registers);
+            } else {
+                emit(NARY, register(depth), 0, 0, spec.getNaryOperation(),
+                        token, registers);
+            }
+            pushRegister(depth);
+        }
+
+        private void binary(OperatorSpec spec, Token token,
+                            boolean unchecked, Operand right) {
+            var depth = stack.size() - 1;
+            var left = toRegister(stack.pop(), depth);
+            var kind = kindOf(spec, unchecked);
+            var operation = (kind != BINARY && kind != CHECKED_BINARY)
+                    ? null
+                    : unchecked
+                    ? spec.getUncheckedOperation()
+                    : spec.getBinaryOperation();
+            if (right.immediate) {
+                kind |= IMMEDIATE;
+            }
+            emit(kind, register(depth), left, right.value, operation, token,
+                    null);
+            pushRegister(depth);
+        }
+
+        private void translateJump(Jump i) {
+            var depth = stack.size() - 1;
+            if (i.getOpcode() == Opcode.JZ) {
+                var condition = toRegister(stack.pop(), depth);
+                branches.push(kinds.size());
+                emit(JZ, 0, condition, 0, null, null, null);
+                return;
+            }
+            move(stack.pop(), register(depth));
+            var ifZero = branches.pop();
+            branches.push(kinds.size());
+            emit(JMP, 0, 0, 0, null, null, null);
+            dsts.set(ifZero, kinds.size());
+        }
+
+        /**
+            Returns the register of the specified operand, moving the
+            immediate value into the register of the specified depth.
+
+            @param operand The operand.
+            @param depth The depth of the operand on the stack.
+            @return The register.
+        */
+        int toRegister(Operand operand, int depth) {
+            if (!operand.immediate) {
+                return operand.value;
+            }
+            var dst = register(depth);
+            emit(MOVI, dst, operand.value, 0, null, null, null);
+            return dst;
+        }
+
+        private void move(Operand operand, int dst) {
+            if (operand.immediate) {
+                emit(MOVI, dst, operand.value, 0, null, null, null);
+            } else if (operand.value != dst) {
+                emit(MOV, dst, operand.value, 0, null, null, null);
+            }
+        }
+
+        private int register(int depth) {
+            return base + depth;
+        }
+
+        private void emit(int kind, int dst, int left, int right,
+                          Object operation, Token token, int[] registers) {
+            kinds.add(kind);
+            dsts.add(dst);
+            lefts.add(left);
+            rights.add(right);
+            operations.add(operation);
+            tokens.add(token);
+            operands.add(registers);
+        }
+
+        private static int kindOf(OperatorSpec spec, boolean unchecked) {
+            if (!unchecked && !spec.isBuiltin()) {
+                return CHECKED_BINARY;
+            }
+            // The built-in comparisons, bitwise and logical operators
+            // never throw, so they need no check even if they are not
+            // marked unchecked.
+            switch (spec.getOpcode()) {
+            case ADD:
+                return unchecked ? ADD : CHECKED_ADD;
+            case SUB:
+                return unchecked ? SUB : CHECKED_SUB;
+            case MUL:
+                return unchecked ? MUL : CHECKED_MUL;
+            case LLT:
+                return LT;
+            case LLE:
+                return LE;
+            case LGT:
+                return GT;
+            case LGE:
+                return GE;
+            case LEQ:
+                return EQ;
+            case LNE:
+                return NE;
+            case AND:
+                return AND;
+            case OR:
+                return OR;
+            case XOR:
+                return XOR;
+            case LAND:
+                return LAND;
+            case LOR:
+                return LOR;
+            default:
+                return unchecked ? BINARY : CHECKED_BINARY;
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.maroontress.intexpr.impl;
+
+import java.util.ArrayList;
+import java.util.Map;
+import com.maroontress.intexpr.evaltree.DivConstNode;
+import com.maroontress.intexpr.evaltree.ModConstNode;
+import com.maroontress.intexpr.evaltree.MulConstNode;
+import com.maroontress.intexpr.evaltree.UnaryNode;
+
+import static java.util.Map.entry;
+
+/**
+    This class provides the optimizer that replaces the multiplication,
+    division, and remainder by a constant with the cheaper operations.
+
+    <p>The replacements are as follows:</p>
+
+    <ul>
+    <li>{@code MULI k} is replaced with the shift(s) or the multiplication,
+    which detects the overflow with the bounds of the left operand. See
+    {@link ConstantMultiplier}.</li>
+    <li>{@code DIVI k} and {@code MODI k} are replaced with the shift and
+    the mask if {@code k} is a power of two, or with the multiplication by
+    the magic number otherwise. See {@link ConstantDivisor}. They are not
+    replaced if {@code k} is 0, 1, or &minus;1.</li>
+    <li>{@code UDIVI k} and {@code UREMI k} are replaced with the unsigned
+    shift and the mask if {@code k} is a power of two as an unsigned
+    integer.</li>
+    </ul>
+*/
+public final class StrengthReduction {
+
+    private static final Map<Opcode, Reducer> REDUCER_MAP = Map.ofEntries(
+            entry(Opcode.MULI, StrengthReduction::multiply),
+            entry(Opcode.DIVI, StrengthReduction::divide),
+            entry(Opcode.MODI, StrengthReduction::remainder),
+            entry(Opcode.UDIVI, StrengthReduction::unsignedDivide),
+            entry(Opcode.UREMI, StrengthReduction::unsignedRemainder));
+
+    /** Prevents the class from being instantiated. */
+    private StrengthReduction() {
+        throw new AssertionError();
+    }
+
+    /**
+        Returns the new program in which the multiplication, division, and
+        remainder by a constant are replaced with the cheaper operations.
+
+        @param program The program.
+        @return The new program, or {@code program} if no instruction has
+            been replaced.
+    */
+    public static Program reduce(Program program) {
+        var all = program.getInstructions();
+        var list = new ArrayList<Instruction>(all.size());
+        var changed = false;
+        for (var i : all) {
+            var reduced = reduce(i);
+            changed |= reduced != i;
+            list.add(reduced);
+        }
+        return changed
+                ? new Program(list, program.getVariables(), program.getRanges())
+                : program;
+    }
+
+    /**
+        Returns the instruction that replaces the specified instruction.
+
+        @param i The instruction.
+        @return The new instruction, or {@code i} if it cannot be replaced.
+    */
+    public static Instruction reduce(Instruction i) {
+        if (!(i instanceof ImmediateOperator)) {
+            return i;
+        }
+        var o = (ImmediateOperator) i;
+        var reducer = REDUCER_MAP.get(o.getOpcode());
+        return (reducer == null) ? i : reducer.apply(o);
+    }
+
+    private static Instruction multiply(ImmediateOperator o) {
+        if (!o.isUnchecked() && !o.getSpec().isBuiltin()) {
+            // The variant saturates rather than throws on the overflow.
+            return o;
+        }
+        var m = new ConstantMultiplier(o.getValue(), !o.isUnchecked());
+        return new ReducedOperator(o, m::multiply,
+                (t, n) -> new MulConstNode(t, n, m));
+    }
+
+    private static Instruction divide(ImmediateOperator o) {
+        var value = o.getValue();
+        if (!ConstantDivisor.isReducible(value)) {
+            return o;
+        }
+        var d = new ConstantDivisor(value);
+        return new ReducedOperator(o, d::divide,
+                (t, n) -> new DivConstNode(n, d));
+    }
+
+    private static Instruction remainder(ImmediateOperator o) {
+        var value = o.getValue();
+        if (!ConstantDivisor.isReducible(value)) {
+            return o;
+        }
+        var d = new ConstantDivisor(value);
+        return new ReducedOperator(o, d::remainder,
+                (t, n) -> new ModConstNode(n, d));
+    }
+
+    private static Instruction unsignedDivide(ImmediateOperator o) {
+        var value = o.getValue();
+        if (Integer.bitCount(value) != 1) {
+            return o;
+        }
+        var s = Integer.numberOfTrailingZeros(value);
+        IntUnaryOperation shift = n -> n >>> s;
+        return new ReducedOperator(o, shift,
+                (t, n) -> new UnaryNode(t, shift, n));
+    }
+
+    private static Instruction unsignedRemainder(ImmediateOperator o) {
+        var value = o.getValue();
+        if (Integer.bitCount(value) != 1) {
+            return o;
+        }
+        var mask = value - 1;
+        IntUnaryOperation and = n -> n & mask;
+        return new ReducedOperator(o, and,
+                (t, n) -> new UnaryNode(t, and, n));
+    }
+
+    @FunctionalInterface
+    private interface Reducer {
+        Instruction apply(ImmediateOperator o);
+    }
+}
@@ -0,0 +1,89 @@
+package com.maroontress.intexpr.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+    This class provides the peephole optimizer that replaces the common
+    sequences of instructions with the superinstructions, which reduces the
+    number of instructions that the {@link Interpreter} dispatches.
+
+    <p>The sequences to replace are as follows:</p>
+
+    <ul>
+    <li>{@code CONST k} followed by a binary operator, such as {@code ADD},
+    is replaced with the {@link ImmediateOperator}, such as
+    {@code ADDI k}.</li>
+    <li>{@code LOAD x} followed by {@code LOAD y} is replaced with the
+    {@link VariablePair} ({@code LOAD2 x y}).</li>
+    </ul>
+
+    <p>The superinstructions build the same syntax tree as the instructions
+    that they replace.</p>
+*/
+public final class Superinstructions {
+
+    private static final Map<Opcode, Opcode> IMMEDIATE_MAP
+            = newImmediateMap();
+
+    /** Prevents the class from being instantiated. */
+    private Superinstructions() {
+        throw new AssertionError();
+    }
+
+    private static Map<Opcode, Opcode> newImmediateMap() {
+        var map = new EnumMap<Opcode, Opcode>(Opcode.class);
+        for (var o : Opcode.values()) {
+            var base = o.getBase();
+            if (base != o && base != Opcode.LOAD) {
+                map.put(base, o);
+            }
+        }
+        return Collections.unmodifiableMap(map);
+    }
+
+    /**
+        Returns a new list of the instructions where the common sequences are
+        replaced with the superinstructions.
+
+        @param all The instructions in Reverse Polish notation.
+        @return The new list of the instructions.
+    */
+    public static List<Instruction> fuse(List<Instruction> all) {
+        var list = new ArrayList<Instruction>(all.size());
+        var n = all.size();
+        var k = 0;
+        while (k < n) {
+            var i = all.get(k);
+            var next = (k + 1 < n) ? all.get(k + 1) : null;
+            var fused = fuse(i, next);
+            if (fused == null) {
+                list.add(i);
+                ++k;
+            } else {
+                list.add(fused);
+                k += 2;
+            }
+        }
+        return list;
+    }
+
+    private static Instruction fuse(Instruction i, Instruction next) {
+        if (i instanceof Constant && next instanceof Operator) {
+            var operator = (Operator) next;
+            var opcode = IMMEDIATE_MAP.get(operator.getSpec().getOpcode());
+            if (opcode == null) {
+                return null;
+            }
+            var value = ((Constant) i).getValue();
+            return new ImmediateOperator(opcode, operator, value);
+        }
+        if (i instanceof Variable && next instanceof Variable) {
+            return new VariablePair((Variable) i, (Variable) next);
+        }
+        return null;
+    }
+}
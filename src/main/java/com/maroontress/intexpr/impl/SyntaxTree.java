@@ -28,6 +28,15 @@ public final class SyntaxTree {
         return stack.pop();
     }
 
+    /**
+        Returns the root node of this tree.
+
+        @return The root node.
+    */
+    public SyntaxNode getRoot() {
+        return root;
+    }
+
     /** {@inheritDoc} */
     @Override
     public String toString() {
@@ -0,0 +1,125 @@
+package com.maroontress.intexpr.impl;
+
+/**
+    This class provides the evaluator that looks up the value of a
+    {@link Program} in the table, which contains the values for all the
+    combinations of the values of the variables.
+
+    <p>The table is materialized only if every variable has the declared
+    range and the number of the combinations does not exceed the limit.
+    The index of the table is that of the mixed-radix number whose digits
+    are the offsets of the values from the minimums of their ranges, with
+    the first variable as the most significant digit.</p>
+
+    <p>The combination with which the program throws the exception is
+    marked in the bitmap instead of the table. The evaluator evaluates such
+    a combination with the original evaluator again, so that it throws the
+    same exception with the same message. Like {@link RangeAnalysis}, this
+    assumes that the operators and functions registered with
+    {@link com.maroontress.intexpr.OperatorRegistry} are pure.</p>
+
+    <p>The {@link TableEvaluator} object is immutable.</p>
+*/
+public final class TableEvaluator implements Evaluator {
+
+    private final Evaluator origin;
+    private final int[] mins;
+    private final int[] sizes;
+    private final int[] table;
+    private final long[] errors;
+
+    private TableEvaluator(Evaluator origin, int[] mins, int[] sizes,
+                           int length) {
+        this.origin = origin;
+        this.mins = mins;
+        this.sizes = sizes;
+        this.table = new int[length];
+        this.errors = new long[(length + Long.SIZE - 1) / Long.SIZE];
+    }
+
+    /**
+        Returns the evaluator that looks up the table materialized with the
+        specified evaluator, or the specified evaluator itself if the
+        program cannot be materialized within the limit.
+
+        @param program The program.
+        @param evaluator The evaluator of the program.
+        @param limit The maximum number of the entries of the table, or 0
+            not to materialize any table.
+        @return The evaluator.
+    */
+    public static Evaluator of(Program program, Evaluator evaluator,
+                               int limit) {
+        var ranges = program.getRanges();
+        var n = ranges.size();
+        if (n == 0 || !program.isBounded()) {
+            return evaluator;
+        }
+        var mins = new int[n];
+        var sizes = new int[n];
+        var length = 1L;
+        for (var k = 0; k < n; ++k) {
+            var range = ranges.get(k);
+            var size = range.getMax() - range.getMin() + 1;
+            length *= size;
+            if (length > limit) {
+                return evaluator;
+            }
+            mins[k] = (int) range.getMin();
+            sizes[k] = (int) size;
+        }
+        var e = new TableEvaluator(evaluator, mins, sizes, (int) length);
+        e.materialize();
+        return e;
+    }
+
+    private void materialize() {
+        var n = mins.length;
+        var values = mins.clone();
+        var length = table.length;
+        for (var index = 0; index < length; ++index) {
+            try {
+                table[index] = origin.evaluate(values);
+            } catch (RuntimeException e) {
+                // The evaluation throws the same exception at runtime.
+                errors[index / Long.SIZE] |= 1L << index;
+            }
+            for (var k = n - 1; k >= 0; --k) {
+                if (values[k] - mins[k] < sizes[k] - 1) {
+                    ++values[k];
+                    break;
+                }
+                values[k] = mins[k];
+            }
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int evaluate(int[] values) {
+        var index = indexOf(values);
+        if ((errors[index / Long.SIZE] & (1L << index)) != 0) {
+            return origin.evaluate(values);
+        }
+        return table[index];
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int evaluate(int[] values, int[] stack) {
+        var index = indexOf(values);
+        if ((errors[index / Long.SIZE] & (1L << index)) != 0) {
+            return origin.evaluate(values, stack);
+        }
+        return table[index];
+    }
+
+    private int indexOf(int[] values) {
+        var n = values.length;
+        var index = 0;
+        for (var k = 0; k < n; ++k) {
+            index = index * sizes[k] + (values[k] - mins[k]);
+        }
+        return index;
+    }
+}
@@ -0,0 +1,284 @@
+package com.maroontress.intexpr.impl;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Collections;
+import com.maroontress.clione.LexicalParser;
+import com.maroontress.clione.TokenType;
+
+import static com.maroontress.intexpr.impl.OperatorType.BINARY;
+import static com.maroontress.intexpr.impl.OperatorType.UNARY;
+
+/**
+    This class provides the validator that checks whether the
+    {@link Compiler} can compile the expression, without creating any
+    instructions.
+
+    <p>The validator runs the same state machine as the {@link Compiler},
+    and simulates the depth of the stack that the compiled instructions would
+    need, so that it accepts only the expressions that the {@link Compiler}
+    and {@link Program} accept. It tells only whether it accepts the
+    expression. To get the error of the expression that it rejects, compile
+    the expression with the {@link Compiler}.</p>
+
+    <p>The validator creates no objects other than those that the lexical
+    parser creates. The pending operators, left parentheses, and the
+    markers of the function calls and conditional operators are packed
+    into a {@code long} value, and the numbers of the arguments that the
+    pending calls still expect are packed into another, so the validator
+    also rejects the valid expression where they are nested too deeply to
+    pack. The
+    {@link Compiler} can still compile such an expression.</p>
+*/
+public final class Validator {
+
+    private static final int BITS = 5;
+    private static final int CAPACITY = Long.SIZE / BITS;
+    private static final long MASK = (1L << BITS) - 1;
+    private static final int LEFT_PAREN = (int) MASK;
+    private static final int CALL = LEFT_PAREN - 1;
+    private static final int QUESTION = CALL - 1;
+    private static final int COLON = QUESTION - 1;
+    private static final int MIN_MARKER = COLON;
+    private static final int ARGS_BITS = 8;
+    private static final int CALL_CAPACITY = Long.SIZE / ARGS_BITS;
+    private static final long ARGS_MASK = (1L << ARGS_BITS) - 1;
+
+    /** Prevents the class from being instantiated. */
+    private Validator() {
+        throw new AssertionError();
+    }
+
+    /**
+        Returns whether the validator accepts the expression that the
+        specified reader provides.
+
+        @param reader The reader that provides the expression.
+        @return {@code true} if the {@link Compiler} can compile the
+            expression. {@code false} if the {@link Compiler} cannot compile
+            it, or if it is nested too deeply to validate.
+        @throws IOException If an I/O error occurs with the {@code reader}.
+    */
+    public static boolean accepts(Reader reader) throws IOException {
+        try (var parser = LexicalParser.of(reader, Collections.emptySet())) {
+            return accepts(parser);
+        }
+    }
+
+    private static boolean accepts(LexicalParser parser) throws IOException {
+        var expectsOperand = true;
+        var depth = 0;
+        var stack = 0L;
+        var size = 0;
+        var calls = 0L;
+        var callDepth = 0;
+        var callee = 0;
+        for (;;) {
+            var maybeToken = parser.next();
+            if (maybeToken.isEmpty()) {
+                break;
+            }
+            var token = maybeToken.get();
+            var type = token.getType();
+            if (type == TokenType.DELIMITER || type == TokenType.COMMENT) {
+                continue;
+            }
+            var value = token.getValue();
+            var arity = callee;
+            callee = 0;
+            if (type == TokenType.NUMBER || type == TokenType.IDENTIFIER) {
+                if (!expectsOperand
+                        || (type == TokenType.NUMBER && !isInt(value))) {
+                    return false;
+                }
+                if (type == TokenType.IDENTIFIER) {
+                    // The name of the function is a variable unless the left
+                    // parenthesis follows it.
+                    var function = OperatorTable.DEFAULT.lookupFunction(value);
+                    callee = (function == null) ? 0 : function.getArity();
+                }
+                ++depth;
+                expectsOperand = false;
+                continue;
+            }
+            if (value.equals(",")) {
+                type = TokenType.PUNCTUATOR;
+            }
+            int entry;
+            if (type == TokenType.PUNCTUATOR && arity > 0
+                    && value.equals("(")) {
+                if (callDepth == CALL_CAPACITY || arity - 1 > ARGS_MASK) {
+                    return false;
+                }
+                // The variable is the function.
+                --depth;
+                calls = (calls << ARGS_BITS) | (arity - 1);
+                ++callDepth;
+                entry = CALL;
+            } else if (type == TokenType.PUNCTUATOR && expectsOperand) {
+                if (!value.equals("(")) {
+                    return false;
+                }
+                entry = LEFT_PAREN;
+            } else if (type == TokenType.PUNCTUATOR) {
+                while (size > 0) {
+                    var e = peek(stack, size - 1);
+                    if (isMarker(e) && e != COLON) {
+                        break;
+                    }
+                    --size;
+                    stack &= ~(MASK << (BITS * size));
+                    depth = emit(depth, e);
+                    if (depth < 0) {
+                        return false;
+                    }
+                }
+                var e = (size == 0) ? 0 : peek(stack, size - 1);
+                if (value.equals(":")) {
+                    if (e != QUESTION) {
+                        return false;
+                    }
+                    // Replaces the marker of ? with that of :.
+                    stack ^= (long) (QUESTION ^ COLON) << (BITS * (size - 1));
+                    expectsOperand = true;
+                    continue;
+                }
+                if (value.equals(",")) {
+                    if (e != CALL || (calls & ARGS_MASK) == 0) {
+                        return false;
+                    }
+                    // The argument is complete, so the call consumes it.
+                    --calls;
+                    --depth;
+                    expectsOperand = true;
+                    continue;
+                }
+                if (!value.equals(")")) {
+                    return false;
+                }
+                if (e == CALL) {
+                    if ((calls & ARGS_MASK) != 0) {
+                        return false;
+                    }
+                    calls >>>= ARGS_BITS;
+                    --callDepth;
+                } else if (e != LEFT_PAREN) {
+                    return false;
+                }
+                --size;
+                stack &= ~(MASK << (BITS * size));
+                continue;
+            } else if (type == TokenType.OPERATOR && !expectsOperand
+                    && value.equals("?")) {
+                // All the operators have higher precedence than ?, but the
+                // pending conditional operators remain.
+                while (size > 0) {
+                    var e = peek(stack, size - 1);
+                    if (isMarker(e)) {
+                        break;
+                    }
+                    --size;
+                    stack &= ~(MASK << (BITS * size));
+                    depth = emit(depth, e);
+                    if (depth < 0) {
+                        return false;
+                    }
+                }
+                entry = QUESTION;
+            } else if (type == TokenType.OPERATOR) {
+                var spec = OperatorSpec.lookup(value,
+                        expectsOperand ? UNARY : BINARY);
+                if (spec == null) {
+                    return false;
+                }
+                entry = toEntry(spec);
+                var precedence = spec.getPrecedence();
+                while (size > 0) {
+                    var e = peek(stack, size - 1);
+                    if (isMarker(e) || toPrecedence(e) > precedence) {
+                        break;
+                    }
+                    --size;
+                    stack &= ~(MASK << (BITS * size));
+                    depth = emit(depth, e);
+                    if (depth < 0) {
+                        return false;
+                    }
+                }
+            } else {
+                return false;
+            }
+            if (size == CAPACITY || entry < 0) {
+                return false;
+            }
+            stack |= (long) entry << (BITS * size);
+            ++size;
+            expectsOperand = true;
+        }
+        while (size > 0) {
+            --size;
+            var e = peek(stack, size);
+            if (isMarker(e) && e != COLON) {
+                return false;
+            }
+            depth = emit(depth, e);
+            if (depth < 0) {
+                return false;
+            }
+        }
+        return depth > 0;
+    }
+
+    private static boolean isInt(String value) {
+        try {
+            Integer.parseInt(value);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static int peek(long stack, int index) {
+        return (int) ((stack >>> (BITS * index)) & MASK);
+    }
+
+    /**
+        Returns the entry of the stack representing the specified operator.
+
+        <p>The entry consists of the precedence and arity of the operator.</p>
+
+        @param spec The operator.
+        @return The entry, or -1 if the entry cannot represent the operator.
+    */
+    private static int toEntry(OperatorSpec spec) {
+        var entry = 1 + spec.getPrecedence() * 2
+                + (spec.getArity() - 1);
+        return (entry < MIN_MARKER) ? entry : -1;
+    }
+
+    private static boolean isMarker(int entry) {
+        return entry >= MIN_MARKER;
+    }
+
+    private static int toPrecedence(int entry) {
+        return (entry - 1) >> 1;
+    }
+
+    private static int toArity(int entry) {
+        return ((entry - 1) & 1) + 1;
+    }
+
+    /**
+        Returns the depth of the stack after the operator of the specified
+        entry runs with the stack of the specified depth.
+
+        @param depth The depth of the stack.
+        @param entry The entry representing the operator, or the marker of
+            {@code :} representing the conditional operator.
+        @return The new depth, or -1 if the operator lacks its operand(s).
+    */
+    private static int emit(int depth, int entry) {
+        var arity = (entry == COLON) ? 3 : toArity(entry);
+        return (depth < arity) ? -1 : depth - arity + 1;
+    }
+}
@@ -0,0 +1,122 @@
+package com.maroontress.intexpr.impl;
+
+import java.util.Deque;
+import com.maroontress.clione.Token;
+import com.maroontress.intexpr.evaltree.EvalNode;
+import com.maroontress.intexpr.evaltree.SlotNode;
+import com.maroontress.intexpr.syntaxtree.SyntaxNode;
+import com.maroontress.intexpr.syntaxtree.VariableNode;
+
+/**
+    This class provides the instruction that places the value of a variable
+    (as an operand) to a stack.
+
+    <p>The value of the variable is stored in the slot of the stack, which is
+    located below the bottom of the operands. The {@link Interpreter} places
+    the values of all the variables there before running the
+    instructions.</p>
+*/
+public final class Variable implements Instruction {
+
+    private final String name;
+    private final int slot;
+
+    /**
+        Creates a new instance.
+
+        @param token The token representing an identifier.
+        @param slot The index of the slot that stores the value.
+    */
+    public Variable(Token token, int slot) {
+        this(token.getValue(), slot);
+    }
+
+    private Variable(String name, int slot) {
+        this.name = name;
+        this.slot = slot;
+    }
+
+    /**
+        Returns the variable of the same name in the specified slot.
+
+        @param newSlot The index of the slot.
+        @return The variable.
+    */
+    public Variable withSlot(int newSlot) {
+        return (newSlot == slot) ? this : new Variable(name, newSlot);
+    }
+
+    /**
+        Returns the name of the variable.
+
+        @return The name.
+    */
+    public String getName() {
+        return name;
+    }
+
+    /**
+        Returns the index of the slot that stores the value.
+
+        @return The index of the slot.
+    */
+    public int getSlot() {
+        return slot;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void accept(Deque<SyntaxNode> stack) {
+        stack.push(new VariableNode(name));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void build(Deque<EvalNode> stack) {
+        stack.push(new SlotNode(slot));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int apply(int[] stack, int offset) {
+        stack[offset] = stack[slot];
+        return offset + 1;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int verify(int depth) {
+        return depth + 1;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Instruction analyze(RangeAnalysis analysis) {
+        analysis.pushVariable(slot);
+        return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof Variable)) {
+            return false;
+        }
+        var that = (Variable) obj;
+        return slot == that.slot && name.equals(that.name);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int hashCode() {
+        return name.hashCode() * 31 + slot;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return "Variable[opcode=LOAD" + ", "
+                + "name=" + name + ", "
+                + "slot=" + slot + "]";
+    }
+}
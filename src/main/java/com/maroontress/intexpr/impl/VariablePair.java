@@ -0,0 +1,106 @@
+package com.maroontress.intexpr.impl;
+
+import java.util.Deque;
+import com.maroontress.intexpr.evaltree.EvalNode;
+import com.maroontress.intexpr.evaltree.SlotNode;
+import com.maroontress.intexpr.syntaxtree.SyntaxNode;
+import com.maroontress.intexpr.syntaxtree.VariableNode;
+
+/**
+    The superinstruction that fuses two consecutive {@link Variable}s, which
+    places the values of both variables to a stack.
+*/
+public final class VariablePair implements Instruction {
+
+    private final Variable first;
+    private final Variable second;
+
+    /**
+        Creates a new instance.
+
+        @param first The variable to place first.
+        @param second The variable to place second.
+    */
+    public VariablePair(Variable first, Variable second) {
+        this.first = first;
+        this.second = second;
+    }
+
+    /**
+        Returns the variable to place first.
+
+        @return The first variable.
+    */
+    public Variable getFirst() {
+        return first;
+    }
+
+    /**
+        Returns the variable to place second.
+
+        @return The second variable.
+    */
+    public Variable getSecond() {
+        return second;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void accept(Deque<SyntaxNode> stack) {
+        stack.push(new VariableNode(first.getName()));
+        stack.push(new VariableNode(second.getName()));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void build(Deque<EvalNode> stack) {
+        stack.push(new SlotNode(first.getSlot()));
+        stack.push(new SlotNode(second.getSlot()));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int apply(int[] stack, int offset) {
+        stack[offset] = stack[first.getSlot()];
+        stack[offset + 1] = stack[second.getSlot()];
+        return offset + 2;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int verify(int depth) {
+        return depth + 2;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Instruction analyze(RangeAnalysis analysis) {
+        first.analyze(analysis);
+        second.analyze(analysis);
+        return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof VariablePair)) {
+            return false;
+        }
+        var that = (VariablePair) obj;
+        return first.equals(that.first) && second.equals(that.second);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int hashCode() {
+        return first.hashCode() * 31 + second.hashCode();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return "VariablePair[opcode=LOAD2, "
+                + "first=" + first + ", "
+                + "second=" + second + "]";
+    }
+}
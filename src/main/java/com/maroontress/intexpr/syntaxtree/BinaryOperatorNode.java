@@ -1,28 +1,74 @@
 package com.maroontress.intexpr.syntaxtree;
 
+import java.util.Objects;
 import com.maroontress.intexpr.impl.Opcode;
+import com.maroontress.intexpr.impl.OperatorSpec;
 
 /**
     The syntax node representing a binary operator.
 */
 public final class BinaryOperatorNode implements SyntaxNode {
 
-    private final Opcode opcode;
+    private final OperatorSpec spec;
     private final SyntaxNode leftOperand;
     private final SyntaxNode rightOperand;
+    private final int hash;
 
     /**
         Creates a new instance.
 
-        @param opcode The opcode.
+        @param spec The operator.
         @param leftOperand The left operand.
         @param rightOperand The right operand.
     */
-    public BinaryOperatorNode(Opcode opcode, SyntaxNode leftOperand,
+    public BinaryOperatorNode(OperatorSpec spec, SyntaxNode leftOperand,
                               SyntaxNode rightOperand) {
-        this.opcode = opcode;
+        this.spec = spec;
         this.leftOperand = leftOperand;
         this.rightOperand = rightOperand;
+        hash = Objects.hash(spec, leftOperand, rightOperand);
+    }
+
+    /**
+        Returns the operator.
+
+        @return The operator.
+    */
+    public OperatorSpec getSpec() {
+        return spec;
+    }
+
+    /**
+        Returns the opcode.
+
+        @return The opcode.
+    */
+    public Opcode getOpcode() {
+        return spec.getOpcode();
+    }
+
+    /**
+        Returns the left operand.
+
+        @return The left operand.
+    */
+    public SyntaxNode getLeftOperand() {
+        return leftOperand;
+    }
+
+    /**
+        Returns the right operand.
+
+        @return The right operand.
+    */
+    public SyntaxNode getRightOperand() {
+        return rightOperand;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <T> T accept(SyntaxNodeVisitor<T> visitor) {
+        return visitor.visit(this);
     }
 
     // CSOFF: AvoidEscapedUnicodeCharacters
@@ -34,9 +80,31 @@ public final class BinaryOperatorNode implements SyntaxNode {
         var vertical = indent + " \u2502 ";
         var upRight = indent + " \u2514 ";
         var blank = indent + "   ";
-        return firstIndent + opcode + lf
+        return firstIndent + spec.getLabel() + lf
                 + leftOperand.toString(verticalRight, vertical) + lf
                 + rightOperand.toString(upRight, blank);
     }
     // CSON: AvoidEscapedUnicodeCharacters
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof BinaryOperatorNode)) {
+            return false;
+        }
+        var that = (BinaryOperatorNode) obj;
+        return hash == that.hash
+                && spec == that.spec
+                && leftOperand.equals(that.leftOperand)
+                && rightOperand.equals(that.rightOperand);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int hashCode() {
+        return hash;
+    }
 }
@@ -0,0 +1,97 @@
+package com.maroontress.intexpr.syntaxtree;
+
+import java.util.List;
+import java.util.Objects;
+import com.maroontress.intexpr.impl.OperatorSpec;
+
+/**
+    The syntax node representing a function that takes three or more
+    operands.
+
+    <p>The functions that take one or two operands are represented with
+    {@link UnaryOperatorNode} and {@link BinaryOperatorNode}.</p>
+*/
+public final class CallNode implements SyntaxNode {
+
+    private final OperatorSpec spec;
+    private final List<SyntaxNode> operands;
+    private final int hash;
+
+    /**
+        Creates a new instance.
+
+        @param spec The function.
+        @param operands The operands.
+    */
+    public CallNode(OperatorSpec spec, List<SyntaxNode> operands) {
+        this.spec = spec;
+        this.operands = List.copyOf(operands);
+        hash = Objects.hash(spec, this.operands);
+    }
+
+    /**
+        Returns the function.
+
+        @return The function.
+    */
+    public OperatorSpec getSpec() {
+        return spec;
+    }
+
+    /**
+        Returns the operands.
+
+        @return The unmodifiable list of the operands.
+    */
+    public List<SyntaxNode> getOperands() {
+        return operands;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <T> T accept(SyntaxNodeVisitor<T> visitor) {
+        return visitor.visit(this);
+    }
+
+    // CSOFF: AvoidEscapedUnicodeCharacters
+    /** {@inheritDoc} */
+    @Override
+    public String toString(String firstIndent, String indent) {
+        var lf = System.lineSeparator();
+        var verticalRight = indent + " \u251c ";
+        var vertical = indent + " \u2502 ";
+        var upRight = indent + " \u2514 ";
+        var blank = indent + "   ";
+        var b = new StringBuilder(firstIndent + spec.getLabel());
+        var last = operands.size() - 1;
+        for (var k = 0; k < last; ++k) {
+            b.append(lf)
+                .append(operands.get(k).toString(verticalRight, vertical));
+        }
+        b.append(lf)
+            .append(operands.get(last).toString(upRight, blank));
+        return b.toString();
+    }
+    // CSON: AvoidEscapedUnicodeCharacters
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof CallNode)) {
+            return false;
+        }
+        var that = (CallNode) obj;
+        return hash == that.hash
+                && spec == that.spec
+                && operands.equals(that.operands);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
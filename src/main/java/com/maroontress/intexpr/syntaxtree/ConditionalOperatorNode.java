@@ -0,0 +1,101 @@
+package com.maroontress.intexpr.syntaxtree;
+
+import java.util.Objects;
+import com.maroontress.intexpr.impl.Opcode;
+
+/**
+    The syntax node representing the conditional operator.
+*/
+public final class ConditionalOperatorNode implements SyntaxNode {
+
+    private final SyntaxNode condition;
+    private final SyntaxNode then;
+    private final SyntaxNode otherwise;
+    private final int hash;
+
+    /**
+        Creates a new instance.
+
+        @param condition The condition.
+        @param then The operand evaluated if the condition is non-zero.
+        @param otherwise The operand evaluated if the condition is zero.
+    */
+    public ConditionalOperatorNode(SyntaxNode condition, SyntaxNode then,
+                                   SyntaxNode otherwise) {
+        this.condition = condition;
+        this.then = then;
+        this.otherwise = otherwise;
+        hash = Objects.hash(Opcode.COND, condition, then, otherwise);
+    }
+
+    /**
+        Returns the condition.
+
+        @return The condition.
+    */
+    public SyntaxNode getCondition() {
+        return condition;
+    }
+
+    /**
+        Returns the operand evaluated if the condition is non-zero.
+
+        @return The operand.
+    */
+    public SyntaxNode getThen() {
+        return then;
+    }
+
+    /**
+        Returns the operand evaluated if the condition is zero.
+
+        @return The operand.
+    */
+    public SyntaxNode getOtherwise() {
+        return otherwise;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <T> T accept(SyntaxNodeVisitor<T> visitor) {
+        return visitor.visit(this);
+    }
+
+    // CSOFF: AvoidEscapedUnicodeCharacters
+    /** {@inheritDoc} */
+    @Override
+    public String toString(String firstIndent, String indent) {
+        var lf = System.lineSeparator();
+        var verticalRight = indent + " \u251c ";
+        var vertical = indent + " \u2502 ";
+        var upRight = indent + " \u2514 ";
+        var blank = indent + "   ";
+        return firstIndent + Opcode.COND + lf
+                + condition.toString(verticalRight, vertical) + lf
+                + then.toString(verticalRight, vertical) + lf
+                + otherwise.toString(upRight, blank);
+    }
+    // CSON: AvoidEscapedUnicodeCharacters
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof ConditionalOperatorNode)) {
+            return false;
+        }
+        var that = (ConditionalOperatorNode) obj;
+        return hash == that.hash
+                && condition.equals(that.condition)
+                && then.equals(that.then)
+                && otherwise.equals(that.otherwise);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
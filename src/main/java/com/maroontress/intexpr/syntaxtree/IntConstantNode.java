@@ -18,9 +18,40 @@ public final class IntConstantNode implements SyntaxNode {
         this.value = value;
     }
 
+    /**
+        Returns the immediate value.
+
+        @return The immediate value.
+    */
+    public int getValue() {
+        return value;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <T> T accept(SyntaxNodeVisitor<T> visitor) {
+        return visitor.visit(this);
+    }
+
     /** {@inheritDoc} */
     @Override
     public String toString(String firstIndent, String indent) {
         return firstIndent + Opcode.CONST + " " + value;
     }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof IntConstantNode)) {
+            return false;
+        }
+        var that = (IntConstantNode) obj;
+        return value == that.value;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int hashCode() {
+        return Integer.hashCode(value);
+    }
 }
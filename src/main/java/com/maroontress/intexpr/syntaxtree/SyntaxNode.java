@@ -4,9 +4,22 @@ import com.maroontress.intexpr.impl.SyntaxTree;
 
 /**
     The node of {@link SyntaxTree}.
+
+    <p>The {@link SyntaxNode} object is immutable. Two {@link SyntaxNode}
+    objects are equal if they represent the same structure, so that the
+    {@link SyntaxNodeTable} can share the identical subtrees.</p>
 */
 public interface SyntaxNode {
 
+    /**
+        Accepts the specified visitor and returns the result of the visit.
+
+        @param <T> The type of the result.
+        @param visitor The visitor.
+        @return The result of the visit.
+    */
+    <T> T accept(SyntaxNodeVisitor<T> visitor);
+
     /**
         Returns the string visualizing the syntax tree.
 
@@ -0,0 +1,101 @@
+package com.maroontress.intexpr.syntaxtree;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+    The interning table of {@link SyntaxNode} objects, which makes the
+    identical subtrees share the same {@link SyntaxNode} object.
+
+    <p>Interning the syntax trees of multiple expressions with the same table
+    turns them into a single directed acyclic graph, so the memory that the
+    graph occupies is proportional to the number of the distinct subtrees
+    rather than the total length of the expressions. Two interned nodes are
+    equal if and only if they are the same object.</p>
+
+    <p>The table is thread-safe.</p>
+*/
+public final class SyntaxNodeTable {
+
+    private final Map<SyntaxNode, SyntaxNode> map = new ConcurrentHashMap<>();
+    private final SyntaxNodeVisitor<SyntaxNode> interner = newInterner();
+
+    /**
+        Creates a new instance.
+    */
+    public SyntaxNodeTable() {
+    }
+
+    /**
+        Returns the canonical node that is equal to the specified node.
+
+        <p>The operands of the canonical node are also canonical.</p>
+
+        @param node The node to intern.
+        @return The canonical node.
+    */
+    public SyntaxNode intern(SyntaxNode node) {
+        return node.accept(interner);
+    }
+
+    /**
+        Returns the number of the distinct nodes that this table contains.
+
+        @return The number of the nodes.
+    */
+    public int size() {
+        return map.size();
+    }
+
+    private SyntaxNode lookup(SyntaxNode node) {
+        var canonical = map.putIfAbsent(node, node);
+        return (canonical == null) ? node : canonical;
+    }
+
+    private SyntaxNodeVisitor<SyntaxNode> newInterner() {
+        return new SyntaxNodeVisitor<>() {
+            @Override
+            public SyntaxNode visit(IntConstantNode node) {
+                return lookup(node);
+            }
+
+            @Override
+            public SyntaxNode visit(VariableNode node) {
+                return lookup(node);
+            }
+
+            @Override
+            public SyntaxNode visit(UnaryOperatorNode node) {
+                var operand = node.getOperand().accept(this);
+                return lookup(new UnaryOperatorNode(node.getSpec(), operand));
+            }
+
+            @Override
+            public SyntaxNode visit(BinaryOperatorNode node) {
+                var left = node.getLeftOperand().accept(this);
+                var right = node.getRightOperand().accept(this);
+                return lookup(new BinaryOperatorNode(node.getSpec(), left,
+                        right));
+            }
+
+            @Override
+            public SyntaxNode visit(CallNode node) {
+                var operands = new ArrayList<SyntaxNode>();
+                for (var o : node.getOperands()) {
+                    operands.add(o.accept(this));
+                }
+                return lookup(new CallNode(node.getSpec(), operands));
+            }
+
+            @Override
+            public SyntaxNode visit(ConditionalOperatorNode node) {
+                var condition = node.getCondition().accept(this);
+                var then = node.getThen().accept(this);
+                var otherwise = node.getOtherwise().accept(this);
+                return lookup(new ConditionalOperatorNode(condition, then,
+                        otherwise));
+            }
+        };
+    }
+}
@@ -0,0 +1,58 @@
+package com.maroontress.intexpr.syntaxtree;
+
+/**
+    The visitor of {@link SyntaxNode} objects.
+
+    @param <T> The type of the result that each visit returns.
+*/
+public interface SyntaxNodeVisitor<T> {
+
+    /**
+        Visits the node representing an integer constant.
+
+        @param node The node.
+        @return The result.
+    */
+    T visit(IntConstantNode node);
+
+    /**
+        Visits the node representing a variable.
+
+        @param node The node.
+        @return The result.
+    */
+    T visit(VariableNode node);
+
+    /**
+        Visits the node representing a unary operator.
+
+        @param node The node.
+        @return The result.
+    */
+    T visit(UnaryOperatorNode node);
+
+    /**
+        Visits the node representing a binary operator.
+
+        @param node The node.
+        @return The result.
+    */
+    T visit(BinaryOperatorNode node);
+
+    /**
+        Visits the node representing a function that takes three or more
+        operands.
+
+        @param node The node.
+        @return The result.
+    */
+    T visit(CallNode node);
+
+    /**
+        Visits the node representing the conditional operator.
+
+        @param node The node.
+        @return The result.
+    */
+    T visit(ConditionalOperatorNode node);
+}
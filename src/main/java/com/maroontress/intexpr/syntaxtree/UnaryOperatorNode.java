@@ -1,24 +1,61 @@
 package com.maroontress.intexpr.syntaxtree;
 
+import java.util.Objects;
 import com.maroontress.intexpr.impl.Opcode;
+import com.maroontress.intexpr.impl.OperatorSpec;
 
 /**
     The syntax node representing a unary operator.
 */
 public final class UnaryOperatorNode implements SyntaxNode {
 
-    private final Opcode opcode;
+    private final OperatorSpec spec;
     private final SyntaxNode operand;
+    private final int hash;
 
     /**
         Creates a new instance.
 
-        @param opcode The opcode.
+        @param spec The operator.
         @param operand The operand.
     */
-    public UnaryOperatorNode(Opcode opcode, SyntaxNode operand) {
-        this.opcode = opcode;
+    public UnaryOperatorNode(OperatorSpec spec, SyntaxNode operand) {
+        this.spec = spec;
         this.operand = operand;
+        hash = Objects.hash(spec, operand);
+    }
+
+    /**
+        Returns the operator.
+
+        @return The operator.
+    */
+    public OperatorSpec getSpec() {
+        return spec;
+    }
+
+    /**
+        Returns the opcode.
+
+        @return The opcode.
+    */
+    public Opcode getOpcode() {
+        return spec.getOpcode();
+    }
+
+    /**
+        Returns the operand.
+
+        @return The operand.
+    */
+    public SyntaxNode getOperand() {
+        return operand;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <T> T accept(SyntaxNodeVisitor<T> visitor) {
+        return visitor.visit(this);
     }
 
     /** {@inheritDoc} */
@@ -28,8 +65,29 @@ public final class UnaryOperatorNode implements SyntaxNode {
         var lf = System.lineSeparator();
         var upRight = indent + " \u2514 ";
         var blank = indent + "   ";
-        return firstIndent + opcode + lf
+        return firstIndent + spec.getLabel() + lf
                 + operand.toString(upRight, blank);
         // CSON: AvoidEscapedUnicodeCharacters
     }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof UnaryOperatorNode)) {
+            return false;
+        }
+        var that = (UnaryOperatorNode) obj;
+        return hash == that.hash
+                && spec == that.spec
+                && operand.equals(that.operand);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int hashCode() {
+        return hash;
+    }
 }
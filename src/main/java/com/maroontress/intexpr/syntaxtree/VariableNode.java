@@ -0,0 +1,57 @@
+package com.maroontress.intexpr.syntaxtree;
+
+import com.maroontress.intexpr.impl.Opcode;
+
+/**
+    The syntax node representing an operand and a variable.
+*/
+public final class VariableNode implements SyntaxNode {
+
+    private final String name;
+
+    /**
+        Creates a new instance.
+
+        @param name The name of the variable.
+    */
+    public VariableNode(String name) {
+        this.name = name;
+    }
+
+    /**
+        Returns the name of the variable.
+
+        @return The name.
+    */
+    public String getName() {
+        return name;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public <T> T accept(SyntaxNodeVisitor<T> visitor) {
+        return visitor.visit(this);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString(String firstIndent, String indent) {
+        return firstIndent + Opcode.LOAD + " " + name;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean equals(Object obj) {
+        if (!(obj instanceof VariableNode)) {
+            return false;
+        }
+        var that = (VariableNode) obj;
+        return name.equals(that.name);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int hashCode() {
+        return name.hashCode();
+    }
+}
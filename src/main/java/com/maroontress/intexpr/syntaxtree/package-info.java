@@ -5,5 +5,8 @@
     <p>The
     {@link com.maroontress.intexpr.impl.Compiler#toRpn(java.io.Reader)}
     creates the instructions by compiling integer expressions.</p>
+
+    <p>The {@link com.maroontress.intexpr.syntaxtree.SyntaxNodeTable} shares
+    the identical subtrees among the syntax trees of multiple expressions.</p>
 */
 package com.maroontress.intexpr.syntaxtree;
@@ -0,0 +1,68 @@
+package com.example;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import com.maroontress.intexpr.IntExpr;
+import com.maroontress.intexpr.impl.Compiler;
+
+/**
+    Measures the time that the compiler takes to compile the expressions, and
+    the bytes that it allocates. It also measures them of
+    {@link IntExpr#validate(CharSequence)}.
+
+    <p>Run it with {@code java com.example.CompileBenchmark [count]}. It is not
+    a rigorous benchmark, but it is enough to compare the revisions of the
+    compiler. The allocated bytes are available only if the JVM supports
+    {@code com.sun.management.ThreadMXBean}.</p>
+*/
+public final class CompileBenchmark {
+
+    private static final String[] EXPRS = {
+        "(x & 255) + (y & 255) * 3 - z / 7",
+        "x > 10 && (y & 4) != 0 || z < -100",
+        "((x + 1) * (y - 2) + (z % 5)) / 3 + (x << 2) - (y >> 1)",
+        "((((1 + 2) * 3 - 4) / 5 + 6) * 7 - 8) % 9 + -(x) + ~(y) + !(z)",
+    };
+
+    private CompileBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        var count = (args.length > 0) ? Integer.parseInt(args[0]) : 200_000;
+        for (var k = 0; k < 3; ++k) {
+            run("compile", count, e -> Compiler.compile(new StringReader(e))
+                    .getStackSize());
+            run("validate", count, e -> IntExpr.validate(e).isEmpty() ? 1 : 0);
+        }
+    }
+
+    private static void run(String name, int count, Task task)
+            throws IOException {
+        var bean = ManagementFactory.getThreadMXBean();
+        var sun = (bean instanceof com.sun.management.ThreadMXBean)
+                ? (com.sun.management.ThreadMXBean) bean
+                : null;
+        var id = Thread.currentThread().getId();
+        var startBytes = (sun != null) ? sun.getThreadAllocatedBytes(id) : 0;
+        var sum = 0L;
+        var start = System.nanoTime();
+        for (var n = 0; n < count; ++n) {
+            for (var e : EXPRS) {
+                sum += task.run(e);
+            }
+        }
+        var time = System.nanoTime() - start;
+        var bytes = (sun != null)
+                ? sun.getThreadAllocatedBytes(id) - startBytes
+                : 0;
+        var total = (double) count * EXPRS.length;
+        System.out.printf("%-8s %8.1f ns/expr %8.1f bytes/expr "
+                + "(checksum %d)%n", name, time / total, bytes / total, sum);
+    }
+
+    @FunctionalInterface
+    private interface Task {
+        int run(String expr) throws IOException;
+    }
+}
@@ -0,0 +1,59 @@
+package com.example;
+
+import com.maroontress.intexpr.CompiledExpr;
+import com.maroontress.intexpr.Engine;
+import com.maroontress.intexpr.IntExpr;
+
+/**
+    Measures the time that each engine takes to evaluate the expressions.
+
+    <p>Run it with {@code java com.example.EngineBenchmark [count]}. It is not
+    a rigorous benchmark, but it is enough to compare the engines.</p>
+*/
+public final class EngineBenchmark {
+
+    private static final String[] EXPRS = {
+        "(x & 255) + (y & 255) * 3 - z / 7",
+        "x > 10 && (y & 4) != 0 || z < -100",
+        "((x + 1) * (y - 2) + (z % 5)) / 3 + (x << 2) - (y >> 1)",
+        "x * x + y * y + z * z - 2 * x * y + 3 * y * z - x * z",
+        "x * 8 + y / 16 + z % 1024 - x / 10 + y * 10",
+        "clamp(x - y, -100, 100) + max(z, 128) - abs(y - 256)",
+        "x > 512 ? (x - 512) * y : z > 128 ? z / 3 : y % 7",
+    };
+
+    private EngineBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        var count = (args.length > 0) ? Integer.parseInt(args[0]) : 2_000_000;
+        for (var e : Engine.values()) {
+            run(e, count);
+        }
+        for (var e : Engine.values()) {
+            run(e, count);
+        }
+    }
+
+    private static void run(Engine engine, int count) {
+        var exprs = new CompiledExpr[EXPRS.length];
+        for (var k = 0; k < exprs.length; ++k) {
+            exprs[k] = IntExpr.compile(EXPRS[k], engine);
+        }
+        var values = new int[3];
+        var sum = 0L;
+        var start = System.nanoTime();
+        for (var n = 0; n < count; ++n) {
+            values[0] = n & 1023;
+            values[1] = n & 511;
+            values[2] = (n & 255) + 1;
+            for (var e : exprs) {
+                sum += e.eval(values);
+            }
+        }
+        var time = System.nanoTime() - start;
+        var perEval = (double) time / count / exprs.length;
+        System.out.printf("%-8s %7.2f ns/eval (checksum %d)%n",
+                engine, perEval, sum);
+    }
+}
@@ -1,6 +1,26 @@
 package com.maroontress.intexpr;
 
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntSupplier;
+import java.util.stream.IntStream;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordingFile;
+import com.maroontress.intexpr.impl.RegisterMachine;
+import com.maroontress.intexpr.impl.Validator;
 import org.junit.jupiter.api.Test;
 
 import static org.hamcrest.MatcherAssert.assertThat;
@@ -9,6 +29,7 @@ import static org.hamcrest.Matchers.is;
 public final class IntExprTest {
 
     private static final String LF = System.lineSeparator();
+    private static final String PINNED = "jdk.VirtualThreadPinned";
 
     @Test
     public void expr1() {
@@ -350,4 +371,1270 @@ public final class IntExprTest {
         }
         throw new AssertionError();
     }
+
+    @Test
+    public void noExpression() {
+        try {
+            IntExpr.eval(" ");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("expression is missing"));
+            return;
+        }
+        throw new AssertionError();
+    }
+
+    @Test
+    public void compile() {
+        var expr = IntExpr.compile("(1+2*3<<4)%5");
+        assertThat(expr.eval(), is(2));
+        assertThat(expr.toTree(), is(IntExpr.toTree("(1+2*3<<4)%5")));
+    }
+
+    @Test
+    public void compileAll() {
+        var list = List.of("1 + 2", "(1", "1 + 2", "1 + 2 ", "3 * 4", "1+");
+        var result = IntExpr.compileAll(list);
+        assertThat(result.isSuccessful(), is(false));
+        var exprs = result.getCompiledExprs();
+        assertThat(List.copyOf(exprs.keySet()),
+                is(List.of("1 + 2", "1 + 2 ", "3 * 4")));
+        var e1 = result.get("1 + 2").orElseThrow();
+        var e2 = result.get("1 + 2 ").orElseThrow();
+        assertThat(e1 == e2, is(true));
+        assertThat(e1.eval(), is(3));
+        // The tokens at the different positions make the programs different.
+        var e3 = IntExpr.compileAll(List.of("1+2")).get("1+2").orElseThrow();
+        assertThat(e3.getProgram().equals(e1.getProgram()), is(false));
+        assertThat(result.get("3 * 4").orElseThrow().eval(), is(12));
+        assertThat(result.get("(1").isPresent(), is(false));
+        var errors = result.getErrors();
+        assertThat(errors.size(), is(2));
+        assertThat(errors.get(0).getSource(), is("(1"));
+        assertThat(errors.get(0).getMessage(),
+                is("L1:1: mismatched parenthesis: \"(\""));
+        assertThat(errors.get(1).getSource(), is("1+"));
+        assertThat(errors.get(1).getMessage(),
+                is("L1:2: operand is missing: \"+\""));
+    }
+
+    @Test
+    public void compileAllWithOptions() {
+        var registry = OperatorRegistry.builder()
+                .function("twice", x -> x * 2)
+                .build();
+        var options = CompileOptions.builder()
+                .operators(registry)
+                .overflow(OverflowPolicy.SATURATING)
+                .range("x", 0, 255)
+                .engine(Engine.REGISTER)
+                .build();
+        var list = List.of("twice(x) + 1", "x * 2147483647", "twice(");
+        var result = IntExpr.compileAll(list, options);
+        var e1 = result.get("twice(x) + 1").orElseThrow();
+        assertThat(e1.eval(100), is(201));
+        try {
+            e1.eval(256);
+            throw new AssertionError();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(),
+                    is("the value of x must be in [0, 255]: 256"));
+        }
+        var e2 = result.get("x * 2147483647").orElseThrow();
+        assertThat(e2.eval(2), is(Integer.MAX_VALUE));
+        assertThat(result.getErrors().size(), is(1));
+        assertThat(result.getErrors().get(0).getSource(), is("twice("));
+        var stream = IntExpr.compileAll(list.stream(), options);
+        assertThat(stream.get("x * 2147483647").orElseThrow().eval(2),
+                is(Integer.MAX_VALUE));
+        // Without the registry, twice is an unknown function.
+        assertThat(IntExpr.compileAll(list).get("twice(x) + 1").isPresent(),
+                is(false));
+    }
+
+    @Test
+    public void variables() {
+        var expr = IntExpr.compile("x * y + x");
+        assertThat(expr.getVariables(), is(List.of("x", "y")));
+        assertThat(expr.eval(3, 4), is(15));
+        assertThat(expr.eval(-2, 5), is(-12));
+        var s = expr.toTree();
+        var e = ""
+                + "ADD" + LF
+                + " ├ MUL" + LF
+                + " │  ├ LOAD x" + LF
+                + " │  └ LOAD y" + LF
+                + " └ LOAD x";
+        assertThat(s, is(e));
+    }
+
+    @Test
+    public void unboundVariables() {
+        try {
+            IntExpr.eval("x + 1");
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(),
+                    is("the number of values must be 1 for [x]: 0"));
+            return;
+        }
+        throw new AssertionError();
+    }
+
+    @Test
+    public void group() {
+        var a = IntExpr.compile("(x & 255) * 3 + y");
+        var b = IntExpr.compile("(x & 255) * 3 - z");
+        var c = IntExpr.compile("z / ((x & 255) * 3)");
+        var group = CompiledExprGroup.of(List.of(a, b, c));
+        assertThat(group.getVariables(), is(List.of("x", "y", "z")));
+        // x, 255, AND, 3, MUL, y, ADD, z, SUB, DIV
+        assertThat(group.getNodeCount(), is(10));
+        var v = group.eval(258, 4, 60);
+        assertThat(v, is(new int[] {10, -54, 10}));
+    }
+
+    @Test
+    public void groupDivByZero() {
+        var a = IntExpr.compile("y + 1");
+        var b = IntExpr.compile("y / x");
+        //                       12345
+        var group = CompiledExprGroup.of(List.of(a, b));
+        assertThat(group.getVariables(), is(List.of("y", "x")));
+        assertThat(group.eval(6, 2), is(new int[] {7, 3}));
+        try {
+            group.eval(6, 0);
+        } catch (ArithmeticException e) {
+            assertThat(e.getMessage(), is("L1:3: divided by zero: \"/\""));
+            return;
+        }
+        throw new AssertionError();
+    }
+
+    @Test
+    public void groupRanges() {
+        var options = CompileOptions.builder()
+                .range("x", 0, 255)
+                .build();
+        var a = IntExpr.compile("x * y", options);
+        var b = IntExpr.compile("y - x");
+        var group = CompiledExprGroup.of(List.of(b, a));
+        assertThat(group.getVariables(), is(List.of("y", "x")));
+        assertThat(group.eval(3, 255), is(new int[] {-252, 765}));
+        try {
+            group.eval(3, 256);
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(),
+                    is("the value of x must be in [0, 255]: 256"));
+            return;
+        }
+        throw new AssertionError();
+    }
+
+    @Test
+    public void reactive() {
+        var expr = IntExpr.compile("(a + b) * (c - d) + (a + b) / e");
+        //                          12345678901234567890123456789
+        var r = expr.toReactive(1, 2, 10, 4, 3);
+        assertThat(r.get(), is(19));
+        r.set("c", 20);
+        assertThat(r.get(), is(49));
+        r.set(0, 5).set(1, 7);
+        assertThat(r.get(), is(196));
+        r.set("e", 0);
+        try {
+            r.get();
+            throw new AssertionError();
+        } catch (ArithmeticException e) {
+            assertThat(e.getMessage(), is("L1:29: divided by zero: \"/\""));
+        }
+        r.set("e", 4);
+        assertThat(r.get(), is(195));
+        assertThat(r.get(), is(expr.eval(5, 7, 20, 4, 4)));
+    }
+
+    @Test
+    public void engines() {
+        var list = List.of(
+                "(1+2*3<<4)%5",
+                "7 / 3 + 5 * (2 / 3) + 7 % 3",
+                "-7 / 2 + -7 % 2 + +3 + ~4 + !0 + !5",
+                "1 < 2 && 3 >= 3 || 4 != 4 | 6 ^ 3 & 5",
+                "(-2147483647 - 1) / -1",
+                "(-2147483647 - 1) % -1",
+                "-(-2147483647 - 1)",
+                "1 % 0",
+                "1 / 0",
+                "2 * 2147483647",
+                "-2147483647 * -2",
+                "46341 * 46341",
+                "-46340 * 46341",
+                "2147483647 + 1",
+                "-1 + (-2147483647 - 1)",
+                "2147483647 - -1",
+                "0 - (-2147483647 - 1)",
+                "(-2147483647 - 1) - 1");
+        for (var s : list) {
+            var expected = evalToString(() -> IntExpr.eval(s));
+            for (var engine : Engine.values()) {
+                var expr = IntExpr.compile(s, engine);
+                assertThat(expr.getEngine(), is(engine));
+                assertThat(evalToString(expr::eval), is(expected));
+            }
+        }
+    }
+
+    @Test
+    public void registerMachine() {
+        var expr = IntExpr.compile("x * y + 3", Engine.REGISTER);
+        var e = ""
+            + "0: CMUL r2, r0, r1" + LF
+            + "1: CADD r2, r2, #3" + LF
+            + "RET r2";
+        var code = RegisterMachine.of(expr.getProgram()).toString();
+        assertThat(code.replace("\n", LF), is(e));
+        assertThat(expr.eval(4, 5), is(23));
+        var cond = IntExpr.compile("x > 0 ? 10 - x : y", Engine.REGISTER);
+        e = ""
+            + "0: GT r2, r0, #0" + LF
+            + "1: JZ r2, 5" + LF
+            + "2: MOVI r2, #10" + LF
+            + "3: CSUB r2, r2, r0" + LF
+            + "4: JMP 6" + LF
+            + "5: MOV r2, r1" + LF
+            + "RET r2";
+        code = RegisterMachine.of(cond.getProgram()).toString();
+        assertThat(code.replace("\n", LF), is(e));
+        assertThat(cond.eval(3, 9), is(7));
+        assertThat(cond.eval(0, 9), is(9));
+        assertThat(cond.eval(new EvalContext(), -1, 4), is(4));
+        var constant = IntExpr.compile("5", Engine.REGISTER);
+        assertThat(constant.eval(), is(5));
+        var clamp = IntExpr.compile("clamp(x, 0, y)", Engine.REGISTER);
+        e = ""
+            + "0: MOVI r3, #0" + LF
+            + "1: TERNARY r2, r0, r3, r1" + LF
+            + "RET r2";
+        code = RegisterMachine.of(clamp.getProgram()).toString();
+        assertThat(code.replace("\n", LF), is(e));
+        assertThat(clamp.eval(new EvalContext(), 300, 255), is(255));
+        assertThat(clamp.eval(-3, 255), is(0));
+    }
+
+    private static String evalToString(IntSupplier s) {
+        try {
+            return String.valueOf(s.getAsInt());
+        } catch (ArithmeticException e) {
+            return e.getMessage();
+        }
+    }
+
+    @Test
+    public void superinstructions() {
+        var expr = IntExpr.compile("x * y + 1 < 10 && (x & 1)", Engine.STACK);
+        // LOAD2 x y, MUL, ADDI 1, CMPLTI 10, LOAD x, ANDI 1, LAND
+        assertThat(expr.eval(2, 4), is(0));
+        assertThat(expr.eval(3, 2), is(1));
+        assertThat(expr.eval(3, 3), is(0));
+        var s = expr.toTree();
+        var e = ""
+                + "LAND" + LF
+                + " ├ LLT" + LF
+                + " │  ├ ADD" + LF
+                + " │  │  ├ MUL" + LF
+                + " │  │  │  ├ LOAD x" + LF
+                + " │  │  │  └ LOAD y" + LF
+                + " │  │  └ CONST 1" + LF
+                + " │  └ CONST 10" + LF
+                + " └ AND" + LF
+                + "    ├ LOAD x" + LF
+                + "    └ CONST 1";
+        assertThat(s, is(e));
+    }
+
+    @Test
+    public void ranges() {
+        var max = Integer.MAX_VALUE;
+        for (var engine : Engine.values()) {
+            var masked = IntExpr.compile("(x & 255) + (y & 255)", engine);
+            assertThat(masked.eval(max, max), is(510));
+            var options = CompileOptions.builder()
+                    .range("x", 0, 255)
+                    .range("y", -128, 127)
+                    .tableLimit(0)
+                    .engine(engine)
+                    .build();
+            var expr = IntExpr.compile("-(x * y + 1) / (x + 1)", options);
+            assertThat(expr.eval(255, -128), is(127));
+            assertThat(expr.eval(3, 5), is(-4));
+            try {
+                expr.eval(256, 0);
+            } catch (IllegalArgumentException e) {
+                assertThat(e.getMessage(),
+                        is("the value of x must be in [0, 255]: 256"));
+                continue;
+            }
+            throw new AssertionError();
+        }
+    }
+
+    @Test
+    public void rangesUnproved() {
+        var options = CompileOptions.builder()
+                .range("x", 0, 255)
+                .build();
+        var expr = IntExpr.compile("y / x + 1", options);
+        //                          123456789
+        assertThat(expr.eval(7, 2), is(4));
+        var m = evalToString(() -> expr.eval(7, 0));
+        assertThat(m, is("L1:3: divided by zero: \"/\""));
+        m = evalToString(() -> expr.eval(Integer.MAX_VALUE, 1));
+        assertThat(m, is("L1:7: overflow: \"+\""));
+    }
+
+    @Test
+    public void strengthReduction() {
+        var min = Integer.MIN_VALUE;
+        var max = Integer.MAX_VALUE;
+        int[] values = {0, 1, -1, 7, -7, 1023, -1025, min, min + 1, max};
+        for (var engine : Engine.values()) {
+            var div = IntExpr.compile("x / 16 + x / -8 + x / 7 + x / -10",
+                    engine);
+            var mod = IntExpr.compile("x % 1024 + x % -4 + x % 7 + x % -10",
+                    engine);
+            for (var x : values) {
+                assertThat(div.eval(x),
+                        is(x / 16 + x / -8 + x / 7 + x / -10));
+                assertThat(mod.eval(x),
+                        is(x % 1024 + x % -4 + x % 7 + x % -10));
+            }
+            var mul = IntExpr.compile("x * 8 - x * -10", engine);
+            //                          123456789
+            assertThat(mul.eval(1000), is(18000));
+            var m = evalToString(() -> mul.eval(1 << 28));
+            assertThat(m, is("L1:3: overflow: \"*\""));
+            m = evalToString(() -> mul.eval(min / 8));
+            assertThat(m, is("L1:11: overflow: \"*\""));
+        }
+    }
+
+    @Test
+    public void validate() {
+        assertThat(IntExpr.validate("(x + 1) * -y").isEmpty(), is(true));
+        var exprs = List.of("", "1 +", "(1 + 2", "1 + 2)", "1 2", "1 $ 2",
+                "- - 1", "2147483648", "1 + (2 * 3))");
+        for (var e : exprs) {
+            var d = IntExpr.validate(e).orElseThrow();
+            try {
+                IntExpr.compile(e);
+            } catch (IllegalArgumentException x) {
+                assertThat(d.getMessage(), is(x.getMessage()));
+                continue;
+            }
+            throw new AssertionError(e);
+        }
+        var d = IntExpr.validate("1 + (2 * 3))").orElseThrow();
+        //                        123456789012
+        assertThat(d.getSpan().orElseThrow(), is("L1:12"));
+        assertThat(d.getToken().orElseThrow(), is(")"));
+        assertThat(d.getDescription(), is("mismatched parenthesis"));
+        d = IntExpr.validate("").orElseThrow();
+        assertThat(d.getSpan().isEmpty(), is(true));
+        assertThat(d.getMessage(), is("expression is missing"));
+    }
+
+    @Test
+    public void validateCalls() throws IOException {
+        var valid = List.of("max(x, 1) + min(abs(-y), clamp(z, 0, 9))",
+                "max + min(max, 1)", "-abs(x) * 2", "select(x, y, z + 1)",
+                "max(min(1, max(2, 3)), (4 + abs(5)))");
+        for (var e : valid) {
+            assertThat(Validator.accepts(new StringReader(e)), is(true));
+            assertThat(IntExpr.validate(e).isEmpty(), is(true));
+        }
+        var invalid = List.of("max(1)", "max(1, 2, 3)", "max()", "max(1,)",
+                "max(, 1)", "(1, 2)", "1, 2", "abs(1", "abs 1)", "x(1)",
+                "max(1, 2)(3)");
+        for (var e : invalid) {
+            assertThat(Validator.accepts(new StringReader(e)), is(false));
+            var d = IntExpr.validate(e).orElseThrow();
+            try {
+                IntExpr.compile(e);
+            } catch (IllegalArgumentException x) {
+                assertThat(d.getMessage(), is(x.getMessage()));
+                continue;
+            }
+            throw new AssertionError(e);
+        }
+    }
+
+    @Test
+    public void validateConditionals() throws IOException {
+        var valid = List.of("x ? y : z", "x > 0 ? 1 : y ? 2 : 3",
+                "(x ? 1 : 2) + 3", "x ? y ? 1 : 2 : 3", "-x ? (1) : 2 * 3",
+                "max(x ? 1 : 2, y) ? min(1, 2) : 0");
+        for (var e : valid) {
+            assertThat(Validator.accepts(new StringReader(e)), is(true));
+            assertThat(IntExpr.validate(e).isEmpty(), is(true));
+        }
+        var invalid = List.of("x ?", "x ? 1", "x : 1", "? 1 : 2", "x ? : 1",
+                "(1 ? 2) + 3", "1 ? 2 : 3 : 4", "max(1 ? 2, 3)",
+                "(x ? 1 :) 2");
+        for (var e : invalid) {
+            assertThat(Validator.accepts(new StringReader(e)), is(false));
+            var d = IntExpr.validate(e).orElseThrow();
+            try {
+                IntExpr.compile(e);
+            } catch (IllegalArgumentException x) {
+                assertThat(d.getMessage(), is(x.getMessage()));
+                continue;
+            }
+            throw new AssertionError(e);
+        }
+    }
+
+    @Test
+    public void diagnose() {
+        assertThat(IntExpr.diagnose("(x + 1) * -y").isEmpty(), is(true));
+        var exprs = List.of("", "1 +", "(1 + 2", "1 + 2)", "1 2", "1 $ 2",
+                "(1 + ) * $", "1 + (2 3", "2147483648 + (", ")(");
+        for (var e : exprs) {
+            var all = IntExpr.diagnose(e);
+            try {
+                IntExpr.compile(e);
+            } catch (IllegalArgumentException x) {
+                assertThat(all.get(0).getMessage(), is(x.getMessage()));
+                continue;
+            }
+            throw new AssertionError(e);
+        }
+        var all = IntExpr.diagnose("(1 + ) * $ + 2147483648 + (2 3");
+        //                          1234567890123456789012345678901
+        var messages = all.stream()
+                .map(Diagnostic::getMessage)
+                .toList();
+        assertThat(messages, is(List.of(
+                "L1:6: syntax error: \")\"",
+                "L1:10: unknown token: \"$\"",
+                "For input string: \"2147483648\"",
+                "L1:30: syntax error: \"3\"",
+                "L1:27: mismatched parenthesis: \"(\"")));
+        var result = IntExpr.compileAll(List.of("1 +", "(1 2"));
+        var errors = result.getErrors();
+        assertThat(errors.get(0).getDiagnostics().size(), is(1));
+        assertThat(errors.get(1).getDiagnostics().size(), is(2));
+        assertThat(errors.get(1).getMessage(), is("L1:4: syntax error: \"2\""));
+    }
+
+    @Test
+    public void evalContext() {
+        var context = new EvalContext();
+        var small = IntExpr.compile("x + 1", Engine.STACK);
+        var large = IntExpr.compile("1 + (2 + (3 + (4 + (5 + (6 + (7 + (8"
+                + " + (9 + (10 + (11 + (12 + (13 + (14 + (15 + (16 + (17"
+                + " + x))))))))))))))))", Engine.STACK);
+        assertThat(small.eval(context, 1), is(2));
+        assertThat(large.eval(context, 1), is(154));
+        assertThat(small.eval(context, 2), is(3));
+        var tree = IntExpr.compile("x / y");
+        assertThat(tree.eval(context, 7, 2), is(3));
+        try {
+            tree.eval(context, 1, 0);
+        } catch (ArithmeticException e) {
+            assertThat(e.getMessage(), is("L1:3: divided by zero: \"/\""));
+            return;
+        }
+        throw new AssertionError();
+    }
+
+    @Test
+    public void operatorRegistry() {
+        var registry = OperatorRegistry.builder()
+                .binary("->", 3, Math::max)
+                .unary("++", x -> x + 1)
+                .function("abs", Math::abs)
+                .function("sadd", (x, y) -> (int) Math.max(Integer.MIN_VALUE,
+                        Math.min(Integer.MAX_VALUE, (long) x + y)))
+                .function("clamp", 3, a -> Math.max(a[1],
+                        Math.min(a[2], a[0])))
+                .build();
+        assertThat(registry.getPrecedence("->").getAsInt(), is(3));
+        assertThat(registry.getPrecedence("+").getAsInt(), is(3));
+        var s = "clamp(sadd(x, y), 0, z -> 255) + abs(-3) * ++z";
+        for (var engine : Engine.values()) {
+            var options = CompileOptions.builder()
+                    .operators(registry)
+                    .engine(engine)
+                    .build();
+            var expr = IntExpr.compile(s, options);
+            assertThat(expr.getVariables(), is(List.of("x", "y", "z")));
+            assertThat(expr.eval(2147483000, 1000, 7), is(279));
+            assertThat(expr.eval(5, 6, 300), is(914));
+            var group = CompiledExprGroup.of(List.of(expr,
+                    IntExpr.compile("sadd(x, y) -> z", options)));
+            assertThat(group.eval(5, 6, 300), is(new int[] {914, 300}));
+            var r = expr.toReactive(5, 6, 300);
+            assertThat(r.set("y", 7).get(), is(915));
+        }
+        var options = CompileOptions.builder()
+                .operators(registry)
+                .build();
+        var e = ""
+            + "ADD" + LF
+            + " ├ CALL clamp" + LF
+            + " │  ├ LOAD x" + LF
+            + " │  ├ CONST 0" + LF
+            + " │  └ CONST 10" + LF
+            + " └ CONST 1";
+        assertThat(IntExpr.compile("clamp(x, 0, 10) + 1", options).toTree(),
+                is(e));
+        assertThat(compileError("clamp(1, 2)", options),
+                is("L1:1-5: wrong number of arguments: \"clamp\""));
+        assertThat(IntExpr.compile("abs + 1", options).getVariables(),
+                is(List.of("abs")));
+        assertThat(compileError("sadd(1, 2)", CompileOptions.DEFAULT),
+                is("L1:5: syntax error: \"(\""));
+        for (var symbol : List.of("?", ":", ",", "(", "a", "a+", ".", "+++")) {
+            try {
+                OperatorRegistry.builder().unary(symbol, x -> x);
+                throw new AssertionError(symbol);
+            } catch (IllegalArgumentException x) {
+                assertThat(x.getMessage(), is("invalid symbol: " + symbol));
+            }
+        }
+        assertThat(OperatorRegistry.builder()
+                .binary("+=", 12, Math::min)
+                .build()
+                .getPrecedence("+=")
+                .getAsInt(), is(12));
+        try {
+            OperatorRegistry.builder().binary("+", 1, Math::max);
+        } catch (IllegalArgumentException x) {
+            return;
+        }
+        throw new AssertionError();
+    }
+
+    @Test
+    public void throwingFunction() {
+        var registry = OperatorRegistry.builder()
+                .function("check", x -> {
+                    if (x < 0) {
+                        throw new ArithmeticException("negative");
+                    }
+                    return x * 10;
+                })
+                .build();
+        for (var engine : Engine.values()) {
+            var options = CompileOptions.builder()
+                    .operators(registry)
+                    .engine(engine)
+                    .build();
+            var expr = IntExpr.compile("x ? check(y) : y + 1", options);
+            var group = CompiledExprGroup.of(List.of(expr,
+                    IntExpr.compile("check(y) * 0 + y", options)));
+            assertThat(group.eval(0, 3), is(new int[] {4, 3}));
+            assertThat(evalToString(() -> group.eval(0, -1)[0]),
+                    is("negative"));
+            var other = CompiledExprGroup.of(List.of(expr,
+                    IntExpr.compile("y * 2", options)));
+            assertThat(other.eval(0, -1), is(new int[] {0, -2}));
+            var r = expr.toReactive(0, -1);
+            assertThat(r.get(), is(0));
+            assertThat(r.set("y", -2).get(), is(-1));
+            r.set("x", 1);
+            assertThat(evalToString(r::get), is("negative"));
+            assertThat(r.set("y", 3).get(), is(30));
+            assertThat(r.set("x", 0).get(), is(4));
+        }
+    }
+
+    private static String compileError(String s, CompileOptions options) {
+        try {
+            IntExpr.compile(s, options);
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+        throw new AssertionError(s);
+    }
+
+    @Test
+    public void intrinsics() {
+        var s = "clamp(x * 3, -100, 100) + min(x, y) - max(x, 7)"
+                + " + abs(y) * select(x > y, 10, 1000)";
+        for (var engine : Engine.values()) {
+            var expr = IntExpr.compile(s, engine);
+            assertThat(expr.getVariables(), is(List.of("x", "y")));
+            assertThat(expr.eval(50, -3), is(100 - 3 - 50 + 30));
+            assertThat(expr.eval(-50, 4), is(-100 - 50 - 7 + 4000));
+            assertThat(expr.eval(2, 2), is(6 + 2 - 7 + 2000));
+            var group = CompiledExprGroup.of(List.of(expr,
+                    IntExpr.compile("select(x, y, -y) + clamp(y, 0, x)")));
+            assertThat(group.eval(50, -3), is(new int[] {77, -3}));
+            var r = expr.toReactive(50, -3);
+            assertThat(r.set("x", -50).set("y", 4).get(), is(3843));
+        }
+        var e = ""
+            + "CLAMP" + LF
+            + " ├ LOAD x" + LF
+            + " ├ CONST 0" + LF
+            + " └ MIN" + LF
+            + "    ├ LOAD y" + LF
+            + "    └ CONST 255";
+        assertThat(IntExpr.toTree("clamp(x, 0, min(y, 255))"), is(e));
+        assertThat(IntExpr.eval("select(0, 1, 2) + select(-1, 10, 20)"),
+                is(12));
+        assertThat(IntExpr.compile("max + min(max, 1)").eval(5), is(6));
+        assertThat(compileError("clamp(1, 2)", CompileOptions.DEFAULT),
+                is("L1:1-5: wrong number of arguments: \"clamp\""));
+        for (var engine : Engine.values()) {
+            var expr = IntExpr.compile("abs(x)", engine);
+            assertThat(expr.eval(-7), is(7));
+            assertThat(evalToString(() -> expr.eval(Integer.MIN_VALUE)),
+                    is("L1:1-3: overflow: \"abs\""));
+        }
+        // The lookup table is disabled, so that the engines run the
+        // operations lowered to the unchecked ones.
+        var lowered = ""
+            + "0: UNARY r1, r0" + LF
+            + "1: UNARY r2, r0" + LF
+            + "2: MUL r1, r1, r2" + LF
+            + "3: UNARY r2, r0" + LF
+            + "4: MUL r1, r1, r2" + LF
+            + "RET r1";
+        for (var engine : Engine.values()) {
+            var options = CompileOptions.builder()
+                    .range("x", -100, 100)
+                    .tableLimit(0)
+                    .engine(engine)
+                    .build();
+            var expr = IntExpr.compile("abs(x) * abs(x) * abs(x)", options);
+            var code = RegisterMachine.of(expr.getProgram()).toString();
+            assertThat(code.replace("\n", LF), is(lowered));
+            assertThat(expr.eval(-100), is(1_000_000));
+        }
+    }
+
+    @Test
+    public void unsigned() {
+        var s = "ushr(x, 28) + urem(x, y) * 100"
+                + " + ult(x, y) + ule(x, x) * 2 + ugt(x, y) * 4"
+                + " + uge(y, x) * 8";
+        for (var engine : Engine.values()) {
+            var expr = IntExpr.compile(s, engine);
+            assertThat(expr.eval(-1, 10), is(15 + 5 * 100 + 2 + 4));
+            assertThat(expr.eval(7, -1), is(700 + 1 + 2 + 8));
+            var div = IntExpr.compile("udiv(x, y)", engine);
+            assertThat(div.eval(-1, 10), is(429496729));
+            assertThat(div.eval(7, -1), is(0));
+            var pow2 = IntExpr.compile("udiv(x, 16) - urem(x, 16)"
+                    + " + udiv(x, -2147483647 - 1)", engine);
+            assertThat(pow2.eval(-1), is(0x0fffffff - 15 + 1));
+            assertThat(pow2.eval(100), is(6 - 4));
+            assertThat(evalToString(() -> div.eval(1, 0)),
+                    is("L1:1-4: divided by zero: \"udiv\""));
+        }
+        var e = ""
+            + "UREM" + LF
+            + " ├ USHR" + LF
+            + " │  ├ LOAD x" + LF
+            + " │  └ CONST 3" + LF
+            + " └ CONST 64";
+        assertThat(IntExpr.toTree("urem(ushr(x, 3), 64)"), is(e));
+        assertThat(IntExpr.eval("urem(-2147483647 - 1, 3)"), is(2));
+        assertThat(IntExpr.eval("ushr(-8, 0) + ushr(-8, 32)"), is(-16));
+    }
+
+    @Test
+    public void overflowPolicy() {
+        var max = Integer.MAX_VALUE;
+        var min = Integer.MIN_VALUE;
+        for (var engine : Engine.values()) {
+            var wrapping = CompileOptions.builder()
+                    .engine(engine)
+                    .overflow(OverflowPolicy.WRAPPING)
+                    .build();
+            var saturating = CompileOptions.builder()
+                    .engine(engine)
+                    .overflow(OverflowPolicy.SATURATING)
+                    .build();
+            var s = "x * 3 + y";
+            var w = IntExpr.compile(s, wrapping);
+            var t = IntExpr.compile(s, saturating);
+            assertThat(w.eval(max, 1), is(max * 3 + 1));
+            assertThat(t.eval(max, 1), is(max));
+            assertThat(t.eval(min, -1), is(min));
+            assertThat(t.eval(-1_000_000_000, max), is(-1));
+            var g = CompiledExprGroup.of(List.of(w, t));
+            assertThat(g.eval(max, 1), is(new int[] {max * 3 + 1, max}));
+            assertThat(w.toReactive(0, 0).set("x", max).get(), is(max * 3));
+            for (var e : List.of("-x", "abs(x)", "x / -1")) {
+                assertThat(IntExpr.compile(e, wrapping).eval(min), is(min));
+                assertThat(IntExpr.compile(e, saturating).eval(min),
+                        is(max));
+                var c = IntExpr.compile(e, engine);
+                assertThat(evalToString(() -> c.eval(min)).contains(
+                        "overflow"), is(true));
+            }
+            // The constant operands are folded with the same policy.
+            var c = "(2147483647 + 1) / 2 + x";
+            assertThat(IntExpr.compile(c, wrapping).eval(0), is(min / 2));
+            assertThat(IntExpr.compile(c, saturating).eval(0), is(max / 2));
+            for (var options : List.of(wrapping, saturating)) {
+                var div = IntExpr.compile("x / y + x % y", options);
+                assertThat(evalToString(() -> div.eval(1, 0)),
+                        is("L1:3: divided by zero: \"/\""));
+            }
+        }
+        var registry = OperatorRegistry.builder()
+                .function("twice", x -> {
+                    if (x > 1_000_000) {
+                        throw new ArithmeticException("too large");
+                    }
+                    return x * 2;
+                })
+                .build();
+        var options = CompileOptions.builder()
+                .operators(registry)
+                .overflow(OverflowPolicy.WRAPPING)
+                .build();
+        var expr = IntExpr.compile("twice(x) + y", options);
+        assertThat(expr.eval(5, max), is(min + 9));
+        assertThat(IntExpr.toTree("x + y"), is(IntExpr.compile("x + y",
+                options).toTree()));
+    }
+
+    @Test
+    public void recordLayout() {
+        var layout = RecordLayout.builder(8)
+                .order(ByteOrder.LITTLE_ENDIAN)
+                .int32("id", 0)
+                .uint16("port", 4)
+                .int8("delta", 6)
+                .uint8("flags", 7)
+                .build();
+        for (var order : List.of(ByteOrder.LITTLE_ENDIAN,
+                ByteOrder.BIG_ENDIAN)) {
+            var buffer = ByteBuffer.allocateDirect(3 + 3 * 8 + 5)
+                    .order(order);
+            buffer.position(3);
+            var records = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+            records.putInt(100).putShort((short) 443).put((byte) -1)
+                    .put((byte) 0x84);
+            records.putInt(-7).putShort((short) 0xffff).put((byte) 5)
+                    .put((byte) 0);
+            records.putInt(1 << 20).putShort((short) 80).put((byte) -128)
+                    .put((byte) 0xff);
+            for (var engine : Engine.values()) {
+                var expr = IntExpr.compile(
+                        "(flags & 4) != 0 ? port + delta : id", engine)
+                        .bind(layout);
+                assertThat(expr.getVariables(),
+                        is(List.of("flags", "port", "delta", "id")));
+                assertThat(expr.eval(buffer, 3), is(442));
+                assertThat(expr.eval(new EvalContext(), buffer, 11),
+                        is(-7));
+                var results = new int[4];
+                assertThat(expr.evalAll(buffer, results), is(3));
+                assertThat(results, is(new int[] {442, -7, -48, 0}));
+                assertThat(buffer.position(), is(3));
+                assertThat(IntExpr.compile("port * 0 + flags").bind(layout)
+                        .eval(buffer, 19), is(0xff));
+                try {
+                    expr.eval(buffer, 29);
+                    throw new AssertionError();
+                } catch (IndexOutOfBoundsException e) {
+                    assertThat(e.getMessage(),
+                            is("the record is out of the buffer: 29"));
+                }
+            }
+        }
+        try {
+            IntExpr.compile("id + size").bind(layout);
+            throw new AssertionError();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(),
+                    is("the layout has no field of the variable: size"));
+        }
+        try {
+            RecordLayout.builder(8).int32("x", 6);
+            throw new AssertionError();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(),
+                    is("the field x is out of the record: 6"));
+        }
+    }
+
+    @Test
+    public void filter() {
+        var x = new int[] {5, 20, 11, 30, 0, 12, 40, 9};
+        var flags = new int[] {4, 4, 0, 7, 4, 12, 3, 4};
+        var columns = new int[][] {x, flags};
+        for (var engine : Engine.values()) {
+            var f = IntExpr.compile("x > 10 && (flags & 4) != 0", engine)
+                    .toFilter();
+            assertThat(f.getVariables(), is(List.of("x", "flags")));
+            var selection = new int[8];
+            var count = f.select(columns, 8, selection);
+            assertThat(count, is(3));
+            assertThat(Arrays.copyOf(selection, count),
+                    is(new int[] {1, 3, 5}));
+            var bits = new long[] {-1L << 8};
+            assertThat(f.selectBits(columns, 8, bits), is(3));
+            assertThat(bits[0], is((-1L << 8) | 0b101010));
+
+            var g = IntExpr.compile("100 / (x - 21) < 0", engine).toFilter();
+            var chained = new int[][] {x};
+            assertThat(g.refine(chained, selection, count), is(2));
+            assertThat(Arrays.copyOf(selection, 2), is(new int[] {1, 5}));
+            assertThat(g.refineBits(chained, 8, bits), is(2));
+            assertThat(bits[0], is((-1L << 8) | 0b100010));
+            var z = IntExpr.compile("100 / (x - 20) < 0", engine).toFilter();
+            assertThat(evalToString(() -> z.select(chained, 8, selection)),
+                    is("L1:5: divided by zero: \"/\""));
+
+            var h = IntExpr.compile("x != 20 && 100 / (x - 20) < 0", engine)
+                    .toFilter();
+            assertThat(h.select(chained, 8, selection), is(5));
+        }
+        var f = IntExpr.compile("x > 0").toFilter();
+        try {
+            f.select(columns, 8, new int[8]);
+            throw new AssertionError();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(),
+                    is("the number of columns must be 1 for [x]: 2"));
+        }
+    }
+
+    @Test
+    public void bitSlicedFilter() {
+        var rows = 200;
+        var x = new int[rows];
+        var y = new int[rows];
+        for (var k = 0; k < rows; ++k) {
+            x[k] = k % 13 - 6;
+            y[k] = k % 7 - 3;
+        }
+        var columns = new int[][] {x, y};
+        var s = "!(x > 3) || y == 2 && (x + y) > 0";
+        for (var engine : Engine.values()) {
+            var expr = IntExpr.compile(s, engine);
+            var f = expr.toFilter();
+            var selection = new int[rows];
+            var count = f.select(columns, rows, selection);
+            var bits = new long[4];
+            bits[3] = -1L;
+            assertThat(f.selectBits(columns, rows, bits), is(count));
+            var k = 0;
+            for (var row = 0; row < rows; ++row) {
+                var b = (bits[row / 64] >>> (row % 64) & 1) != 0;
+                var e = expr.eval(x[row], y[row]) != 0;
+                assertThat(b, is(e));
+                if (e) {
+                    assertThat(selection[k], is(row));
+                    ++k;
+                }
+            }
+            assertThat(k, is(count));
+            assertThat(bits[3] >>> 8, is(-1L >>> 8));
+
+            // The division by zero with the row that the first operand
+            // rejects makes the word evaluated row by row.
+            var g = IntExpr.compile("y != 0 && (x / y > 1 || x < -5)", engine)
+                    .toFilter();
+            assertThat(g.getVariables(), is(List.of("y", "x")));
+            var yx = new int[][] {y, x};
+            var n = g.select(yx, rows, selection);
+            assertThat(n, is(50));
+            var all = new long[] {-1L, -1L, -1L, -1L};
+            assertThat(g.refineBits(yx, rows, all), is(n));
+            for (var i = 0; i < n; ++i) {
+                var row = selection[i];
+                assertThat(y[row] != 0
+                        && (x[row] / y[row] > 1 || x[row] < -5), is(true));
+                assertThat(all[row / 64] >>> (row % 64) & 1, is(1L));
+            }
+            var z = IntExpr.compile("x / y > 1 || x < -5", engine)
+                    .toFilter();
+            assertThat(evalToString(() -> z.select(columns, rows, selection)),
+                    is("L1:3: divided by zero: \"/\""));
+        }
+
+        // The function takes more arguments than the rows of a word.
+        var arity = 100;
+        var registry = OperatorRegistry.builder()
+                .function("sum", arity, a -> Arrays.stream(a).sum())
+                .build();
+        var options = CompileOptions.builder()
+                .operators(registry)
+                .build();
+        var args = String.join(", ", Collections.nCopies(arity, "x"));
+        var f = IntExpr.compile("sum(" + args + ") > 0 && y > 0", options)
+                .toFilter();
+        var selection = new int[rows];
+        var count = f.select(columns, rows, selection);
+        for (var k = 0; k < count; ++k) {
+            var row = selection[k];
+            assertThat(x[row] > 0 && y[row] > 0, is(true));
+        }
+        assertThat(count, is((int) IntStream.range(0, rows)
+                .filter(row -> x[row] > 0 && y[row] > 0)
+                .count()));
+    }
+
+    @Test
+    public void aggregate() {
+        var rows = 10_000;
+        var x = new int[rows];
+        var y = new int[rows];
+        var buffer = ByteBuffer.allocate(rows * 8);
+        var sum = 0L;
+        var nonZero = 0;
+        for (var k = 0; k < rows; ++k) {
+            x[k] = k % 101 - 50;
+            y[k] = k % 7;
+            buffer.putInt(x[k]).putInt(y[k]);
+            sum += x[k] * y[k];
+            nonZero += (x[k] * y[k] != 0) ? 1 : 0;
+        }
+        buffer.flip();
+        var columns = new int[][] {x, y};
+        for (var engine : Engine.values()) {
+            var expr = IntExpr.compile("x * y", engine);
+            var a = expr.toAggregator();
+            var all = a.aggregate(columns, rows);
+            assertThat(all.getCount(), is((long) rows));
+            assertThat(all.getNonZeroCount(), is((long) nonZero));
+            assertThat(all.getSum(), is(sum));
+            assertThat(all.getMin(), is(-300));
+            assertThat(all.getMax(), is(300));
+            assertThat(a.parallelAggregate(columns, rows).toString(),
+                    is(all.toString()));
+
+            var selection = new int[rows];
+            var count = IntExpr.compile("x > 45 && y == 6", engine)
+                    .toFilter()
+                    .select(columns, rows, selection);
+            var selected = a.aggregate(columns, selection, count);
+            assertThat(selected.getCount(), is((long) count));
+            assertThat(selected.getMin(), is(276));
+            assertThat(selected.getMax(), is(300));
+            var half = a.aggregate(columns, rows / 2);
+            var none = a.aggregate(columns, selection, 0);
+            assertThat(none.toString(), is(Aggregate.EMPTY.toString()));
+            assertThat(half.merge(none).getSum(), is(half.getSum()));
+
+            var layout = RecordLayout.builder(8)
+                    .int32("x", 0)
+                    .int32("y", 4)
+                    .build();
+            var r = expr.bind(layout);
+            assertThat(r.aggregate(buffer).toString(), is(all.toString()));
+            assertThat(r.parallelAggregate(buffer).toString(),
+                    is(all.toString()));
+            assertThat(buffer.position(), is(0));
+
+            var z = IntExpr.compile("x / y", engine).toAggregator();
+            assertThat(evalToString(() -> z.parallelAggregate(columns, rows)
+                            .getMin()),
+                    is("L1:3: divided by zero: \"/\""));
+        }
+    }
+
+    @Test
+    public void ruleSet() {
+        var sources = List.of(
+                "x > 10 && y == 3",
+                "x >= -5 && x < 0",
+                "y != 0 && 100 / y > 20",
+                "x + y > 100",
+                "z",
+                "x > 20 && x < 10");
+        for (var engine : Engine.values()) {
+            var rules = new ArrayList<CompiledExpr>();
+            for (var s : sources) {
+                rules.add(IntExpr.compile(s, engine));
+            }
+            var set = RuleSet.of(rules);
+            assertThat(set.getVariables(), is(List.of("x", "y", "z")));
+            assertThat(set.getIndexedCount(), is(5));
+            var m = set.newMatcher();
+            assertThat(m.match(11, 3, 0), is(new int[] {0, 2}));
+            // The division is not evaluated because y != 0 does not hold.
+            assertThat(m.match(-3, 0, 1), is(new int[] {1, 4}));
+            assertThat(m.match(90, 20, 5), is(new int[] {3, 4}));
+            assertThat(set.match(11, 3, 0), is(new int[] {0, 2}));
+        }
+        var set = RuleSet.of(List.of(IntExpr.compile("x / y > 1")));
+        assertThat(set.getIndexedCount(), is(0));
+        assertThat(evalToString(() -> set.match(1, 0).length),
+                is("L1:3: divided by zero: \"/\""));
+        try {
+            set.match(1);
+            throw new AssertionError();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(),
+                    is("the number of values must be 2 for [x, y]: 1"));
+        }
+    }
+
+    @Test
+    public void specialize() {
+        for (var engine : Engine.values()) {
+            var expr = IntExpr.compile("a * x + b", engine);
+            var linear = expr.specialize(Map.of("a", 1, "b", 0, "c", 9));
+            assertThat(linear.getVariables(), is(List.of("x")));
+            assertThat(linear.toTree(), is("LOAD x"));
+            assertThat(linear.eval(42), is(42));
+            assertThat(expr.specialize(Map.of("a", 1, "b", 0)) == linear,
+                    is(true));
+            assertThat(expr.specialize(Map.of("c", 1)) == expr, is(true));
+            var cond = IntExpr.compile("m ? x * 0 + y : 100 / (x - y)", engine);
+            var then = cond.specialize(Map.of("m", 1));
+            assertThat(then.getVariables(), is(List.of("y")));
+            assertThat(then.toTree(), is("LOAD y"));
+            var otherwise = cond.specialize(Map.of("m", 0, "y", 4));
+            assertThat(otherwise.getVariables(), is(List.of("x")));
+            assertThat(otherwise.eval(9), is(20));
+            assertThat(evalToString(() -> otherwise.eval(4)),
+                    is("L1:21: divided by zero: \"/\""));
+            // The division is kept because it throws with the constants.
+            var zero = IntExpr.compile("x * (1 / y)", engine)
+                    .specialize(Map.of("y", 0));
+            assertThat(evalToString(() -> zero.eval(0)),
+                    is("L1:8: divided by zero: \"/\""));
+        }
+        var options = CompileOptions.builder()
+                .range("x", 0, 10)
+                .build();
+        var bounded = IntExpr.compile("x + y", options);
+        assertThat(bounded.specialize(Map.of("x", 3)).eval(4), is(7));
+        try {
+            bounded.specialize(Map.of("x", 11));
+            throw new AssertionError();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(),
+                    is("the value of x must be in [0, 10]: 11"));
+        }
+    }
+
+    @Test
+    public void lookupTable() {
+        var s = "c < 8 ? 100 / (c - 5) : (c * c) % 7 + k";
+        for (var engine : Engine.values()) {
+            var builder = CompileOptions.builder()
+                    .engine(engine)
+                    .range("c", 0, 255)
+                    .range("k", -2, 2);
+            var table = IntExpr.compile(s, builder.build());
+            var plain = IntExpr.compile(s, builder.tableLimit(0).build());
+            var context = new EvalContext();
+            for (var c = 0; c <= 255; ++c) {
+                for (var k = -2; k <= 2; ++k) {
+                    if (c == 5) {
+                        continue;
+                    }
+                    assertThat(table.eval(c, k), is(plain.eval(c, k)));
+                    assertThat(table.eval(context, c, k),
+                            is(plain.eval(c, k)));
+                }
+            }
+            assertThat(evalToString(() -> table.eval(5, 0)),
+                    is("L1:13: divided by zero: \"/\""));
+            try {
+                table.eval(256, 0);
+                throw new AssertionError();
+            } catch (IllegalArgumentException e) {
+                assertThat(e.getMessage(),
+                        is("the value of c must be in [0, 255]: 256"));
+            }
+        }
+        // The registered function runs for each entry of the table at
+        // compile time, and never while evaluating the expression.
+        var calls = new int[1];
+        var registry = OperatorRegistry.builder()
+                .function("twice", x -> {
+                    ++calls[0];
+                    return x * 2;
+                })
+                .build();
+        var builder = CompileOptions.builder()
+                .operators(registry)
+                .range("x", 0, 9);
+        var table = IntExpr.compile("twice(x) + 1", builder.build());
+        assertThat(calls[0], is(10));
+        assertThat(table.eval(4), is(9));
+        assertThat(calls[0], is(10));
+        var plain = IntExpr.compile("twice(x) + 1",
+                builder.tableLimit(0).build());
+        assertThat(calls[0], is(10));
+        assertThat(plain.eval(4), is(9));
+        assertThat(calls[0], is(11));
+        try {
+            CompileOptions.builder().tableLimit(-1);
+            throw new AssertionError();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(),
+                    is("the table limit must not be negative: -1"));
+        }
+    }
+
+    @Test
+    public void memoize() {
+        var expr = IntExpr.compile("tier * 100 + region / product");
+        var memo = expr.memoize(2);
+        assertThat(memo.getVariables(),
+                is(List.of("tier", "region", "product")));
+        assertThat(memo.eval(1, 6, 3), is(102));
+        assertThat(memo.eval(1, 6, 3), is(102));
+        assertThat(memo.eval(2, 6, 3), is(202));
+        // The reference bits of both values are set, so the CLOCK hand
+        // clears them and evicts the first value.
+        assertThat(memo.eval(1, 6, 3), is(102));
+        assertThat(memo.eval(2, 6, 3), is(202));
+        assertThat(memo.eval(3, 0, 1), is(300));
+        assertThat(memo.size(), is(2));
+        assertThat(memo.getEvictionCount(), is(1L));
+        assertThat(memo.eval(2, 6, 3), is(202));
+        assertThat(memo.eval(1, 6, 3), is(102));
+        assertThat(memo.getHitCount(), is(4L));
+        assertThat(memo.getMissCount(), is(4L));
+        assertThat(memo.getHitRatio(), is(0.5));
+        assertThat(evalToString(() -> memo.eval(1, 1, 0)),
+                is("L1:21: divided by zero: \"/\""));
+        assertThat(memo.getMissCount(), is(4L));
+        try {
+            memo.eval(1, 2);
+            throw new AssertionError();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(), is("the number of values must be 3 "
+                    + "for [tier, region, product]: 2"));
+        }
+        memo.clear();
+        assertThat(memo.size(), is(0));
+        assertThat(memo.getHitRatio(), is(0.0));
+        try {
+            expr.memoize(0);
+            throw new AssertionError();
+        } catch (IllegalArgumentException e) {
+            assertThat(e.getMessage(),
+                    is("the capacity must be in [1, 536870912]: 0"));
+        }
+    }
+
+    @Test
+    public void conditional() {
+        var s = "x > 0 ? 100 / x : y ? 1 : (x || y ? 2 : 3) + 4";
+        for (var engine : Engine.values()) {
+            var expr = IntExpr.compile(s, engine);
+            assertThat(expr.eval(5, 0), is(20));
+            assertThat(expr.eval(0, 9), is(1));
+            assertThat(expr.eval(-1, 0), is(6));
+            assertThat(expr.eval(0, 0), is(7));
+            var lazy = IntExpr.compile("x ? 1 / 0 : 2", engine);
+            assertThat(lazy.eval(0), is(2));
+            assertThat(evalToString(() -> lazy.eval(1)),
+                    is("L1:7: divided by zero: \"/\""));
+            var group = CompiledExprGroup.of(List.of(expr, lazy));
+            assertThat(group.eval(0, 0), is(new int[] {7, 2}));
+            var r = IntExpr.compile("x ? 100 / y : 0", engine)
+                    .toReactive(0, 0);
+            assertThat(r.get(), is(0));
+            assertThat(r.set("x", 1).set("y", 4).get(), is(25));
+            assertThat(r.set("x", 0).set("y", 0).get(), is(0));
+        }
+        var e = ""
+            + "ADD" + LF
+            + " ├ COND" + LF
+            + " │  ├ LOAD x" + LF
+            + " │  ├ LOAD y" + LF
+            + " │  └ CONST 1" + LF
+            + " └ CONST 2";
+        assertThat(IntExpr.toTree("(x ? y : 1) + 2"), is(e));
+        assertThat(IntExpr.eval("0 ? 1 : 0 ? 2 : 3"), is(3));
+        assertThat(IntExpr.eval("1 || 0 ? 4 : 5"), is(4));
+        assertThat(compileError("(1 ? 2) + 3", CompileOptions.DEFAULT),
+                is("L1:4: colon is missing: \"?\""));
+        assertThat(compileError("1 ? 2 : 3 : 4", CompileOptions.DEFAULT),
+                is("L1:11: syntax error: \":\""));
+    }
+
+    @Test
+    public void virtualThreads() throws Exception {
+        var tasks = 10_000;
+        var count = 2_000;
+        var processors = Runtime.getRuntime().availableProcessors();
+        for (var engine : Engine.values()) {
+            var expr = IntExpr.compile("(x + 1) * y - x / 3", engine);
+            // Warm up, and then measure the platform threads as many as the
+            // processors.
+            runAll(Executors.newFixedThreadPool(processors), expr, tasks / 10,
+                    count);
+            var start = System.nanoTime();
+            runAll(Executors.newFixedThreadPool(processors), expr, tasks,
+                    count);
+            var platform = System.nanoTime() - start;
+            long virtual;
+            var file = Files.createTempFile("virtualThreads", ".jfr");
+            try (var recording = new Recording()) {
+                recording.enable(PINNED).withThreshold(Duration.ZERO);
+                recording.start();
+                start = System.nanoTime();
+                runAll(Executors.newVirtualThreadPerTaskExecutor(), expr,
+                        tasks, count);
+                virtual = System.nanoTime() - start;
+                recording.stop();
+                recording.dump(file);
+                // No virtual thread is pinned to its carrier thread.
+                var pinned = RecordingFile.readAllEvents(file).stream()
+                        .filter(e -> e.getEventType().getName().equals(PINNED))
+                        .count();
+                assertThat(pinned, is(0L));
+            } finally {
+                Files.delete(file);
+            }
+            // The throughput with the virtual threads must scale as well as
+            // that with the platform threads. The generous factor absorbs
+            // the noise of a loaded machine, but not the contention that
+            // serializes the evaluations.
+            assertThat(virtual < platform * 4, is(true));
+        }
+    }
+
+    private static void runAll(ExecutorService executor, CompiledExpr expr,
+            int tasks, int count) throws Exception {
+        var futures = new ArrayList<Future<Boolean>>(tasks);
+        try (executor) {
+            for (var k = 0; k < tasks; ++k) {
+                var base = k;
+                Callable<Boolean> task = () -> evalAll(expr, base, count)
+                        == expected(base, count);
+                futures.add(executor.submit(task));
+            }
+        }
+        for (var f : futures) {
+            assertThat(f.get(), is(true));
+        }
+    }
+
+    private static long evalAll(CompiledExpr expr, int base, int count) {
+        var context = new EvalContext();
+        var values = new int[2];
+        var sum = 0L;
+        for (var k = 0; k < count; ++k) {
+            values[0] = (base + k) & 1023;
+            values[1] = k & 255;
+            sum += expr.eval(context, values);
+        }
+        return sum;
+    }
+
+    private static long expected(int base, int count) {
+        var sum = 0L;
+        for (var k = 0; k < count; ++k) {
+            var x = (base + k) & 1023;
+            var y = k & 255;
+            sum += (x + 1) * y - x / 3;
+        }
+        return sum;
+    }
 }